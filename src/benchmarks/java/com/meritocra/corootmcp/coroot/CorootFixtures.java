@@ -0,0 +1,340 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Generates Coroot API payloads shaped like the responses of a real Coroot
+ * instance, scaled by the number of applications in the project.
+ *
+ * <p>
+ * Payloads include the chart and context data Coroot sends alongside the
+ * fields the client actually reads, so decoding cost is representative. The
+ * output is deterministic for a given size and seed.
+ * </p>
+ */
+public final class CorootFixtures {
+
+	private static final String[] INDICATORS = { "errors", "latency", "upstreams", "instances", "restarts", "cpu",
+			"memory", "disk_io_load", "disk_usage", "network", "dns", "logs" };
+
+	private static final String[] STATUSES = { "ok", "ok", "ok", "ok", "warning", "critical", "unknown" };
+
+	private static final String[] SEVERITIES = { "info", "warning", "critical" };
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final int applications;
+
+	private final long seed;
+
+	private final Instant now = Instant.parse("2025-11-17T12:00:00Z");
+
+	public CorootFixtures(int applications) {
+		this(applications, 42L);
+	}
+
+	public CorootFixtures(int applications, long seed) {
+		this.applications = Math.max(1, applications);
+		this.seed = seed;
+	}
+
+	public int getApplications() {
+		return applications;
+	}
+
+	public int getNodes() {
+		return Math.max(1, applications / 10);
+	}
+
+	public static String applicationName(int index) {
+		return "app-" + index;
+	}
+
+	public byte[] user(String projectId) {
+		ObjectNode root = objectMapper.createObjectNode();
+		root.put("id", 1);
+		root.put("email", "admin@example.com");
+		ArrayNode projects = root.putArray("projects");
+		projects.addObject().put("id", projectId).put("name", "production");
+		projects.addObject().put("id", projectId + "-staging").put("name", "staging");
+		return bytes(root);
+	}
+
+	public byte[] applicationsOverview() {
+		Random random = new Random(seed);
+		ObjectNode root = objectMapper.createObjectNode();
+		root.putObject("context").put("status", "ok").put("message", "");
+		ArrayNode apps = root.putArray("applications");
+		for (int i = 0; i < applications; i++) {
+			ObjectNode app = apps.addObject();
+			app.putObject("id")
+				.put("cluster_id", "cluster-" + (i % 3))
+				.put("ns", "ns-" + (i % 20))
+				.put("kind", "Deployment")
+				.put("name", applicationName(i));
+			app.put("cluster", "cluster-" + (i % 3));
+			app.put("category", i % 7 == 0 ? "monitoring" : "application");
+			app.put("status", pick(random, STATUSES));
+			for (String indicator : INDICATORS) {
+				ObjectNode value = app.putObject(indicator);
+				value.put("status", pick(random, STATUSES));
+				value.put("value", indicatorValue(random, indicator));
+			}
+			ArrayNode chart = app.putObject("chart").putArray("data");
+			for (int j = 0; j < 30; j++) {
+				chart.add(Math.round(random.nextDouble() * 10_000) / 100.0);
+			}
+		}
+		return bytes(root);
+	}
+
+	public byte[] nodesOverview() {
+		Random random = new Random(seed + 1);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode nodes = root.putArray("nodes");
+		for (int i = 0; i < getNodes(); i++) {
+			ObjectNode node = nodes.addObject();
+			node.put("name", "node-" + i);
+			node.put("cluster", "cluster-" + (i % 3));
+			node.put("status", pick(random, STATUSES));
+			node.put("applications", applications / getNodes());
+			node.put("instances", applications / getNodes() + random.nextInt(5));
+			node.put("uptime", random.nextInt(90) + "d");
+			node.putArray("private_ips").add("10.0." + (i / 250) + "." + (i % 250));
+			node.putArray("public_ips");
+			node.put("cpu", Math.round(random.nextDouble() * 10_000) / 100.0);
+			node.put("memory", Math.round(random.nextDouble() * 10_000) / 100.0);
+			node.put("network", Math.round(random.nextDouble() * 10_000) / 100.0);
+			node.put("disk", Math.round(random.nextDouble() * 10_000) / 100.0);
+		}
+		return bytes(root);
+	}
+
+	public byte[] risksOverview() {
+		Random random = new Random(seed + 2);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode risks = root.putArray("risks");
+		for (int i = 0; i < applications / 5 + 1; i++) {
+			ObjectNode risk = risks.addObject();
+			risk.putObject("application_id").put("name", applicationName(i * 5)).put("ns", "ns-" + (i % 20));
+			risk.put("cluster", "cluster-" + (i % 3));
+			risk.put("application_category", "application");
+			risk.put("severity", pick(random, SEVERITIES));
+			risk.put("type", i % 2 == 0 ? "exposure" : "availability");
+			ObjectNode exposure = risk.putObject("exposure");
+			exposure.putArray("ips").add("203.0.113." + (i % 250));
+			exposure.putArray("ports").add(443).add(80);
+			exposure.putArray("node_port_services");
+			exposure.putArray("load_balancer_services").add("lb-" + i);
+			risk.putObject("availability").put("description", "single instance in a single availability zone");
+		}
+		return bytes(root);
+	}
+
+	public byte[] deploymentsOverview() {
+		Random random = new Random(seed + 3);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode deployments = root.putArray("deployments");
+		for (int i = 0; i < applications / 4 + 1; i++) {
+			ObjectNode deployment = deployments.addObject();
+			deployment.putObject("application_id")
+				.put("name", applicationName(i * 4))
+				.put("cluster_id", "cluster-" + (i % 3));
+			deployment.put("version", "v1." + random.nextInt(40) + "." + random.nextInt(10));
+			deployment.put("status", random.nextInt(10) == 0 ? "degraded" : "ok");
+			deployment.put("age", random.nextInt(72) + "h");
+			ArrayNode events = deployment.putArray("events");
+			events.addObject().put("status", "ok").put("message", "rollout completed");
+			if (random.nextBoolean()) {
+				events.addObject().put("status", "warning").put("message", "latency increased by 12%");
+			}
+		}
+		return bytes(root);
+	}
+
+	public byte[] incidents(int count) {
+		Random random = new Random(seed + 4);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode incidents = root.putArray("incidents");
+		for (int i = 0; i < count; i++) {
+			incidentSummary(incidents.addObject(), "inc-" + i, random, i);
+		}
+		return bytes(root);
+	}
+
+	public byte[] incident(String incidentId) {
+		Random random = new Random(seed + 5);
+		ObjectNode root = objectMapper.createObjectNode();
+		incidentSummary(root.putObject("summary"), incidentId, random, 0);
+		root.put("suspectedRootCause", "Connection pool exhaustion in " + applicationName(0));
+		ArrayNode affected = root.putArray("affectedServices");
+		for (int i = 0; i < Math.min(10, applications); i++) {
+			affected.add(applicationName(i));
+		}
+		ObjectNode metrics = root.putObject("metricsSnapshot");
+		metrics.put("errorRate", 0.12);
+		metrics.put("p99LatencyMs", 840);
+		metrics.put("saturation", 0.93);
+		ArrayNode timeline = root.putArray("timeline");
+		for (int i = 0; i < 20; i++) {
+			timeline.add(now.minus(20 - i, ChronoUnit.MINUTES) + " event " + i);
+		}
+		root.put("lastUpdatedAt", now.toString());
+		return bytes(root);
+	}
+
+	public byte[] serviceHealth() {
+		ObjectNode root = objectMapper.createObjectNode();
+		ObjectNode indicators = root.putObject("indicators");
+		indicators.put("availability", 99.2);
+		indicators.put("latencyP99Ms", 310);
+		indicators.put("errorRate", 0.008);
+		root.put("observedAt", now.toString());
+		return bytes(root);
+	}
+
+	public byte[] inspections() {
+		Random random = new Random(seed + 6);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode checks = root.putArray("checks");
+		for (String id : new String[] { "SLOAvailability", "SLOLatency", "CPUNode", "MemoryOOM" }) {
+			ObjectNode check = checks.addObject();
+			check.put("id", id);
+			check.put("title", id);
+			check.put("global_threshold", 99.0);
+			check.put("project_threshold", 99.5);
+			check.put("project_details", "project-wide objective");
+			ArrayNode overrides = check.putArray("application_overrides");
+			for (int i = 0; i < applications / 10; i++) {
+				ObjectNode override = overrides.addObject();
+				override.putObject("id").put("name", applicationName(i * 10)).put("ns", "ns-" + (i % 20));
+				override.put("threshold", 95 + random.nextInt(5));
+				override.put("details", "override " + i);
+			}
+		}
+		return bytes(root);
+	}
+
+	public byte[] tracesOverview() {
+		Random random = new Random(seed + 7);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode services = root.putArray("services");
+		for (int i = 0; i < Math.min(applications, 500); i++) {
+			services.addObject()
+				.put("name", applicationName(i))
+				.put("requests", random.nextInt(10_000))
+				.put("errors", random.nextInt(50))
+				.put("p99", random.nextInt(2_000));
+		}
+		return bytes(root);
+	}
+
+	public byte[] logsOverview() {
+		Random random = new Random(seed + 8);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode patterns = root.putArray("patterns");
+		for (int i = 0; i < Math.min(applications, 500); i++) {
+			patterns.addObject()
+				.put("application", applicationName(i))
+				.put("severity", pick(random, SEVERITIES))
+				.put("pattern", "request * failed with status *")
+				.put("count", random.nextInt(5_000));
+		}
+		return bytes(root);
+	}
+
+	public byte[] costsOverview() {
+		Random random = new Random(seed + 9);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode nodes = root.putArray("nodes");
+		for (int i = 0; i < getNodes(); i++) {
+			nodes.addObject()
+				.put("name", "node-" + i)
+				.put("costPerHour", Math.round(random.nextDouble() * 100) / 100.0)
+				.put("idleCostPerHour", Math.round(random.nextDouble() * 50) / 100.0);
+		}
+		return bytes(root);
+	}
+
+	public byte[] applicationTracing(String applicationId, int spans) {
+		Random random = new Random(seed + 10);
+		ObjectNode root = objectMapper.createObjectNode();
+		ArrayNode array = root.putArray("spans");
+		long start = now.toEpochMilli();
+		for (int i = 0; i < spans; i++) {
+			String traceId = Long.toHexString(seed * 31 + i / 8);
+			array.addObject()
+				.put("service", i % 8 == 0 ? applicationId : applicationName(random.nextInt(applications)))
+				.put("trace_id", traceId)
+				.put("id", Long.toHexString(i + 1L))
+				.put("parent_id", i % 8 == 0 ? "" : Long.toHexString(i - (i % 8) + 1L))
+				.put("name", i % 8 == 0 ? "GET /api/orders" : "SELECT orders")
+				.put("timestamp", start - (spans - i) * 10L)
+				.put("duration", Math.round(random.nextDouble() * 50_000) / 100.0)
+				.put("status", random.nextInt(20) == 0 ? "error" : "ok")
+				.put("client", applicationName(random.nextInt(applications)));
+		}
+		return bytes(root);
+	}
+
+	public byte[] applicationLogs(int entries) {
+		Random random = new Random(seed + 11);
+		ObjectNode root = objectMapper.createObjectNode();
+		root.putObject("summary").put("total", entries).put("errors", entries / 10);
+		ArrayNode array = root.putArray("entries");
+		long start = now.toEpochMilli();
+		for (int i = 0; i < entries; i++) {
+			ObjectNode entry = array.addObject()
+				.put("timestamp", start - (entries - i) * 100L)
+				.put("severity", i % 10 == 0 ? "error" : "info")
+				.put("message", "request " + random.nextInt(100_000) + " from 10.0.0." + random.nextInt(250)
+						+ " completed in " + random.nextInt(900) + "ms")
+				.put("trace_id", Long.toHexString(random.nextLong()));
+			entry.putObject("attributes").put("pod", "pod-" + random.nextInt(20)).put("container", "app");
+		}
+		return bytes(root);
+	}
+
+	private void incidentSummary(ObjectNode node, String id, Random random, int index) {
+		Instant startedAt = now.minus(index * 7L + 5, ChronoUnit.MINUTES);
+		node.put("id", id);
+		node.put("title", "High latency on " + applicationName(index % applications));
+		node.put("severity", pick(random, SEVERITIES));
+		node.put("service", applicationName(index % applications));
+		node.put("startedAt", startedAt.toString());
+		if (index % 3 != 0) {
+			node.put("endedAt", startedAt.plus(4, ChronoUnit.MINUTES).toString());
+		}
+	}
+
+	private static String indicatorValue(Random random, String indicator) {
+		return switch (indicator) {
+			case "errors" -> Math.round(random.nextDouble() * 500) / 100.0 + "%";
+			case "latency" -> random.nextInt(900) + "ms";
+			case "cpu", "memory", "disk_usage" -> random.nextInt(100) + "%";
+			case "instances" -> (1 + random.nextInt(5)) + "/" + (1 + random.nextInt(5));
+			default -> Integer.toString(random.nextInt(100));
+		};
+	}
+
+	private static String pick(Random random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private byte[] bytes(ObjectNode root) {
+		try {
+			return objectMapper.writeValueAsBytes(root);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to serialize fixture", ex);
+		}
+	}
+
+}
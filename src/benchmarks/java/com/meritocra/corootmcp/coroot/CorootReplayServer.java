@@ -0,0 +1,319 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded stand-in for the Coroot API that serves every path used by
+ * {@link HttpCorootClient}.
+ *
+ * <p>
+ * Responses come from {@link CorootFixtures}, sized by the number of
+ * applications, or from recorded payloads in a directory ({@code <endpoint>.json},
+ * e.g. {@code applications.json}). Each response is delayed by a log-normal
+ * latency with the configured median and p99, and a configurable fraction of
+ * requests fail with {@code 503}. With {@code --capacity}, at most that many
+ * requests are served at a time and the rest queue, so latency climbs under
+ * overload the way it does when ClickHouse is saturated.
+ * </p>
+ *
+ * <p>
+ * Run standalone with
+ * {@code java -cp ... com.meritocra.corootmcp.coroot.CorootReplayServer --port=9090 --applications=1000}.
+ * </p>
+ */
+public final class CorootReplayServer implements AutoCloseable {
+
+	private static final Pattern PROJECT_PATH = Pattern.compile("^/api/project/([^/]+)/(.+)$");
+
+	private static final Pattern HEALTH_PATH = Pattern.compile("^/api/v1/projects/([^/]+)/services/([^/]+)/health$");
+
+	private static final byte[] ERROR_BODY = "{\"error\":\"replay: injected failure\"}"
+		.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] NOT_FOUND_BODY = "{\"error\":\"replay: unknown path\"}"
+		.getBytes(StandardCharsets.UTF_8);
+
+	private final Options options;
+
+	private final Map<String, byte[]> payloads;
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	// Null when the capacity is unlimited.
+	private final Semaphore capacity;
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private CorootReplayServer(Options options, Map<String, byte[]> payloads, HttpServer server,
+			ExecutorService executor) {
+		this.options = options;
+		this.payloads = payloads;
+		this.server = server;
+		this.executor = executor;
+		this.capacity = options.capacity > 0 ? new Semaphore(options.capacity, true) : null;
+	}
+
+	public static CorootReplayServer start(Options options) throws IOException {
+		Map<String, byte[]> payloads = payloads(options);
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+		ExecutorService executor = Executors.newThreadPerTaskExecutor(
+				Thread.ofVirtual().name("coroot-replay-", 0).factory());
+		server.setExecutor(executor);
+		CorootReplayServer replay = new CorootReplayServer(options, payloads, server, executor);
+		server.createContext("/", replay::handle);
+		server.start();
+		return replay;
+	}
+
+	public URI getUri() {
+		return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+	}
+
+	public long getRequests() {
+		return requests.get();
+	}
+
+	public long getFailures() {
+		return failures.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			requests.incrementAndGet();
+			String endpoint = endpoint(exchange.getRequestURI().getPath());
+
+			serve();
+
+			if (endpoint == null) {
+				send(exchange, 404, NOT_FOUND_BODY);
+				return;
+			}
+			if (options.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < options.errorRate) {
+				failures.incrementAndGet();
+				send(exchange, 503, ERROR_BODY);
+				return;
+			}
+			send(exchange, 200, payloads.get(endpoint));
+		}
+	}
+
+	/**
+	 * Maps a request path onto the payload key that answers it, or {@code null}
+	 * for paths the Coroot client never calls.
+	 */
+	static String endpoint(String path) {
+		if ("/api/user".equals(path)) {
+			return "user";
+		}
+		if (HEALTH_PATH.matcher(path).matches()) {
+			return "health";
+		}
+		Matcher matcher = PROJECT_PATH.matcher(path);
+		if (!matcher.matches()) {
+			return null;
+		}
+		String rest = matcher.group(2);
+		if (rest.equals("incidents")) {
+			return "incidents";
+		}
+		if (rest.startsWith("incident/")) {
+			return "incident";
+		}
+		if (rest.equals("inspections")) {
+			return "inspections";
+		}
+		if (rest.startsWith("overview/")) {
+			String overview = rest.substring("overview/".length());
+			return switch (overview) {
+				case "applications", "nodes", "risks", "deployments", "traces", "logs", "costs" -> overview;
+				default -> null;
+			};
+		}
+		if (rest.startsWith("app/") && rest.endsWith("/tracing")) {
+			return "tracing";
+		}
+		if (rest.startsWith("app/") && rest.endsWith("/logs")) {
+			return "app-logs";
+		}
+		return null;
+	}
+
+	private void serve() {
+		if (capacity == null) {
+			sleep(latencyMillis());
+			return;
+		}
+		capacity.acquireUninterruptibly();
+		try {
+			sleep(latencyMillis());
+		}
+		finally {
+			capacity.release();
+		}
+	}
+
+	private long latencyMillis() {
+		if (options.latencyMedianMillis <= 0) {
+			return 0;
+		}
+		// Log-normal distribution fitted to the configured median and p99.
+		double p99 = Math.max(options.latencyP99Millis, options.latencyMedianMillis);
+		double sigma = Math.log(p99 / options.latencyMedianMillis) / 2.326;
+		double sample = options.latencyMedianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+		return Math.round(sample);
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.MILLISECONDS.sleep(millis);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static Map<String, byte[]> payloads(Options options) throws IOException {
+		CorootFixtures fixtures = new CorootFixtures(options.applications);
+		Map<String, byte[]> payloads = new LinkedHashMap<>();
+		payloads.put("user", fixtures.user(options.projectId));
+		payloads.put("incident", fixtures.incident("inc-0"));
+		payloads.put("incidents", fixtures.incidents(options.incidents));
+		payloads.put("health", fixtures.serviceHealth());
+		payloads.put("applications", fixtures.applicationsOverview());
+		payloads.put("nodes", fixtures.nodesOverview());
+		payloads.put("risks", fixtures.risksOverview());
+		payloads.put("deployments", fixtures.deploymentsOverview());
+		payloads.put("traces", fixtures.tracesOverview());
+		payloads.put("logs", fixtures.logsOverview());
+		payloads.put("costs", fixtures.costsOverview());
+		payloads.put("inspections", fixtures.inspections());
+		payloads.put("tracing", fixtures.applicationTracing(CorootFixtures.applicationName(0), options.spans));
+		payloads.put("app-logs", fixtures.applicationLogs(options.logEntries));
+
+		if (options.recordings != null) {
+			for (String endpoint : payloads.keySet()) {
+				Path recorded = options.recordings.resolve(endpoint + ".json");
+				if (Files.isRegularFile(recorded)) {
+					payloads.put(endpoint, Files.readAllBytes(recorded));
+				}
+			}
+		}
+		return payloads;
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+		CorootReplayServer server = start(options);
+		System.out.printf("Coroot replay server listening on %s (applications=%d, latency p50/p99=%s/%sms, "
+				+ "errorRate=%s, capacity=%s)%n", server.getUri(), options.applications, options.latencyMedianMillis,
+				options.latencyP99Millis, options.errorRate, options.capacity > 0 ? options.capacity : "unlimited");
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+		Thread.currentThread().join();
+	}
+
+	/**
+	 * Replay settings, parsed from {@code --name=value} arguments.
+	 */
+	public static final class Options {
+
+		int port = 0;
+
+		String projectId = "production";
+
+		int applications = 1_000;
+
+		int incidents = 50;
+
+		int spans = 400;
+
+		int logEntries = 100;
+
+		double latencyMedianMillis = 20;
+
+		double latencyP99Millis = 120;
+
+		double errorRate = 0.0;
+
+		int capacity = 0;
+
+		Path recordings;
+
+		public static Options parse(String[] args) {
+			Options options = new Options();
+			for (String arg : args) {
+				if (!arg.startsWith("--") || !arg.contains("=")) {
+					continue;
+				}
+				String name = arg.substring(2, arg.indexOf('='));
+				String value = arg.substring(arg.indexOf('=') + 1);
+				switch (name) {
+					case "port" -> options.port = Integer.parseInt(value);
+					case "project-id" -> options.projectId = value;
+					case "applications" -> options.applications = Integer.parseInt(value);
+					case "incidents" -> options.incidents = Integer.parseInt(value);
+					case "spans" -> options.spans = Integer.parseInt(value);
+					case "log-entries" -> options.logEntries = Integer.parseInt(value);
+					case "latency-median" -> options.latencyMedianMillis = Double.parseDouble(value);
+					case "latency-p99" -> options.latencyP99Millis = Double.parseDouble(value);
+					case "error-rate" -> options.errorRate = Double.parseDouble(value);
+					case "capacity" -> options.capacity = Integer.parseInt(value);
+					case "recordings" -> options.recordings = Path.of(value);
+					default -> {
+						// Unknown options belong to the caller (e.g. the load-test driver).
+					}
+				}
+			}
+			return options;
+		}
+
+		public String getProjectId() {
+			return projectId;
+		}
+
+	}
+
+}
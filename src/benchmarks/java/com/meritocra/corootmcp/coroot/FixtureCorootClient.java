@@ -0,0 +1,162 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CorootClient} that serves {@link CorootFixtures} payloads decoded once
+ * up front, so benchmarks measure tool and controller work without network or
+ * decoding cost.
+ */
+public class FixtureCorootClient implements CorootClient {
+
+	private final String projectId;
+
+	private final IncidentContext incident;
+
+	private final List<IncidentSummary> incidents;
+
+	private final ServiceHealthSnapshot serviceHealth;
+
+	private final List<ProjectSummary> projects;
+
+	private final List<ApplicationOverviewEntry> applications;
+
+	private final List<RiskOverviewEntry> risks;
+
+	private final List<NodeOverviewEntry> nodes;
+
+	private final List<DeploymentOverviewEntry> deployments;
+
+	private final Map<String, Object> tracesOverview;
+
+	private final Map<String, Object> logsOverview;
+
+	private final Map<String, Object> applicationTracing;
+
+	private final Map<String, Object> applicationLogs;
+
+	private final Map<String, Object> costsOverview;
+
+	private final Map<String, Object> sloOverview;
+
+	public FixtureCorootClient(String projectId, CorootFixtures fixtures) {
+		this.projectId = projectId;
+		this.incident = decode(fixtures.incident("inc-0"), CorootJsonDecoders.incidentContext(), null);
+		this.incidents = decode(fixtures.incidents(50), CorootJsonDecoders.incidents(), List.of());
+		this.serviceHealth = decode(fixtures.serviceHealth(),
+				CorootJsonDecoders.serviceHealth(projectId, CorootFixtures.applicationName(0)), null);
+		this.projects = decode(fixtures.user(projectId), CorootJsonDecoders.projects(), List.of());
+		this.applications = decode(fixtures.applicationsOverview(), CorootJsonDecoders.applications(projectId),
+				List.of());
+		this.risks = decode(fixtures.risksOverview(), CorootJsonDecoders.risks(projectId), List.of());
+		this.nodes = decode(fixtures.nodesOverview(), CorootJsonDecoders.nodes(projectId), List.of());
+		this.deployments = decode(fixtures.deploymentsOverview(), CorootJsonDecoders.deployments(projectId),
+				List.of());
+		this.tracesOverview = decode(fixtures.tracesOverview(), CorootJsonDecoders.map(), Map.of());
+		this.logsOverview = decode(fixtures.logsOverview(), CorootJsonDecoders.map(), Map.of());
+		this.applicationTracing = decode(fixtures.applicationTracing(CorootFixtures.applicationName(0), 400),
+				CorootJsonDecoders.map(), Map.of());
+		this.applicationLogs = decode(fixtures.applicationLogs(100), CorootJsonDecoders.map(), Map.of());
+		this.costsOverview = decode(fixtures.costsOverview(), CorootJsonDecoders.map(), Map.of());
+		this.sloOverview = decode(fixtures.inspections(), CorootJsonDecoders.sloOverview(projectId), Map.of());
+	}
+
+	public String getProjectId() {
+		return projectId;
+	}
+
+	@Override
+	public IncidentContext getIncidentContext(String projectId, String incidentId) {
+		return incident;
+	}
+
+	@Override
+	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		List<IncidentSummary> result = new ArrayList<>();
+		for (IncidentSummary summary : incidents) {
+			if (result.size() >= limit) {
+				break;
+			}
+			if (summary.getSeverity().ordinal() >= minimumSeverity.ordinal()) {
+				result.add(summary);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
+		return serviceHealth;
+	}
+
+	@Override
+	public List<ProjectSummary> listProjects() {
+		return projects;
+	}
+
+	@Override
+	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+		return applications;
+	}
+
+	@Override
+	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
+		return risks;
+	}
+
+	@Override
+	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+		return nodes;
+	}
+
+	@Override
+	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
+		return deployments;
+	}
+
+	@Override
+	public Map<String, Object> getTracesOverview(String projectId, String query) {
+		return tracesOverview;
+	}
+
+	@Override
+	public Map<String, Object> getLogsOverview(String projectId, String query) {
+		return logsOverview;
+	}
+
+	@Override
+	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+		return applicationTracing;
+	}
+
+	@Override
+	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
+			int maxEntries) {
+		return applicationLogs;
+	}
+
+	@Override
+	public Map<String, Object> getCostsOverview(String projectId) {
+		return costsOverview;
+	}
+
+	@Override
+	public Map<String, Object> getSloOverview(String projectId) {
+		return sloOverview;
+	}
+
+	private static <T> T decode(byte[] payload, CorootJsonDecoders.Decoder<T> decoder, T emptyValue) {
+		try {
+			return CorootJsonDecoders.decode(new ByteArrayInputStream(payload), decoder, emptyValue);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Response mapping cost of {@link HttpCorootClient} for the largest overview
+ * payloads, from raw bytes to the objects handed to tools.
+ *
+ * <p>
+ * {@code applicationsAsMap} is the previous {@code Map}-binding approach and is
+ * kept as a baseline for the streaming decoders. Their allocation is compared
+ * through {@code gc.alloc.rate.norm} of the GC profiler: the streaming
+ * {@code listApplicationsOverview} is expected to stay well below the
+ * baseline.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+
+	private static final String PROJECT_ID = "p1";
+
+	@Param({ "100", "1000", "10000" })
+	public int applications;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private byte[] applicationsPayload;
+
+	private byte[] nodesPayload;
+
+	private byte[] inspectionsPayload;
+
+	@Setup
+	public void setUp() {
+		CorootFixtures fixtures = new CorootFixtures(applications);
+		applicationsPayload = fixtures.applicationsOverview();
+		nodesPayload = fixtures.nodesOverview();
+		inspectionsPayload = fixtures.inspections();
+	}
+
+	@Benchmark
+	public List<ApplicationOverviewEntry> listApplicationsOverview() throws IOException {
+		return CorootJsonDecoders.decode(new ByteArrayInputStream(applicationsPayload),
+				CorootJsonDecoders.applications(PROJECT_ID), List.of());
+	}
+
+	@Benchmark
+	public Map<?, ?> applicationsAsMap() throws IOException {
+		return objectMapper.readValue(applicationsPayload, Map.class);
+	}
+
+	@Benchmark
+	public List<NodeOverviewEntry> listNodesOverview() throws IOException {
+		return CorootJsonDecoders.decode(new ByteArrayInputStream(nodesPayload), CorootJsonDecoders.nodes(PROJECT_ID),
+				List.of());
+	}
+
+	@Benchmark
+	public Map<String, Object> getSloOverview() throws IOException {
+		return CorootJsonDecoders.decode(new ByteArrayInputStream(inspectionsPayload),
+				CorootJsonDecoders.sloOverview(PROJECT_ID), Map.of());
+	}
+
+}
@@ -0,0 +1,95 @@
+package com.meritocra.corootmcp.mcp;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.coroot.CorootFixtures;
+import com.meritocra.corootmcp.coroot.FixtureCorootClient;
+import com.meritocra.corootmcp.mcp.tools.BenchmarkTools;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON-RPC dispatch through {@link McpController#handle} including request
+ * parsing and response serialization, as the servlet layer would do it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class McpControllerBenchmark {
+
+	@Param({ "100", "1000" })
+	public int applications;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private McpController controller;
+
+	private byte[] initializeRequest;
+
+	private byte[] toolsListRequest;
+
+	private byte[] applicationsCallRequest;
+
+	@Setup
+	public void setUp() throws IOException {
+		FixtureCorootClient client = new FixtureCorootClient("p1", new CorootFixtures(applications));
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		McpToolRegistry registry = new McpToolRegistry(
+				BenchmarkTools.create(client, client.getProjectId(), objectMapper), meterRegistry);
+		controller = new McpController(registry, objectMapper, "", meterRegistry);
+
+		initializeRequest = request("initialize", objectMapper.createObjectNode());
+		toolsListRequest = request("tools/list", objectMapper.createObjectNode());
+		ObjectNode callParams = objectMapper.createObjectNode().put("name", "get_applications_overview");
+		callParams.set("arguments", objectMapper.createObjectNode());
+		applicationsCallRequest = request("tools/call", callParams);
+	}
+
+	@Benchmark
+	public byte[] initialize() throws IOException {
+		return dispatch(initializeRequest);
+	}
+
+	@Benchmark
+	public byte[] toolsList() throws IOException {
+		return dispatch(toolsListRequest);
+	}
+
+	@Benchmark
+	public byte[] toolsCallApplicationsOverview() throws IOException {
+		return dispatch(applicationsCallRequest);
+	}
+
+	private byte[] dispatch(byte[] body) throws IOException {
+		ObjectNode request = (ObjectNode) objectMapper.readTree(body);
+		return objectMapper.writeValueAsBytes(controller.handle(request, null).getBody());
+	}
+
+	private byte[] request(String method, ObjectNode params) throws IOException {
+		ObjectNode request = objectMapper.createObjectNode();
+		request.put("jsonrpc", "2.0");
+		request.put("id", 1);
+		request.put("method", method);
+		request.set("params", params);
+		return objectMapper.writeValueAsBytes(request);
+	}
+
+}
@@ -0,0 +1,256 @@
+package com.meritocra.corootmcp.mcp;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.CorootMcpApplication;
+import com.meritocra.corootmcp.coroot.CorootReplayServer;
+import com.meritocra.corootmcp.mcp.tools.BenchmarkTools;
+import com.meritocra.corootmcp.support.TestChatConfig;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load-test driver that pushes concurrent {@code tools/call} traffic through
+ * {@code /mcp} and reports p50/p99 latency and throughput per tool.
+ *
+ * <p>
+ * Without {@code --target} the driver starts a {@link CorootReplayServer} and
+ * the MCP server in-process, wired to the replay backend and a fake chat
+ * model, so results reflect this server and not Coroot or the LLM. Replay
+ * options ({@code --applications}, {@code --latency-median},
+ * {@code --latency-p99}, {@code --error-rate}, {@code --capacity}, ...) are
+ * passed through, and so are application properties such as
+ * {@code --coroot.resilience.max-concurrent-calls=8}.
+ * </p>
+ *
+ * <p>
+ * Driver options: {@code --target=http://host:port/mcp}, {@code --auth-token},
+ * {@code --concurrency} (default 32), {@code --duration} and {@code --warmup}
+ * in seconds (default 30 and 5), {@code --tools=a,b,c} (default all tools).
+ * </p>
+ */
+public final class McpLoadTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final HttpClient httpClient = HttpClient.newBuilder()
+		.connectTimeout(Duration.ofSeconds(5))
+		.executor(Executors.newVirtualThreadPerTaskExecutor())
+		.build();
+
+	private final URI target;
+
+	private final String authToken;
+
+	private final List<String> tools;
+
+	private final Map<String, Recorder> recorders = new TreeMap<>();
+
+	private McpLoadTest(URI target, String authToken, List<String> tools) {
+		this.target = target;
+		this.authToken = authToken;
+		this.tools = tools;
+		for (String tool : tools) {
+			recorders.put(tool, new Recorder());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = options(args);
+		int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+		Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+		Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+		List<String> tools = options.containsKey("tools") ? List.of(options.get("tools").split(","))
+				: BenchmarkTools.TOOL_NAMES;
+
+		CorootReplayServer replay = null;
+		ConfigurableApplicationContext context = null;
+		try {
+			URI target;
+			if (options.containsKey("target")) {
+				target = URI.create(options.get("target"));
+			}
+			else {
+				CorootReplayServer.Options replayOptions = CorootReplayServer.Options.parse(args);
+				replay = CorootReplayServer.start(replayOptions);
+				// Passed as command-line arguments so they win over any application.properties
+				// on the test classpath.
+				List<String> applicationArgs = new ArrayList<>(List.of("--server.port=0",
+						"--coroot.api-url=" + replay.getUri(), "--coroot.api-key=replay",
+						"--coroot.default-project-id=" + replayOptions.getProjectId(), "--spring.ai.model.chat=none",
+						"--spring.ai.openai.api-key=replay",
+						"--mcp.auth-token=" + options.getOrDefault("auth-token", "")));
+				// Dotted names are application properties rather than replay or driver options.
+				options.keySet().stream().filter(name -> name.contains(".")).forEach(
+						name -> applicationArgs.add("--" + name + "=" + options.get(name)));
+				context = new SpringApplicationBuilder(CorootMcpApplication.class, TestChatConfig.class)
+					.run(applicationArgs.toArray(String[]::new));
+				target = URI.create("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port")
+						+ "/mcp");
+			}
+
+			McpLoadTest loadTest = new McpLoadTest(target, options.getOrDefault("auth-token", ""), tools);
+			System.out.printf("Driving %s with %d concurrent clients for %ds (warm-up %ds)%n", target, concurrency,
+					duration.toSeconds(), warmup.toSeconds());
+			loadTest.run(concurrency, warmup, false);
+			long elapsedNanos = loadTest.run(concurrency, duration, true);
+			loadTest.report(elapsedNanos);
+			if (replay != null) {
+				System.out.printf("Replay backend: %d requests, %d injected failures%n", replay.getRequests(),
+						replay.getFailures());
+			}
+		}
+		finally {
+			if (context != null) {
+				context.close();
+			}
+			if (replay != null) {
+				replay.close();
+			}
+		}
+	}
+
+	private long run(int concurrency, Duration duration, boolean record) throws InterruptedException {
+		long start = System.nanoTime();
+		long deadline = start + duration.toNanos();
+		AtomicLong sequence = new AtomicLong();
+		try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < concurrency; i++) {
+				workers.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						String tool = tools.get((int) (sequence.getAndIncrement() % tools.size()));
+						long requestStart = System.nanoTime();
+						boolean ok = call(tool);
+						if (record) {
+							recorders.get(tool).record(System.nanoTime() - requestStart, ok);
+						}
+					}
+				});
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private boolean call(String tool) {
+		try {
+			ObjectNode params = objectMapper.createObjectNode().put("name", tool);
+			params.set("arguments", BenchmarkTools.arguments(tool, objectMapper));
+			ObjectNode request = objectMapper.createObjectNode().put("jsonrpc", "2.0").put("id", 1)
+				.put("method", "tools/call");
+			request.set("params", params);
+
+			HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+				.timeout(Duration.ofSeconds(60))
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)));
+			if (!authToken.isEmpty()) {
+				builder.header("Authorization", "Bearer " + authToken);
+			}
+			HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+			if (response.statusCode() != 200) {
+				return false;
+			}
+			JsonNode body = objectMapper.readTree(response.body());
+			return !body.has("error");
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		catch (Exception ex) {
+			return false;
+		}
+	}
+
+	private void report(long elapsedNanos) {
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf("%n%-32s %9s %7s %10s %10s %10s%n", "tool", "requests", "errors", "p50 ms", "p99 ms",
+				"req/s");
+		Recorder total = new Recorder();
+		for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+			Recorder recorder = entry.getValue();
+			print(entry.getKey(), recorder, seconds);
+			total.merge(recorder);
+		}
+		print("TOTAL", total, seconds);
+	}
+
+	private static void print(String name, Recorder recorder, double seconds) {
+		long[] latencies = recorder.sorted();
+		System.out.printf("%-32s %9d %7d %10.1f %10.1f %10.1f%n", name, latencies.length, recorder.errors.get(),
+				percentile(latencies, 0.50), percentile(latencies, 0.99), latencies.length / seconds);
+	}
+
+	private static double percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+	}
+
+	private static Map<String, String> options(String[] args) {
+		Map<String, String> options = new TreeMap<>();
+		for (String arg : args) {
+			if (arg.startsWith("--") && arg.contains("=")) {
+				options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * Latency samples for one tool.
+	 */
+	private static final class Recorder {
+
+		private long[] samples = new long[1024];
+
+		private int size;
+
+		private final AtomicLong errors = new AtomicLong();
+
+		synchronized void record(long nanos, boolean ok) {
+			if (size == samples.length) {
+				samples = Arrays.copyOf(samples, size * 2);
+			}
+			samples[size++] = nanos;
+			if (!ok) {
+				errors.incrementAndGet();
+			}
+		}
+
+		synchronized void merge(Recorder other) {
+			long[] values = other.sorted();
+			for (long value : values) {
+				record(value, true);
+			}
+			errors.addAndGet(other.errors.get());
+		}
+
+		synchronized long[] sorted() {
+			long[] copy = Arrays.copyOf(samples, size);
+			Arrays.sort(copy);
+			return copy;
+		}
+
+	}
+
+}
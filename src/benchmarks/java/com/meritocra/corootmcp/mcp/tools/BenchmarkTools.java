@@ -0,0 +1,82 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.CorootProperties;
+import com.meritocra.corootmcp.config.McpProperties;
+import com.meritocra.corootmcp.coroot.CorootClient;
+import com.meritocra.corootmcp.coroot.CorootFixtures;
+import com.meritocra.corootmcp.llm.LlmGateway;
+import com.meritocra.corootmcp.mcp.McpTool;
+import com.meritocra.corootmcp.support.FakeChatModel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.ai.chat.client.ChatClient;
+
+/**
+ * Builds the full tool set outside of Spring, plus a representative argument
+ * object for every tool, for benchmarks and load tests.
+ */
+public final class BenchmarkTools {
+
+	/**
+	 * Names of every tool registered by the server, in a stable order.
+	 */
+	public static final List<String> TOOL_NAMES = List.of("list_projects", "list_recent_incidents",
+			"get_incident_details", "get_service_health", "get_applications_overview", "get_nodes_overview",
+			"get_risks_overview", "get_deployments_overview", "get_traces_overview", "get_logs_overview",
+			"get_application_traces", "get_application_logs", "get_costs_overview", "get_slo_overview",
+			"summarize_incident_root_cause", "investigate_incident");
+
+	private BenchmarkTools() {
+	}
+
+	public static List<McpTool> create(CorootClient corootClient, String projectId, ObjectMapper objectMapper) {
+		CorootProperties properties = new CorootProperties();
+		properties.setDefaultProjectId(projectId);
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
+		OverviewSnapshots snapshots = new OverviewSnapshots(new McpProperties(), new SimpleMeterRegistry());
+		return List.of(new ListProjectsTool(corootClient, objectMapper),
+				new ListRecentIncidentsTool(corootClient, properties, objectMapper),
+				new GetIncidentDetailsTool(corootClient, properties, objectMapper),
+				new GetServiceHealthTool(corootClient, properties, objectMapper),
+				new GetApplicationsOverviewTool(corootClient, properties, objectMapper, snapshots),
+				new GetNodesOverviewTool(corootClient, properties, objectMapper, snapshots),
+				new GetRisksOverviewTool(corootClient, properties, objectMapper, snapshots),
+				new GetDeploymentsOverviewTool(corootClient, properties, objectMapper, snapshots),
+				new GetTracesOverviewTool(corootClient, properties, objectMapper),
+				new GetLogsOverviewTool(corootClient, properties, objectMapper),
+				new GetApplicationTracesTool(corootClient, properties, objectMapper),
+				new GetApplicationLogsTool(corootClient, properties, objectMapper),
+				new GetCostsOverviewTool(corootClient, properties, objectMapper),
+				new GetSloOverviewTool(corootClient, properties, objectMapper),
+				new SummarizeIncidentRootCauseTool(corootClient, properties, llmGateway, objectMapper),
+				new InvestigateIncidentTool(corootClient, properties, llmGateway, objectMapper));
+	}
+
+	/**
+	 * Returns arguments that exercise the tool's main code path against
+	 * {@link CorootFixtures} data.
+	 */
+	public static ObjectNode arguments(String toolName, ObjectMapper objectMapper) {
+		ObjectNode arguments = objectMapper.createObjectNode();
+		switch (toolName) {
+			case "list_recent_incidents" -> arguments.put("minimumSeverity", "INFO").put("limit", 20);
+			case "get_incident_details", "summarize_incident_root_cause", "investigate_incident" ->
+				arguments.put("incidentId", "inc-0");
+			case "get_service_health" -> arguments.put("service", CorootFixtures.applicationName(0));
+			case "get_application_traces" ->
+				arguments.put("applicationId", CorootFixtures.applicationName(0)).put("maxSpans", 200);
+			case "get_application_logs" ->
+				arguments.put("applicationId", CorootFixtures.applicationName(0)).put("maxEntries", 100);
+			default -> {
+			}
+		}
+		return arguments;
+	}
+
+}
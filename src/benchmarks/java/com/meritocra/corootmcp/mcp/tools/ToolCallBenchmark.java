@@ -0,0 +1,65 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.coroot.CorootFixtures;
+import com.meritocra.corootmcp.coroot.FixtureCorootClient;
+import com.meritocra.corootmcp.mcp.McpTool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code ObjectNode} building cost of every {@link McpTool#call}, with the
+ * Coroot data already decoded so only the tool's own mapping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolCallBenchmark {
+
+	@Param({ "list_projects", "list_recent_incidents", "get_incident_details", "get_service_health",
+			"get_applications_overview", "get_nodes_overview", "get_risks_overview", "get_deployments_overview",
+			"get_traces_overview", "get_logs_overview", "get_application_traces", "get_application_logs",
+			"get_costs_overview", "get_slo_overview", "summarize_incident_root_cause", "investigate_incident" })
+	public String tool;
+
+	@Param({ "100", "1000" })
+	public int applications;
+
+	private McpTool mcpTool;
+
+	private ObjectNode arguments;
+
+	@Setup
+	public void setUp() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		FixtureCorootClient client = new FixtureCorootClient("p1", new CorootFixtures(applications));
+		mcpTool = BenchmarkTools.create(client, client.getProjectId(), objectMapper)
+			.stream()
+			.filter(candidate -> candidate.definition().getName().equals(tool))
+			.findFirst()
+			.orElseThrow(() -> new IllegalArgumentException("Unknown tool: " + tool));
+		arguments = BenchmarkTools.arguments(tool, objectMapper);
+	}
+
+	@Benchmark
+	public ObjectNode call() {
+		return mcpTool.call(arguments.deepCopy());
+	}
+
+}
@@ -1,6 +1,14 @@
 package com.meritocra.corootmcp.config;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
@@ -13,6 +21,22 @@ public class CorootProperties {
 
 	private String defaultProjectId;
 
+	private final ProjectCache projectCache = new ProjectCache();
+
+	private final Http http = new Http();
+
+	private final Investigation investigation = new Investigation();
+
+	private final Incidents incidents = new Incidents();
+
+	private final Resilience resilience = new Resilience();
+
+	private final Hedging hedging = new Hedging();
+
+	private final ResponseCache responseCache = new ResponseCache();
+
+	private final IncidentStore incidentStore = new IncidentStore();
+
 	public URI getApiUrl() {
 		return apiUrl;
 	}
@@ -36,5 +60,748 @@ public class CorootProperties {
 	public void setDefaultProjectId(String defaultProjectId) {
 		this.defaultProjectId = defaultProjectId;
 	}
-}
 
+	public ProjectCache getProjectCache() {
+		return projectCache;
+	}
+
+	public Http getHttp() {
+		return http;
+	}
+
+	public Investigation getInvestigation() {
+		return investigation;
+	}
+
+	public Incidents getIncidents() {
+		return incidents;
+	}
+
+	public Resilience getResilience() {
+		return resilience;
+	}
+
+	public Hedging getHedging() {
+		return hedging;
+	}
+
+	public ResponseCache getResponseCache() {
+		return responseCache;
+	}
+
+	public IncidentStore getIncidentStore() {
+		return incidentStore;
+	}
+
+	/**
+	 * Caching of the project directory used to resolve project names to ids.
+	 */
+	public static class ProjectCache {
+
+		/**
+		 * How long a loaded project directory is served before it is refreshed in the
+		 * background.
+		 */
+		private Duration ttl = Duration.ofMinutes(5);
+
+		/**
+		 * How long an identifier that matched no project is remembered, and how long to
+		 * wait before retrying a failed directory load.
+		 */
+		private Duration negativeTtl = Duration.ofMinutes(1);
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		public Duration getNegativeTtl() {
+			return negativeTtl;
+		}
+
+		public void setNegativeTtl(Duration negativeTtl) {
+			this.negativeTtl = negativeTtl;
+		}
+
+	}
+
+	/**
+	 * HTTP client used to call the Coroot API.
+	 */
+	public enum Transport {
+
+		/**
+		 * JDK {@code java.net.http.HttpClient} with HTTP/2, a shared keep-alive
+		 * connection pool and a virtual-thread executor.
+		 */
+		JDK,
+
+		/**
+		 * {@code HttpURLConnection} based transport without pooling control.
+		 */
+		SIMPLE
+
+	}
+
+	/**
+	 * Transport settings for requests toward Coroot.
+	 */
+	public static class Http {
+
+		private Transport transport = Transport.JDK;
+
+		private Duration connectTimeout = Duration.ofSeconds(5);
+
+		private Duration readTimeout = Duration.ofSeconds(10);
+
+		/**
+		 * Whether to negotiate HTTP/2 with Coroot (JDK transport only).
+		 */
+		private boolean http2 = true;
+
+		/**
+		 * Maximum number of concurrent requests per Coroot route (scheme, host and
+		 * port), which also bounds the connections opened toward it.
+		 */
+		private int maxRequestsPerRoute = 32;
+
+		/**
+		 * How long a request waits for a per-route permit before failing.
+		 */
+		private Duration acquireTimeout = Duration.ofSeconds(5);
+
+		/**
+		 * Whether to ask Coroot for gzip-compressed responses. They are decompressed
+		 * while being decoded.
+		 */
+		private boolean compression = true;
+
+		public Transport getTransport() {
+			return transport;
+		}
+
+		public void setTransport(Transport transport) {
+			this.transport = transport;
+		}
+
+		public Duration getConnectTimeout() {
+			return connectTimeout;
+		}
+
+		public void setConnectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+		}
+
+		public Duration getReadTimeout() {
+			return readTimeout;
+		}
+
+		public void setReadTimeout(Duration readTimeout) {
+			this.readTimeout = readTimeout;
+		}
+
+		public boolean isHttp2() {
+			return http2;
+		}
+
+		public void setHttp2(boolean http2) {
+			this.http2 = http2;
+		}
+
+		public int getMaxRequestsPerRoute() {
+			return maxRequestsPerRoute;
+		}
+
+		public void setMaxRequestsPerRoute(int maxRequestsPerRoute) {
+			this.maxRequestsPerRoute = maxRequestsPerRoute;
+		}
+
+		public Duration getAcquireTimeout() {
+			return acquireTimeout;
+		}
+
+		public void setAcquireTimeout(Duration acquireTimeout) {
+			this.acquireTimeout = acquireTimeout;
+		}
+
+		public boolean isCompression() {
+			return compression;
+		}
+
+		public void setCompression(boolean compression) {
+			this.compression = compression;
+		}
+
+	}
+
+	/**
+	 * Deadlines for gathering evidence in {@code investigate_incident} and the
+	 * size it is compacted to before prompting.
+	 */
+	public static class Investigation {
+
+		/**
+		 * Maximum time to wait for a single evidence source (SLOs, traces, logs, ...).
+		 */
+		private Duration sourceTimeout = Duration.ofSeconds(8);
+
+		/**
+		 * Maximum time from the start of an investigation until its evidence is
+		 * gathered, loading the incident included. Must not be below
+		 * {@code source-timeout}.
+		 */
+		private Duration timeout = Duration.ofSeconds(12);
+
+		/**
+		 * Estimated token size the evidence in the RCA prompt is compacted to. Low
+		 * signal sections are summarized or dropped until it fits; 0 disables
+		 * compaction.
+		 */
+		private int evidenceTokenBudget = 12_000;
+
+		public Duration getSourceTimeout() {
+			return sourceTimeout;
+		}
+
+		public void setSourceTimeout(Duration sourceTimeout) {
+			this.sourceTimeout = sourceTimeout;
+		}
+
+		public Duration getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public int getEvidenceTokenBudget() {
+			return evidenceTokenBudget;
+		}
+
+		public void setEvidenceTokenBudget(int evidenceTokenBudget) {
+			this.evidenceTokenBudget = evidenceTokenBudget;
+		}
+
+	}
+
+	/**
+	 * Paging through Coroot's incident list when a search filters on more than the
+	 * most recent incidents.
+	 */
+	public static class Incidents {
+
+		/**
+		 * Incidents requested per page while looking for matches.
+		 */
+		private int pageSize = 100;
+
+		/**
+		 * Maximum pages fetched for one search; the matches found so far are returned
+		 * once it is reached.
+		 */
+		private int maxPages = 5;
+
+		/**
+		 * Whether to send the search's severity and time range to Coroot as
+		 * {@code severity}, {@code from} and {@code to} parameters. Enable only for
+		 * backends that honour them; results are filtered locally either way.
+		 */
+		private boolean serverSideFilters = false;
+
+		public int getPageSize() {
+			return pageSize;
+		}
+
+		public void setPageSize(int pageSize) {
+			this.pageSize = pageSize;
+		}
+
+		public int getMaxPages() {
+			return maxPages;
+		}
+
+		public void setMaxPages(int maxPages) {
+			this.maxPages = maxPages;
+		}
+
+		public boolean isServerSideFilters() {
+			return serverSideFilters;
+		}
+
+		public void setServerSideFilters(boolean serverSideFilters) {
+			this.serverSideFilters = serverSideFilters;
+		}
+
+	}
+
+	/**
+	 * Circuit breaking, concurrency limiting and retries of Coroot calls.
+	 */
+	public static class Resilience {
+
+		private boolean enabled = true;
+
+		/**
+		 * Maximum number of Coroot calls in flight at once.
+		 */
+		private int maxConcurrentCalls = 32;
+
+		/**
+		 * How long a call waits for a free slot before it is rejected.
+		 */
+		private Duration maxWait = Duration.ofMillis(500);
+
+		/**
+		 * Attempts per call, including the first, for connection errors, 5xx and 429
+		 * responses. Read timeouts are not retried.
+		 */
+		private int maxAttempts = 3;
+
+		/**
+		 * Upper bound of the first retry delay; each retry doubles it up to
+		 * {@code max-backoff} and waits a random time below it.
+		 */
+		private Duration initialBackoff = Duration.ofMillis(100);
+
+		private Duration maxBackoff = Duration.ofSeconds(1);
+
+		/**
+		 * Calls per endpoint whose outcome is tracked by its circuit breaker.
+		 */
+		private int windowSize = 20;
+
+		/**
+		 * Calls an endpoint needs in its window before its breaker can open.
+		 */
+		private int minimumCalls = 10;
+
+		/**
+		 * Share of failed calls, between 0 and 1, that opens an endpoint's breaker.
+		 */
+		private double failureRateThreshold = 0.5;
+
+		/**
+		 * How long an open breaker rejects calls before letting a probe through.
+		 */
+		private Duration openDuration = Duration.ofSeconds(30);
+
+		/**
+		 * How long the last successful response of an incident list or overview call
+		 * is kept, to be served, marked as stale, while the bulkhead or an open
+		 * breaker rejects the call; zero disables the fallback.
+		 */
+		private Duration staleTtl = Duration.ofMinutes(15);
+
+		/**
+		 * Maximum number of responses kept for the fallback, least recently used
+		 * first out.
+		 */
+		private int maxStaleEntries = 128;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxConcurrentCalls() {
+			return maxConcurrentCalls;
+		}
+
+		public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+			this.maxConcurrentCalls = maxConcurrentCalls;
+		}
+
+		public Duration getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public int getMaxAttempts() {
+			return maxAttempts;
+		}
+
+		public void setMaxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+		}
+
+		public Duration getInitialBackoff() {
+			return initialBackoff;
+		}
+
+		public void setInitialBackoff(Duration initialBackoff) {
+			this.initialBackoff = initialBackoff;
+		}
+
+		public Duration getMaxBackoff() {
+			return maxBackoff;
+		}
+
+		public void setMaxBackoff(Duration maxBackoff) {
+			this.maxBackoff = maxBackoff;
+		}
+
+		public int getWindowSize() {
+			return windowSize;
+		}
+
+		public void setWindowSize(int windowSize) {
+			this.windowSize = windowSize;
+		}
+
+		public int getMinimumCalls() {
+			return minimumCalls;
+		}
+
+		public void setMinimumCalls(int minimumCalls) {
+			this.minimumCalls = minimumCalls;
+		}
+
+		public double getFailureRateThreshold() {
+			return failureRateThreshold;
+		}
+
+		public void setFailureRateThreshold(double failureRateThreshold) {
+			this.failureRateThreshold = failureRateThreshold;
+		}
+
+		public Duration getOpenDuration() {
+			return openDuration;
+		}
+
+		public void setOpenDuration(Duration openDuration) {
+			this.openDuration = openDuration;
+		}
+
+		public Duration getStaleTtl() {
+			return staleTtl;
+		}
+
+		public void setStaleTtl(Duration staleTtl) {
+			this.staleTtl = staleTtl;
+		}
+
+		public int getMaxStaleEntries() {
+			return maxStaleEntries;
+		}
+
+		public void setMaxStaleEntries(int maxStaleEntries) {
+			this.maxStaleEntries = maxStaleEntries;
+		}
+
+	}
+
+	/**
+	 * Hedged requests for the Coroot endpoints backed by slow ClickHouse queries.
+	 */
+	public static class Hedging {
+
+		private boolean enabled = false;
+
+		/**
+		 * Endpoints that are hedged: {@code traces}, {@code logs}, {@code tracing},
+		 * {@code app-logs} and {@code app-logs-summary}.
+		 */
+		private Set<String> endpoints = new LinkedHashSet<>(
+				List.of("traces", "logs", "tracing", "app-logs", "app-logs-summary"));
+
+		/**
+		 * Latency percentile of an endpoint, between 0 and 1, after which a duplicate
+		 * request is sent.
+		 */
+		private double percentile = 0.95;
+
+		/**
+		 * Lower bound of the hedging delay.
+		 */
+		private Duration minDelay = Duration.ofMillis(50);
+
+		/**
+		 * Responses an endpoint needs before it is hedged; the delay is derived from
+		 * the last {@code window-size} of them.
+		 */
+		private int minSamples = 20;
+
+		private int windowSize = 200;
+
+		/**
+		 * Extra requests allowed, as a percentage of hedgeable requests.
+		 */
+		private int budgetPercent = 10;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Set<String> getEndpoints() {
+			return endpoints;
+		}
+
+		public void setEndpoints(Set<String> endpoints) {
+			this.endpoints = endpoints;
+		}
+
+		public double getPercentile() {
+			return percentile;
+		}
+
+		public void setPercentile(double percentile) {
+			this.percentile = percentile;
+		}
+
+		public Duration getMinDelay() {
+			return minDelay;
+		}
+
+		public void setMinDelay(Duration minDelay) {
+			this.minDelay = minDelay;
+		}
+
+		public int getMinSamples() {
+			return minSamples;
+		}
+
+		public void setMinSamples(int minSamples) {
+			this.minSamples = minSamples;
+		}
+
+		public int getWindowSize() {
+			return windowSize;
+		}
+
+		public void setWindowSize(int windowSize) {
+			this.windowSize = windowSize;
+		}
+
+		public int getBudgetPercent() {
+			return budgetPercent;
+		}
+
+		public void setBudgetPercent(int budgetPercent) {
+			this.budgetPercent = budgetPercent;
+		}
+
+	}
+
+	/**
+	 * Caching of the overview responses (applications, nodes, risks, deployments,
+	 * costs and SLOs) that change on the scale of tens of seconds.
+	 */
+	public static class ResponseCache {
+
+		private boolean enabled = false;
+
+		/**
+		 * How long a cached overview is served as fresh, per endpoint. Endpoints not
+		 * listed use {@link #defaultTtl}.
+		 */
+		private final Map<String, Duration> ttl = new LinkedHashMap<>(Map.of("applications", Duration.ofSeconds(15),
+				"nodes", Duration.ofSeconds(30), "risks", Duration.ofMinutes(1), "deployments", Duration.ofSeconds(30),
+				"costs", Duration.ofMinutes(5), "slo", Duration.ofSeconds(30)));
+
+		private Duration defaultTtl = Duration.ofSeconds(15);
+
+		/**
+		 * How long past its TTL an entry may still be served while a background
+		 * refresh replaces it.
+		 */
+		private Duration staleTtl = Duration.ofMinutes(1);
+
+		/**
+		 * Maximum number of cached responses (one per endpoint and project).
+		 */
+		private int maxEntries = 256;
+
+		/**
+		 * Maximum total number of rows held across all cached responses, counting the
+		 * elements of every list and map, nested ones included. Least recently used
+		 * entries are evicted first.
+		 */
+		private int maxRows = 200_000;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Map<String, Duration> getTtl() {
+			return ttl;
+		}
+
+		public Duration getDefaultTtl() {
+			return defaultTtl;
+		}
+
+		public void setDefaultTtl(Duration defaultTtl) {
+			this.defaultTtl = defaultTtl;
+		}
+
+		public Duration getStaleTtl() {
+			return staleTtl;
+		}
+
+		public void setStaleTtl(Duration staleTtl) {
+			this.staleTtl = staleTtl;
+		}
+
+		public int getMaxEntries() {
+			return maxEntries;
+		}
+
+		public void setMaxEntries(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		public int getMaxRows() {
+			return maxRows;
+		}
+
+		public void setMaxRows(int maxRows) {
+			this.maxRows = maxRows;
+		}
+
+	}
+
+	/**
+	 * Local, file-backed copy of the incident history, kept in sync with Coroot in
+	 * the background so incident lists, searches and details are served without
+	 * an API call.
+	 */
+	public static class IncidentStore {
+
+		private boolean enabled = false;
+
+		/**
+		 * Directory holding the incident log.
+		 */
+		private Path directory = Path.of("data", "incidents");
+
+		/**
+		 * Projects synced in the background. Defaults to the default project; other
+		 * projects are added after their first successful sync.
+		 */
+		private List<String> projects = new ArrayList<>();
+
+		/**
+		 * Most projects synced in the background. Queries of other projects go to
+		 * Coroot directly.
+		 */
+		private int maxProjects = 32;
+
+		/**
+		 * How often new and changed incidents are pulled from Coroot.
+		 */
+		private Duration syncInterval = Duration.ofMinutes(1);
+
+		/**
+		 * Number of incidents requested from Coroot by the first sync of a project.
+		 */
+		private int initialSyncLimit = 500;
+
+		/**
+		 * Number of incidents requested from Coroot by later syncs.
+		 */
+		private int syncLimit = 100;
+
+		/**
+		 * Incidents that changed less than this long before the watermark are
+		 * re-fetched, to catch updates Coroot records with a small delay.
+		 */
+		private Duration syncOverlap = Duration.ofMinutes(10);
+
+		/**
+		 * Incidents that started longer ago than this are removed when the log is
+		 * compacted.
+		 */
+		private Duration retention = Duration.ofDays(180);
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Path getDirectory() {
+			return directory;
+		}
+
+		public void setDirectory(Path directory) {
+			this.directory = directory;
+		}
+
+		public List<String> getProjects() {
+			return projects;
+		}
+
+		public void setProjects(List<String> projects) {
+			this.projects = projects;
+		}
+
+		public int getMaxProjects() {
+			return maxProjects;
+		}
+
+		public void setMaxProjects(int maxProjects) {
+			this.maxProjects = maxProjects;
+		}
+
+		public Duration getSyncInterval() {
+			return syncInterval;
+		}
+
+		public void setSyncInterval(Duration syncInterval) {
+			this.syncInterval = syncInterval;
+		}
+
+		public int getInitialSyncLimit() {
+			return initialSyncLimit;
+		}
+
+		public void setInitialSyncLimit(int initialSyncLimit) {
+			this.initialSyncLimit = initialSyncLimit;
+		}
+
+		public int getSyncLimit() {
+			return syncLimit;
+		}
+
+		public void setSyncLimit(int syncLimit) {
+			this.syncLimit = syncLimit;
+		}
+
+		public Duration getSyncOverlap() {
+			return syncOverlap;
+		}
+
+		public void setSyncOverlap(Duration syncOverlap) {
+			this.syncOverlap = syncOverlap;
+		}
+
+		public Duration getRetention() {
+			return retention;
+		}
+
+		public void setRetention(Duration retention) {
+			this.retention = retention;
+		}
+
+	}
+}
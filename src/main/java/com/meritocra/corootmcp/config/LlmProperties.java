@@ -0,0 +1,75 @@
+package com.meritocra.corootmcp.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "llm")
+public class LlmProperties {
+
+	private final Cache cache = new Cache();
+
+	public Cache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Caching of LLM summaries keyed on the tool, model, prompt options and the
+	 * evidence they were generated from.
+	 */
+	public static class Cache {
+
+		private boolean enabled = true;
+
+		/**
+		 * How long a cached summary is reused.
+		 */
+		private Duration ttl = Duration.ofMinutes(30);
+
+		/**
+		 * Maximum number of summaries kept in memory, and on disk when a directory is
+		 * configured. Least recently used entries are evicted first.
+		 */
+		private int maxEntries = 512;
+
+		/**
+		 * Directory of the optional on-disk tier that survives restarts. Memory only
+		 * when not set.
+		 */
+		private Path directory;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getTtl() {
+			return ttl;
+		}
+
+		public void setTtl(Duration ttl) {
+			this.ttl = ttl;
+		}
+
+		public int getMaxEntries() {
+			return maxEntries;
+		}
+
+		public void setMaxEntries(int maxEntries) {
+			this.maxEntries = maxEntries;
+		}
+
+		public Path getDirectory() {
+			return directory;
+		}
+
+		public void setDirectory(Path directory) {
+			this.directory = directory;
+		}
+
+	}
+}
@@ -0,0 +1,235 @@
+package com.meritocra.corootmcp.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "mcp")
+public class McpProperties {
+
+	private final Batch batch = new Batch();
+
+	private final Tools tools = new Tools();
+
+	private final Pagination pagination = new Pagination();
+
+	public Batch getBatch() {
+		return batch;
+	}
+
+	public Tools getTools() {
+		return tools;
+	}
+
+	public Pagination getPagination() {
+		return pagination;
+	}
+
+	/**
+	 * Limits for JSON-RPC batch requests on {@code /mcp}.
+	 */
+	public static class Batch {
+
+		/**
+		 * Maximum number of entries accepted in a single batch.
+		 */
+		private int maxSize = 32;
+
+		/**
+		 * Maximum number of {@code tools/call} entries of one batch that run at the
+		 * same time.
+		 */
+		private int maxConcurrency = 8;
+
+		public int getMaxSize() {
+			return maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		public void setMaxConcurrency(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+	}
+
+	/**
+	 * Concurrency limits for {@code tools/call}, per tool.
+	 */
+	public static class Tools {
+
+		/**
+		 * Maximum number of concurrent calls of a tool without an entry in
+		 * {@code limits}. Zero or less means unlimited.
+		 */
+		private int defaultMaxConcurrency = 32;
+
+		/**
+		 * How long a call of a tool without an entry in {@code limits} waits for a
+		 * permit before it is rejected as busy.
+		 */
+		private Duration defaultQueueTimeout = Duration.ofSeconds(1);
+
+		/**
+		 * Limits by tool name, for instance
+		 * {@code mcp.tools.limits[investigate_incident].max-concurrency=4}.
+		 */
+		private Map<String, Limit> limits = new LinkedHashMap<>();
+
+		public int getDefaultMaxConcurrency() {
+			return defaultMaxConcurrency;
+		}
+
+		public void setDefaultMaxConcurrency(int defaultMaxConcurrency) {
+			this.defaultMaxConcurrency = defaultMaxConcurrency;
+		}
+
+		public Duration getDefaultQueueTimeout() {
+			return defaultQueueTimeout;
+		}
+
+		public void setDefaultQueueTimeout(Duration defaultQueueTimeout) {
+			this.defaultQueueTimeout = defaultQueueTimeout;
+		}
+
+		public Map<String, Limit> getLimits() {
+			return limits;
+		}
+
+		public void setLimits(Map<String, Limit> limits) {
+			this.limits = limits;
+		}
+
+		/**
+		 * Limit of the given tool, falling back to the defaults for anything not set
+		 * on its entry.
+		 */
+		public Limit limitFor(String tool) {
+			Limit configured = limits.get(tool);
+			Limit limit = new Limit();
+			limit.setMaxConcurrency(configured != null && configured.getMaxConcurrency() != null
+					? configured.getMaxConcurrency() : defaultMaxConcurrency);
+			limit.setQueueTimeout(configured != null && configured.getQueueTimeout() != null
+					? configured.getQueueTimeout() : defaultQueueTimeout);
+			return limit;
+		}
+
+	}
+
+	/**
+	 * Concurrency limit of one tool.
+	 */
+	public static class Limit {
+
+		/**
+		 * Maximum number of concurrent calls. Zero or less means unlimited.
+		 */
+		private Integer maxConcurrency;
+
+		/**
+		 * How long a call waits for a permit before it is rejected as busy.
+		 */
+		private Duration queueTimeout;
+
+		public Integer getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		public void setMaxConcurrency(Integer maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		public Duration getQueueTimeout() {
+			return queueTimeout;
+		}
+
+		public void setQueueTimeout(Duration queueTimeout) {
+			this.queueTimeout = queueTimeout;
+		}
+
+	}
+
+	/**
+	 * Cursor pagination of the overview tools. Later pages are served from a
+	 * snapshot of the first call's result held in memory.
+	 */
+	public static class Pagination {
+
+		/**
+		 * Entries per page when a call does not pass {@code pageSize}.
+		 */
+		private int defaultPageSize = 100;
+
+		/**
+		 * Upper bound of {@code pageSize}.
+		 */
+		private int maxPageSize = 1000;
+
+		/**
+		 * How long a snapshot is kept after its last page was read.
+		 */
+		private Duration snapshotTtl = Duration.ofMinutes(5);
+
+		/**
+		 * Maximum number of snapshots held at once; the least recently read is
+		 * dropped first.
+		 */
+		private int maxSnapshots = 64;
+
+		/**
+		 * Maximum number of entries held across all snapshots. Snapshots keep whole
+		 * overview entries, with their indicators, so raise it only with the heap.
+		 */
+		private int maxSnapshotEntries = 10_000;
+
+		public int getDefaultPageSize() {
+			return defaultPageSize;
+		}
+
+		public void setDefaultPageSize(int defaultPageSize) {
+			this.defaultPageSize = defaultPageSize;
+		}
+
+		public int getMaxPageSize() {
+			return maxPageSize;
+		}
+
+		public void setMaxPageSize(int maxPageSize) {
+			this.maxPageSize = maxPageSize;
+		}
+
+		public Duration getSnapshotTtl() {
+			return snapshotTtl;
+		}
+
+		public void setSnapshotTtl(Duration snapshotTtl) {
+			this.snapshotTtl = snapshotTtl;
+		}
+
+		public int getMaxSnapshots() {
+			return maxSnapshots;
+		}
+
+		public void setMaxSnapshots(int maxSnapshots) {
+			this.maxSnapshots = maxSnapshots;
+		}
+
+		public int getMaxSnapshotEntries() {
+			return maxSnapshotEntries;
+		}
+
+		public void setMaxSnapshotEntries(int maxSnapshotEntries) {
+			this.maxSnapshotEntries = maxSnapshotEntries;
+		}
+
+	}
+
+}
@@ -0,0 +1,399 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link CorootClient} decorator that caches the overview endpoints
+ * (applications, nodes, risks, deployments, costs and SLOs) per project.
+ *
+ * <p>
+ * Each endpoint has its own TTL. Once an entry is older than its TTL it keeps
+ * being served for the stale window while a single background refresh
+ * replaces it; only entries past the stale window block the caller. Concurrent
+ * loads of the same endpoint and project are coalesced into one in-flight
+ * Coroot request. Failures, and stale answers of the resilience fallback
+ * ({@link StaleResponses}), are never cached. The cache is bounded by entry
+ * count and by the total number of rows held, evicting least recently used
+ * entries first. Rows are counted deeply, as the elements of every list and
+ * map in a response, so a single map of nested JSON weighs what it holds. All
+ * other calls go straight to the delegate.
+ * </p>
+ */
+public class CachingCorootClient implements CorootClient, MeterBinder, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(CachingCorootClient.class);
+
+	static final List<String> ENDPOINTS = List.of("applications", "nodes", "risks", "deployments", "costs", "slo");
+
+	private final CorootClient delegate;
+
+	private final Map<String, Duration> ttls;
+
+	private final Duration staleTtl;
+
+	private final int maxEntries;
+
+	private final long maxRows;
+
+	private final Executor refreshExecutor;
+
+	private final Clock clock;
+
+	private final Object lock = new Object();
+
+	// Access-ordered so iteration starts at the least recently used entry; guarded by lock.
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long rows;
+
+	private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+	private final Map<String, EndpointStats> stats;
+
+	private final LongAdder evictions = new LongAdder();
+
+	public CachingCorootClient(CorootClient delegate, CorootProperties.ResponseCache properties) {
+		this(delegate, properties, runnable -> Thread.ofVirtual().name("coroot-response-cache").start(runnable),
+				Clock.systemUTC());
+	}
+
+	CachingCorootClient(CorootClient delegate, CorootProperties.ResponseCache properties, Executor refreshExecutor,
+			Clock clock) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.isTrue(properties.getMaxEntries() > 0, "maxEntries must be positive");
+		this.delegate = delegate;
+		Map<String, Duration> ttls = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			ttls.put(endpoint, properties.getTtl().getOrDefault(endpoint, properties.getDefaultTtl()));
+		}
+		this.ttls = Map.copyOf(ttls);
+		this.staleTtl = properties.getStaleTtl();
+		this.maxEntries = properties.getMaxEntries();
+		this.maxRows = properties.getMaxRows();
+		this.refreshExecutor = refreshExecutor;
+		this.clock = clock;
+		Map<String, EndpointStats> stats = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			stats.put(endpoint, new EndpointStats());
+		}
+		this.stats = Map.copyOf(stats);
+	}
+
+	@Override
+	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+		return cached("applications", projectId, () -> delegate.listApplicationsOverview(projectId));
+	}
+
+	@Override
+	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
+		return cached("risks", projectId, () -> delegate.listRisksOverview(projectId));
+	}
+
+	@Override
+	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+		return cached("nodes", projectId, () -> delegate.listNodesOverview(projectId));
+	}
+
+	@Override
+	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
+		return cached("deployments", projectId, () -> delegate.listDeploymentsOverview(projectId));
+	}
+
+	@Override
+	public Map<String, Object> getCostsOverview(String projectId) {
+		return cached("costs", projectId, () -> delegate.getCostsOverview(projectId));
+	}
+
+	@Override
+	public Map<String, Object> getSloOverview(String projectId) {
+		return cached("slo", projectId, () -> delegate.getSloOverview(projectId));
+	}
+
+	@Override
+	public IncidentContext getIncidentContext(String projectId, String incidentId) {
+		return delegate.getIncidentContext(projectId, incidentId);
+	}
+
+	@Override
+	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		return delegate.listRecentIncidents(projectId, minimumSeverity, limit);
+	}
+
+	@Override
+	public List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
+		return delegate.searchIncidents(projectId, query);
+	}
+
+	@Override
+	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
+		return delegate.getServiceHealth(projectId, service);
+	}
+
+	@Override
+	public List<ProjectSummary> listProjects() {
+		return delegate.listProjects();
+	}
+
+	@Override
+	public Map<String, Object> getTracesOverview(String projectId, String query) {
+		return delegate.getTracesOverview(projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getLogsOverview(String projectId, String query) {
+		return delegate.getLogsOverview(projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+		return delegate.getApplicationTracing(projectId, applicationId, windowMinutes);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
+			int maxEntries) {
+		return delegate.getApplicationLogs(projectId, applicationId, windowMinutes, maxEntries);
+	}
+
+	@Override
+	public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		return delegate.summarizeApplicationLogs(projectId, applicationId, windowMinutes, scanLimit);
+	}
+
+	/**
+	 * Drops every cached response so the next call of each endpoint reloads it.
+	 */
+	public void invalidate() {
+		synchronized (lock) {
+			entries.clear();
+			rows = 0;
+		}
+	}
+
+	public int size() {
+		synchronized (lock) {
+			return entries.size();
+		}
+	}
+
+	long rows() {
+		synchronized (lock) {
+			return rows;
+		}
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (delegate instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		stats.forEach((endpoint, endpointStats) -> {
+			FunctionCounter.builder("coroot.response.cache.requests", endpointStats.hits, LongAdder::sum)
+					.description("Overview lookups by cache result")
+					.tag("endpoint", endpoint)
+					.tag("result", "hit")
+					.register(registry);
+			FunctionCounter.builder("coroot.response.cache.requests", endpointStats.staleHits, LongAdder::sum)
+					.tag("endpoint", endpoint)
+					.tag("result", "stale")
+					.register(registry);
+			FunctionCounter.builder("coroot.response.cache.requests", endpointStats.misses, LongAdder::sum)
+					.tag("endpoint", endpoint)
+					.tag("result", "miss")
+					.register(registry);
+			FunctionCounter.builder("coroot.response.cache.loads", endpointStats.loads, LongAdder::sum)
+					.description("Overview fetches from Coroot, after coalescing")
+					.tag("endpoint", endpoint)
+					.register(registry);
+			FunctionCounter.builder("coroot.response.cache.load.failures", endpointStats.loadFailures, LongAdder::sum)
+					.tag("endpoint", endpoint)
+					.register(registry);
+			Gauge.builder("coroot.response.cache.hit.ratio", endpointStats, EndpointStats::hitRatio)
+					.description("Share of overview lookups served from the cache, fresh or stale")
+					.tag("endpoint", endpoint)
+					.register(registry);
+		});
+		FunctionCounter.builder("coroot.response.cache.evictions", evictions, LongAdder::sum)
+				.register(registry);
+		Gauge.builder("coroot.response.cache.size", this, CachingCorootClient::size)
+				.register(registry);
+		Gauge.builder("coroot.response.cache.rows", this, CachingCorootClient::rows)
+				.register(registry);
+	}
+
+	double hitRatio(String endpoint) {
+		return stats.get(endpoint).hitRatio();
+	}
+
+	long loads(String endpoint) {
+		return stats.get(endpoint).loads.sum();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T cached(String endpoint, String projectId, Supplier<T> loader) {
+		Key key = new Key(endpoint, projectId);
+		EndpointStats endpointStats = stats.get(endpoint);
+		Instant now = clock.instant();
+
+		Entry entry;
+		synchronized (lock) {
+			entry = entries.get(key);
+		}
+		if (entry != null && now.isBefore(entry.expiresAt())) {
+			endpointStats.hits.increment();
+			return (T) entry.value();
+		}
+		if (entry != null && now.isBefore(entry.expiresAt().plus(staleTtl))) {
+			endpointStats.staleHits.increment();
+			load(key, endpointStats, loader, true);
+			return (T) entry.value();
+		}
+
+		endpointStats.misses.increment();
+		try {
+			return (T) load(key, endpointStats, loader, false).join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	private CompletableFuture<Object> load(Key key, EndpointStats endpointStats, Supplier<?> loader, boolean async) {
+		CompletableFuture<Object> created = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+		if (existing != null) {
+			return existing;
+		}
+		Runnable task = () -> {
+			endpointStats.loads.increment();
+			try {
+				Object value = loader.get();
+				// A stale fallback answer is passed on as it is but must not be cached as fresh.
+				if (StaleResponses.fetchedAt(value) == null) {
+					store(key, value);
+				}
+				inFlight.remove(key, created);
+				created.complete(value);
+			}
+			catch (RuntimeException ex) {
+				endpointStats.loadFailures.increment();
+				if (async) {
+					logger.debug("Background refresh of Coroot {} overview for project {} failed", key.endpoint(),
+							key.projectId(), ex);
+				}
+				inFlight.remove(key, created);
+				created.completeExceptionally(ex);
+			}
+		};
+		if (async) {
+			refreshExecutor.execute(task);
+		}
+		else {
+			task.run();
+		}
+		return created;
+	}
+
+	private void store(Key key, Object value) {
+		Entry entry = new Entry(value, clock.instant().plus(ttls.get(key.endpoint())), rowsOf(value));
+		synchronized (lock) {
+			Entry previous = entries.put(key, entry);
+			if (previous != null) {
+				rows -= previous.rows();
+			}
+			rows += entry.rows();
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (eldest.hasNext() && (entries.size() > maxEntries || rows > maxRows)) {
+				Entry evicted = eldest.next();
+				eldest.remove();
+				rows -= evicted.rows();
+				evictions.increment();
+			}
+		}
+	}
+
+	private static int rowsOf(Object value) {
+		return Math.max(1, elementsOf(value));
+	}
+
+	/**
+	 * Counts the elements of a list or map and of the lists and maps nested in it.
+	 */
+	private static int elementsOf(Object value) {
+		if (value instanceof Collection<?> collection) {
+			int count = collection.size();
+			for (Object element : collection) {
+				count += elementsOf(element);
+			}
+			return count;
+		}
+		if (value instanceof Map<?, ?> map) {
+			int count = map.size();
+			for (Object element : map.values()) {
+				count += elementsOf(element);
+			}
+			return count;
+		}
+		return 0;
+	}
+
+	private record Key(String endpoint, String projectId) {
+	}
+
+	private record Entry(Object value, Instant expiresAt, int rows) {
+	}
+
+	private static final class EndpointStats {
+
+		private final LongAdder hits = new LongAdder();
+
+		private final LongAdder staleHits = new LongAdder();
+
+		private final LongAdder misses = new LongAdder();
+
+		private final LongAdder loads = new LongAdder();
+
+		private final LongAdder loadFailures = new LongAdder();
+
+		double hitRatio() {
+			long served = hits.sum() + staleHits.sum();
+			long total = served + misses.sum();
+			return total == 0 ? 0.0 : (double) served / total;
+		}
+
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Count-based circuit breaker for one Coroot endpoint.
+ *
+ * <p>
+ * The outcomes of the last {@code windowSize} calls are kept in a ring. Once at
+ * least {@code minimumCalls} have been recorded and the share of failures
+ * reaches the threshold, the breaker opens and rejects calls for
+ * {@code openDuration}. It then lets a single probe call through (half-open):
+ * a success closes it with a fresh window, a failure opens it again.
+ * </p>
+ */
+final class CircuitBreaker {
+
+	enum State {
+
+		CLOSED, OPEN, HALF_OPEN
+
+	}
+
+	private final boolean[] failures;
+
+	private final int minimumCalls;
+
+	private final double failureRateThreshold;
+
+	private final Duration openDuration;
+
+	private final Clock clock;
+
+	// All state below is guarded by this.
+	private State state = State.CLOSED;
+
+	private int next;
+
+	private int recorded;
+
+	private int failed;
+
+	private Instant openedAt;
+
+	private boolean probeInFlight;
+
+	private long timesOpened;
+
+	CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+			Clock clock) {
+		this.failures = new boolean[Math.max(1, windowSize)];
+		this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.failures.length));
+		this.failureRateThreshold = failureRateThreshold;
+		this.openDuration = openDuration;
+		this.clock = clock;
+	}
+
+	/**
+	 * Whether a call may go ahead now. A permitted call must be followed by exactly
+	 * one of {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+	 */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED -> {
+				return true;
+			}
+			case OPEN -> {
+				if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+					return false;
+				}
+				state = State.HALF_OPEN;
+				probeInFlight = true;
+				return true;
+			}
+			default -> {
+				if (probeInFlight) {
+					return false;
+				}
+				probeInFlight = true;
+				return true;
+			}
+		}
+	}
+
+	synchronized void onSuccess() {
+		if (state == State.HALF_OPEN) {
+			close();
+			return;
+		}
+		record(false);
+	}
+
+	synchronized void onFailure() {
+		if (state == State.HALF_OPEN) {
+			open();
+			return;
+		}
+		record(true);
+		if (state == State.CLOSED && recorded >= minimumCalls && (double) failed / recorded >= failureRateThreshold) {
+			open();
+		}
+	}
+
+	/**
+	 * Ends a permitted call whose outcome says nothing about the endpoint, such as
+	 * one that ended with an {@link Error}. A half-open breaker lets the next call
+	 * probe.
+	 */
+	synchronized void onIgnored() {
+		if (state == State.HALF_OPEN) {
+			probeInFlight = false;
+		}
+	}
+
+	synchronized State state() {
+		return state;
+	}
+
+	synchronized long timesOpened() {
+		return timesOpened;
+	}
+
+	private void record(boolean failure) {
+		if (recorded == failures.length) {
+			if (failures[next]) {
+				failed--;
+			}
+		}
+		else {
+			recorded++;
+		}
+		failures[next] = failure;
+		if (failure) {
+			failed++;
+		}
+		next = (next + 1) % failures.length;
+	}
+
+	private void open() {
+		state = State.OPEN;
+		openedAt = clock.instant();
+		probeInFlight = false;
+		timesOpened++;
+	}
+
+	private void close() {
+		state = State.CLOSED;
+		probeInFlight = false;
+		next = 0;
+		recorded = 0;
+		failed = 0;
+	}
+
+}
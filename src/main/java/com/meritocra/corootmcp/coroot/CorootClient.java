@@ -9,6 +9,20 @@ public interface CorootClient {
 
 	List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit);
 
+	/**
+	 * Lists incidents matching {@code query}, newest first. The default filters
+	 * the most recent incidents fetched live, so it can only look as far back as
+	 * {@link #listRecentIncidents} does; clients backed by an incident store can
+	 * search their whole history.
+	 */
+	default List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
+		int fetchLimit = query.hasFilters() ? Math.max(query.limit(), 200) : query.limit();
+		return listRecentIncidents(projectId, query.minimumSeverity(), fetchLimit).stream()
+				.filter(query::matches)
+				.limit(query.limit())
+				.toList();
+	}
+
 	ServiceHealthSnapshot getServiceHealth(String projectId, String service);
 
 	List<ProjectSummary> listProjects();
@@ -29,6 +43,26 @@ public interface CorootClient {
 
 	Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes, int maxEntries);
 
+	/**
+	 * Scans up to {@code scanLimit} recent log entries of an application and
+	 * groups them into message templates. The default reduces the entries returned
+	 * by {@link #getApplicationLogs}; the HTTP client feeds the reducer while the
+	 * response streams in, so the entries are never held in memory.
+	 */
+	default LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		Map<String, Object> view = getApplicationLogs(projectId, applicationId, windowMinutes, scanLimit);
+		LogPatternReducer reducer = new LogPatternReducer(LogPatternReducer.DEFAULT_MAX_TEMPLATES);
+		if (view.get("entries") instanceof List<?> entries) {
+			for (Object item : entries) {
+				if (item instanceof Map<?, ?> entry) {
+					reducer.add(entry);
+				}
+			}
+		}
+		return reducer.summarize();
+	}
+
 	Map<String, Object> getCostsOverview(String projectId);
 
 	Map<String, Object> getSloOverview(String projectId);
@@ -1,10 +1,16 @@
 package com.meritocra.corootmcp.coroot;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.meritocra.corootmcp.config.CorootProperties;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
 
 @Configuration
 public class CorootClientConfiguration {
@@ -17,8 +23,34 @@ public class CorootClientConfiguration {
 
 	@Bean
 	@Profile("!stub-coroot")
-	CorootClient httpCorootClient(CorootProperties properties) {
-		return new HttpCorootClient(properties);
+	CorootClient httpCorootClient(CorootProperties properties, MeterRegistry meterRegistry) {
+		CorootClient client = new HttpCorootClient(properties, meterRegistry);
+		if (properties.getHedging().isEnabled()) {
+			client = new HedgingCorootClient(client, properties.getHedging(), meterRegistry);
+		}
+		if (properties.getResilience().isEnabled()) {
+			ResilientCorootClient resilientClient = new ResilientCorootClient(client, properties.getResilience());
+			resilientClient.bindTo(meterRegistry);
+			client = resilientClient;
+		}
+		if (properties.getResponseCache().isEnabled()) {
+			CachingCorootClient cachingClient = new CachingCorootClient(client, properties.getResponseCache());
+			cachingClient.bindTo(meterRegistry);
+			client = cachingClient;
+		}
+		if (properties.getIncidentStore().isEnabled()) {
+			CorootProperties.IncidentStore storeProperties = properties.getIncidentStore();
+			IncidentStoreCorootClient storeClient = new IncidentStoreCorootClient(client,
+					new IncidentStore(storeProperties.getDirectory()), storeProperties);
+			storeClient.bindTo(meterRegistry);
+			List<String> projects = new ArrayList<>(storeProperties.getProjects());
+			if (projects.isEmpty() && StringUtils.hasText(properties.getDefaultProjectId())) {
+				projects.add(properties.getDefaultProjectId());
+			}
+			storeClient.start(projects);
+			client = storeClient;
+		}
+		return client;
 	}
 }
 
@@ -0,0 +1,266 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * HTTP transport used by {@link HttpCorootClient}: the request factory plus a
+ * per-route concurrency limit shared by every request toward Coroot.
+ *
+ * <p>
+ * The default {@link CorootProperties.Transport#JDK JDK} transport is backed
+ * by a single shared {@link HttpClient} (HTTP/2 when the server supports it,
+ * keep-alive connection pool, virtual-thread executor). The
+ * {@link CorootProperties.Transport#SIMPLE SIMPLE} transport keeps the
+ * previous {@code HttpURLConnection} behaviour for environments where the JDK
+ * client is not an option.
+ * </p>
+ *
+ * <p>
+ * The JDK client only exposes its pool size and keep-alive timeout through
+ * the JVM-wide {@code jdk.httpclient.connectionPoolSize} and
+ * {@code jdk.httpclient.keepalive.timeout} system properties, which would
+ * affect every JDK client in the process. They are left to the operator's
+ * {@code -D} flags; connections toward Coroot are bounded by the per-route
+ * limit instead, since each request in flight holds at most one.
+ * </p>
+ */
+public final class CorootHttpTransport implements AutoCloseable {
+
+	private final ClientHttpRequestFactory requestFactory;
+
+	private final RouteLimiter routeLimiter;
+
+	private final ExecutorService executor;
+
+	private CorootHttpTransport(ClientHttpRequestFactory requestFactory, RouteLimiter routeLimiter,
+			ExecutorService executor) {
+		this.requestFactory = requestFactory;
+		this.routeLimiter = routeLimiter;
+		this.executor = executor;
+	}
+
+	public static CorootHttpTransport create(CorootProperties.Http http, MeterRegistry meterRegistry) {
+		Assert.notNull(http, "http properties must not be null");
+		Assert.notNull(meterRegistry, "meterRegistry must not be null");
+
+		RouteLimiter routeLimiter = new RouteLimiter(http.getMaxRequestsPerRoute(), http.getAcquireTimeout().toMillis(),
+				meterRegistry);
+
+		if (http.getTransport() == CorootProperties.Transport.SIMPLE) {
+			SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+			requestFactory.setConnectTimeout(http.getConnectTimeout());
+			requestFactory.setReadTimeout(http.getReadTimeout());
+			return new CorootHttpTransport(requestFactory, routeLimiter, null);
+		}
+
+		ExecutorService executor = Executors.newThreadPerTaskExecutor(
+				Thread.ofVirtual().name("coroot-http-", 0).factory());
+
+		HttpClient httpClient = HttpClient.newBuilder()
+				.version(http.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+				.connectTimeout(http.getConnectTimeout())
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.executor(executor)
+				.build();
+
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(http.getReadTimeout());
+
+		return new CorootHttpTransport(requestFactory, routeLimiter, executor);
+	}
+
+	public ClientHttpRequestFactory getRequestFactory() {
+		return requestFactory;
+	}
+
+	public ClientHttpRequestInterceptor getInterceptor() {
+		return routeLimiter;
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Caps concurrent requests per route (scheme, host and port). A permit is held
+	 * until the response is closed so streamed bodies count against the limit.
+	 */
+	static final class RouteLimiter implements ClientHttpRequestInterceptor {
+
+		private final int maxRequestsPerRoute;
+
+		private final long acquireTimeoutMillis;
+
+		private final MeterRegistry meterRegistry;
+
+		private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+		private final Timer acquireTimer;
+
+		private final Counter rejections;
+
+		RouteLimiter(int maxRequestsPerRoute, long acquireTimeoutMillis, MeterRegistry meterRegistry) {
+			Assert.isTrue(maxRequestsPerRoute > 0, "max-requests-per-route must be positive");
+			this.maxRequestsPerRoute = maxRequestsPerRoute;
+			this.acquireTimeoutMillis = acquireTimeoutMillis;
+			this.meterRegistry = meterRegistry;
+			this.acquireTimer = Timer.builder("coroot.http.pool.acquire")
+					.description("Time spent waiting for a per-route request permit toward Coroot")
+					.register(meterRegistry);
+			this.rejections = Counter.builder("coroot.http.pool.rejections")
+					.description("Requests toward Coroot rejected because the per-route limit stayed exhausted")
+					.register(meterRegistry);
+		}
+
+		@Override
+		public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+				throws IOException {
+			Route route = routes.computeIfAbsent(routeKey(request.getURI()), this::newRoute);
+
+			long start = System.nanoTime();
+			route.waiting.incrementAndGet();
+			boolean acquired;
+			try {
+				acquired = route.permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new ResourceAccessException("Interrupted while waiting for a Coroot connection permit");
+			}
+			finally {
+				route.waiting.decrementAndGet();
+				acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+			if (!acquired) {
+				rejections.increment();
+				throw new ResourceAccessException("Timed out waiting for a Coroot connection permit ("
+						+ maxRequestsPerRoute + " requests in flight to " + route.key + ")");
+			}
+
+			try {
+				return new PermitReleasingResponse(execution.execute(request, body), route.permits);
+			}
+			catch (IOException | RuntimeException ex) {
+				route.permits.release();
+				throw ex;
+			}
+		}
+
+		int inFlight(String routeKey) {
+			Route route = routes.get(routeKey);
+			return route != null ? maxRequestsPerRoute - route.permits.availablePermits() : 0;
+		}
+
+		private Route newRoute(String key) {
+			Route route = new Route(key, new Semaphore(maxRequestsPerRoute, true));
+			Gauge.builder("coroot.http.pool.in.flight", route,
+					r -> maxRequestsPerRoute - r.permits.availablePermits())
+					.tag("route", key)
+					.description("Requests toward Coroot currently holding a per-route permit")
+					.register(meterRegistry);
+			Gauge.builder("coroot.http.pool.pending", route, r -> r.waiting.get())
+					.tag("route", key)
+					.description("Requests toward Coroot waiting for a per-route permit")
+					.register(meterRegistry);
+			Gauge.builder("coroot.http.pool.max", route, r -> maxRequestsPerRoute)
+					.tag("route", key)
+					.register(meterRegistry);
+			return route;
+		}
+
+		static String routeKey(URI uri) {
+			int port = uri.getPort();
+			if (port < 0) {
+				port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+			}
+			return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+		}
+
+		private record Route(String key, Semaphore permits, AtomicInteger waiting) {
+
+			Route(String key, Semaphore permits) {
+				this(key, permits, new AtomicInteger());
+			}
+		}
+	}
+
+	private static final class PermitReleasingResponse implements ClientHttpResponse {
+
+		private final ClientHttpResponse delegate;
+
+		private final Semaphore permits;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		PermitReleasingResponse(ClientHttpResponse delegate, Semaphore permits) {
+			this.delegate = delegate;
+			this.permits = permits;
+		}
+
+		@Override
+		public HttpStatusCode getStatusCode() throws IOException {
+			return delegate.getStatusCode();
+		}
+
+		@Override
+		public String getStatusText() throws IOException {
+			return delegate.getStatusText();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			return delegate.getBody();
+		}
+
+		@Override
+		public void close() {
+			try {
+				delegate.close();
+			}
+			finally {
+				if (released.compareAndSet(false, true)) {
+					permits.release();
+				}
+			}
+		}
+	}
+
+}
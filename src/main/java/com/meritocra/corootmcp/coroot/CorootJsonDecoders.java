@@ -0,0 +1,816 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Streaming decoders for Coroot API responses.
+ *
+ * <p>
+ * Each decoder reads the response with a Jackson {@link JsonParser} and builds
+ * the domain objects straight from the token stream. Fields that no tool uses
+ * are skipped without materialising them, so large overview payloads never
+ * exist as an intermediate {@code Map}/{@code List} tree.
+ * </p>
+ */
+final class CorootJsonDecoders {
+
+	private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+
+	private static final Set<String> APPLICATION_INDICATORS = Set.of("errors", "latency", "upstreams", "instances",
+			"restarts", "cpu", "memory", "disk_io_load", "disk_usage", "network", "dns", "logs");
+
+	private static final Set<String> EXPOSURE_FIELDS = Set.of("ips", "ports", "node_port_services",
+			"load_balancer_services");
+
+	private CorootJsonDecoders() {
+	}
+
+	/**
+	 * Decodes one response body. The parser is positioned on the first token of the
+	 * document when the decoder is invoked.
+	 */
+	@FunctionalInterface
+	interface Decoder<T> {
+
+		T decode(JsonParser parser) throws IOException;
+
+	}
+
+	static <T> T decode(InputStream body, Decoder<T> decoder, T emptyValue) throws IOException {
+		if (body == null) {
+			return emptyValue;
+		}
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() == null) {
+				return emptyValue;
+			}
+			T result = decoder.decode(parser);
+			return result != null ? result : emptyValue;
+		}
+	}
+
+	static Decoder<List<ProjectSummary>> projects() {
+		return parser -> {
+			List<ProjectSummary> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "projects", () -> {
+				String id = "";
+				String name = null;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "id" -> id = text(parser);
+						case "name" -> name = nullableText(parser);
+						default -> parser.skipChildren();
+					}
+				}
+				if (StringUtils.hasText(id)) {
+					result.add(new ProjectSummary(id, name != null ? name : id));
+				}
+			});
+			return result;
+		};
+	}
+
+	static Decoder<List<ApplicationOverviewEntry>> applications(String projectId) {
+		return parser -> {
+			List<ApplicationOverviewEntry> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "applications", () -> {
+				String service = "";
+				String cluster = "";
+				String category = "";
+				String status = "";
+				Map<String, Object> indicators = new HashMap<>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "id" -> service = objectText(parser, "name");
+						case "cluster" -> cluster = text(parser);
+						case "category" -> category = text(parser);
+						case "status" -> status = text(parser);
+						default -> {
+							if (APPLICATION_INDICATORS.contains(field)) {
+								Map<String, Object> indicator = indicator(parser);
+								if (indicator != null) {
+									indicators.put(field, indicator);
+								}
+							}
+							else {
+								parser.skipChildren();
+							}
+						}
+					}
+				}
+				result.add(new ApplicationOverviewEntry(projectId, service, cluster, category, status, indicators));
+			});
+			return result;
+		};
+	}
+
+	static Decoder<List<NodeOverviewEntry>> nodes(String projectId) {
+		return parser -> {
+			List<NodeOverviewEntry> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "nodes", () -> {
+				String name = "";
+				String cluster = "";
+				String status = "";
+				int applications = 0;
+				int instances = 0;
+				String uptime = "";
+				List<String> privateIps = List.of();
+				List<String> publicIps = List.of();
+				Double cpu = null;
+				Double memory = null;
+				Double network = null;
+				Double disk = null;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "name" -> name = text(parser);
+						case "cluster" -> cluster = text(parser);
+						case "status" -> status = text(parser);
+						case "applications" -> applications = intValue(parser);
+						case "instances" -> instances = intValue(parser);
+						case "uptime" -> uptime = text(parser);
+						case "private_ips" -> privateIps = stringList(parser);
+						case "public_ips" -> publicIps = stringList(parser);
+						case "cpu" -> cpu = doubleValue(parser);
+						case "memory" -> memory = doubleValue(parser);
+						case "network" -> network = doubleValue(parser);
+						case "disk" -> disk = doubleValue(parser);
+						default -> parser.skipChildren();
+					}
+				}
+				result.add(new NodeOverviewEntry(projectId, name, cluster, status, applications, instances, uptime,
+						privateIps, publicIps, cpu, memory, network, disk));
+			});
+			return result;
+		};
+	}
+
+	static Decoder<List<RiskOverviewEntry>> risks(String projectId) {
+		return parser -> {
+			List<RiskOverviewEntry> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "risks", () -> {
+				String service = "";
+				String cluster = "";
+				String category = "";
+				String severity = "";
+				String type = "";
+				Map<String, Object> exposure = new HashMap<>();
+				String availability = "";
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "application_id" -> service = objectText(parser, "name");
+						case "cluster" -> cluster = text(parser);
+						case "application_category" -> category = text(parser);
+						case "severity" -> severity = text(parser);
+						case "type" -> type = text(parser);
+						case "exposure" -> readExposure(parser, exposure);
+						case "availability" -> availability = objectText(parser, "description");
+						default -> parser.skipChildren();
+					}
+				}
+				result.add(new RiskOverviewEntry(projectId, service, cluster, category, severity, type, exposure,
+						availability));
+			});
+			return result;
+		};
+	}
+
+	static Decoder<List<DeploymentOverviewEntry>> deployments(String projectId) {
+		return parser -> {
+			List<DeploymentOverviewEntry> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "deployments", () -> {
+				String service = "";
+				String cluster = "";
+				String version = "";
+				String status = "";
+				String age = "";
+				List<String> summary = new ArrayList<>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "application_id" -> {
+							String[] appId = objectTexts(parser, "name", "cluster_id");
+							service = appId[0];
+							cluster = appId[1];
+						}
+						case "version" -> version = text(parser);
+						case "status" -> status = text(parser);
+						case "age" -> age = text(parser);
+						case "events" -> readDeploymentEvents(parser, summary);
+						default -> parser.skipChildren();
+					}
+				}
+				result.add(new DeploymentOverviewEntry(projectId, service, cluster, version, status, age, summary));
+			});
+			return result;
+		};
+	}
+
+	static Decoder<List<IncidentSummary>> incidents() {
+		return parser -> {
+			List<IncidentSummary> result = new ArrayList<>();
+			forEachRootArrayObject(parser, "incidents", () -> result.add(incidentSummary(parser)));
+			return result;
+		};
+	}
+
+	/**
+	 * Decodes one page of the incident list, building summaries only for the
+	 * incidents that match {@code query}. The fields of the others are read into
+	 * a reused holder and dropped.
+	 */
+	static Decoder<IncidentIterator.Page> incidentPage(IncidentQuery query) {
+		return parser -> {
+			IncidentFields fields = new IncidentFields();
+			List<IncidentSummary> matches = new ArrayList<>();
+			int[] size = { 0 };
+			String[] firstId = { null };
+			boolean[] pastSince = { false };
+			forEachRootArrayObject(parser, "incidents", () -> {
+				fields.read(parser);
+				if (size[0]++ == 0) {
+					firstId[0] = fields.id;
+				}
+				IncidentSeverity severity = parseSeverity(fields.severity);
+				Instant startedAt = parseInstant(fields.startedAt);
+				if (query.since() != null && startedAt != null && startedAt.isBefore(query.since())) {
+					pastSince[0] = true;
+				}
+				if (query.matches(severity, fields.service, startedAt)) {
+					matches.add(fields.toSummary(severity, startedAt));
+				}
+			});
+			return new IncidentIterator.Page(matches, size[0], firstId[0], pastSince[0]);
+		};
+	}
+
+	static Decoder<IncidentContext> incidentContext() {
+		return parser -> {
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				return null;
+			}
+			IncidentSummary summary = null;
+			String suspectedRootCause = "";
+			List<String> affectedServices = List.of();
+			Map<String, Object> metricsSnapshot = Map.of();
+			List<String> timeline = List.of();
+			Instant lastUpdatedAt = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				JsonToken token = parser.nextToken();
+				switch (field) {
+					case "summary" -> {
+						if (token == JsonToken.START_OBJECT) {
+							summary = incidentSummary(parser);
+						}
+						else {
+							parser.skipChildren();
+						}
+					}
+					case "suspectedRootCause" -> suspectedRootCause = text(parser);
+					case "affectedServices" -> affectedServices = stringList(parser);
+					case "metricsSnapshot" -> metricsSnapshot = objectValue(parser);
+					case "timeline" -> timeline = stringList(parser);
+					case "lastUpdatedAt" -> lastUpdatedAt = parseInstant(nullableText(parser));
+					default -> parser.skipChildren();
+				}
+			}
+			if (summary == null) {
+				summary = new IncidentSummary("", "", IncidentSeverity.INFO, "", null, null);
+			}
+			return new IncidentContext(summary, suspectedRootCause, affectedServices, metricsSnapshot, timeline,
+					lastUpdatedAt);
+		};
+	}
+
+	static Decoder<ServiceHealthSnapshot> serviceHealth(String projectId, String service) {
+		return parser -> {
+			Map<String, Object> indicators = Map.of();
+			Instant observedAt = null;
+			if (parser.currentToken() == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "indicators" -> indicators = objectValue(parser);
+						case "observedAt" -> observedAt = parseInstant(nullableText(parser));
+						default -> parser.skipChildren();
+					}
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+			return new ServiceHealthSnapshot(projectId, service, indicators, observedAt);
+		};
+	}
+
+	static Decoder<Map<String, Object>> sloOverview(String projectId) {
+		return parser -> {
+			Map<String, Object> availability = new HashMap<>();
+			Map<String, Object> latency = new HashMap<>();
+
+			forEachRootArrayObject(parser, "checks", () -> {
+				String id = "";
+				Double globalThreshold = null;
+				Double projectThreshold = null;
+				String projectDetails = "";
+				List<Map<String, Object>> apps = new ArrayList<>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					JsonToken token = parser.nextToken();
+					switch (field) {
+						case "id" -> id = text(parser);
+						case "global_threshold" -> globalThreshold = doubleValue(parser);
+						case "project_threshold" -> {
+							if (token != null && token.isNumeric()) {
+								projectThreshold = parser.getDoubleValue();
+							}
+							else {
+								parser.skipChildren();
+							}
+						}
+						case "project_details" -> projectDetails = text(parser);
+						case "application_overrides" -> readSloOverrides(parser, apps);
+						default -> parser.skipChildren();
+					}
+				}
+				if (!"SLOAvailability".equals(id) && !"SLOLatency".equals(id)) {
+					return;
+				}
+
+				Map<String, Object> target = "SLOAvailability".equals(id) ? availability : latency;
+				if (globalThreshold != null) {
+					target.put("globalObjectivePercent", globalThreshold);
+				}
+				if (projectThreshold != null) {
+					target.put("projectObjectivePercent", projectThreshold);
+				}
+				if (!projectDetails.isEmpty()) {
+					target.put("projectDetails", projectDetails);
+				}
+				if (!apps.isEmpty()) {
+					target.put("applications", apps);
+				}
+			});
+
+			Map<String, Object> result = new HashMap<>();
+			result.put("projectId", projectId);
+			if (!availability.isEmpty()) {
+				result.put("availability", availability);
+			}
+			if (!latency.isEmpty()) {
+				result.put("latency", latency);
+			}
+			return result;
+		};
+	}
+
+	/**
+	 * Feeds the entries of an application's logs view to {@code reducer} one by one
+	 * as they are parsed, so only the templates are held in memory.
+	 */
+	static Decoder<LogPatternReducer.Summary> logPatterns(LogPatternReducer reducer) {
+		return parser -> {
+			forEachRootArrayObject(parser, "entries", () -> {
+				String timestamp = null;
+				String severity = null;
+				String message = null;
+				String traceId = null;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					switch (field) {
+						case "timestamp" -> timestamp = nullableText(parser);
+						case "severity" -> severity = nullableText(parser);
+						case "message" -> message = nullableText(parser);
+						case "trace_id" -> traceId = nullableText(parser);
+						default -> parser.skipChildren();
+					}
+				}
+				reducer.add(LogPatternReducer.timestampMs(timestamp), severity, message, traceId);
+			});
+			return reducer.summarize();
+		};
+	}
+
+	/**
+	 * Generic decoder for endpoints whose payload is passed through to tools as-is.
+	 */
+	static Decoder<Map<String, Object>> map() {
+		return parser -> {
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				return null;
+			}
+			return objectValue(parser);
+		};
+	}
+
+	static Instant parseInstant(String value) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			// ISO-8601 with offset, e.g. 2025-11-14T10:00:00Z
+			return OffsetDateTime.parse(value).toInstant();
+		}
+		catch (Exception ex) {
+			// Fallback: epoch seconds
+			try {
+				long epochSeconds = Long.parseLong(value);
+				return Instant.ofEpochSecond(epochSeconds);
+			}
+			catch (Exception ignored) {
+				return Instant.now().atOffset(ZoneOffset.UTC).toInstant();
+			}
+		}
+	}
+
+	static IncidentSeverity parseSeverity(String value) {
+		try {
+			return IncidentSeverity.valueOf(value.toUpperCase());
+		}
+		catch (IllegalArgumentException ex) {
+			return IncidentSeverity.INFO;
+		}
+	}
+
+	private static IncidentSummary incidentSummary(JsonParser parser) throws IOException {
+		IncidentFields fields = new IncidentFields();
+		fields.read(parser);
+		return fields.toSummary(parseSeverity(fields.severity), parseInstant(fields.startedAt));
+	}
+
+	private static Map<String, Object> indicator(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return null;
+		}
+		String status = "";
+		String value = "";
+		int fields = 0;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			fields++;
+			switch (field) {
+				case "status" -> status = text(parser);
+				case "value" -> value = text(parser);
+				default -> parser.skipChildren();
+			}
+		}
+		if (fields == 0) {
+			return null;
+		}
+		Map<String, Object> summary = new HashMap<>();
+		summary.put("status", status);
+		summary.put("value", value);
+		return summary;
+	}
+
+	private static void readExposure(JsonParser parser, Map<String, Object> exposure) throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			parser.nextToken();
+			if (EXPOSURE_FIELDS.contains(field)) {
+				Object value = readValue(parser);
+				if (value != null) {
+					exposure.put(field, value);
+				}
+			}
+			else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	private static void readDeploymentEvents(JsonParser parser, List<String> summary) throws IOException {
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			String[] event = objectTexts(parser, "message", "status");
+			String message = event[0];
+			String eventStatus = event[1];
+			if (!message.isEmpty()) {
+				summary.add(eventStatus.isEmpty() ? message : eventStatus + ": " + message);
+			}
+		}
+	}
+
+	private static void readSloOverrides(JsonParser parser, List<Map<String, Object>> apps) throws IOException {
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				parser.skipChildren();
+				continue;
+			}
+			String service = "";
+			Double threshold = null;
+			String details = "";
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				switch (field) {
+					case "id" -> service = objectText(parser, "name");
+					case "threshold" -> threshold = doubleValue(parser);
+					case "details" -> details = text(parser);
+					default -> parser.skipChildren();
+				}
+			}
+
+			Map<String, Object> appEntry = new HashMap<>();
+			appEntry.put("service", service);
+			if (threshold != null) {
+				appEntry.put("objectivePercent", threshold);
+			}
+			if (!details.isEmpty()) {
+				appEntry.put("details", details);
+			}
+			apps.add(appEntry);
+		}
+	}
+
+	/**
+	 * Walks the root object and invokes {@code elementHandler} for every object
+	 * element of the array stored under {@code arrayField}. Every other field is
+	 * skipped. The handler is invoked with the parser on the element's
+	 * {@code START_OBJECT} and must consume the element up to its
+	 * {@code END_OBJECT}.
+	 */
+	private static void forEachRootArrayObject(JsonParser parser, String arrayField, ElementHandler elementHandler)
+			throws IOException {
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return;
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.currentName();
+			JsonToken token = parser.nextToken();
+			if (!arrayField.equals(field) || token != JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				continue;
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				if (parser.currentToken() == JsonToken.START_OBJECT) {
+					elementHandler.handle();
+				}
+				else {
+					parser.skipChildren();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Raw fields of one incident list entry, reused across the entries of a page.
+	 */
+	private static final class IncidentFields {
+
+		private String id;
+
+		private String title;
+
+		private String service;
+
+		private String severity;
+
+		private String startedAt;
+
+		private String endedAt;
+
+		/**
+		 * Reads the object the parser is positioned on, up to its
+		 * {@code END_OBJECT}.
+		 */
+		void read(JsonParser parser) throws IOException {
+			id = "";
+			title = "";
+			service = "";
+			severity = "INFO";
+			startedAt = null;
+			endedAt = null;
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.currentName();
+				parser.nextToken();
+				switch (field) {
+					case "id" -> id = text(parser);
+					case "title" -> title = text(parser);
+					case "service" -> service = text(parser);
+					case "severity" -> {
+						String value = nullableText(parser);
+						severity = value != null ? value : "INFO";
+					}
+					case "startedAt" -> startedAt = nullableText(parser);
+					case "endedAt" -> endedAt = nullableText(parser);
+					default -> parser.skipChildren();
+				}
+			}
+		}
+
+		IncidentSummary toSummary(IncidentSeverity parsedSeverity, Instant parsedStartedAt) {
+			return new IncidentSummary(id, title, parsedSeverity, service, parsedStartedAt, parseInstant(endedAt));
+		}
+
+	}
+
+	@FunctionalInterface
+	private interface ElementHandler {
+
+		void handle() throws IOException;
+
+	}
+
+	/**
+	 * Reads the current scalar as text; {@code null} and structured values become
+	 * an empty string.
+	 */
+	static String text(JsonParser parser) throws IOException {
+		String value = nullableText(parser);
+		return value != null ? value : "";
+	}
+
+	private static String nullableText(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == null || token == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		if (token.isStructStart()) {
+			parser.skipChildren();
+			return null;
+		}
+		return parser.getText();
+	}
+
+	private static String objectText(JsonParser parser, String field) throws IOException {
+		return objectTexts(parser, field)[0];
+	}
+
+	private static String[] objectTexts(JsonParser parser, String... fields) throws IOException {
+		String[] values = new String[fields.length];
+		Arrays.fill(values, "");
+		if (parser.currentToken() != JsonToken.START_OBJECT) {
+			parser.skipChildren();
+			return values;
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			parser.nextToken();
+			boolean matched = false;
+			for (int i = 0; i < fields.length; i++) {
+				if (fields[i].equals(name)) {
+					values[i] = text(parser);
+					matched = true;
+					break;
+				}
+			}
+			if (!matched) {
+				parser.skipChildren();
+			}
+		}
+		return values;
+	}
+
+	private static int intValue(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token != null && token.isNumeric()) {
+			return parser.getNumberValue().intValue();
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			try {
+				return Integer.parseInt(parser.getText());
+			}
+			catch (NumberFormatException ex) {
+				return 0;
+			}
+		}
+		parser.skipChildren();
+		return 0;
+	}
+
+	private static Double doubleValue(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token != null && token.isNumeric()) {
+			return parser.getDoubleValue();
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			try {
+				return Double.parseDouble(parser.getText());
+			}
+			catch (NumberFormatException ex) {
+				return null;
+			}
+		}
+		parser.skipChildren();
+		return null;
+	}
+
+	private static List<String> stringList(JsonParser parser) throws IOException {
+		if (parser.currentToken() != JsonToken.START_ARRAY) {
+			parser.skipChildren();
+			return List.of();
+		}
+		List<String> values = new ArrayList<>();
+		while (parser.nextToken() != JsonToken.END_ARRAY) {
+			String value = nullableText(parser);
+			if (value != null) {
+				values.add(value);
+			}
+		}
+		return values;
+	}
+
+	private static Map<String, Object> objectValue(JsonParser parser) throws IOException {
+		Object value = readValue(parser);
+		if (value instanceof Map<?, ?>) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> map = (Map<String, Object>) value;
+			return map;
+		}
+		return Map.of();
+	}
+
+	/**
+	 * Materialises the current value generically. Only used for the small, free-form
+	 * parts of a response that are passed through to tools as-is.
+	 */
+	static Object readValue(JsonParser parser) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == null) {
+			return null;
+		}
+		switch (token) {
+			case START_OBJECT -> {
+				Map<String, Object> map = new LinkedHashMap<>();
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					parser.nextToken();
+					map.put(field, readValue(parser));
+				}
+				return map;
+			}
+			case START_ARRAY -> {
+				List<Object> list = new ArrayList<>();
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					list.add(readValue(parser));
+				}
+				return list;
+			}
+			case VALUE_STRING -> {
+				return parser.getText();
+			}
+			case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+				return parser.getNumberValue();
+			}
+			case VALUE_TRUE -> {
+				return Boolean.TRUE;
+			}
+			case VALUE_FALSE -> {
+				return Boolean.FALSE;
+			}
+			default -> {
+				return null;
+			}
+		}
+	}
+
+}
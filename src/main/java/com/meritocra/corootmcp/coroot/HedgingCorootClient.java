@@ -0,0 +1,370 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link CorootClient} decorator that hedges the traces and logs endpoints,
+ * whose latency tail comes from occasional slow ClickHouse queries.
+ *
+ * <p>
+ * A hedged call runs on a virtual thread. If it has not answered within the
+ * endpoint's configured latency percentile (taken over its recent requests,
+ * and never below {@code min-delay}), an identical request is sent. The first
+ * successful response wins and the other request is cancelled by interrupting
+ * it; a failure only ends the call once both requests have failed. An endpoint
+ * is not hedged until it has {@code min-samples} latencies to derive the delay
+ * from.
+ * </p>
+ *
+ * <p>
+ * Duplicates are paid for from a shared budget: each hedgeable call adds
+ * {@code budget-percent} hundredths of a request to it, and each duplicate
+ * takes a whole one, so extra load stays below that percentage. The latency
+ * the caller sees is recorded in {@code coroot.hedging.latency}; compare it with
+ * the per-request {@code coroot.api.requests} of the same endpoint to see the
+ * effect on the tail.
+ * </p>
+ */
+public class HedgingCorootClient implements CorootClient, AutoCloseable {
+
+	static final List<String> ENDPOINTS = List.of("traces", "logs", "tracing", "app-logs", "app-logs-summary");
+
+	// At most this many duplicates can be sent back to back after a quiet period.
+	private static final long MAX_BUDGET = 10 * 100;
+
+	private final CorootClient delegate;
+
+	private final CorootProperties.Hedging properties;
+
+	private final ExecutorService executor;
+
+	private final Map<String, Endpoint> endpoints;
+
+	// Hundredths of a duplicate request that may be sent.
+	private final AtomicLong budget = new AtomicLong();
+
+	public HedgingCorootClient(CorootClient delegate, CorootProperties.Hedging properties,
+			MeterRegistry meterRegistry) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.isTrue(properties.getPercentile() > 0 && properties.getPercentile() < 1,
+				"percentile must be between 0 and 1");
+		this.delegate = delegate;
+		this.properties = properties;
+		this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("coroot-hedge-", 0).factory());
+		Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			if (properties.getEndpoints().contains(endpoint)) {
+				endpoints.put(endpoint, new Endpoint(endpoint, meterRegistry));
+			}
+		}
+		this.endpoints = Map.copyOf(endpoints);
+	}
+
+	@Override
+	public Map<String, Object> getTracesOverview(String projectId, String query) {
+		return call("traces", () -> delegate.getTracesOverview(projectId, query));
+	}
+
+	@Override
+	public Map<String, Object> getLogsOverview(String projectId, String query) {
+		return call("logs", () -> delegate.getLogsOverview(projectId, query));
+	}
+
+	@Override
+	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+		return call("tracing", () -> delegate.getApplicationTracing(projectId, applicationId, windowMinutes));
+	}
+
+	@Override
+	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
+			int maxEntries) {
+		return call("app-logs",
+				() -> delegate.getApplicationLogs(projectId, applicationId, windowMinutes, maxEntries));
+	}
+
+	@Override
+	public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		return call("app-logs-summary",
+				() -> delegate.summarizeApplicationLogs(projectId, applicationId, windowMinutes, scanLimit));
+	}
+
+	@Override
+	public IncidentContext getIncidentContext(String projectId, String incidentId) {
+		return delegate.getIncidentContext(projectId, incidentId);
+	}
+
+	@Override
+	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		return delegate.listRecentIncidents(projectId, minimumSeverity, limit);
+	}
+
+	@Override
+	public List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
+		return delegate.searchIncidents(projectId, query);
+	}
+
+	@Override
+	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
+		return delegate.getServiceHealth(projectId, service);
+	}
+
+	@Override
+	public List<ProjectSummary> listProjects() {
+		return delegate.listProjects();
+	}
+
+	@Override
+	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+		return delegate.listApplicationsOverview(projectId);
+	}
+
+	@Override
+	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
+		return delegate.listRisksOverview(projectId);
+	}
+
+	@Override
+	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+		return delegate.listNodesOverview(projectId);
+	}
+
+	@Override
+	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
+		return delegate.listDeploymentsOverview(projectId);
+	}
+
+	@Override
+	public Map<String, Object> getCostsOverview(String projectId) {
+		return delegate.getCostsOverview(projectId);
+	}
+
+	@Override
+	public Map<String, Object> getSloOverview(String projectId) {
+		return delegate.getSloOverview(projectId);
+	}
+
+	@Override
+	public void close() throws Exception {
+		executor.shutdownNow();
+		if (delegate instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	/**
+	 * Current hedging delay of an endpoint, or {@code null} while it has too few
+	 * samples to be hedged.
+	 */
+	Duration hedgeDelay(String endpoint) {
+		Endpoint state = endpoints.get(endpoint);
+		if (state == null) {
+			return null;
+		}
+		long nanos = state.delayNanos();
+		return nanos < 0 ? null : Duration.ofNanos(nanos);
+	}
+
+	private <T> T call(String name, Supplier<T> supplier) {
+		Endpoint endpoint = endpoints.get(name);
+		if (endpoint == null) {
+			return supplier.get();
+		}
+		budget.updateAndGet(available -> Math.min(MAX_BUDGET, available + properties.getBudgetPercent()));
+		long start = System.nanoTime();
+		try {
+			long delay = endpoint.delayNanos();
+			if (delay < 0) {
+				T result = supplier.get();
+				endpoint.record(System.nanoTime() - start);
+				return result;
+			}
+			return hedged(endpoint, supplier, delay);
+		}
+		finally {
+			endpoint.latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private <T> T hedged(Endpoint endpoint, Supplier<T> supplier, long delayNanos) {
+		CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+		Future<T> primary = completion.submit(endpoint.timed(supplier));
+		Future<T> hedge = null;
+		try {
+			Future<T> first = completion.poll(delayNanos, TimeUnit.NANOSECONDS);
+			if (first == null) {
+				if (tryTakeBudget()) {
+					hedge = completion.submit(endpoint.timed(supplier));
+					endpoint.hedges.increment();
+				}
+				else {
+					endpoint.budgetExhausted.increment();
+				}
+				first = completion.take();
+			}
+			try {
+				T result = first.get();
+				if (first == hedge) {
+					endpoint.hedgeWins.increment();
+				}
+				return result;
+			}
+			catch (ExecutionException ex) {
+				if (hedge == null) {
+					throw unwrap(ex);
+				}
+				// One request failed; the other may still succeed.
+				Future<T> second = completion.take();
+				try {
+					T result = second.get();
+					if (second == hedge) {
+						endpoint.hedgeWins.increment();
+					}
+					return result;
+				}
+				catch (ExecutionException secondEx) {
+					throw unwrap(secondEx);
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for Coroot " + endpoint.name, ex);
+		}
+		finally {
+			primary.cancel(true);
+			if (hedge != null) {
+				hedge.cancel(true);
+			}
+		}
+	}
+
+	private boolean tryTakeBudget() {
+		while (true) {
+			long available = budget.get();
+			if (available < 100) {
+				return false;
+			}
+			if (budget.compareAndSet(available, available - 100)) {
+				return true;
+			}
+		}
+	}
+
+	private static RuntimeException unwrap(ExecutionException ex) {
+		Throwable cause = ex.getCause();
+		if (cause instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		if (cause instanceof Error error) {
+			throw error;
+		}
+		return new IllegalStateException(cause);
+	}
+
+	private final class Endpoint {
+
+		private final String name;
+
+		private final Timer latency;
+
+		private final LongAdder hedges = new LongAdder();
+
+		private final LongAdder hedgeWins = new LongAdder();
+
+		private final LongAdder budgetExhausted = new LongAdder();
+
+		// Ring of the latest request latencies in nanoseconds; guarded by itself.
+		private final long[] samples;
+
+		private int next;
+
+		private int recorded;
+
+		Endpoint(String name, MeterRegistry registry) {
+			this.name = name;
+			this.samples = new long[Math.max(1, properties.getWindowSize())];
+			this.latency = Timer.builder("coroot.hedging.latency")
+					.description("Latency of hedgeable Coroot calls as seen by the caller")
+					.tag("endpoint", name)
+					.publishPercentileHistogram()
+					.register(registry);
+			FunctionCounter.builder("coroot.hedging.requests", hedges, LongAdder::sum)
+					.description("Duplicate requests sent after the hedging delay")
+					.tag("endpoint", name)
+					.register(registry);
+			FunctionCounter.builder("coroot.hedging.wins", hedgeWins, LongAdder::sum)
+					.description("Calls answered by the duplicate request")
+					.tag("endpoint", name)
+					.register(registry);
+			FunctionCounter.builder("coroot.hedging.budget.exhausted", budgetExhausted, LongAdder::sum)
+					.tag("endpoint", name)
+					.register(registry);
+			Gauge.builder("coroot.hedging.delay", this, endpoint -> Math.max(0, endpoint.delayNanos()) / 1e9)
+					.baseUnit("seconds")
+					.tag("endpoint", name)
+					.register(registry);
+		}
+
+		<T> Callable<T> timed(Supplier<T> supplier) {
+			return () -> {
+				long start = System.nanoTime();
+				T result = supplier.get();
+				record(System.nanoTime() - start);
+				return result;
+			};
+		}
+
+		void record(long nanos) {
+			synchronized (samples) {
+				samples[next] = nanos;
+				next = (next + 1) % samples.length;
+				recorded = Math.min(recorded + 1, samples.length);
+			}
+		}
+
+		/**
+		 * Configured percentile of the recent latencies, or {@code -1} while there are
+		 * fewer than {@code min-samples}.
+		 */
+		long delayNanos() {
+			long[] sorted;
+			synchronized (samples) {
+				if (recorded < Math.max(1, properties.getMinSamples())) {
+					return -1;
+				}
+				sorted = Arrays.copyOf(samples, recorded);
+			}
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(properties.getPercentile() * sorted.length) - 1;
+			long percentile = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+			return Math.max(percentile, properties.getMinDelay().toNanos());
+		}
+
+	}
+
+}
@@ -1,23 +1,39 @@
 package com.meritocra.corootmcp.coroot;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.time.Instant;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 import com.meritocra.corootmcp.config.CorootProperties;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClient;
-import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.util.UriBuilder;
 
 /**
  * HTTP-backed implementation of {@link CorootClient} that talks to the Coroot
@@ -41,31 +57,100 @@ import org.springframework.web.client.RestClientException;
  * The Coroot API is expected to be secured with
  * {@code X-API-Key: <coroot.api-key>} as configured in {@link CorootProperties}.
  * </p>
+ *
+ * <p>
+ * Project names are resolved to ids through a cached {@link ProjectDirectory}
+ * so that regular calls do not pay an extra {@code GET /api/user} round trip.
+ * </p>
+ *
+ * <p>
+ * Responses are decoded with the streaming {@link CorootJsonDecoders} rather
+ * than bound to a generic {@code Map}, so only the fields the tools use are
+ * materialised.
+ * </p>
+ *
+ * <p>
+ * Every endpoint is metered by URI template: {@code coroot.api.requests}
+ * (latency histogram by outcome), {@code coroot.api.errors},
+ * {@code coroot.api.response.size} and {@code coroot.api.requests.in.flight}.
+ * </p>
+ *
+ * <p>
+ * Unless {@code coroot.http.compression} is disabled, responses are requested
+ * with {@code Accept-Encoding: gzip} and inflated as a stream while being
+ * decoded. {@code coroot.api.response.wire.size} records the bytes received and
+ * {@code coroot.api.response.decompression} the time spent inflating them.
+ * </p>
+ *
+ * <p>
+ * Incident searches page through the incident list with an
+ * {@link IncidentIterator} until {@code limit} incidents match, so filtering on
+ * severity, service or time does not return short lists.
+ * </p>
  */
-public class HttpCorootClient implements CorootClient {
+public class HttpCorootClient implements CorootClient, AutoCloseable {
+
+	private static final ResponseErrorHandler ERROR_HANDLER = new DefaultResponseErrorHandler();
+
+	// Upper bound of log entries scanned when summarizing an application's logs.
+	private static final int MAX_LOG_SCAN = 5000;
+
+	private final CorootHttpTransport transport;
 
 	private final RestClient restClient;
 
 	private final CorootProperties properties;
 
+	private final ProjectDirectory projectDirectory;
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, ApiMeters> apiMeters = new ConcurrentHashMap<>();
+
+	private final DistributionSummary incidentPages;
+
 	public HttpCorootClient(CorootProperties properties) {
+		this(properties, Metrics.globalRegistry);
+	}
+
+	public HttpCorootClient(CorootProperties properties, MeterRegistry meterRegistry) {
 		Assert.notNull(properties, "corootProperties must not be null");
 		Assert.notNull(properties.getApiUrl(), "coroot.api-url must be configured");
 		if (!StringUtils.hasText(properties.getApiKey())) {
 			throw new IllegalStateException("coroot.api-key (COROOT_API_KEY) must be configured");
 		}
 
-		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-		requestFactory.setConnectTimeout(5_000);
-		requestFactory.setReadTimeout(10_000);
-
 		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.transport = CorootHttpTransport.create(properties.getHttp(), meterRegistry);
 		this.restClient = RestClient.builder()
-				.requestFactory(requestFactory)
+				.requestFactory(transport.getRequestFactory())
+				.requestInterceptor(transport.getInterceptor())
 				.baseUrl(properties.getApiUrl().toString())
-				.defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
-				.defaultHeader("X-API-Key", properties.getApiKey())
+				.defaultHeaders(headers -> {
+					headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+					headers.set("X-API-Key", properties.getApiKey());
+					if (properties.getHttp().isCompression()) {
+						headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+					}
+				})
 				.build();
+
+		this.projectDirectory = new ProjectDirectory(this::fetchProjects, properties.getProjectCache().getTtl(),
+				properties.getProjectCache().getNegativeTtl());
+		this.projectDirectory.bindTo(meterRegistry);
+		this.incidentPages = DistributionSummary.builder("coroot.api.incidents.pages")
+				.description("Incident list pages fetched per incident search")
+				.register(meterRegistry);
+	}
+
+	public ProjectDirectory getProjectDirectory() {
+		return projectDirectory;
+	}
+
+	@Override
+	public void close() {
+		transport.close();
 	}
 
 	@Override
@@ -75,93 +160,74 @@ public class HttpCorootClient implements CorootClient {
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/incident/{incidentId}", resolvedProjectId, incidentId)
-				.retrieve()
-				.body(Map.class);
-
-		return toIncidentContext(response);
+		return get("/api/project/{projectId}/incident/{incidentId}", uriBuilder -> uriBuilder
+				.build(resolvedProjectId, incidentId),
+				CorootJsonDecoders.incidentContext(), null);
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		return searchIncidents(projectId, IncidentQuery.recent(minimumSeverity, limit));
+	}
+
+	@Override
+	public List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
 		Assert.hasText(projectId, "projectId must not be empty");
+		Assert.notNull(query, "query must not be null");
+		if (query.limit() <= 0) {
+			return List.of();
+		}
 
 		String resolvedProjectId = resolveProjectId(projectId);
+		CorootProperties.Incidents paging = properties.getIncidents();
+		boolean serverSideFilters = paging.isServerSideFilters();
+
+		// A query that keeps every incident needs exactly `limit` of them, as does one
+		// the backend filters itself; otherwise pages are sized to find matches quickly.
+		int pageSize = !query.isSelective() || serverSideFilters ? query.limit()
+				: Math.max(query.limit(), paging.getPageSize());
+
+		IncidentIterator incidents = new IncidentIterator((offset, limit) -> get("/api/project/{projectId}/incidents",
+				uriBuilder -> {
+					uriBuilder.queryParam("limit", limit);
+					if (offset > 0) {
+						uriBuilder.queryParam("offset", offset);
+					}
+					if (serverSideFilters) {
+						uriBuilder.queryParam("severity", query.minimumSeverity().name().toLowerCase(Locale.ROOT));
+						if (query.since() != null) {
+							uriBuilder.queryParam("from", query.since().toEpochMilli());
+						}
+						if (query.until() != null) {
+							uriBuilder.queryParam("to", query.until().toEpochMilli());
+						}
+					}
+					return uriBuilder.build(resolvedProjectId);
+				}, CorootJsonDecoders.incidentPage(query), null), pageSize, paging.getMaxPages());
 
-		Map<String, Object> response = restClient.get()
-				.uri(uriBuilder -> uriBuilder
-						.path("/api/project/{projectId}/incidents")
-						.queryParam("limit", limit)
-						.build(resolvedProjectId))
-				.retrieve()
-				.body(Map.class);
-
-		List<Map<String, Object>> items = (List<Map<String, Object>>) response.getOrDefault("incidents",
-				List.of());
-
-		List<IncidentSummary> result = new ArrayList<>();
-		for (Map<String, Object> item : items) {
-			IncidentSummary summary = toIncidentSummary(item);
-			if (summary.getSeverity().ordinal() >= minimumSeverity.ordinal()) {
-				result.add(summary);
-			}
-		}
-
+		List<IncidentSummary> result = incidents.take(query.limit());
+		incidentPages.record(incidents.pagesFetched());
 		return result;
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
 		Assert.hasText(projectId, "projectId must not be empty");
 		Assert.hasText(service, "service must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				// Synthetic endpoint backed by an internal view. The HTTP adapter in front of
-				// Coroot is responsible for mapping this onto real Coroot data.
-				.uri("/api/v1/projects/{projectId}/services/{service}/health", resolvedProjectId, service)
-				.retrieve()
-				.body(Map.class);
-
-		Map<String, Object> indicators = (Map<String, Object>) response.getOrDefault("indicators",
-				Map.of());
-
-		Instant observedAt = parseInstant(Objects.toString(response.get("observedAt"), null));
-
-		return new ServiceHealthSnapshot(projectId, service, indicators, observedAt);
+		// Synthetic endpoint backed by an internal view. The HTTP adapter in front of
+		// Coroot is responsible for mapping this onto real Coroot data.
+		return get("/api/v1/projects/{projectId}/services/{service}/health", uriBuilder -> uriBuilder
+				.build(resolvedProjectId, service),
+				CorootJsonDecoders.serviceHealth(projectId, service),
+				new ServiceHealthSnapshot(projectId, service, Map.of(), null));
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<ProjectSummary> listProjects() {
-		List<ProjectSummary> result = new ArrayList<>();
-
-		try {
-			Map<String, Object> response = restClient.get()
-					.uri("/api/user")
-					.retrieve()
-					.body(Map.class);
-
-			if (response != null) {
-				List<Map<String, Object>> projects = (List<Map<String, Object>>) response
-						.getOrDefault("projects", List.of());
-				for (Map<String, Object> project : projects) {
-					String id = Objects.toString(project.get("id"), "");
-					String name = Objects.toString(project.get("name"), id);
-					if (StringUtils.hasText(id)) {
-						result.add(new ProjectSummary(id, name));
-					}
-				}
-			}
-		}
-		catch (Exception ex) {
-			// Fall back to default project id when the /api/user endpoint is not reachable
-			// or requires UI/session authentication (common in Coroot deployments).
-		}
+		List<ProjectSummary> result = new ArrayList<>(projectDirectory.projects());
 
 		if (result.isEmpty() && StringUtils.hasText(properties.getDefaultProjectId())) {
 			String id = properties.getDefaultProjectId();
@@ -171,292 +237,89 @@ public class HttpCorootClient implements CorootClient {
 		return result;
 	}
 
+	private List<ProjectSummary> fetchProjects() {
+		// Failures propagate to the project directory, which falls back to the last known
+		// (or an empty) directory when /api/user is not reachable or requires UI/session
+		// authentication (common in Coroot deployments).
+		return get("/api/user", uriBuilder -> uriBuilder.build(), CorootJsonDecoders.projects(), List.of());
+	}
+
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/overview/applications", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		List<Map<String, Object>> applications = (List<Map<String, Object>>) response
-				.getOrDefault("applications", List.of());
-
-		List<ApplicationOverviewEntry> result = new ArrayList<>();
-		for (Map<String, Object> app : applications) {
-			Map<String, Object> id = (Map<String, Object>) app.getOrDefault("id", Map.of());
-			String service = Objects.toString(id.getOrDefault("name", ""), "");
-
-			String cluster = Objects.toString(app.get("cluster"), "");
-			String category = Objects.toString(app.get("category"), "");
-			String status = Objects.toString(app.get("status"), "");
-
-			Map<String, Object> indicators = new HashMap<>();
-			for (String key : List.of("errors", "latency", "upstreams", "instances", "restarts", "cpu", "memory",
-					"disk_io_load", "disk_usage", "network", "dns", "logs")) {
-				Map<String, Object> param = (Map<String, Object>) app.getOrDefault(key, Map.of());
-				if (!param.isEmpty()) {
-					Map<String, Object> summary = new HashMap<>();
-					summary.put("status", Objects.toString(param.get("status"), ""));
-					summary.put("value", Objects.toString(param.get("value"), ""));
-					indicators.put(key, summary);
-				}
-			}
-
-			result.add(new ApplicationOverviewEntry(projectId, service, cluster, category, status, indicators));
-		}
-
-		return result;
+		return get("/api/project/{projectId}/overview/applications", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.applications(projectId), List.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/overview/risks", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		List<Map<String, Object>> risks = (List<Map<String, Object>>) response.getOrDefault("risks", List.of());
-
-		List<RiskOverviewEntry> result = new ArrayList<>();
-		for (Map<String, Object> risk : risks) {
-			Map<String, Object> appId = (Map<String, Object>) risk.getOrDefault("application_id", Map.of());
-			String service = Objects.toString(appId.getOrDefault("name", ""), "");
-
-			String cluster = Objects.toString(risk.get("cluster"), "");
-			String category = Objects.toString(risk.get("application_category"), "");
-			String severity = Objects.toString(risk.get("severity"), "");
-			String type = Objects.toString(risk.get("type"), "");
-
-			Map<String, Object> exposure = (Map<String, Object>) risk.getOrDefault("exposure", Map.of());
-			Map<String, Object> exposureCopy = new HashMap<>();
-			if (!exposure.isEmpty()) {
-				for (String key : List.of("ips", "ports", "node_port_services", "load_balancer_services")) {
-					Object value = exposure.get(key);
-					if (value != null) {
-						exposureCopy.put(key, value);
-					}
-				}
-			}
-
-			Map<String, Object> availability = (Map<String, Object>) risk.getOrDefault("availability", Map.of());
-			String availabilityDescription = Objects.toString(availability.get("description"), "");
-
-			result.add(new RiskOverviewEntry(projectId, service, cluster, category, severity, type, exposureCopy,
-					availabilityDescription));
-		}
-
-		return result;
-	}
-
-	@SuppressWarnings("unchecked")
-	private IncidentContext toIncidentContext(Map<String, Object> payload) {
-		IncidentSummary summary = toIncidentSummary((Map<String, Object>) payload.get("summary"));
-
-		String suspectedRootCause = Objects.toString(payload.get("suspectedRootCause"), "");
-
-		List<String> affectedServices = (List<String>) payload.getOrDefault("affectedServices",
-				List.of());
-
-		Map<String, Object> metricsSnapshot = (Map<String, Object>) payload
-				.getOrDefault("metricsSnapshot", Map.of());
-
-		List<String> timeline = (List<String>) payload.getOrDefault("timeline",
-				List.of());
-
-		Instant lastUpdatedAt = parseInstant(Objects.toString(payload.get("lastUpdatedAt"), null));
-
-		return new IncidentContext(summary, suspectedRootCause, affectedServices, metricsSnapshot, timeline,
-				lastUpdatedAt);
-	}
-
-	private IncidentSummary toIncidentSummary(Map<String, Object> payload) {
-		String id = Objects.toString(payload.get("id"), "");
-		String title = Objects.toString(payload.get("title"), "");
-		String service = Objects.toString(payload.get("service"), "");
-		String severityText = Objects.toString(payload.get("severity"), "INFO");
-
-		IncidentSeverity severity;
-		try {
-			severity = IncidentSeverity.valueOf(severityText.toUpperCase());
-		}
-		catch (IllegalArgumentException ex) {
-			severity = IncidentSeverity.INFO;
-		}
-
-		Instant startedAt = parseInstant(Objects.toString(payload.get("startedAt"), null));
-		Instant endedAt = parseInstant(Objects.toString(payload.get("endedAt"), null));
-
-		return new IncidentSummary(id, title, severity, service, startedAt, endedAt);
-	}
-
-	private Instant parseInstant(String value) {
-		if (!StringUtils.hasText(value)) {
-			return null;
-		}
-		try {
-			// ISO-8601 with offset, e.g. 2025-11-14T10:00:00Z
-			return OffsetDateTime.parse(value).toInstant();
-		}
-		catch (Exception ex) {
-			// Fallback: epoch seconds
-			try {
-				long epochSeconds = Long.parseLong(value);
-				return Instant.ofEpochSecond(epochSeconds);
-			}
-			catch (Exception ignored) {
-				return Instant.now().atOffset(ZoneOffset.UTC).toInstant();
-			}
-		}
+		return get("/api/project/{projectId}/overview/risks", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.risks(projectId), List.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/overview/nodes", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		List<Map<String, Object>> nodes = (List<Map<String, Object>>) response.getOrDefault("nodes", List.of());
-
-		List<NodeOverviewEntry> result = new ArrayList<>();
-		for (Map<String, Object> node : nodes) {
-			String name = Objects.toString(node.get("name"), "");
-			String cluster = Objects.toString(node.get("cluster"), "");
-			String status = Objects.toString(node.get("status"), "");
-
-			int applications = toInt(node.get("applications"));
-			int instances = toInt(node.get("instances"));
-			String uptime = Objects.toString(node.get("uptime"), "");
-
-			List<String> privateIps = (List<String>) node.getOrDefault("private_ips", List.of());
-			List<String> publicIps = (List<String>) node.getOrDefault("public_ips", List.of());
-
-			Double cpu = toDouble(node.get("cpu"));
-			Double memory = toDouble(node.get("memory"));
-			Double network = toDouble(node.get("network"));
-			Double disk = toDouble(node.get("disk"));
-
-			result.add(new NodeOverviewEntry(projectId, name, cluster, status, applications, instances, uptime,
-					privateIps, publicIps, cpu, memory, network, disk));
-		}
-
-		return result;
+		return get("/api/project/{projectId}/overview/nodes", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.nodes(projectId), List.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/overview/deployments", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		List<Map<String, Object>> deployments = (List<Map<String, Object>>) response.getOrDefault("deployments",
-				List.of());
-
-		List<DeploymentOverviewEntry> result = new ArrayList<>();
-		for (Map<String, Object> deployment : deployments) {
-			Map<String, Object> appId = (Map<String, Object>) deployment.getOrDefault("application_id", Map.of());
-
-			String service = Objects.toString(appId.getOrDefault("name", ""), "");
-			String cluster = Objects.toString(appId.getOrDefault("cluster_id", ""), "");
-
-			String version = Objects.toString(deployment.get("version"), "");
-			String status = Objects.toString(deployment.get("status"), "");
-			String age = Objects.toString(deployment.get("age"), "");
-
-			List<Map<String, Object>> events = (List<Map<String, Object>>) deployment.getOrDefault("events", List.of());
-			List<String> summary = new ArrayList<>();
-			for (Map<String, Object> event : events) {
-				String message = Objects.toString(event.get("message"), "");
-				String eventStatus = Objects.toString(event.get("status"), "");
-				if (!message.isEmpty()) {
-					if (!eventStatus.isEmpty()) {
-						summary.add(eventStatus + ": " + message);
-					}
-					else {
-						summary.add(message);
-					}
-				}
-			}
-
-			result.add(new DeploymentOverviewEntry(projectId, service, cluster, version, status, age, summary));
-		}
-
-		return result;
+		return get("/api/project/{projectId}/overview/deployments", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.deployments(projectId), List.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getTracesOverview(String projectId, String query) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri(uriBuilder -> {
-					var builder = uriBuilder.path("/api/project/{projectId}/overview/traces");
-					if (StringUtils.hasText(query)) {
-						builder.queryParam("query", query);
-					}
-					return builder.build(resolvedProjectId);
-				})
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of();
-		}
-
-		return response;
+		return get("/api/project/{projectId}/overview/traces", uriBuilder -> {
+			if (!StringUtils.hasText(query)) {
+				return uriBuilder.build(resolvedProjectId);
+			}
+			// Coroot queries are JSON: pass them as a URI variable so braces are encoded
+			// instead of being expanded as template placeholders.
+			return uriBuilder.queryParam("query", "{query}").build(resolvedProjectId, query);
+		}, CorootJsonDecoders.map(), Map.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getLogsOverview(String projectId, String query) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri(uriBuilder -> {
-					var builder = uriBuilder.path("/api/project/{projectId}/overview/logs");
-					if (StringUtils.hasText(query)) {
-						builder.queryParam("query", query);
-					}
-					return builder.build(resolvedProjectId);
-				})
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of();
-		}
-
-		return response;
+		return get("/api/project/{projectId}/overview/logs", uriBuilder -> {
+			if (!StringUtils.hasText(query)) {
+				return uriBuilder.build(resolvedProjectId);
+			}
+			// See getTracesOverview: JSON queries must not be expanded as URI templates.
+			return uriBuilder.queryParam("query", "{query}").build(resolvedProjectId, query);
+		}, CorootJsonDecoders.map(), Map.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
 		Assert.hasText(projectId, "projectId must not be empty");
 		Assert.hasText(applicationId, "applicationId must not be empty");
@@ -471,26 +334,34 @@ public class HttpCorootClient implements CorootClient {
 		Instant to = Instant.now();
 		Instant from = to.minusSeconds(window * 60L);
 
-		Map<String, Object> response = restClient.get()
-				.uri(uriBuilder -> uriBuilder
-						.path("/api/project/{projectId}/app/{app}/tracing")
-						.queryParam("from", from.toEpochMilli())
-						.queryParam("to", to.toEpochMilli())
-						.build(resolvedProjectId, applicationId))
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of();
-		}
-
-		return response;
+		return get("/api/project/{projectId}/app/{app}/tracing", uriBuilder -> uriBuilder
+				.queryParam("from", from.toEpochMilli())
+				.queryParam("to", to.toEpochMilli())
+				.build(resolvedProjectId, applicationId),
+				CorootJsonDecoders.map(), Map.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
 			int maxEntries) {
+		int limit = maxEntries > 0 ? maxEntries : 100;
+		if (limit > 100) {
+			limit = 100;
+		}
+		return getLogs(projectId, applicationId, windowMinutes, limit, CorootJsonDecoders.map(), Map.of());
+	}
+
+	@Override
+	public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		int limit = scanLimit > 0 ? Math.min(scanLimit, MAX_LOG_SCAN) : 1000;
+		LogPatternReducer reducer = new LogPatternReducer(LogPatternReducer.DEFAULT_MAX_TEMPLATES);
+		return getLogs(projectId, applicationId, windowMinutes, limit, CorootJsonDecoders.logPatterns(reducer),
+				reducer.summarize());
+	}
+
+	private <T> T getLogs(String projectId, String applicationId, int windowMinutes, int limit,
+			CorootJsonDecoders.Decoder<T> decoder, T emptyValue) {
 		Assert.hasText(projectId, "projectId must not be empty");
 		Assert.hasText(applicationId, "applicationId must not be empty");
 
@@ -501,153 +372,115 @@ public class HttpCorootClient implements CorootClient {
 			window = 24 * 60;
 		}
 
-		int limit = maxEntries > 0 ? maxEntries : 100;
-		if (limit > 100) {
-			limit = 100;
-		}
-
 		Instant to = Instant.now();
 		Instant from = to.minusSeconds(window * 60L);
 
 		String queryJson = "{\"limit\":" + limit + ",\"view\":\"messages\"}";
 
-		Map<String, Object> response = restClient.get()
-				.uri(uriBuilder -> uriBuilder
-						.path("/api/project/{projectId}/app/{app}/logs")
-						.queryParam("from", from.toEpochMilli())
-						.queryParam("to", to.toEpochMilli())
-						.queryParam("query", queryJson)
-						.build(resolvedProjectId, applicationId))
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of();
-		}
-
-		return response;
+		return get("/api/project/{projectId}/app/{app}/logs", uriBuilder -> uriBuilder
+				.queryParam("from", from.toEpochMilli())
+				.queryParam("to", to.toEpochMilli())
+				.queryParam("query", "{query}")
+				.build(resolvedProjectId, applicationId, queryJson),
+				decoder, emptyValue);
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getCostsOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/overview/costs", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of();
-		}
-
-		return response;
+		return get("/api/project/{projectId}/overview/costs", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.map(), Map.of());
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Map<String, Object> getSloOverview(String projectId) {
 		Assert.hasText(projectId, "projectId must not be empty");
 
 		String resolvedProjectId = resolveProjectId(projectId);
 
-		Map<String, Object> response = restClient.get()
-				.uri("/api/project/{projectId}/inspections", resolvedProjectId)
-				.retrieve()
-				.body(Map.class);
-
-		if (response == null) {
-			return Map.of("projectId", projectId);
-		}
-
-		List<Map<String, Object>> checks = (List<Map<String, Object>>) response.getOrDefault("checks", List.of());
-
-		Map<String, Object> availability = new HashMap<>();
-		Map<String, Object> latency = new HashMap<>();
-
-		for (Map<String, Object> check : checks) {
-			String id = Objects.toString(check.get("id"), "");
-			if (!"SLOAvailability".equals(id) && !"SLOLatency".equals(id)) {
-				continue;
-			}
-
-			Double globalThreshold = toDouble(check.get("global_threshold"));
-			Object projectThresholdObj = check.get("project_threshold");
-			Double projectThreshold = projectThresholdObj instanceof Number number ? number.doubleValue() : null;
-			String projectDetails = Objects.toString(check.get("project_details"), "");
-
-			List<Map<String, Object>> appOverrides = (List<Map<String, Object>>) check
-					.getOrDefault("application_overrides", List.of());
-			List<Map<String, Object>> apps = new ArrayList<>();
-			for (Map<String, Object> app : appOverrides) {
-				Map<String, Object> appId = (Map<String, Object>) app.getOrDefault("id", Map.of());
-				String service = Objects.toString(appId.getOrDefault("name", ""), "");
-				Double threshold = toDouble(app.get("threshold"));
-				String details = Objects.toString(app.get("details"), "");
-
-				Map<String, Object> appEntry = new HashMap<>();
-				appEntry.put("service", service);
-				if (threshold != null) {
-					appEntry.put("objectivePercent", threshold);
-				}
-				if (!details.isEmpty()) {
-					appEntry.put("details", details);
-				}
-				apps.add(appEntry);
-			}
-
-			Map<String, Object> target = "SLOAvailability".equals(id) ? availability : latency;
-			if (globalThreshold != null) {
-				target.put("globalObjectivePercent", globalThreshold);
-			}
-			if (projectThreshold != null) {
-				target.put("projectObjectivePercent", projectThreshold);
-			}
-			if (!projectDetails.isEmpty()) {
-				target.put("projectDetails", projectDetails);
-			}
-			if (!apps.isEmpty()) {
-				target.put("applications", apps);
-			}
-		}
+		return get("/api/project/{projectId}/inspections", uriBuilder -> uriBuilder
+				.build(resolvedProjectId),
+				CorootJsonDecoders.sloOverview(projectId), Map.of("projectId", projectId));
+	}
 
-		Map<String, Object> result = new HashMap<>();
-		result.put("projectId", projectId);
-		if (!availability.isEmpty()) {
-			result.put("availability", availability);
-		}
-		if (!latency.isEmpty()) {
-			result.put("latency", latency);
+	/**
+	 * Performs a GET against Coroot and decodes the response body as it streams in.
+	 * Error statuses raise the same {@code RestClientResponseException}s as
+	 * {@code retrieve()} would.
+	 * @param path the URI template of the endpoint, also used as the {@code path}
+	 * metric tag
+	 * @param uri completes the URI (query parameters and variables) from a builder
+	 * already set to {@code path}
+	 */
+	private <T> T get(String path, Function<UriBuilder, URI> uri, CorootJsonDecoders.Decoder<T> decoder,
+			T emptyValue) {
+		ApiMeters meters = apiMeters.computeIfAbsent(path, ApiMeters::new);
+		meters.inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			T result = restClient.get()
+					.uri(uriBuilder -> uri.apply(uriBuilder.path(path)))
+					.exchange((request, response) -> {
+						if (ERROR_HANDLER.hasError(response)) {
+							ERROR_HANDLER.handleError(request.getURI(), request.getMethod(), response);
+						}
+						CountingInputStream wire = new CountingInputStream(response.getBody());
+						if (!isGzip(response.getHeaders())) {
+							T decoded = CorootJsonDecoders.decode(wire, decoder, emptyValue);
+							meters.responseSize.record(wire.getCount());
+							meters.wireSize.record(wire.getCount());
+							return decoded;
+						}
+						// Inflated while being decoded; the time spent inflating is what the
+						// decoder waited on beyond reading the compressed bytes themselves.
+						CountingInputStream body = new CountingInputStream(new GZIPInputStream(wire, 8192));
+						T decoded = CorootJsonDecoders.decode(body, decoder, emptyValue);
+						meters.responseSize.record(body.getCount());
+						meters.wireSize.record(wire.getCount());
+						meters.decompression.record(Math.max(0, body.getReadNanos() - wire.getReadNanos()),
+								TimeUnit.NANOSECONDS);
+						return decoded;
+					});
+			meters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return result;
+		}
+		catch (RuntimeException ex) {
+			String error = errorTag(ex);
+			requestTimer(path, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			meterRegistry.counter("coroot.api.errors", "path", path, "error", error).increment();
+			throw ex;
+		}
+		finally {
+			meters.inFlight.decrementAndGet();
 		}
+	}
 
-		return result;
+	private static boolean isGzip(HttpHeaders headers) {
+		String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+		return encoding != null && "gzip".equalsIgnoreCase(encoding.trim()) && headers.getContentLength() != 0;
 	}
 
-	private int toInt(Object value) {
-		if (value instanceof Number number) {
-			return number.intValue();
-		}
-		try {
-			return value != null ? Integer.parseInt(value.toString()) : 0;
-		}
-		catch (NumberFormatException ex) {
-			return 0;
-		}
+	private Timer requestTimer(String path, String outcome) {
+		return Timer.builder("coroot.api.requests")
+				.description("Coroot API requests, including response decoding")
+				.tag("path", path)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
 	}
 
-	private Double toDouble(Object value) {
-		if (value instanceof Number number) {
-			return number.doubleValue();
+	private static String errorTag(RuntimeException ex) {
+		if (ex instanceof RestClientResponseException responseException) {
+			return "http_" + responseException.getStatusCode().value();
 		}
-		try {
-			return value != null ? Double.parseDouble(value.toString()) : null;
-		}
-		catch (NumberFormatException ex) {
-			return null;
+		if (ex instanceof ResourceAccessException) {
+			return "io";
 		}
+		return ex.getClass().getSimpleName();
 	}
 
 	private String resolveProjectId(String projectIdOrName) {
@@ -660,21 +493,98 @@ public class HttpCorootClient implements CorootClient {
 					"projectId is required when coroot.default-project-id is not configured");
 		}
 
-		try {
-			List<ProjectSummary> projects = listProjects();
-			if (projects != null) {
-				for (ProjectSummary project : projects) {
-					if (candidate.equals(project.getId()) || candidate.equals(project.getName())) {
-						return project.getId();
-					}
-				}
+		// Best-effort only: unknown identifiers are passed through unchanged so tools still
+		// behave sensibly when /api/user is not reachable.
+		return projectDirectory.findProjectId(candidate).orElse(candidate);
+	}
+
+	/**
+	 * Meters for one Coroot endpoint, created on first use.
+	 */
+	private final class ApiMeters {
+
+		private final Timer success;
+
+		private final DistributionSummary responseSize;
+
+		private final DistributionSummary wireSize;
+
+		private final Timer decompression;
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private ApiMeters(String path) {
+			this.success = requestTimer(path, "success");
+			this.responseSize = DistributionSummary.builder("coroot.api.response.size")
+					.description("Size of Coroot API response bodies, after decompression")
+					.baseUnit(BaseUnits.BYTES)
+					.tag("path", path)
+					.publishPercentileHistogram()
+					.register(meterRegistry);
+			this.wireSize = DistributionSummary.builder("coroot.api.response.wire.size")
+					.description("Bytes of Coroot API response bodies as received, before decompression")
+					.baseUnit(BaseUnits.BYTES)
+					.tag("path", path)
+					.publishPercentileHistogram()
+					.register(meterRegistry);
+			this.decompression = Timer.builder("coroot.api.response.decompression")
+					.description("CPU time spent inflating gzip-compressed Coroot API responses")
+					.tag("path", path)
+					.register(meterRegistry);
+			Gauge.builder("coroot.api.requests.in.flight", inFlight, AtomicInteger::get)
+					.description("Coroot API requests currently in flight")
+					.tag("path", path)
+					.register(meterRegistry);
+		}
+
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private long readNanos;
+
+		private CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			long start = System.nanoTime();
+			int value = super.read();
+			readNanos += System.nanoTime() - start;
+			if (value >= 0) {
+				count++;
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			int read = super.read(b, off, len);
+			readNanos += System.nanoTime() - start;
+			if (read > 0) {
+				count += read;
 			}
+			return read;
 		}
-		catch (RestClientException ex) {
-			// Best-effort only: if /api/user is not reachable or returns non-JSON,
-			// fall back to the original identifier so tools still behave sensibly.
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+
+		long getCount() {
+			return count;
+		}
+
+		long getReadNanos() {
+			return readNanos;
 		}
 
-		return candidate;
 	}
 }
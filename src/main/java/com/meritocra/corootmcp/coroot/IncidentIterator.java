@@ -0,0 +1,138 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Iterates the incidents of a project that match an {@link IncidentQuery},
+ * fetching Coroot's incident list one page at a time and only when the matches
+ * of the previous page have been consumed.
+ *
+ * <p>
+ * Paging stops when a page comes back short, when a page starts with the same
+ * incident as the previous one (a backend that ignores {@code offset}), when a
+ * page reaches incidents older than the query's {@code since} (Coroot lists
+ * incidents newest first) or when the page budget is spent. Incidents seen on
+ * an earlier page are not returned again.
+ * </p>
+ */
+final class IncidentIterator implements Iterator<IncidentSummary> {
+
+	private final PageFetcher fetcher;
+
+	private final int pageSize;
+
+	private final int maxPages;
+
+	private final Deque<IncidentSummary> buffered = new ArrayDeque<>();
+
+	private final Set<String> seen = new HashSet<>();
+
+	private int offset;
+
+	private int pagesFetched;
+
+	private int scanned;
+
+	private String previousFirstId;
+
+	private boolean exhausted;
+
+	IncidentIterator(PageFetcher fetcher, int pageSize, int maxPages) {
+		this.fetcher = fetcher;
+		this.pageSize = Math.max(1, pageSize);
+		this.maxPages = Math.max(1, maxPages);
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (buffered.isEmpty() && !exhausted) {
+			fetchPage();
+		}
+		return !buffered.isEmpty();
+	}
+
+	@Override
+	public IncidentSummary next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return buffered.poll();
+	}
+
+	/**
+	 * Returns up to {@code limit} matching incidents, fetching no more pages than
+	 * needed to find them.
+	 */
+	List<IncidentSummary> take(int limit) {
+		List<IncidentSummary> result = new ArrayList<>(Math.min(Math.max(limit, 0), 64));
+		while (result.size() < limit && hasNext()) {
+			result.add(next());
+		}
+		return result;
+	}
+
+	int pagesFetched() {
+		return pagesFetched;
+	}
+
+	/**
+	 * Number of incidents read from Coroot, matching or not.
+	 */
+	int scanned() {
+		return scanned;
+	}
+
+	private void fetchPage() {
+		if (pagesFetched >= maxPages) {
+			exhausted = true;
+			return;
+		}
+		Page page = fetcher.fetch(offset, pageSize);
+		pagesFetched++;
+		if (page == null || page.size() == 0 || Objects.equals(previousFirstId, page.firstId())) {
+			exhausted = true;
+			return;
+		}
+		scanned += page.size();
+		for (IncidentSummary match : page.matches()) {
+			if (seen.add(match.getId())) {
+				buffered.add(match);
+			}
+		}
+		offset += page.size();
+		previousFirstId = page.firstId();
+		if (page.size() < pageSize || page.pastSince()) {
+			exhausted = true;
+		}
+	}
+
+	/**
+	 * Fetches one page of a project's incident list.
+	 */
+	@FunctionalInterface
+	interface PageFetcher {
+
+		Page fetch(int offset, int limit);
+
+	}
+
+	/**
+	 * One decoded page of Coroot's incident list.
+	 * @param matches incidents of the page matching the query, in page order
+	 * @param size number of incidents on the page, matching or not
+	 * @param firstId id of the first incident on the page
+	 * @param pastSince whether the page reached incidents that started before the
+	 * query's {@code since}
+	 */
+	record Page(List<IncidentSummary> matches, int size, String firstId, boolean pastSince) {
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Instant;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Filter for incident searches. Incidents are returned newest first.
+ *
+ * @param minimumSeverity lowest severity to include
+ * @param service only incidents of this service, or {@code null} for all
+ * @param since only incidents that started at or after this instant, or
+ * {@code null}
+ * @param until only incidents that started before this instant, or
+ * {@code null}
+ * @param limit maximum number of incidents to return
+ */
+public record IncidentQuery(IncidentSeverity minimumSeverity, String service, Instant since, Instant until,
+		int limit) {
+
+	public IncidentQuery {
+		if (minimumSeverity == null) {
+			minimumSeverity = IncidentSeverity.INFO;
+		}
+	}
+
+	public static IncidentQuery recent(IncidentSeverity minimumSeverity, int limit) {
+		return new IncidentQuery(minimumSeverity, null, null, null, limit);
+	}
+
+	/**
+	 * Whether the query can drop incidents, i.e. filters on more than the limit.
+	 */
+	public boolean isSelective() {
+		return minimumSeverity != IncidentSeverity.INFO || hasFilters();
+	}
+
+	/**
+	 * Whether the query filters on anything besides severity and limit.
+	 */
+	public boolean hasFilters() {
+		return StringUtils.hasText(service) || since != null || until != null;
+	}
+
+	public boolean matches(IncidentSummary summary) {
+		return matches(summary.getSeverity(), summary.getService(), summary.getStartedAt());
+	}
+
+	/**
+	 * Matches the raw fields of an incident, so callers can decide before building
+	 * an {@link IncidentSummary}.
+	 */
+	public boolean matches(IncidentSeverity severity, String service, Instant startedAt) {
+		if (severity.ordinal() < minimumSeverity.ordinal()) {
+			return false;
+		}
+		if (StringUtils.hasText(this.service) && !this.service.equalsIgnoreCase(service)) {
+			return false;
+		}
+		if (since != null && (startedAt == null || startedAt.isBefore(since))) {
+			return false;
+		}
+		return until == null || (startedAt != null && startedAt.isBefore(until));
+	}
+
+}
@@ -0,0 +1,540 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Embedded, file-backed store of incident summaries and their details.
+ *
+ * <p>
+ * Incidents are appended to a single log file as
+ * {@code [int length][int crc32][JSON]} records. The file is memory-mapped and
+ * grown in chunks, so appends and detail reads are plain memory accesses. An
+ * in-memory index holds every incident's summary and the offset of its latest
+ * record. It is rebuilt by scanning the log on open, which also cuts off a
+ * record torn by a crash. List and filter queries are answered from the index
+ * alone; only detail queries decode a record. A newer record of the same
+ * incident supersedes the older one. {@link #compact(Instant)} rewrites the log
+ * without superseded records and incidents past the retention.
+ * </p>
+ *
+ * <p>
+ * The log must stay below 2 GiB, which is far more than months of incidents
+ * of a typical project once compacted.
+ * </p>
+ */
+public class IncidentStore implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(IncidentStore.class);
+
+	static final String LOG_FILE = "incidents.log";
+
+	private static final int HEADER_BYTES = 8;
+
+	private static final int MIN_MAPPED_BYTES = 1 << 20;
+
+	private static final Comparator<Entry> NEWEST_FIRST = Comparator
+			.comparing((Entry entry) -> entry.summary().getStartedAt(),
+					Comparator.nullsLast(Comparator.reverseOrder()))
+			.thenComparing(entry -> entry.summary().getId());
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Path logFile;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// Guarded by lock.
+	private final Map<String, ProjectIndex> projects = new HashMap<>();
+
+	private FileChannel channel;
+
+	private MappedByteBuffer mapped;
+
+	private int size;
+
+	private long liveBytes;
+
+	public IncidentStore(Path directory) {
+		Assert.notNull(directory, "directory must not be null");
+		this.logFile = directory.resolve(LOG_FILE);
+		try {
+			Files.createDirectories(directory);
+			open();
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Cannot open incident store " + logFile, ex);
+		}
+	}
+
+	/**
+	 * Stores the latest state of an incident.
+	 * @param context details of the incident, or {@code null} to keep only the
+	 * summary; details stored earlier are then kept if the summary is unchanged
+	 */
+	public void put(String projectId, IncidentSummary summary, IncidentContext context) {
+		lock.writeLock().lock();
+		try {
+			Entry existing = index(projectId).byId.get(summary.getId());
+			if (context == null && existing != null && existing.hasContext() && sameSummary(existing.summary(), summary)) {
+				return;
+			}
+			byte[] payload = objectMapper.writeValueAsBytes(toJson(projectId, summary, context));
+			int offset = append(payload);
+			index(projectId).add(new Entry(projectId, summary, context != null ? context.getLastUpdatedAt() : null,
+					offset, HEADER_BYTES + payload.length, context != null));
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Cannot append to incident store " + logFile, ex);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public IncidentSummary summary(String projectId, String incidentId) {
+		Entry entry = entry(projectId, incidentId);
+		return entry != null ? entry.summary() : null;
+	}
+
+	/**
+	 * Returns the stored details of an incident, or {@code null} when only its
+	 * summary (or nothing) is stored.
+	 */
+	public IncidentContext context(String projectId, String incidentId) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			Entry entry = index != null ? index.byId.get(incidentId) : null;
+			if (entry == null || !entry.hasContext()) {
+				return null;
+			}
+			return toContext(entry.summary(), read(entry));
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to read incident {} from {}: {}", incidentId, logFile, ex.getMessage());
+			return null;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the stored incidents of a project matching {@code query}, newest
+	 * first.
+	 */
+	public List<IncidentSummary> query(String projectId, IncidentQuery query) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			if (index == null) {
+				return List.of();
+			}
+			List<IncidentSummary> result = new ArrayList<>(Math.min(query.limit(), index.byId.size()));
+			for (Entry entry : index.newestFirst) {
+				if (result.size() >= query.limit()) {
+					break;
+				}
+				Instant startedAt = entry.summary().getStartedAt();
+				if (query.since() != null && (startedAt == null || startedAt.isBefore(query.since()))) {
+					// Newest first: every remaining entry started earlier still.
+					break;
+				}
+				if (query.matches(entry.summary())) {
+					result.add(entry.summary());
+				}
+			}
+			return result;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Latest {@code startedAt}, {@code endedAt} or {@code lastUpdatedAt} seen for
+	 * the project, or {@code null} if nothing is stored for it yet.
+	 */
+	public Instant watermark(String projectId) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			return index != null ? index.watermark : null;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Earliest {@code startedAt} stored for the project, or {@code null} if no
+	 * stored incident has one.
+	 */
+	public Instant oldest(String projectId) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			if (index == null) {
+				return null;
+			}
+			for (Entry entry : index.newestFirst.descendingSet()) {
+				if (entry.summary().getStartedAt() != null) {
+					return entry.summary().getStartedAt();
+				}
+			}
+			return null;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public boolean contains(String projectId) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			return index != null && !index.byId.isEmpty();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return projects.values().stream().mapToInt(index -> index.byId.size()).sum();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public long logBytes() {
+		lock.readLock().lock();
+		try {
+			return size;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Whether {@link #compact(Instant)} would reclaim a significant part of the
+	 * log: superseded records outweigh live ones, or incidents started before
+	 * {@code cutoff} are still stored.
+	 */
+	public boolean needsCompaction(Instant cutoff) {
+		lock.readLock().lock();
+		try {
+			if (size - liveBytes > Math.max(liveBytes, MIN_MAPPED_BYTES / 4)) {
+				return true;
+			}
+			for (ProjectIndex index : projects.values()) {
+				Instant oldest = index.newestFirst.isEmpty() ? null
+						: index.newestFirst.last().summary().getStartedAt();
+				if (oldest != null && oldest.isBefore(cutoff)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Rewrites the log with only the latest record of every incident that started
+	 * at or after {@code cutoff}.
+	 */
+	public void compact(Instant cutoff) {
+		lock.writeLock().lock();
+		try {
+			Path temp = logFile.resolveSibling(LOG_FILE + ".tmp");
+			try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				for (ProjectIndex index : projects.values()) {
+					for (Entry entry : index.newestFirst) {
+						Instant startedAt = entry.summary().getStartedAt();
+						if (startedAt == null || !startedAt.isBefore(cutoff)) {
+							out.write(mapped.slice(entry.offset(), entry.length()));
+						}
+					}
+				}
+				out.force(true);
+			}
+			int before = size;
+			channel.close();
+			try {
+				Files.move(temp, logFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temp, logFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			open();
+			logger.info("incidentStore compacted bytesBefore={} bytesAfter={} incidents={}", before, size, size());
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException("Cannot compact incident store " + logFile, ex);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Forces appended records to disk.
+	 */
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			mapped.force();
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() {
+		lock.writeLock().lock();
+		try {
+			mapped.force();
+			// Drop the unused tail of the last mapping chunk.
+			channel.truncate(size);
+			channel.close();
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to close incident store {}: {}", logFile, ex.getMessage());
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private Entry entry(String projectId, String incidentId) {
+		lock.readLock().lock();
+		try {
+			ProjectIndex index = projects.get(projectId);
+			return index != null ? index.byId.get(incidentId) : null;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private ProjectIndex index(String projectId) {
+		return projects.computeIfAbsent(projectId, id -> new ProjectIndex());
+	}
+
+	// Called with the write lock held, or from the constructor.
+	private void open() throws IOException {
+		projects.clear();
+		liveBytes = 0;
+		channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long fileSize = channel.size();
+		if (fileSize > Integer.MAX_VALUE - MIN_MAPPED_BYTES) {
+			throw new IOException("Incident log exceeds 2 GiB; compact it or point the store to a new directory");
+		}
+		mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(fileSize, MIN_MAPPED_BYTES));
+
+		int position = 0;
+		CRC32 crc = new CRC32();
+		while (position + HEADER_BYTES <= fileSize) {
+			int length = mapped.getInt(position);
+			int checksum = mapped.getInt(position + 4);
+			if (length <= 0 || position + HEADER_BYTES + (long) length > fileSize) {
+				break;
+			}
+			ByteBuffer payload = mapped.slice(position + HEADER_BYTES, length);
+			crc.reset();
+			crc.update(payload.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+			try {
+				index(payload, position, HEADER_BYTES + length);
+			}
+			catch (IOException ex) {
+				break;
+			}
+			position += HEADER_BYTES + length;
+		}
+		if (position + 4 <= fileSize && mapped.getInt(position) != 0) {
+			logger.warn("incidentStore truncating {} bytes of a torn or corrupt record at offset {} in {}",
+					fileSize - position, position, logFile);
+		}
+		size = position;
+		// Zero the rest so a later scan stops where the log ends.
+		for (int i = position; i < mapped.capacity(); i += 8) {
+			if (i + 8 <= mapped.capacity()) {
+				mapped.putLong(i, 0L);
+			}
+			else {
+				mapped.put(i, (byte) 0);
+			}
+		}
+	}
+
+	private void index(ByteBuffer payload, int offset, int length) throws IOException {
+		byte[] bytes = new byte[payload.remaining()];
+		payload.duplicate().get(bytes);
+		JsonNode json = objectMapper.readTree(bytes);
+		String projectId = json.path("projectId").asText();
+		IncidentSummary summary = toSummary(json);
+		Instant lastUpdatedAt = instant(json.path("lastUpdatedAt"));
+		index(projectId).add(new Entry(projectId, summary, lastUpdatedAt, offset, length, json.has("context")));
+	}
+
+	private int append(byte[] payload) throws IOException {
+		int recordLength = HEADER_BYTES + payload.length;
+		if ((long) size + recordLength > Integer.MAX_VALUE - MIN_MAPPED_BYTES) {
+			throw new IOException("Incident log would exceed 2 GiB");
+		}
+		if (size + recordLength > mapped.capacity()) {
+			long capacity = Math.min((long) Integer.MAX_VALUE - MIN_MAPPED_BYTES,
+					Math.max((long) mapped.capacity() * 2, size + recordLength + MIN_MAPPED_BYTES));
+			mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		int offset = size;
+		mapped.put(offset + HEADER_BYTES, payload);
+		mapped.putInt(offset + 4, (int) crc.getValue());
+		// Length last: a record is only visible to a later scan once it is complete.
+		mapped.putInt(offset, payload.length);
+		size += recordLength;
+		return offset;
+	}
+
+	private JsonNode read(Entry entry) throws IOException {
+		ByteBuffer payload = mapped.slice(entry.offset() + HEADER_BYTES, entry.length() - HEADER_BYTES);
+		byte[] bytes = new byte[payload.remaining()];
+		payload.get(bytes);
+		return objectMapper.readTree(bytes);
+	}
+
+	private ObjectNode toJson(String projectId, IncidentSummary summary, IncidentContext context) {
+		ObjectNode json = objectMapper.createObjectNode();
+		json.put("projectId", projectId);
+		json.put("id", summary.getId());
+		json.put("title", summary.getTitle());
+		json.put("severity", summary.getSeverity().name());
+		json.put("service", summary.getService());
+		putInstant(json, "startedAt", summary.getStartedAt());
+		putInstant(json, "endedAt", summary.getEndedAt());
+		if (context != null) {
+			putInstant(json, "lastUpdatedAt", context.getLastUpdatedAt());
+			ObjectNode details = json.putObject("context");
+			details.put("suspectedRootCause", context.getSuspectedRootCause());
+			details.set("affectedServices", objectMapper.valueToTree(context.getAffectedServices()));
+			details.set("metricsSnapshot", objectMapper.valueToTree(context.getMetricsSnapshot()));
+			details.set("timeline", objectMapper.valueToTree(context.getTimeline()));
+		}
+		return json;
+	}
+
+	private IncidentContext toContext(IncidentSummary summary, JsonNode json) {
+		JsonNode details = json.path("context");
+		return new IncidentContext(summary, details.path("suspectedRootCause").asText(null),
+				objectMapper.convertValue(details.path("affectedServices"), new TypeReference<List<String>>() {
+				}),
+				objectMapper.convertValue(details.path("metricsSnapshot"), new TypeReference<Map<String, Object>>() {
+				}),
+				objectMapper.convertValue(details.path("timeline"), new TypeReference<List<String>>() {
+				}),
+				instant(json.path("lastUpdatedAt")));
+	}
+
+	private static IncidentSummary toSummary(JsonNode json) {
+		return new IncidentSummary(json.path("id").asText(), json.path("title").asText(),
+				CorootJsonDecoders.parseSeverity(json.path("severity").asText()), json.path("service").asText(),
+				instant(json.path("startedAt")), instant(json.path("endedAt")));
+	}
+
+	private static void putInstant(ObjectNode json, String field, Instant value) {
+		if (value != null) {
+			json.put(field, value.toEpochMilli());
+		}
+	}
+
+	private static Instant instant(JsonNode node) {
+		return node.isNumber() ? Instant.ofEpochMilli(node.asLong()) : null;
+	}
+
+	static boolean sameSummary(IncidentSummary left, IncidentSummary right) {
+		return Objects.equals(left.getTitle(), right.getTitle()) && left.getSeverity() == right.getSeverity()
+				&& Objects.equals(left.getService(), right.getService())
+				&& Objects.equals(left.getStartedAt(), right.getStartedAt())
+				&& Objects.equals(left.getEndedAt(), right.getEndedAt());
+	}
+
+	private static Instant latest(Instant... instants) {
+		Instant latest = null;
+		for (Instant instant : instants) {
+			if (instant != null && (latest == null || instant.isAfter(latest))) {
+				latest = instant;
+			}
+		}
+		return latest;
+	}
+
+	private final class ProjectIndex {
+
+		private final Map<String, Entry> byId = new HashMap<>();
+
+		private final TreeSet<Entry> newestFirst = new TreeSet<>(NEWEST_FIRST);
+
+		private Instant watermark;
+
+		void add(Entry entry) {
+			Entry previous = byId.put(entry.summary().getId(), entry);
+			if (previous != null) {
+				newestFirst.remove(previous);
+				liveBytes -= previous.length();
+			}
+			newestFirst.add(entry);
+			liveBytes += entry.length();
+			watermark = latest(watermark, entry.summary().getStartedAt(), entry.summary().getEndedAt(),
+					entry.lastUpdatedAt());
+		}
+
+	}
+
+	private record Entry(String projectId, IncidentSummary summary, Instant lastUpdatedAt, int offset, int length,
+			boolean hasContext) {
+	}
+
+}
@@ -0,0 +1,414 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link CorootClient} decorator that serves incident lists, searches and
+ * details from a local {@link IncidentStore}.
+ *
+ * <p>
+ * Each known project is synced in the background. A sync asks Coroot for the
+ * most recent incidents and compares them with the store. The first sync of a
+ * project stores summaries only. Later syncs also fetch details of incidents
+ * that are new or changed, and of open incidents that changed after the
+ * project's watermark (latest {@code startedAt}, {@code endedAt} or
+ * {@code lastUpdatedAt} stored) minus the sync overlap. Details of other
+ * incidents are fetched on first request and kept, so a finished incident
+ * costs at most one detail call. Details of open incidents are always fetched
+ * live, and the stored copy is served if Coroot fails.
+ * </p>
+ *
+ * <p>
+ * The first query of a project waits for its initial sync, and the project
+ * joins the background sync once that succeeds, up to {@code max-projects}.
+ * Queries of projects beyond that, or whose sync failed with nothing stored,
+ * go to Coroot directly.
+ * </p>
+ *
+ * <p>
+ * The store only holds what the syncs have seen. A search it cannot fill up to
+ * its limit goes to Coroot unless the stored incidents reach back to its
+ * {@code since}, or to the retention horizon when it has none, or the initial
+ * sync saw the project's whole history. If Coroot then fails, the stored
+ * incidents are served.
+ * </p>
+ */
+public class IncidentStoreCorootClient implements CorootClient, MeterBinder, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(IncidentStoreCorootClient.class);
+
+	private final CorootClient delegate;
+
+	private final IncidentStore store;
+
+	private final CorootProperties.IncidentStore properties;
+
+	private final Clock clock;
+
+	private final Set<String> projects = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> synced = ConcurrentHashMap.newKeySet();
+
+	private final Set<String> complete = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, Object> syncLocks = new ConcurrentHashMap<>();
+
+	private final LongAdder listsFromStore = new LongAdder();
+
+	private final LongAdder listsFromCoroot = new LongAdder();
+
+	private final LongAdder detailsFromStore = new LongAdder();
+
+	private final LongAdder detailsFromCoroot = new LongAdder();
+
+	private final LongAdder syncs = new LongAdder();
+
+	private final LongAdder syncFailures = new LongAdder();
+
+	private final LongAdder detailsFetched = new LongAdder();
+
+	private volatile ScheduledExecutorService scheduler;
+
+	public IncidentStoreCorootClient(CorootClient delegate, IncidentStore store,
+			CorootProperties.IncidentStore properties) {
+		this(delegate, store, properties, Clock.systemUTC());
+	}
+
+	IncidentStoreCorootClient(CorootClient delegate, IncidentStore store, CorootProperties.IncidentStore properties,
+			Clock clock) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.notNull(store, "store must not be null");
+		this.delegate = delegate;
+		this.store = store;
+		this.properties = properties;
+		this.clock = clock;
+	}
+
+	/**
+	 * Starts syncing {@code initialProjects}, and the projects queried later, in
+	 * the background every {@code sync-interval}.
+	 */
+	public void start(Collection<String> initialProjects) {
+		initialProjects.stream().filter(StringUtils::hasText).forEach(projects::add);
+		ScheduledExecutorService executor = Executors
+				.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("incident-store-sync").daemon().factory());
+		executor.scheduleWithFixedDelay(this::syncAll, 0, properties.getSyncInterval().toMillis(),
+				TimeUnit.MILLISECONDS);
+		this.scheduler = executor;
+	}
+
+	/**
+	 * Pulls new and changed incidents of a project from Coroot into the store.
+	 * @return number of incidents written to the store
+	 */
+	public int sync(String projectId) {
+		synchronized (syncLocks.computeIfAbsent(projectId, id -> new Object())) {
+			Instant watermark = store.watermark(projectId);
+			int limit = watermark == null ? properties.getInitialSyncLimit() : properties.getSyncLimit();
+			List<IncidentSummary> recent;
+			try {
+				recent = delegate.listRecentIncidents(projectId, IncidentSeverity.INFO, limit);
+			}
+			catch (RuntimeException ex) {
+				syncFailures.increment();
+				throw ex;
+			}
+
+			Instant refetchAfter = watermark != null ? watermark.minus(properties.getSyncOverlap()) : null;
+			int written = 0;
+			for (IncidentSummary summary : recent) {
+				IncidentSummary known = store.summary(projectId, summary.getId());
+				boolean changed = known == null || !IncidentStore.sameSummary(known, summary);
+				boolean openAndRecent = summary.getEndedAt() == null && isAtOrAfter(summary.getStartedAt(), refetchAfter);
+				if (!changed && !openAndRecent) {
+					continue;
+				}
+				// The initial sync stores summaries only; details are fetched on first use.
+				IncidentContext context = watermark != null ? fetchContext(projectId, summary.getId()) : null;
+				store.put(projectId, summary, context);
+				written++;
+			}
+			store.flush();
+			if (watermark == null && recent.size() < limit) {
+				// Coroot had nothing older, so the store holds the whole history.
+				complete.add(projectId);
+			}
+
+			Instant cutoff = clock.instant().minus(properties.getRetention());
+			if (store.needsCompaction(cutoff)) {
+				store.compact(cutoff);
+			}
+			synced.add(projectId);
+			syncs.increment();
+			logger.debug("incidentStore synced project={} fetched={} written={} watermark={}", projectId,
+					recent.size(), written, store.watermark(projectId));
+			return written;
+		}
+	}
+
+	@Override
+	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		return searchIncidents(projectId, IncidentQuery.recent(minimumSeverity, limit));
+	}
+
+	@Override
+	public List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
+		if (!ensureSynced(projectId)) {
+			listsFromCoroot.increment();
+			return delegate.searchIncidents(projectId, query);
+		}
+		List<IncidentSummary> stored = store.query(projectId, query);
+		if (stored.size() >= query.limit() || reachesBack(projectId, query)) {
+			listsFromStore.increment();
+			return stored;
+		}
+
+		List<IncidentSummary> incidents;
+		try {
+			incidents = delegate.searchIncidents(projectId, query);
+		}
+		catch (RuntimeException ex) {
+			logger.debug("incidentStore serving stored incidents of project {} after Coroot failed", projectId, ex);
+			listsFromStore.increment();
+			return stored;
+		}
+		listsFromCoroot.increment();
+		return incidents;
+	}
+
+	@Override
+	public IncidentContext getIncidentContext(String projectId, String incidentId) {
+		IncidentContext stored = store.context(projectId, incidentId);
+		if (stored != null && stored.getSummary().getEndedAt() != null) {
+			detailsFromStore.increment();
+			return stored;
+		}
+
+		IncidentContext context;
+		try {
+			context = delegate.getIncidentContext(projectId, incidentId);
+		}
+		catch (RuntimeException ex) {
+			if (stored == null) {
+				throw ex;
+			}
+			logger.debug("incidentStore serving stored details of open incident {} after Coroot failed", incidentId,
+					ex);
+			detailsFromStore.increment();
+			return stored;
+		}
+		detailsFromCoroot.increment();
+		store(projectId, context);
+		return context;
+	}
+
+	@Override
+	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
+		return delegate.getServiceHealth(projectId, service);
+	}
+
+	@Override
+	public List<ProjectSummary> listProjects() {
+		return delegate.listProjects();
+	}
+
+	@Override
+	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+		return delegate.listApplicationsOverview(projectId);
+	}
+
+	@Override
+	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
+		return delegate.listRisksOverview(projectId);
+	}
+
+	@Override
+	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+		return delegate.listNodesOverview(projectId);
+	}
+
+	@Override
+	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
+		return delegate.listDeploymentsOverview(projectId);
+	}
+
+	@Override
+	public Map<String, Object> getTracesOverview(String projectId, String query) {
+		return delegate.getTracesOverview(projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getLogsOverview(String projectId, String query) {
+		return delegate.getLogsOverview(projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+		return delegate.getApplicationTracing(projectId, applicationId, windowMinutes);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
+			int maxEntries) {
+		return delegate.getApplicationLogs(projectId, applicationId, windowMinutes, maxEntries);
+	}
+
+	@Override
+	public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		return delegate.summarizeApplicationLogs(projectId, applicationId, windowMinutes, scanLimit);
+	}
+
+	@Override
+	public Map<String, Object> getCostsOverview(String projectId) {
+		return delegate.getCostsOverview(projectId);
+	}
+
+	@Override
+	public Map<String, Object> getSloOverview(String projectId) {
+		return delegate.getSloOverview(projectId);
+	}
+
+	@Override
+	public void close() throws Exception {
+		ScheduledExecutorService executor = scheduler;
+		if (executor != null) {
+			executor.shutdownNow();
+			executor.awaitTermination(5, TimeUnit.SECONDS);
+		}
+		store.close();
+		if (delegate instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("coroot.incident.store.requests", listsFromStore, LongAdder::sum)
+				.description("Incident queries by where they were answered")
+				.tag("query", "list")
+				.tag("source", "store")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.requests", listsFromCoroot, LongAdder::sum)
+				.tag("query", "list")
+				.tag("source", "coroot")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.requests", detailsFromStore, LongAdder::sum)
+				.tag("query", "detail")
+				.tag("source", "store")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.requests", detailsFromCoroot, LongAdder::sum)
+				.tag("query", "detail")
+				.tag("source", "coroot")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.syncs", syncs, LongAdder::sum)
+				.tag("outcome", "success")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.syncs", syncFailures, LongAdder::sum)
+				.tag("outcome", "failure")
+				.register(registry);
+		FunctionCounter.builder("coroot.incident.store.details.fetched", detailsFetched, LongAdder::sum)
+				.description("Incident details fetched from Coroot by background syncs")
+				.register(registry);
+		Gauge.builder("coroot.incident.store.incidents", store, IncidentStore::size)
+				.register(registry);
+		Gauge.builder("coroot.incident.store.log.size", store, IncidentStore::logBytes)
+				.baseUnit(BaseUnits.BYTES)
+				.register(registry);
+	}
+
+	private void syncAll() {
+		for (String projectId : projects) {
+			try {
+				sync(projectId);
+			}
+			catch (RuntimeException ex) {
+				logger.warn("incidentStore sync of project {} failed: {}", projectId, ex.getMessage());
+			}
+		}
+	}
+
+	private boolean ensureSynced(String projectId) {
+		if (!StringUtils.hasText(projectId)) {
+			return false;
+		}
+		if (synced.contains(projectId)) {
+			return true;
+		}
+		if (!projects.contains(projectId) && projects.size() >= properties.getMaxProjects()) {
+			return false;
+		}
+		try {
+			sync(projectId);
+			if (projects.size() < properties.getMaxProjects()) {
+				projects.add(projectId);
+			}
+			return true;
+		}
+		catch (RuntimeException ex) {
+			logger.debug("incidentStore initial sync of project {} failed", projectId, ex);
+			if (!projects.contains(projectId)) {
+				syncLocks.remove(projectId);
+			}
+			return store.contains(projectId);
+		}
+	}
+
+	private boolean reachesBack(String projectId, IncidentQuery query) {
+		Instant horizon = clock.instant().minus(properties.getRetention());
+		Instant needed = query.since() != null ? query.since() : horizon;
+		if (complete.contains(projectId) && !needed.isBefore(horizon)) {
+			return true;
+		}
+		Instant oldest = store.oldest(projectId);
+		return oldest != null && !needed.isBefore(oldest);
+	}
+
+	private IncidentContext fetchContext(String projectId, String incidentId) {
+		try {
+			IncidentContext context = delegate.getIncidentContext(projectId, incidentId);
+			detailsFetched.increment();
+			return context;
+		}
+		catch (RuntimeException ex) {
+			logger.debug("incidentStore could not fetch details of incident {}", incidentId, ex);
+			return null;
+		}
+	}
+
+	private void store(String projectId, IncidentContext context) {
+		IncidentSummary summary = context.getSummary();
+		if (summary != null && StringUtils.hasText(summary.getId())) {
+			store.put(projectId, summary, context);
+		}
+	}
+
+	private static boolean isAtOrAfter(Instant instant, Instant threshold) {
+		return threshold == null || instant == null || !instant.isBefore(threshold);
+	}
+
+}
@@ -0,0 +1,233 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Groups log messages into templates as they stream in.
+ *
+ * <p>
+ * A message's template is its first line with UUIDs, IP addresses, hex tokens
+ * and numbers replaced by placeholders, so {@code "Timeout after 3000 ms for
+ * order 12345"} and {@code "Timeout after 5000 ms for order 67890"} share one
+ * template. Templates are kept per severity, each with its count, the first
+ * and last timestamps, one example message and a few example trace ids. Memory is
+ * bounded by {@code maxTemplates}: once that many templates exist, entries of
+ * new templates are only counted as unclustered.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe; feed one reducer from a single thread.
+ * </p>
+ */
+public class LogPatternReducer {
+
+	private static final Pattern VARIABLE = Pattern.compile(
+			"(?<uuid>\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b)"
+					+ "|(?<ip>\\b\\d{1,3}(?:\\.\\d{1,3}){3}(?::\\d{1,5})?\\b)"
+					+ "|(?<hex>\\b0[xX][0-9a-fA-F]+\\b|\\b(?=[0-9a-fA-F]*\\d)(?=[0-9a-fA-F]*[a-fA-F])[0-9a-fA-F]{8,}\\b)"
+					+ "|(?<num>\\d+(?:\\.\\d+)?)");
+
+	public static final int DEFAULT_MAX_TEMPLATES = 200;
+
+	static final int MAX_MESSAGE_LENGTH = 500;
+
+	private static final int MAX_EXAMPLE_TRACE_IDS = 3;
+
+	private final int maxTemplates;
+
+	private final Map<String, Template> templates = new HashMap<>();
+
+	private long entries;
+
+	private long unclustered;
+
+	public LogPatternReducer(int maxTemplates) {
+		this.maxTemplates = Math.max(1, maxTemplates);
+	}
+
+	/**
+	 * Adds one log entry.
+	 * @param timestampMs epoch milliseconds, or {@code 0} when unknown
+	 */
+	public void add(long timestampMs, String severity, String message, String traceId) {
+		entries++;
+		String line = firstLine(message);
+		String template = mask(line);
+		String level = StringUtils.hasText(severity) ? severity.toUpperCase(Locale.ROOT) : "UNKNOWN";
+		String key = level + '\u0000' + template;
+		Template existing = templates.get(key);
+		if (existing == null) {
+			if (templates.size() >= maxTemplates) {
+				unclustered++;
+				return;
+			}
+			existing = new Template(template, level, line);
+			templates.put(key, existing);
+		}
+		existing.add(timestampMs, traceId);
+	}
+
+	/**
+	 * Adds one entry of Coroot's logs view, as decoded into a map.
+	 */
+	public void add(Map<?, ?> entry) {
+		Object traceId = entry.get("trace_id") != null ? entry.get("trace_id") : entry.get("traceId");
+		Object timestamp = entry.get("timestamp") != null ? entry.get("timestamp") : entry.get("timestampMs");
+		add(timestampMs(timestamp), text(entry.get("severity")), text(entry.get("message")), text(traceId));
+	}
+
+	/**
+	 * All templates, ranked by severity, most severe first, then by count.
+	 */
+	public Summary summarize() {
+		List<Template> ranked = new ArrayList<>(templates.values());
+		ranked.sort(Comparator.comparingInt((Template template) -> severityRank(template.severity))
+				.thenComparing(Comparator.comparingLong((Template template) -> template.count).reversed())
+				.thenComparing(template -> template.pattern));
+		List<LogPattern> patterns = new ArrayList<>(ranked.size());
+		for (Template template : ranked) {
+			patterns.add(new LogPattern(template.pattern, template.severity, template.count,
+					template.firstTimestampMs, template.lastTimestampMs, template.example,
+					List.copyOf(template.traceIds)));
+		}
+		return new Summary(entries, templates.size(), unclustered, patterns);
+	}
+
+	/**
+	 * Replaces the variable parts of a log line with placeholders.
+	 */
+	static String mask(String line) {
+		Matcher matcher = VARIABLE.matcher(line);
+		if (!matcher.find()) {
+			return line;
+		}
+		StringBuilder masked = new StringBuilder(line.length());
+		do {
+			String placeholder;
+			if (matcher.group("uuid") != null) {
+				placeholder = "<uuid>";
+			}
+			else if (matcher.group("ip") != null) {
+				placeholder = "<ip>";
+			}
+			else if (matcher.group("hex") != null) {
+				placeholder = "<hex>";
+			}
+			else {
+				placeholder = "<num>";
+			}
+			matcher.appendReplacement(masked, placeholder);
+		}
+		while (matcher.find());
+		matcher.appendTail(masked);
+		return masked.toString();
+	}
+
+	static long timestampMs(Object value) {
+		if (value instanceof Number number) {
+			return number.longValue();
+		}
+		try {
+			return value != null ? Long.parseLong(value.toString()) : 0L;
+		}
+		catch (NumberFormatException ex) {
+			return 0L;
+		}
+	}
+
+	private static String text(Object value) {
+		return value != null ? value.toString() : null;
+	}
+
+	private static String firstLine(String message) {
+		if (message == null) {
+			return "";
+		}
+		int end = message.indexOf('\n');
+		String line = end >= 0 ? message.substring(0, end) : message;
+		line = line.strip();
+		return line.length() > MAX_MESSAGE_LENGTH ? line.substring(0, MAX_MESSAGE_LENGTH) : line;
+	}
+
+	private static int severityRank(String severity) {
+		return switch (severity) {
+			case "FATAL", "CRITICAL", "PANIC" -> 0;
+			case "ERROR" -> 1;
+			case "WARNING", "WARN" -> 2;
+			case "INFO" -> 3;
+			case "DEBUG", "TRACE" -> 5;
+			default -> 4;
+		};
+	}
+
+	private static final class Template {
+
+		private final String pattern;
+
+		private final String severity;
+
+		private final String example;
+
+		private final Set<String> traceIds = new LinkedHashSet<>();
+
+		private long count;
+
+		private long firstTimestampMs;
+
+		private long lastTimestampMs;
+
+		Template(String pattern, String severity, String example) {
+			this.pattern = pattern;
+			this.severity = severity;
+			this.example = example;
+		}
+
+		void add(long timestampMs, String traceId) {
+			count++;
+			if (timestampMs > 0) {
+				firstTimestampMs = firstTimestampMs == 0 ? timestampMs : Math.min(firstTimestampMs, timestampMs);
+				lastTimestampMs = Math.max(lastTimestampMs, timestampMs);
+			}
+			if (StringUtils.hasText(traceId) && traceIds.size() < MAX_EXAMPLE_TRACE_IDS) {
+				traceIds.add(traceId);
+			}
+		}
+
+	}
+
+	/**
+	 * One message template.
+	 * @param pattern first line of the messages with variable parts masked
+	 * @param severity upper-cased severity of the messages
+	 * @param count number of messages
+	 * @param firstTimestampMs earliest message, {@code 0} when unknown
+	 * @param lastTimestampMs latest message, {@code 0} when unknown
+	 * @param example first line of the first message seen
+	 * @param exampleTraceIds up to three trace ids of the messages
+	 */
+	public record LogPattern(String pattern, String severity, long count, long firstTimestampMs,
+			long lastTimestampMs, String example, List<String> exampleTraceIds) {
+	}
+
+	/**
+	 * @param entries log entries scanned
+	 * @param templates distinct templates found
+	 * @param unclustered entries not grouped because the template limit was
+	 * reached
+	 * @param patterns every template, most relevant first
+	 */
+	public record Summary(long entries, int templates, long unclustered, List<LogPattern> patterns) {
+	}
+
+}
@@ -0,0 +1,256 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Cached view of the Coroot projects visible to the configured API key, used to
+ * resolve project names to ids without a {@code GET /api/user} round trip per
+ * call.
+ *
+ * <p>
+ * The directory is loaded once on first use. After that, lookups are always
+ * served from memory: once an entry is older than the configured TTL it keeps
+ * being served while a single background refresh replaces it. Concurrent
+ * loads are coalesced into one in-flight request. Identifiers that do not
+ * match any project are remembered for a shorter negative TTL so repeated
+ * lookups of an unknown id neither block nor trigger a reload each time.
+ * </p>
+ */
+public class ProjectDirectory implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(ProjectDirectory.class);
+
+	private static final int MAX_NEGATIVE_ENTRIES = 1_024;
+
+	private final Supplier<List<ProjectSummary>> loader;
+
+	private final Duration ttl;
+
+	private final Duration negativeTtl;
+
+	private final Executor refreshExecutor;
+
+	private final Clock clock;
+
+	private final AtomicReference<CompletableFuture<Snapshot>> inFlight = new AtomicReference<>();
+
+	private final Map<String, Instant> negativeEntries = new ConcurrentHashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder negativeHits = new LongAdder();
+
+	private final LongAdder refreshes = new LongAdder();
+
+	private final LongAdder refreshFailures = new LongAdder();
+
+	private volatile Snapshot snapshot;
+
+	private volatile Instant refreshAfter = Instant.MIN;
+
+	public ProjectDirectory(Supplier<List<ProjectSummary>> loader, Duration ttl, Duration negativeTtl) {
+		this(loader, ttl, negativeTtl,
+				runnable -> Thread.ofVirtual().name("coroot-project-directory").start(runnable),
+				Clock.systemUTC());
+	}
+
+	ProjectDirectory(Supplier<List<ProjectSummary>> loader, Duration ttl, Duration negativeTtl,
+			Executor refreshExecutor, Clock clock) {
+		Assert.notNull(loader, "loader must not be null");
+		Assert.notNull(ttl, "ttl must not be null");
+		Assert.notNull(negativeTtl, "negativeTtl must not be null");
+		this.loader = loader;
+		this.ttl = ttl;
+		this.negativeTtl = negativeTtl;
+		this.refreshExecutor = refreshExecutor;
+		this.clock = clock;
+	}
+
+	/**
+	 * Returns all known projects. Only blocks when the directory has never been
+	 * loaded.
+	 */
+	public List<ProjectSummary> projects() {
+		return current().projects();
+	}
+
+	/**
+	 * Resolves a project id or name to the project id known to Coroot.
+	 * @param idOrName project id or display name
+	 * @return the matching project id, or empty when no project matches
+	 */
+	public Optional<String> findProjectId(String idOrName) {
+		Snapshot current = current();
+		String id = current.idsByKey().get(idOrName);
+		if (id != null) {
+			hits.increment();
+			return Optional.of(id);
+		}
+
+		Instant now = clock.instant();
+		Instant negativeExpiry = negativeEntries.get(idOrName);
+		if (negativeExpiry != null && now.isBefore(negativeExpiry)) {
+			negativeHits.increment();
+			return Optional.empty();
+		}
+
+		misses.increment();
+		if (negativeEntries.size() >= MAX_NEGATIVE_ENTRIES) {
+			negativeEntries.clear();
+		}
+		negativeEntries.put(idOrName, now.plus(negativeTtl));
+
+		// The identifier may belong to a project created since the last load. Pick it up
+		// in the background unless the directory was only just loaded.
+		if (current.loadedAt().plus(negativeTtl).isBefore(now)) {
+			refresh(true);
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Drops the cached directory so the next lookup reloads it.
+	 */
+	public void invalidate() {
+		snapshot = null;
+		refreshAfter = Instant.MIN;
+		negativeEntries.clear();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getNegativeHits() {
+		return negativeHits.sum();
+	}
+
+	public long getRefreshes() {
+		return refreshes.sum();
+	}
+
+	public long getRefreshFailures() {
+		return refreshFailures.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("coroot.project.directory.lookups", hits, LongAdder::sum)
+				.tag("result", "hit")
+				.description("Project id resolutions served from the cached directory")
+				.register(registry);
+		FunctionCounter.builder("coroot.project.directory.lookups", misses, LongAdder::sum)
+				.tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder("coroot.project.directory.lookups", negativeHits, LongAdder::sum)
+				.tag("result", "negative_hit")
+				.register(registry);
+		FunctionCounter.builder("coroot.project.directory.refreshes", refreshes, LongAdder::sum)
+				.description("Loads of the Coroot project directory from /api/user")
+				.register(registry);
+		FunctionCounter.builder("coroot.project.directory.refresh.failures", refreshFailures, LongAdder::sum)
+				.register(registry);
+		Gauge.builder("coroot.project.directory.size", this,
+				directory -> directory.snapshot != null ? directory.snapshot.projects().size() : 0)
+				.register(registry);
+	}
+
+	private Snapshot current() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			return refresh(false).join();
+		}
+		if (clock.instant().isAfter(refreshAfter)) {
+			refresh(true);
+		}
+		return current;
+	}
+
+	private CompletableFuture<Snapshot> refresh(boolean async) {
+		while (true) {
+			CompletableFuture<Snapshot> existing = inFlight.get();
+			if (existing != null) {
+				return existing;
+			}
+			CompletableFuture<Snapshot> created = new CompletableFuture<>();
+			if (inFlight.compareAndSet(null, created)) {
+				if (async) {
+					refreshExecutor.execute(() -> load(created));
+				}
+				else {
+					load(created);
+				}
+				return created;
+			}
+		}
+	}
+
+	private void load(CompletableFuture<Snapshot> target) {
+		refreshes.increment();
+		Instant now = clock.instant();
+		Snapshot loaded;
+		try {
+			List<ProjectSummary> projects = loader.get();
+			loaded = Snapshot.of(projects != null ? projects : List.of(), now);
+			refreshAfter = now.plus(ttl);
+		}
+		catch (RuntimeException ex) {
+			refreshFailures.increment();
+			logger.debug("Failed to load Coroot project directory", ex);
+			// Keep serving what we have (or an empty directory when cold) and retry after the
+			// negative TTL instead of hammering an endpoint that may require a UI session.
+			Snapshot previous = snapshot;
+			loaded = previous != null ? previous : Snapshot.of(List.of(), now);
+			refreshAfter = now.plus(negativeTtl);
+		}
+		snapshot = loaded;
+		inFlight.compareAndSet(target, null);
+		target.complete(loaded);
+	}
+
+	private record Snapshot(List<ProjectSummary> projects, Map<String, String> idsByKey, Instant loadedAt) {
+
+		static Snapshot of(List<ProjectSummary> projects, Instant loadedAt) {
+			Map<String, String> idsByKey = new HashMap<>();
+			// Names are indexed first so an exact id match always wins over a name collision.
+			for (ProjectSummary project : projects) {
+				if (project.getName() != null) {
+					idsByKey.put(project.getName(), project.getId());
+				}
+			}
+			for (ProjectSummary project : projects) {
+				idsByKey.put(project.getId(), project.getId());
+			}
+			return new Snapshot(List.copyOf(projects), Map.copyOf(idsByKey), loadedAt);
+		}
+	}
+
+}
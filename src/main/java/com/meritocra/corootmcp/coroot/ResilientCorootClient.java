@@ -0,0 +1,438 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * {@link CorootClient} decorator that keeps a slow or failing Coroot from
+ * tying up request threads.
+ *
+ * <p>
+ * Every call first takes a slot of a bulkhead that caps the calls in flight to
+ * Coroot, waiting at most {@code max-wait}. It then asks the
+ * {@link CircuitBreaker} of its endpoint for permission. I/O errors, 5xx and
+ * 429 responses count as failures and are retried, as all Coroot calls are
+ * idempotent GETs, with exponential backoff and full jitter; the slot is
+ * released while backing off. Other errors, such as 404s, are passed through
+ * and count as successes, as Coroot did answer. Read timeouts count as
+ * failures but are not retried: a slow Coroot would only make the caller wait
+ * the read timeout once per attempt.
+ * </p>
+ *
+ * <p>
+ * For the incident list and the project-level overviews, the last successful
+ * response of each call is kept for {@code stale-ttl}, up to
+ * {@code max-stale-entries}. Traces and logs are not kept, as their payloads
+ * are large and specific to their arguments. When a call is rejected by the
+ * bulkhead or an open breaker, the kept response is served instead, marked
+ * through {@link StaleResponses} so callers can report it as stale; without
+ * one, the call fails fast with an {@link IllegalStateException}. A call that
+ * fails after its retries always throws its last error.
+ * </p>
+ */
+public class ResilientCorootClient implements CorootClient, MeterBinder, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ResilientCorootClient.class);
+
+	static final List<String> ENDPOINTS = List.of("incidents", "incident", "health", "projects", "applications",
+			"risks", "nodes", "deployments", "traces", "logs", "tracing", "app-logs", "app-logs-summary", "costs",
+			"slo");
+
+	// Endpoints whose last response may be served stale: small, project-level lists and maps.
+	private static final Set<String> STALE_ENDPOINTS = Set.of("incidents", "projects", "applications", "risks",
+			"nodes", "deployments", "costs", "slo");
+
+	private final CorootClient delegate;
+
+	private final CorootProperties.Resilience properties;
+
+	private final Clock clock;
+
+	private final Semaphore bulkhead;
+
+	private final Map<String, Endpoint> endpoints;
+
+	private final LongAdder bulkheadRejections = new LongAdder();
+
+	// Access-ordered so iteration starts at the least recently used response; guarded by itself.
+	private final LinkedHashMap<Call, Stale> lastGood = new LinkedHashMap<>(16, 0.75f, true);
+
+	public ResilientCorootClient(CorootClient delegate, CorootProperties.Resilience properties) {
+		this(delegate, properties, Clock.systemUTC());
+	}
+
+	ResilientCorootClient(CorootClient delegate, CorootProperties.Resilience properties, Clock clock) {
+		Assert.notNull(delegate, "delegate must not be null");
+		Assert.isTrue(properties.getMaxConcurrentCalls() > 0, "maxConcurrentCalls must be positive");
+		this.delegate = delegate;
+		this.properties = properties;
+		this.clock = clock;
+		this.bulkhead = new Semaphore(properties.getMaxConcurrentCalls(), true);
+		Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			endpoints.put(endpoint, new Endpoint(new CircuitBreaker(properties.getWindowSize(),
+					properties.getMinimumCalls(), properties.getFailureRateThreshold(), properties.getOpenDuration(),
+					clock)));
+		}
+		this.endpoints = Map.copyOf(endpoints);
+	}
+
+	@Override
+	public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity, int limit) {
+		return call("incidents", () -> delegate.listRecentIncidents(projectId, minimumSeverity, limit), projectId,
+				minimumSeverity, limit);
+	}
+
+	@Override
+	public List<IncidentSummary> searchIncidents(String projectId, IncidentQuery query) {
+		return call("incidents", () -> delegate.searchIncidents(projectId, query), projectId, query);
+	}
+
+	@Override
+	public IncidentContext getIncidentContext(String projectId, String incidentId) {
+		return call("incident", () -> delegate.getIncidentContext(projectId, incidentId), projectId, incidentId);
+	}
+
+	@Override
+	public ServiceHealthSnapshot getServiceHealth(String projectId, String service) {
+		return call("health", () -> delegate.getServiceHealth(projectId, service), projectId, service);
+	}
+
+	@Override
+	public List<ProjectSummary> listProjects() {
+		return call("projects", delegate::listProjects);
+	}
+
+	@Override
+	public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+		return call("applications", () -> delegate.listApplicationsOverview(projectId), projectId);
+	}
+
+	@Override
+	public List<RiskOverviewEntry> listRisksOverview(String projectId) {
+		return call("risks", () -> delegate.listRisksOverview(projectId), projectId);
+	}
+
+	@Override
+	public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+		return call("nodes", () -> delegate.listNodesOverview(projectId), projectId);
+	}
+
+	@Override
+	public List<DeploymentOverviewEntry> listDeploymentsOverview(String projectId) {
+		return call("deployments", () -> delegate.listDeploymentsOverview(projectId), projectId);
+	}
+
+	@Override
+	public Map<String, Object> getTracesOverview(String projectId, String query) {
+		return call("traces", () -> delegate.getTracesOverview(projectId, query), projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getLogsOverview(String projectId, String query) {
+		return call("logs", () -> delegate.getLogsOverview(projectId, query), projectId, query);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+		return call("tracing", () -> delegate.getApplicationTracing(projectId, applicationId, windowMinutes),
+				projectId, applicationId, windowMinutes);
+	}
+
+	@Override
+	public Map<String, Object> getApplicationLogs(String projectId, String applicationId, int windowMinutes,
+			int maxEntries) {
+		return call("app-logs",
+				() -> delegate.getApplicationLogs(projectId, applicationId, windowMinutes, maxEntries), projectId,
+				applicationId, windowMinutes, maxEntries);
+	}
+
+	@Override
+	public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+			int windowMinutes, int scanLimit) {
+		return call("app-logs-summary",
+				() -> delegate.summarizeApplicationLogs(projectId, applicationId, windowMinutes, scanLimit),
+				projectId, applicationId, windowMinutes, scanLimit);
+	}
+
+	@Override
+	public Map<String, Object> getCostsOverview(String projectId) {
+		return call("costs", () -> delegate.getCostsOverview(projectId), projectId);
+	}
+
+	@Override
+	public Map<String, Object> getSloOverview(String projectId) {
+		return call("slo", () -> delegate.getSloOverview(projectId), projectId);
+	}
+
+	@Override
+	public void close() throws Exception {
+		if (delegate instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		endpoints.forEach((name, endpoint) -> {
+			Gauge.builder("coroot.resilience.circuit.state", endpoint.breaker, breaker -> breaker.state().ordinal())
+					.description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+					.tag("endpoint", name)
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.circuit.opened", endpoint.breaker, CircuitBreaker::timesOpened)
+					.tag("endpoint", name)
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.calls", endpoint.succeeded, LongAdder::sum)
+					.description("Coroot calls by outcome, after retries")
+					.tag("endpoint", name)
+					.tag("outcome", "success")
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.calls", endpoint.failed, LongAdder::sum)
+					.tag("endpoint", name)
+					.tag("outcome", "failure")
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.calls", endpoint.rejected, LongAdder::sum)
+					.tag("endpoint", name)
+					.tag("outcome", "rejected")
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.retries", endpoint.retries, LongAdder::sum)
+					.tag("endpoint", name)
+					.register(registry);
+			FunctionCounter.builder("coroot.resilience.fallbacks", endpoint.fallbacks, LongAdder::sum)
+					.description("Rejected calls answered with the last successful response, marked as stale")
+					.tag("endpoint", name)
+					.register(registry);
+		});
+		Gauge.builder("coroot.resilience.bulkhead.in.flight", bulkhead,
+				semaphore -> properties.getMaxConcurrentCalls() - semaphore.availablePermits())
+				.register(registry);
+		FunctionCounter.builder("coroot.resilience.bulkhead.rejections", bulkheadRejections, LongAdder::sum)
+				.register(registry);
+	}
+
+	CircuitBreaker.State circuitState(String endpoint) {
+		return endpoints.get(endpoint).breaker.state();
+	}
+
+	private <T> T call(String name, Supplier<T> supplier, Object... args) {
+		Endpoint endpoint = endpoints.get(name);
+		Call call = new Call(name, Arrays.asList(args));
+		RuntimeException lastFailure = null;
+		int maxAttempts = Math.max(1, properties.getMaxAttempts());
+
+		for (int attempt = 0; attempt < maxAttempts; attempt++) {
+			if (attempt > 0) {
+				endpoint.retries.increment();
+				if (!backOff(attempt)) {
+					break;
+				}
+			}
+			if (!acquireSlot()) {
+				bulkheadRejections.increment();
+				return fallback(endpoint, call, lastFailure, "too many concurrent calls to Coroot");
+			}
+			try {
+				if (!endpoint.breaker.tryAcquire()) {
+					return fallback(endpoint, call, lastFailure, "circuit breaker for Coroot " + name + " is open");
+				}
+				T result;
+				boolean settled = false;
+				try {
+					result = supplier.get();
+					settled = true;
+					endpoint.breaker.onSuccess();
+				}
+				catch (RuntimeException ex) {
+					settled = true;
+					if (!isFailure(ex)) {
+						endpoint.breaker.onSuccess();
+						throw ex;
+					}
+					endpoint.breaker.onFailure();
+					lastFailure = ex;
+					if (isTimeout(ex)) {
+						// Coroot is slow rather than down; another attempt would wait as long again.
+						break;
+					}
+					continue;
+				}
+				finally {
+					if (!settled) {
+						// An Error: release a half-open probe so the breaker is not stuck.
+						endpoint.breaker.onIgnored();
+					}
+				}
+				endpoint.succeeded.increment();
+				remember(call, result);
+				return result;
+			}
+			finally {
+				bulkhead.release();
+			}
+		}
+
+		// Every attempt failed, or retrying stopped early: a stale answer would hide
+		// the failure from the caller, so report it.
+		endpoint.failed.increment();
+		throw lastFailure;
+	}
+
+	/**
+	 * Answers a call that was rejected without reaching Coroot with its last
+	 * successful response, marked as stale. Without one, a call rejected while
+	 * retrying throws the failure it was retrying.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T fallback(Endpoint endpoint, Call call, RuntimeException failure, String reason) {
+		endpoint.rejected.increment();
+		Stale stale;
+		synchronized (lastGood) {
+			stale = lastGood.get(call);
+		}
+		if (stale != null && clock.instant().isBefore(stale.storedAt().plus(properties.getStaleTtl()))) {
+			endpoint.fallbacks.increment();
+			logger.debug("Serving response of Coroot {} fetched at {}: {}", call.endpoint(), stale.storedAt(), reason);
+			Object value = stale.value();
+			return (T) (value instanceof Map<?, ?> map ? StaleResponses.map(map, stale.storedAt())
+					: StaleResponses.list((List<?>) value, stale.storedAt()));
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		throw new IllegalStateException(reason + "; no recent response to fall back to");
+	}
+
+	private void remember(Call call, Object value) {
+		Duration staleTtl = properties.getStaleTtl();
+		if (value == null || !STALE_ENDPOINTS.contains(call.endpoint()) || staleTtl.isZero()
+				|| staleTtl.isNegative()) {
+			return;
+		}
+		synchronized (lastGood) {
+			lastGood.put(call, new Stale(value, clock.instant()));
+			Iterator<Call> eldest = lastGood.keySet().iterator();
+			while (lastGood.size() > properties.getMaxStaleEntries() && eldest.hasNext()) {
+				eldest.next();
+				eldest.remove();
+			}
+		}
+	}
+
+	private boolean acquireSlot() {
+		try {
+			return bulkhead.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Sleeps a random time below the capped exponential delay of the retry.
+	 * @return {@code false} when interrupted
+	 */
+	private boolean backOff(int attempt) {
+		long initial = properties.getInitialBackoff().toMillis();
+		long cap = Math.min(properties.getMaxBackoff().toMillis(), initial << Math.min(attempt - 1, 20));
+		if (cap <= 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+			return true;
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Whether an error means Coroot is unavailable or overloaded, rather than the
+	 * request being wrong.
+	 */
+	static boolean isFailure(RuntimeException ex) {
+		if (ex instanceof ResourceAccessException) {
+			return true;
+		}
+		if (ex instanceof RestClientResponseException responseException) {
+			int status = responseException.getStatusCode().value();
+			return status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+		}
+		return false;
+	}
+
+	/**
+	 * Whether an I/O error is a read timeout. Those are not retried, so a slow
+	 * Coroot costs one read timeout per call rather than one per attempt.
+	 */
+	static boolean isTimeout(RuntimeException ex) {
+		for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+			if (cause instanceof HttpConnectTimeoutException) {
+				return false;
+			}
+			if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private record Call(String endpoint, List<Object> args) {
+	}
+
+	private record Stale(Object value, Instant storedAt) {
+	}
+
+	private static final class Endpoint {
+
+		private final CircuitBreaker breaker;
+
+		private final LongAdder succeeded = new LongAdder();
+
+		private final LongAdder failed = new LongAdder();
+
+		private final LongAdder rejected = new LongAdder();
+
+		private final LongAdder retries = new LongAdder();
+
+		private final LongAdder fallbacks = new LongAdder();
+
+		Endpoint(CircuitBreaker breaker) {
+			this.breaker = breaker;
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+package com.meritocra.corootmcp.coroot;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Marks responses that {@link ResilientCorootClient} served from its last
+ * successful call because Coroot was unavailable, so callers can tell them
+ * from fresh ones and report them as stale.
+ *
+ * <p>
+ * A marked response is a read-only view of the remembered list or map. It
+ * serializes like the original, so callers have to check
+ * {@link #fetchedAt(Object)} before turning it into JSON.
+ * </p>
+ */
+public final class StaleResponses {
+
+	private StaleResponses() {
+	}
+
+	/**
+	 * When a stale response was fetched from Coroot, or {@code null} if the value
+	 * is fresh.
+	 */
+	public static Instant fetchedAt(Object value) {
+		return value instanceof Stale stale ? stale.fetchedAt() : null;
+	}
+
+	/**
+	 * Marks a list as fetched at {@code fetchedAt}; a {@code null} time returns
+	 * the list as it is.
+	 */
+	public static <E> List<E> list(List<E> entries, Instant fetchedAt) {
+		return fetchedAt != null ? new StaleList<>(entries, fetchedAt) : entries;
+	}
+
+	/**
+	 * Marks a map as fetched at {@code fetchedAt}; a {@code null} time returns the
+	 * map as it is.
+	 */
+	public static <K, V> Map<K, V> map(Map<K, V> entries, Instant fetchedAt) {
+		return fetchedAt != null ? new StaleMap<>(entries, fetchedAt) : entries;
+	}
+
+	private interface Stale {
+
+		Instant fetchedAt();
+
+	}
+
+	private static final class StaleList<E> extends AbstractList<E> implements RandomAccess, Stale {
+
+		private final List<E> entries;
+
+		private final Instant fetchedAt;
+
+		StaleList(List<E> entries, Instant fetchedAt) {
+			this.entries = entries;
+			this.fetchedAt = fetchedAt;
+		}
+
+		@Override
+		public E get(int index) {
+			return entries.get(index);
+		}
+
+		@Override
+		public int size() {
+			return entries.size();
+		}
+
+		@Override
+		public Instant fetchedAt() {
+			return fetchedAt;
+		}
+
+	}
+
+	private static final class StaleMap<K, V> extends AbstractMap<K, V> implements Stale {
+
+		private final Map<K, V> entries;
+
+		private final Instant fetchedAt;
+
+		StaleMap(Map<K, V> entries, Instant fetchedAt) {
+			this.entries = entries;
+			this.fetchedAt = fetchedAt;
+		}
+
+		@Override
+		public V get(Object key) {
+			return entries.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return entries.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return entries.size();
+		}
+
+		@Override
+		public Set<Entry<K, V>> entrySet() {
+			return Collections.unmodifiableMap(entries).entrySet();
+		}
+
+		@Override
+		public Instant fetchedAt() {
+			return fetchedAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,345 @@
+package com.meritocra.corootmcp.llm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.meritocra.corootmcp.config.LlmProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for the LLM completions used by the summarization tools.
+ *
+ * <p>
+ * Every call is metered per calling tool: {@code llm.calls} (latency histogram
+ * by outcome), {@code llm.errors}, {@code llm.prompt.size} and
+ * {@code llm.response.size} (characters), {@code llm.tokens} (by
+ * {@code type=prompt|completion}, when the model reports usage) and
+ * {@code llm.calls.in.flight}.
+ * </p>
+ *
+ * <p>
+ * Callers that pass a partial-content sink get a streamed completion: text is
+ * forwarded in small chunks as the model generates it and the aggregated text
+ * is still returned. Streamed calls record {@code llm.time.to.first.token};
+ * both modes record {@code llm.tokens.per.second} (by {@code mode=call|stream},
+ * from first token to end when streaming), using reported completion tokens or
+ * the number of streamed chunks when the model reports no usage.
+ * </p>
+ *
+ * <p>
+ * Completions that pass cache inputs are served from an {@link LlmResponseCache}
+ * when the same tool, model, options and evidence were summarized recently.
+ * Lookups are counted as {@code llm.cache.requests} (by
+ * {@code result=hit|disk_hit|miss}) and the tokens a hit avoided as
+ * {@code llm.cache.saved.tokens}.
+ * </p>
+ */
+@Component
+public class LlmGateway {
+
+	private static final Logger logger = LoggerFactory.getLogger(LlmGateway.class);
+
+	// Streamed chunks are often a single token; forwarding each one separately
+	// would mostly produce notification overhead.
+	private static final int PARTIAL_FLUSH_CHARS = 64;
+
+	private final ChatClient chatClient;
+
+	private final MeterRegistry meterRegistry;
+
+	private final String model;
+
+	private final LlmResponseCache cache;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder cacheHits = new LongAdder();
+
+	private final LongAdder cacheLookups = new LongAdder();
+
+	public LlmGateway(ChatClient chatClient, MeterRegistry meterRegistry) {
+		this(chatClient, meterRegistry, (String) null, (LlmResponseCache) null);
+	}
+
+	@Autowired
+	public LlmGateway(ChatClient chatClient, MeterRegistry meterRegistry, LlmProperties properties,
+			@Value("${spring.ai.openai.chat.options.model:}") String model) {
+		this(chatClient, meterRegistry, model, properties != null && properties.getCache().isEnabled()
+				? new LlmResponseCache(properties.getCache().getTtl(), properties.getCache().getMaxEntries(),
+						properties.getCache().getDirectory())
+				: null);
+	}
+
+	LlmGateway(ChatClient chatClient, MeterRegistry meterRegistry, String model, LlmResponseCache cache) {
+		this.chatClient = chatClient;
+		this.meterRegistry = meterRegistry;
+		this.model = model;
+		this.cache = cache;
+		Gauge.builder("llm.calls.in.flight", inFlight, AtomicInteger::get)
+				.description("LLM completions currently in flight")
+				.register(meterRegistry);
+		if (cache != null) {
+			Gauge.builder("llm.cache.size", cache, LlmResponseCache::size)
+					.description("LLM responses held in memory")
+					.register(meterRegistry);
+			Gauge.builder("llm.cache.hit.ratio", this, LlmGateway::cacheHitRatio)
+					.description("Share of cacheable completions served from the cache")
+					.register(meterRegistry);
+		}
+	}
+
+	/**
+	 * Sends {@code prompt} as a single user message and returns the model's text.
+	 * @param tool name of the calling tool, used as the {@code tool} metric tag
+	 */
+	public String complete(String tool, String prompt) {
+		return complete(tool, prompt, null);
+	}
+
+	/**
+	 * Like {@link #complete(String, String)}, reusing a cached response generated
+	 * from the same inputs.
+	 * @param cacheInputs everything besides the tool and model that determines the
+	 * prompt (options and evidence), or {@code null} to bypass the cache
+	 */
+	public String complete(String tool, String prompt, JsonNode cacheInputs) {
+		return complete(tool, prompt, cacheInputs, null);
+	}
+
+	/**
+	 * Like {@link #complete(String, String, JsonNode)}, streaming the text to
+	 * {@code partial} as it is generated. A cached response is forwarded in one
+	 * piece.
+	 * @param partial receives consecutive chunks of the response, or {@code null}
+	 * for a blocking call
+	 */
+	public String complete(String tool, String prompt, JsonNode cacheInputs, Consumer<String> partial) {
+		if (cache == null || cacheInputs == null) {
+			return invoke(tool, prompt, partial).content();
+		}
+
+		String fingerprint = LlmResponseCache.fingerprint(tool, model, cacheInputs);
+		cacheLookups.increment();
+		LlmResponseCache.Hit hit = cache.get(fingerprint);
+		if (hit != null) {
+			cacheHits.increment();
+			String result = hit.tier() == LlmResponseCache.Tier.MEMORY ? "hit" : "disk_hit";
+			meterRegistry.counter("llm.cache.requests", "tool", tool, "result", result).increment();
+			meterRegistry.counter("llm.cache.saved.tokens", "tool", tool, "type", "prompt")
+					.increment(hit.entry().promptTokens());
+			meterRegistry.counter("llm.cache.saved.tokens", "tool", tool, "type", "completion")
+					.increment(hit.entry().completionTokens());
+			if (partial != null && hit.entry().content() != null) {
+				partial.accept(hit.entry().content());
+			}
+			return hit.entry().content();
+		}
+
+		meterRegistry.counter("llm.cache.requests", "tool", tool, "result", "miss").increment();
+		Completion completion = invoke(tool, prompt, partial);
+		if (completion.content() != null && !completion.content().isBlank()) {
+			cache.put(fingerprint, completion.content(), completion.promptTokens(), completion.completionTokens());
+		}
+		return completion.content();
+	}
+
+	private double cacheHitRatio() {
+		long lookups = cacheLookups.sum();
+		return lookups == 0 ? 0.0 : (double) cacheHits.sum() / lookups;
+	}
+
+	private Completion invoke(String tool, String prompt, Consumer<String> partial) {
+		summary("llm.prompt.size", tool).record(prompt.length());
+		inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			Completion completion = partial == null ? call(tool, prompt, start) : stream(tool, prompt, partial, start);
+			timer(tool, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			summary("llm.response.size", tool).record(completion.content() != null ? completion.content().length() : 0);
+			return completion;
+		}
+		catch (RuntimeException ex) {
+			timer(tool, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			meterRegistry.counter("llm.errors", "tool", tool, "error", ex.getClass().getSimpleName()).increment();
+			throw ex;
+		}
+		finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	private Completion call(String tool, String prompt, long start) {
+		ChatResponse response = chatClient.prompt().user(prompt).call().chatResponse();
+		long end = System.nanoTime();
+		Usage usage = usage(response);
+		recordUsage(tool, usage);
+		long completionTokens = tokens(usage != null ? usage.getCompletionTokens() : null);
+		double tokensPerSecond = recordThroughput(tool, "call", completionTokens, end - start);
+		logger.debug("llmCall tool={} mode=call durationMs={} tokensPerSecond={}", tool,
+				TimeUnit.NANOSECONDS.toMillis(end - start), tokensPerSecond);
+		return new Completion(content(response), tokens(usage != null ? usage.getPromptTokens() : null),
+				completionTokens);
+	}
+
+	private Completion stream(String tool, String prompt, Consumer<String> partial, long start) {
+		StreamedResponse streamed = new StreamedResponse(partial);
+		chatClient.prompt().user(prompt).stream().chatResponse().doOnNext(streamed::accept).blockLast();
+		streamed.flush();
+		long end = System.nanoTime();
+
+		recordUsage(tool, streamed.usage);
+		long ttftNanos = streamed.firstToken ? streamed.firstTokenAt - start : end - start;
+		Timer.builder("llm.time.to.first.token")
+				.description("Time until a streamed LLM completion produced its first text")
+				.tag("tool", tool)
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(ttftNanos, TimeUnit.NANOSECONDS);
+		// Without reported usage every streamed chunk counts as one token.
+		long completionTokens = streamed.usage != null && streamed.usage.getCompletionTokens() != null
+				? streamed.usage.getCompletionTokens() : streamed.chunks;
+		double tokensPerSecond = recordThroughput(tool, "stream", completionTokens, end - start - ttftNanos);
+		logger.debug("llmCall tool={} mode=stream durationMs={} ttftMs={} tokensPerSecond={}", tool,
+				TimeUnit.NANOSECONDS.toMillis(end - start), TimeUnit.NANOSECONDS.toMillis(ttftNanos), tokensPerSecond);
+		return new Completion(streamed.content.toString(),
+				tokens(streamed.usage != null ? streamed.usage.getPromptTokens() : null), completionTokens);
+	}
+
+	private double recordThroughput(String tool, String mode, long completionTokens, long nanos) {
+		if (completionTokens <= 0 || nanos <= 0) {
+			return 0.0;
+		}
+		double tokensPerSecond = completionTokens * 1e9 / nanos;
+		DistributionSummary.builder("llm.tokens.per.second")
+				.description("Completion tokens generated per second")
+				.tag("tool", tool)
+				.tag("mode", mode)
+				.register(meterRegistry)
+				.record(tokensPerSecond);
+		return tokensPerSecond;
+	}
+
+	private static String content(ChatResponse response) {
+		if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+			return null;
+		}
+		return response.getResult().getOutput().getText();
+	}
+
+	private static Usage usage(ChatResponse response) {
+		if (response == null || response.getMetadata() == null) {
+			return null;
+		}
+		return response.getMetadata().getUsage();
+	}
+
+	private static long tokens(Integer count) {
+		return count != null ? count : 0;
+	}
+
+	private void recordUsage(String tool, Usage usage) {
+		if (usage == null) {
+			return;
+		}
+		if (usage.getPromptTokens() != null) {
+			meterRegistry.counter("llm.tokens", "tool", tool, "type", "prompt").increment(usage.getPromptTokens());
+		}
+		if (usage.getCompletionTokens() != null) {
+			meterRegistry.counter("llm.tokens", "tool", tool, "type", "completion")
+					.increment(usage.getCompletionTokens());
+		}
+	}
+
+	private Timer timer(String tool, String outcome) {
+		return Timer.builder("llm.calls")
+				.description("LLM completion latency")
+				.tag("tool", tool)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	private DistributionSummary summary(String name, String tool) {
+		return DistributionSummary.builder(name)
+				.baseUnit("characters")
+				.tag("tool", tool)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	private record Completion(String content, long promptTokens, long completionTokens) {
+	}
+
+	/**
+	 * Aggregates a streamed completion and forwards its text in chunks of at least
+	 * {@link #PARTIAL_FLUSH_CHARS} characters or up to a line break.
+	 */
+	private static final class StreamedResponse {
+
+		private final Consumer<String> partial;
+
+		private final StringBuilder content = new StringBuilder();
+
+		private final StringBuilder pending = new StringBuilder();
+
+		private boolean firstToken;
+
+		private long firstTokenAt;
+
+		private long chunks;
+
+		private Usage usage;
+
+		StreamedResponse(Consumer<String> partial) {
+			this.partial = partial;
+		}
+
+		void accept(ChatResponse chunk) {
+			Usage chunkUsage = usage(chunk);
+			if (chunkUsage != null && (tokens(chunkUsage.getPromptTokens()) > 0
+					|| tokens(chunkUsage.getCompletionTokens()) > 0)) {
+				usage = chunkUsage;
+			}
+			String text = content(chunk);
+			if (text == null || text.isEmpty()) {
+				return;
+			}
+			if (!firstToken) {
+				firstToken = true;
+				firstTokenAt = System.nanoTime();
+			}
+			chunks++;
+			content.append(text);
+			pending.append(text);
+			if (pending.length() >= PARTIAL_FLUSH_CHARS || text.indexOf('\n') >= 0) {
+				flush();
+			}
+		}
+
+		void flush() {
+			if (!pending.isEmpty()) {
+				partial.accept(pending.toString());
+				pending.setLength(0);
+			}
+		}
+
+	}
+
+}
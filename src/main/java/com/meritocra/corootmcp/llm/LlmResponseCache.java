@@ -0,0 +1,298 @@
+package com.meritocra.corootmcp.llm;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache of LLM responses keyed on a fingerprint of everything that
+ * determines the generated text.
+ *
+ * <p>
+ * Entries live in an in-memory LRU map and, when a directory is configured, in
+ * one JSON file per fingerprint so they survive restarts. Memory misses fall
+ * back to disk and promote what they find. Disk I/O failures are logged and
+ * treated as misses: the cache never fails a completion.
+ * </p>
+ */
+public class LlmResponseCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(LlmResponseCache.class);
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final int PRUNE_EVERY_WRITES = 64;
+
+	private final Duration ttl;
+
+	private final int maxEntries;
+
+	private final Path directory;
+
+	private final Clock clock;
+
+	private final Object lock = new Object();
+
+	// Access-ordered so iteration starts at the least recently used entry; guarded by lock.
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final AtomicLong diskWrites = new AtomicLong();
+
+	public LlmResponseCache(Duration ttl, int maxEntries, Path directory) {
+		this(ttl, maxEntries, directory, Clock.systemUTC());
+	}
+
+	LlmResponseCache(Duration ttl, int maxEntries, Path directory, Clock clock) {
+		Assert.notNull(ttl, "ttl must not be null");
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		this.ttl = ttl;
+		this.maxEntries = maxEntries;
+		this.directory = directory;
+		this.clock = clock;
+		if (directory != null) {
+			try {
+				Files.createDirectories(directory);
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException("Cannot create LLM cache directory " + directory, ex);
+			}
+			pruneDisk();
+		}
+	}
+
+	/**
+	 * Computes the cache key for a completion.
+	 * @param tool name of the calling tool
+	 * @param model model the completion is requested from
+	 * @param inputs prompt options and evidence; object fields are hashed in sorted
+	 * order so logically equal evidence yields the same fingerprint
+	 * @return hex-encoded SHA-256 fingerprint
+	 */
+	public static String fingerprint(String tool, String model, JsonNode inputs) {
+		MessageDigest digest = sha256();
+		digest.update((tool + '\n' + (model != null ? model : "") + '\n').getBytes(StandardCharsets.UTF_8));
+		try (JsonGenerator generator = OBJECT_MAPPER.getFactory()
+				.createGenerator(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+			writeCanonical(generator, inputs);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Returns the cached response for {@code fingerprint}, or {@code null}.
+	 */
+	Hit get(String fingerprint) {
+		Instant now = clock.instant();
+		synchronized (lock) {
+			Entry entry = entries.get(fingerprint);
+			if (entry != null) {
+				if (now.isBefore(entry.expiresAt())) {
+					return new Hit(entry, Tier.MEMORY);
+				}
+				entries.remove(fingerprint);
+			}
+		}
+		if (directory == null) {
+			return null;
+		}
+		Entry entry = readDisk(fingerprint);
+		if (entry == null || !now.isBefore(entry.expiresAt())) {
+			return null;
+		}
+		putInMemory(fingerprint, entry);
+		return new Hit(entry, Tier.DISK);
+	}
+
+	void put(String fingerprint, String content, long promptTokens, long completionTokens) {
+		Entry entry = new Entry(content, promptTokens, completionTokens, clock.instant().plus(ttl));
+		putInMemory(fingerprint, entry);
+		if (directory != null) {
+			writeDisk(fingerprint, entry);
+		}
+	}
+
+	int size() {
+		synchronized (lock) {
+			return entries.size();
+		}
+	}
+
+	private void putInMemory(String fingerprint, Entry entry) {
+		synchronized (lock) {
+			entries.put(fingerprint, entry);
+			Iterator<String> eldest = entries.keySet().iterator();
+			while (entries.size() > maxEntries && eldest.hasNext()) {
+				eldest.next();
+				eldest.remove();
+			}
+		}
+	}
+
+	private Entry readDisk(String fingerprint) {
+		try {
+			JsonNode node = OBJECT_MAPPER.readTree(directory.resolve(fingerprint + ".json").toFile());
+			return new Entry(node.path("content").asText(), node.path("promptTokens").asLong(),
+					node.path("completionTokens").asLong(), Instant.ofEpochMilli(node.path("expiresAt").asLong()));
+		}
+		catch (NoSuchFileException | FileNotFoundException ex) {
+			return null;
+		}
+		catch (IOException ex) {
+			logger.debug("Failed to read cached LLM response {}", fingerprint, ex);
+			return null;
+		}
+	}
+
+	private void writeDisk(String fingerprint, Entry entry) {
+		ObjectNode node = OBJECT_MAPPER.createObjectNode();
+		node.put("content", entry.content());
+		node.put("promptTokens", entry.promptTokens());
+		node.put("completionTokens", entry.completionTokens());
+		node.put("expiresAt", entry.expiresAt().toEpochMilli());
+		Path target = directory.resolve(fingerprint + ".json");
+		try {
+			Path temp = Files.createTempFile(directory, fingerprint, ".tmp");
+			OBJECT_MAPPER.writeValue(temp.toFile(), node);
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to write cached LLM response to {}: {}", target, ex.getMessage());
+			return;
+		}
+		if (diskWrites.incrementAndGet() % PRUNE_EVERY_WRITES == 0) {
+			pruneDisk();
+		}
+	}
+
+	/**
+	 * Deletes expired files and, beyond {@code maxEntries}, the oldest ones.
+	 */
+	private synchronized void pruneDisk() {
+		Instant now = clock.instant();
+		List<Path> live = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{json,tmp}")) {
+			for (Path file : files) {
+				Instant modified = Files.getLastModifiedTime(file).toInstant();
+				if (file.toString().endsWith(".tmp")) {
+					// Leftover of an interrupted write; recent ones may still be in progress.
+					if (modified.plus(Duration.ofMinutes(1)).isBefore(now)) {
+						Files.deleteIfExists(file);
+					}
+				}
+				else if (modified.plus(ttl).isBefore(now)) {
+					Files.deleteIfExists(file);
+				}
+				else {
+					live.add(file);
+				}
+			}
+			if (live.size() > maxEntries) {
+				live.sort(Comparator.comparing(LlmResponseCache::lastModified));
+				for (Path file : live.subList(0, live.size() - maxEntries)) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+		catch (IOException ex) {
+			logger.warn("Failed to prune LLM cache directory {}: {}", directory, ex.getMessage());
+		}
+	}
+
+	private static Instant lastModified(Path file) {
+		try {
+			return Files.getLastModifiedTime(file).toInstant();
+		}
+		catch (IOException ex) {
+			return Instant.MIN;
+		}
+	}
+
+	private static void writeCanonical(JsonGenerator generator, JsonNode node) throws IOException {
+		if (node == null) {
+			generator.writeNull();
+		}
+		else if (node.isObject()) {
+			List<Map.Entry<String, JsonNode>> fields = new ArrayList<>(node.size());
+			node.fields().forEachRemaining(fields::add);
+			fields.sort(Map.Entry.comparingByKey());
+			generator.writeStartObject();
+			for (Map.Entry<String, JsonNode> field : fields) {
+				generator.writeFieldName(field.getKey());
+				writeCanonical(generator, field.getValue());
+			}
+			generator.writeEndObject();
+		}
+		else if (node.isArray()) {
+			generator.writeStartArray();
+			for (JsonNode element : node) {
+				writeCanonical(generator, element);
+			}
+			generator.writeEndArray();
+		}
+		else {
+			OBJECT_MAPPER.writeTree(generator, node);
+		}
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	enum Tier {
+
+		MEMORY, DISK
+
+	}
+
+	record Entry(String content, long promptTokens, long completionTokens, Instant expiresAt) {
+	}
+
+	record Hit(Entry entry, Tier tier) {
+	}
+
+}
@@ -1,50 +1,195 @@
 package com.meritocra.corootmcp.mcp;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.McpProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.util.StringUtils;
 
+/**
+ * JSON-RPC endpoint for MCP clients.
+ *
+ * <p>
+ * Requests are metered per JSON-RPC method: {@code mcp.requests} (latency
+ * histogram by outcome), {@code mcp.request.errors} (by JSON-RPC error code) and
+ * {@code mcp.requests.in.flight}. Payload sizes are recorded by
+ * {@link McpPayloadMetricsFilter}.
+ * </p>
+ *
+ * <p>
+ * Implements the MCP streamable HTTP transport: a {@code tools/call} from a
+ * client that accepts {@code text/event-stream} is answered with an SSE stream.
+ * The servlet thread is released immediately, the tool runs on a virtual thread
+ * and, when the request carries {@code params._meta.progressToken}, progress
+ * reported by the tool is sent as {@code notifications/progress} events before
+ * the final JSON-RPC response. Text the tool streams ahead of its result, such
+ * as a summary the model is still generating, is sent as
+ * {@code notifications/message} events with {@code logger=partial_content}.
+ * </p>
+ *
+ * <p>
+ * JSON-RPC batch arrays are accepted as well. {@code tools/call} entries of a
+ * batch run concurrently on virtual threads, at most
+ * {@code mcp.batch.max-concurrency} at a time, and the responses are returned
+ * as an array in request order, without entries for notifications. Batches are
+ * metered as {@code mcp.batch.size} and {@code mcp.batch.fan.out} (number of
+ * tool calls per batch).
+ * </p>
+ *
+ * <p>
+ * {@code tools/list} is answered from the registry's pre-serialized result with
+ * an {@code ETag} that changes with the registered tools. It is a validator
+ * only: {@code tools/list} is a POST, so {@code If-None-Match} is not answered
+ * with {@code 304}. {@code GET /mcp} opens a notification stream on which
+ * {@code notifications/tools/list_changed} is sent when the registry changes.
+ * </p>
+ *
+ * <p>
+ * Tool calls rejected by the registry's per-tool concurrency limits are
+ * answered with error code {@code -32000} ("server busy").
+ * </p>
+ */
 @RestController
 public class McpController {
 
 	private static final Logger logger = LoggerFactory.getLogger(McpController.class);
 
+	private static final Set<String> KNOWN_METHODS = Set.of("initialize", "initialized", "tools/list", "tools/call",
+			"notifications/initialized");
+
+	// Implementation-defined JSON-RPC server error for tool calls rejected by the
+	// registry's concurrency limits.
+	static final int SERVER_BUSY = -32000;
+
+	private static final byte[] TOOLS_LIST_PREFIX = "{\"jsonrpc\":\"2.0\",\"id\":"
+			.getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] RESULT_PREFIX = ",\"result\":".getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] NULL_JSON = "null".getBytes(StandardCharsets.UTF_8);
+
 	private final McpToolRegistry toolRegistry;
 
 	private final ObjectMapper objectMapper;
 
 	private final String authToken;
 
+	private final MeterRegistry meterRegistry;
+
+	private final int batchMaxSize;
+
+	private final int batchMaxConcurrency;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final Set<SseEmitter> notificationStreams = new CopyOnWriteArraySet<>();
+
+	private final DistributionSummary batchSize;
+
+	private final DistributionSummary batchFanOut;
+
+	public McpController(McpToolRegistry toolRegistry, ObjectMapper objectMapper, String authToken,
+			MeterRegistry meterRegistry) {
+		this(toolRegistry, objectMapper, authToken, meterRegistry, new McpProperties());
+	}
+
+	@Autowired
 	public McpController(McpToolRegistry toolRegistry, ObjectMapper objectMapper,
-			@org.springframework.beans.factory.annotation.Value("${mcp.auth-token:}") String authToken) {
+			@Value("${mcp.auth-token:}") String authToken, MeterRegistry meterRegistry, McpProperties properties) {
 		this.toolRegistry = toolRegistry;
 		this.objectMapper = objectMapper;
 		this.authToken = authToken;
+		this.meterRegistry = meterRegistry;
+		this.batchMaxSize = properties.getBatch().getMaxSize();
+		this.batchMaxConcurrency = Math.max(1, properties.getBatch().getMaxConcurrency());
+		toolRegistry.addChangeListener(this::toolsListChanged);
+		Gauge.builder("mcp.requests.in.flight", inFlight, AtomicInteger::get)
+				.description("MCP JSON-RPC requests currently being handled")
+				.register(meterRegistry);
+		this.batchSize = DistributionSummary.builder("mcp.batch.size")
+				.description("Number of entries in MCP JSON-RPC batch requests")
+				.register(meterRegistry);
+		this.batchFanOut = DistributionSummary.builder("mcp.batch.fan.out")
+				.description("Number of tools/call entries run concurrently per MCP JSON-RPC batch")
+				.register(meterRegistry);
 	}
 
-	@PostMapping(path = "/mcp", consumes = "application/json", produces = "application/json")
-	public ResponseEntity<ObjectNode> handle(@RequestBody ObjectNode request,
-			@RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
-		if (StringUtils.hasText(this.authToken)) {
-			String expected = "Bearer " + this.authToken;
-			if (!expected.equals(authorizationHeader)) {
+	@PostMapping(path = "/mcp", consumes = "application/json",
+			produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public ResponseEntity<?> post(@RequestBody JsonNode body,
+			@RequestHeader(name = "Authorization", required = false) String authorizationHeader,
+			@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+			HttpServletRequest servletRequest) {
+		if (body.isArray()) {
+			servletRequest.setAttribute(McpPayloadMetricsFilter.METHOD_ATTRIBUTE, "batch");
+			return handleBatch((ArrayNode) body, authorizationHeader);
+		}
+		if (!body.isObject()) {
+			return ResponseEntity.ok(errorResponse(null, -32600, "Invalid Request"));
+		}
+		ObjectNode request = (ObjectNode) body;
+		String method = request.path("method").asText();
+		servletRequest.setAttribute(McpPayloadMetricsFilter.METHOD_ATTRIBUTE,
+				KNOWN_METHODS.contains(method) ? method : "other");
+		if ("tools/list".equals(method)) {
+			if (!isAuthorized(authorizationHeader)) {
 				return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 			}
+			return toolsList(request);
+		}
+		if (!"tools/call".equals(method) || accept == null
+				|| !accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+			return handle(request, authorizationHeader);
+		}
+		if (!isAuthorized(authorizationHeader)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(stream(request, method));
+	}
+
+	/**
+	 * Handles a JSON-RPC request and returns the response as a single JSON body.
+	 */
+	public ResponseEntity<ObjectNode> handle(ObjectNode request, String authorizationHeader) {
+		if (!isAuthorized(authorizationHeader)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
 		}
 
 		long start = System.nanoTime();
@@ -55,9 +200,257 @@ public class McpController {
 		// body when a notification is successfully processed.
 		if ("notifications/initialized".equals(method)) {
 			logger.info("mcpNotification method=notifications/initialized");
+			requestTimer(method, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 			return ResponseEntity.accepted().build();
 		}
 
+		return ResponseEntity.ok(dispatch(request, method, start, ToolProgress.NONE));
+	}
+
+	/**
+	 * Handles a JSON-RPC batch. Entries other than {@code tools/call} are cheap
+	 * and run inline; tool calls are fanned out to virtual threads.
+	 */
+	public ResponseEntity<JsonNode> handleBatch(ArrayNode batch, String authorizationHeader) {
+		if (!isAuthorized(authorizationHeader)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		if (batch.isEmpty()) {
+			return ResponseEntity.ok(errorResponse(null, -32600, "Invalid Request: empty batch"));
+		}
+		if (batch.size() > batchMaxSize) {
+			return ResponseEntity.ok(errorResponse(null, -32600,
+					"Invalid Request: batch of " + batch.size() + " exceeds the limit of " + batchMaxSize));
+		}
+		batchSize.record(batch.size());
+
+		List<CompletableFuture<ObjectNode>> responses = new ArrayList<>(batch.size());
+		int toolCalls = 0;
+		Semaphore permits = new Semaphore(batchMaxConcurrency);
+		try (ExecutorService executor = Executors
+				.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-batch-", 0).factory())) {
+			for (JsonNode entry : batch) {
+				long start = System.nanoTime();
+				if (!entry.isObject()) {
+					responses.add(CompletableFuture.completedFuture(errorResponse(null, -32600, "Invalid Request")));
+					continue;
+				}
+				ObjectNode request = (ObjectNode) entry;
+				String method = request.path("method").asText();
+				boolean notification = !request.has("id");
+				if (method.startsWith("notifications/")) {
+					logger.info("mcpNotification method={}", method);
+					requestTimer(KNOWN_METHODS.contains(method) ? method : "other", "success")
+							.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					continue;
+				}
+				if ("tools/call".equals(method)) {
+					toolCalls++;
+					CompletableFuture<ObjectNode> response = CompletableFuture
+							.supplyAsync(() -> dispatchWithPermit(request, method, permits), executor);
+					responses.add(notification ? null : response);
+				}
+				else {
+					ObjectNode response = dispatch(request, method, start, ToolProgress.NONE);
+					responses.add(notification ? null : CompletableFuture.completedFuture(response));
+				}
+			}
+		}
+		batchFanOut.record(toolCalls);
+
+		ArrayNode result = objectMapper.createArrayNode();
+		for (CompletableFuture<ObjectNode> response : responses) {
+			if (response != null) {
+				result.add(response.join());
+			}
+		}
+		if (result.isEmpty()) {
+			return ResponseEntity.accepted().build();
+		}
+		return ResponseEntity.ok(result);
+	}
+
+	private ObjectNode dispatchWithPermit(ObjectNode request, String method, Semaphore permits) {
+		long start = System.nanoTime();
+		try {
+			permits.acquire();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return errorResponse(request.get("id"), -32603, "Internal error: interrupted");
+		}
+		try {
+			return dispatch(request, method, start, ToolProgress.NONE);
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Opens the server-to-client stream of the streamable HTTP transport. It
+	 * carries {@code notifications/tools/list_changed} when the registered tools
+	 * change; clients reconnect after {@code spring.mvc.async.request-timeout}.
+	 */
+	@GetMapping(path = "/mcp", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> notifications(
+			@RequestHeader(name = "Authorization", required = false) String authorizationHeader) {
+		if (!isAuthorized(authorizationHeader)) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		SseEmitter emitter = new SseEmitter();
+		notificationStreams.add(emitter);
+		emitter.onCompletion(() -> notificationStreams.remove(emitter));
+		emitter.onTimeout(() -> notificationStreams.remove(emitter));
+		emitter.onError(ex -> notificationStreams.remove(emitter));
+		return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+	}
+
+	private void toolsListChanged(ToolsList toolsList) {
+		logger.info("mcpNotification method=notifications/tools/list_changed version={} streams={}",
+				toolsList.version(), notificationStreams.size());
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("jsonrpc", "2.0");
+		notification.put("method", "notifications/tools/list_changed");
+		for (SseEmitter emitter : notificationStreams) {
+			try {
+				send(emitter, notification);
+			}
+			catch (IOException | IllegalStateException ex) {
+				notificationStreams.remove(emitter);
+				emitter.completeWithError(ex);
+			}
+		}
+	}
+
+	/**
+	 * Serves {@code tools/list} from the registry's pre-serialized result: only
+	 * the JSON-RPC envelope around it is written per request.
+	 */
+	private ResponseEntity<byte[]> toolsList(ObjectNode request) {
+		long start = System.nanoTime();
+		ToolsList toolsList = toolRegistry.toolsList();
+
+		JsonNode id = request.get("id");
+		byte[] idJson = id == null || id.isNull() ? NULL_JSON : id.toString().getBytes(StandardCharsets.UTF_8);
+		byte[] result = toolsList.json();
+		byte[] response = new byte[TOOLS_LIST_PREFIX.length + idJson.length + RESULT_PREFIX.length + result.length
+				+ 1];
+		int offset = 0;
+		System.arraycopy(TOOLS_LIST_PREFIX, 0, response, offset, TOOLS_LIST_PREFIX.length);
+		offset += TOOLS_LIST_PREFIX.length;
+		System.arraycopy(idJson, 0, response, offset, idJson.length);
+		offset += idJson.length;
+		System.arraycopy(RESULT_PREFIX, 0, response, offset, RESULT_PREFIX.length);
+		offset += RESULT_PREFIX.length;
+		System.arraycopy(result, 0, response, offset, result.length);
+		response[response.length - 1] = '}';
+
+		long durationNanos = System.nanoTime() - start;
+		requestTimer("tools/list", "success").record(durationNanos, TimeUnit.NANOSECONDS);
+		logger.info("mcpRequest method=tools/list tool=null durationMs={}",
+				TimeUnit.NANOSECONDS.toMillis(durationNanos));
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(toolsList.etag()).body(response);
+	}
+
+	private boolean isAuthorized(String authorizationHeader) {
+		return !StringUtils.hasText(this.authToken) || ("Bearer " + this.authToken).equals(authorizationHeader);
+	}
+
+	private SseEmitter stream(ObjectNode request, String method) {
+		long start = System.nanoTime();
+		// Uses spring.mvc.async.request-timeout.
+		SseEmitter emitter = new SseEmitter();
+		JsonNode progressToken = request.path("params").path("_meta").get("progressToken");
+		ToolProgress progress = progressToken == null ? ToolProgress.NONE : new ToolProgress() {
+
+			@Override
+			public void report(int value, int total, String message) {
+				sendProgress(emitter, progressToken, value, total, message);
+			}
+
+			@Override
+			public void partial(String text) {
+				sendPartial(emitter, progressToken, text);
+			}
+
+		};
+
+		Thread.ofVirtual().name("mcp-stream").start(() -> {
+			try {
+				ObjectNode response = dispatch(request, method, start, progress);
+				send(emitter, response);
+				emitter.complete();
+			}
+			catch (IOException | IllegalStateException ex) {
+				logger.debug("mcpStream client went away before the response was sent", ex);
+				emitter.completeWithError(ex);
+			}
+		});
+		return emitter;
+	}
+
+	private void sendProgress(SseEmitter emitter, JsonNode progressToken, int value, int total, String message) {
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("jsonrpc", "2.0");
+		notification.put("method", "notifications/progress");
+		ObjectNode params = notification.putObject("params");
+		params.set("progressToken", progressToken);
+		params.put("progress", value);
+		if (total > 0) {
+			params.put("total", total);
+		}
+		params.put("message", message);
+		try {
+			send(emitter, notification);
+		}
+		catch (IOException | IllegalStateException ex) {
+			// Progress is best effort; the tool keeps running and the final send reports
+			// the broken stream.
+			logger.debug("mcpStream failed to send progress", ex);
+		}
+	}
+
+	/**
+	 * MCP has no partial-result message, so partial text goes out as a
+	 * {@code notifications/message} log entry tagged with the progress token.
+	 */
+	private void sendPartial(SseEmitter emitter, JsonNode progressToken, String text) {
+		ObjectNode notification = objectMapper.createObjectNode();
+		notification.put("jsonrpc", "2.0");
+		notification.put("method", "notifications/message");
+		ObjectNode params = notification.putObject("params");
+		params.put("level", "info");
+		params.put("logger", "partial_content");
+		ObjectNode data = params.putObject("data");
+		data.set("progressToken", progressToken);
+		data.put("text", text);
+		try {
+			send(emitter, notification);
+		}
+		catch (IOException | IllegalStateException ex) {
+			logger.debug("mcpStream failed to send partial content", ex);
+		}
+	}
+
+	private void send(SseEmitter emitter, ObjectNode message) throws IOException {
+		// Progress may be reported concurrently from several evidence threads.
+		synchronized (emitter) {
+			emitter.send(SseEmitter.event().data(message, MediaType.APPLICATION_JSON));
+		}
+	}
+
+	private ObjectNode dispatch(ObjectNode request, String method, long start, ToolProgress progress) {
+		inFlight.incrementAndGet();
+		try {
+			return doDispatch(request, method, start, progress);
+		}
+		finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	private ObjectNode doDispatch(ObjectNode request, String method, long start, ToolProgress progress) {
 		ObjectNode response = objectMapper.createObjectNode();
 		response.put("jsonrpc", "2.0");
 		response.set("id", request.get("id"));
@@ -70,12 +463,15 @@ public class McpController {
 				case "tools/list" -> response.set("result", handleToolsList());
 				case "tools/call" -> {
 					toolName = request.path("params").path("name").asText(null);
-					response.set("result", handleToolsCall(request.path("params")));
+					response.set("result", handleToolsCall(request.path("params"), progress));
 				}
 				case "initialized" -> response.set("result", objectMapper.createObjectNode());
 				default -> response.set("error", error(-32601, "Method not found: " + method));
 			}
 		}
+		catch (ToolBusyException ex) {
+			response.set("error", error(SERVER_BUSY, ex.getMessage()));
+		}
 		catch (IllegalArgumentException ex) {
 			response.set("error", error(-32602, ex.getMessage()));
 		}
@@ -83,10 +479,31 @@ public class McpController {
 			response.set("error", error(-32603, "Internal error: " + ex.getMessage()));
 		}
 
-		long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		long durationNanos = System.nanoTime() - start;
+		JsonNode error = response.get("error");
+		String methodTag = KNOWN_METHODS.contains(method) ? method : "other";
+		if (error != null) {
+			requestTimer(methodTag, "error").record(durationNanos, TimeUnit.NANOSECONDS);
+			meterRegistry.counter("mcp.request.errors", "method", methodTag, "code", error.path("code").asText())
+					.increment();
+		}
+		else {
+			requestTimer(methodTag, "success").record(durationNanos, TimeUnit.NANOSECONDS);
+		}
+
+		long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
 		logger.info("mcpRequest method={} tool={} durationMs={}", method, toolName, durationMs);
 
-		return ResponseEntity.ok(response);
+		return response;
+	}
+
+	private Timer requestTimer(String method, String outcome) {
+		return Timer.builder("mcp.requests")
+				.description("MCP JSON-RPC request latency")
+				.tag("method", method)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
 	}
 
 	private ObjectNode handleInitialize() {
@@ -107,22 +524,10 @@ public class McpController {
 	}
 
 	private ObjectNode handleToolsList() {
-		ObjectNode result = objectMapper.createObjectNode();
-		ArrayNode toolsArray = result.putArray("tools");
-
-		for (McpTool tool : toolRegistry.allTools()) {
-			ToolDefinition definition = tool.definition();
-			ObjectNode node = objectMapper.createObjectNode();
-			node.put("name", definition.getName());
-			node.put("description", definition.getDescription());
-			node.set("inputSchema", definition.getInputSchema());
-			toolsArray.add(node);
-		}
-
-		return result;
+		return toolRegistry.toolsList().result();
 	}
 
-	private ObjectNode handleToolsCall(JsonNode params) {
+	private ObjectNode handleToolsCall(JsonNode params, ToolProgress progress) {
 		if (params == null || !params.isObject()) {
 			throw new IllegalArgumentException("params must be an object");
 		}
@@ -134,7 +539,15 @@ public class McpController {
 			throw new IllegalArgumentException("Tool name is required in params.name");
 		}
 		ObjectNode arguments = paramsObject.with("arguments");
-		return toolRegistry.call(name, arguments);
+		return toolRegistry.call(name, arguments, progress);
+	}
+
+	private ObjectNode errorResponse(JsonNode id, int code, String message) {
+		ObjectNode response = objectMapper.createObjectNode();
+		response.put("jsonrpc", "2.0");
+		response.set("id", id != null ? id : objectMapper.nullNode());
+		response.set("error", error(code, message));
+		return response;
 	}
 
 	private ObjectNode error(int code, String message) {
@@ -0,0 +1,646 @@
+package com.meritocra.corootmcp.mcp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the size of MCP request and response bodies as
+ * {@code mcp.request.size} and {@code mcp.response.size}, counting the bytes
+ * actually read and written rather than trusting {@code Content-Length}.
+ *
+ * <p>
+ * Sizes are those of the JSON itself. The filter also gzips {@code /mcp}
+ * responses under the {@code server.compression.*} settings, so it can record
+ * the bytes sent as {@code mcp.response.wire.size} (by encoding) and the time
+ * spent deflating as {@code mcp.response.compression}, both tagged with the
+ * JSON-RPC method the controller stored in {@link #METHOD_ATTRIBUTE}. The
+ * servlet container leaves responses that already carry a content coding
+ * alone.
+ * </p>
+ *
+ * <p>
+ * Only responses completed on the request thread are compressed; the first
+ * {@code min-response-size} bytes are held back to choose. Event streams and
+ * other asynchronous responses are sent as they are written.
+ * </p>
+ */
+@Component
+public class McpPayloadMetricsFilter extends OncePerRequestFilter {
+
+	/**
+	 * Request attribute holding the JSON-RPC method a response belongs to, or
+	 * {@code batch}.
+	 */
+	public static final String METHOD_ATTRIBUTE = McpPayloadMetricsFilter.class.getName() + ".method";
+
+	private static final String GZIP = "gzip";
+
+	private static final String IDENTITY = "identity";
+
+	private final DistributionSummary requestSize;
+
+	private final DistributionSummary responseSize;
+
+	private final MeterRegistry meterRegistry;
+
+	private final boolean compressionEnabled;
+
+	private final List<MimeType> compressibleTypes;
+
+	private final List<Pattern> excludedUserAgents;
+
+	private final long minResponseSize;
+
+	public McpPayloadMetricsFilter(MeterRegistry meterRegistry, ServerProperties serverProperties) {
+		this.requestSize = DistributionSummary.builder("mcp.request.size")
+				.description("Size of MCP JSON-RPC request bodies")
+				.baseUnit(BaseUnits.BYTES)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.responseSize = DistributionSummary.builder("mcp.response.size")
+				.description("Size of MCP JSON-RPC response bodies")
+				.baseUnit(BaseUnits.BYTES)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.meterRegistry = meterRegistry;
+		Compression compression = serverProperties.getCompression();
+		this.compressionEnabled = compression.getEnabled();
+		this.compressibleTypes = Arrays.stream(compression.getMimeTypes()).map(MimeTypeUtils::parseMimeType).toList();
+		this.excludedUserAgents = compression.getExcludedUserAgents() != null
+				? Arrays.stream(compression.getExcludedUserAgents()).map(Pattern::compile).toList() : List.of();
+		this.minResponseSize = compression.getMinResponseSize().toBytes();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !"/mcp".equals(request.getServletPath());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		CountingRequest countingRequest = new CountingRequest(request);
+		MeteredResponse meteredResponse = new MeteredResponse(request, response, acceptsCompression(request));
+		try {
+			filterChain.doFilter(countingRequest, meteredResponse);
+			if (!request.isAsyncStarted()) {
+				meteredResponse.finish();
+			}
+		}
+		finally {
+			if (request.isAsyncStarted()) {
+				// Streamed (SSE) responses keep writing after this thread returns.
+				request.getAsyncContext().addListener(new AsyncListener() {
+
+					@Override
+					public void onComplete(AsyncEvent event) {
+						record(request, countingRequest, meteredResponse);
+					}
+
+					@Override
+					public void onTimeout(AsyncEvent event) {
+					}
+
+					@Override
+					public void onError(AsyncEvent event) {
+					}
+
+					@Override
+					public void onStartAsync(AsyncEvent event) {
+					}
+
+				});
+			}
+			else {
+				record(request, countingRequest, meteredResponse);
+			}
+		}
+	}
+
+	private boolean acceptsCompression(HttpServletRequest request) {
+		if (!compressionEnabled || !acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+			return false;
+		}
+		String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+		return userAgent == null
+				|| excludedUserAgents.stream().noneMatch(pattern -> pattern.matcher(userAgent).matches());
+	}
+
+	private boolean isCompressible(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+		return compressibleTypes.stream().anyMatch(type -> type.isCompatibleWith(mimeType));
+	}
+
+	private void record(HttpServletRequest request, CountingRequest countingRequest, MeteredResponse response) {
+		requestSize.record(countingRequest.count());
+		MeteredOutputStream body = response.body();
+		if (body == null || body.count == 0) {
+			responseSize.record(0);
+			return;
+		}
+		responseSize.record(body.count);
+		Object attribute = request.getAttribute(METHOD_ATTRIBUTE);
+		String method = attribute != null ? attribute.toString() : "none";
+		DistributionSummary.builder("mcp.response.wire.size")
+				.description("Bytes of MCP JSON-RPC response bodies as sent")
+				.baseUnit(BaseUnits.BYTES)
+				.tag("method", method)
+				.tag("encoding", body.gzip != null ? GZIP : IDENTITY)
+				.publishPercentileHistogram()
+				.register(meterRegistry)
+				.record(body.wire.count);
+		if (body.gzip != null) {
+			Timer.builder("mcp.response.compression")
+					.description("Time spent deflating MCP JSON-RPC responses")
+					.tag("method", method)
+					.register(meterRegistry)
+					.record(body.deflateNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Whether an {@code Accept-Encoding} header accepts gzip, honouring
+	 * {@code q=0} exclusions.
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		boolean accepted = false;
+		for (String entry : acceptEncoding.split(",")) {
+			String[] parts = entry.split(";");
+			String coding = parts[0].trim();
+			boolean excluded = false;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						excluded = Double.parseDouble(param.substring(2)) == 0;
+					}
+					catch (NumberFormatException ex) {
+						excluded = true;
+					}
+				}
+			}
+			if (GZIP.equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding)) {
+				return !excluded;
+			}
+			if ("*".equals(coding)) {
+				accepted = !excluded;
+			}
+		}
+		return accepted;
+	}
+
+	private static final class CountingRequest extends HttpServletRequestWrapper {
+
+		private CountingInputStream inputStream;
+
+		CountingRequest(HttpServletRequest request) {
+			super(request);
+		}
+
+		@Override
+		public ServletInputStream getInputStream() throws IOException {
+			if (inputStream == null) {
+				inputStream = new CountingInputStream(super.getInputStream());
+			}
+			return inputStream;
+		}
+
+		long count() {
+			return inputStream != null ? inputStream.count : 0;
+		}
+
+	}
+
+	private static final class CountingInputStream extends ServletInputStream {
+
+		private final ServletInputStream delegate;
+
+		private long count;
+
+		CountingInputStream(ServletInputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int value = delegate.read();
+			if (value >= 0) {
+				count++;
+			}
+			return value;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = delegate.read(b, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public boolean isFinished() {
+			return delegate.isFinished();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			delegate.setReadListener(readListener);
+		}
+
+	}
+
+	/**
+	 * Counts the body as written and, for clients that accept gzip, holds back
+	 * {@code Content-Length} until the encoding is chosen.
+	 */
+	private final class MeteredResponse extends HttpServletResponseWrapper {
+
+		private final HttpServletRequest request;
+
+		private final boolean acceptsCompression;
+
+		private MeteredOutputStream outputStream;
+
+		private PrintWriter writer;
+
+		private long contentLength = -1;
+
+		MeteredResponse(HttpServletRequest request, HttpServletResponse response, boolean acceptsCompression) {
+			super(response);
+			this.request = request;
+			this.acceptsCompression = acceptsCompression;
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (writer != null) {
+				throw new IllegalStateException("getWriter() has already been called for this response");
+			}
+			return stream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				if (outputStream != null) {
+					throw new IllegalStateException("getOutputStream() has already been called for this response");
+				}
+				writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+			}
+			return writer;
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (holdsContentLength()) {
+				contentLength = len;
+			}
+			else {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && holdsContentLength()) {
+				contentLength = value != null ? Long.parseLong(value) : -1;
+			}
+			else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && holdsContentLength()) {
+				contentLength = Long.parseLong(value);
+			}
+			else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (outputStream != null) {
+				outputStream.flush();
+			}
+			if (outputStream == null || !outputStream.isBuffering()) {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public void resetBuffer() {
+			super.resetBuffer();
+			if (outputStream != null) {
+				outputStream.buffer.reset();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			contentLength = -1;
+			if (outputStream != null) {
+				outputStream.buffer.reset();
+			}
+		}
+
+		MeteredOutputStream body() {
+			return outputStream;
+		}
+
+		/**
+		 * Sends whatever is still held back once the application is done writing.
+		 */
+		void finish() throws IOException {
+			if (writer != null) {
+				writer.flush();
+			}
+			if (outputStream != null) {
+				outputStream.finish();
+			}
+			else if (contentLength >= 0) {
+				super.setContentLengthLong(contentLength);
+			}
+		}
+
+		private boolean holdsContentLength() {
+			return acceptsCompression && (outputStream == null || outputStream.isBuffering());
+		}
+
+		private MeteredOutputStream stream() throws IOException {
+			if (outputStream == null) {
+				outputStream = new MeteredOutputStream(this, super.getOutputStream());
+			}
+			return outputStream;
+		}
+
+		/**
+		 * Chooses between holding the body back to compress it and sending it as
+		 * it is, once the first bytes arrive and the content type is known.
+		 */
+		boolean mayCompress() {
+			return acceptsCompression && !request.isAsyncStarted() && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+					&& isCompressible(getContentType()) && (contentLength < 0 || contentLength >= minResponseSize);
+		}
+
+		void sendIdentity(long length) {
+			if (length >= 0) {
+				super.setContentLengthLong(length);
+			}
+		}
+
+		void sendGzip() {
+			super.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+		}
+
+	}
+
+	private final class MeteredOutputStream extends ServletOutputStream {
+
+		private final MeteredResponse response;
+
+		private final WireOutputStream wire;
+
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+		private Boolean compressing;
+
+		private GZIPOutputStream gzip;
+
+		private long count;
+
+		private long deflateNanos;
+
+		MeteredOutputStream(MeteredResponse response, ServletOutputStream delegate) {
+			this.response = response;
+			this.wire = new WireOutputStream(delegate);
+		}
+
+		boolean isBuffering() {
+			return compressing == null || (compressing && gzip == null);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			count += len;
+			if (compressing == null) {
+				compressing = response.mayCompress();
+				if (compressing) {
+					response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+				}
+				else {
+					response.sendIdentity(response.contentLength);
+				}
+			}
+			if (!compressing) {
+				wire.write(b, off, len);
+			}
+			else if (gzip != null) {
+				deflate(b, off, len);
+			}
+			else {
+				buffer.write(b, off, len);
+				if (buffer.size() >= minResponseSize) {
+					startGzip();
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (gzip != null) {
+				long start = System.nanoTime();
+				long writing = wire.writeNanos;
+				gzip.flush();
+				deflateNanos += (System.nanoTime() - start) - (wire.writeNanos - writing);
+			}
+			else if (!isBuffering()) {
+				wire.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			finish();
+			wire.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return wire.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			if (gzip != null) {
+				throw new IllegalStateException("Compressed MCP responses do not support non-blocking writes");
+			}
+			if (isBuffering()) {
+				// Non-blocking writes are sent as they are.
+				compressing = false;
+				response.sendIdentity(-1);
+				try {
+					buffer.writeTo(wire);
+				}
+				catch (IOException ex) {
+					throw new IllegalStateException(ex);
+				}
+				buffer.reset();
+			}
+			wire.setWriteListener(writeListener);
+		}
+
+		void finish() throws IOException {
+			if (gzip != null) {
+				long start = System.nanoTime();
+				long writing = wire.writeNanos;
+				gzip.finish();
+				deflateNanos += (System.nanoTime() - start) - (wire.writeNanos - writing);
+			}
+			else if (compressing != null && compressing) {
+				// Too small to be worth compressing.
+				compressing = false;
+				response.sendIdentity(buffer.size());
+				buffer.writeTo(wire);
+				buffer.reset();
+			}
+		}
+
+		private void startGzip() throws IOException {
+			response.sendGzip();
+			long start = System.nanoTime();
+			long writing = wire.writeNanos;
+			gzip = new GZIPOutputStream(wire, 8192, true);
+			deflateNanos += (System.nanoTime() - start) - (wire.writeNanos - writing);
+			byte[] held = buffer.toByteArray();
+			buffer.reset();
+			deflate(held, 0, held.length);
+		}
+
+		private void deflate(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			long writing = wire.writeNanos;
+			gzip.write(b, off, len);
+			deflateNanos += (System.nanoTime() - start) - (wire.writeNanos - writing);
+		}
+
+	}
+
+	/**
+	 * Counts the bytes handed to the container and the time spent handing them
+	 * over, so that time can be told apart from deflating.
+	 */
+	private static final class WireOutputStream extends ServletOutputStream {
+
+		private final ServletOutputStream delegate;
+
+		private long count;
+
+		private long writeNanos;
+
+		WireOutputStream(ServletOutputStream delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			long start = System.nanoTime();
+			delegate.write(b);
+			writeNanos += System.nanoTime() - start;
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			long start = System.nanoTime();
+			delegate.write(b, off, len);
+			writeNanos += System.nanoTime() - start;
+			count += len;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			long start = System.nanoTime();
+			delegate.flush();
+			writeNanos += System.nanoTime() - start;
+		}
+
+		@Override
+		public void close() throws IOException {
+			delegate.close();
+		}
+
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			delegate.setWriteListener(writeListener);
+		}
+
+	}
+
+}
@@ -7,5 +7,13 @@ public interface McpTool {
 	ToolDefinition definition();
 
 	ObjectNode call(ObjectNode arguments);
-}
 
+	/**
+	 * Calls the tool, reporting intermediate progress. Tools that run long
+	 * enough to be worth streaming override this; the default ignores the
+	 * progress sink.
+	 */
+	default ObjectNode call(ObjectNode arguments, ToolProgress progress) {
+		return call(arguments);
+	}
+}
@@ -1,38 +1,295 @@
 package com.meritocra.corootmcp.mcp;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.McpProperties;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 
+/**
+ * Registry of the MCP tools exposed by this server.
+ *
+ * <p>
+ * Tool definitions are read once when a tool is registered, and the
+ * {@code tools/list} result is built and serialized once per registry version
+ * (see {@link #toolsList()}). Listeners are notified only when a registration
+ * actually changes that result.
+ * </p>
+ *
+ * <p>
+ * Tool calls are metered per tool: {@code mcp.tool.calls} (latency histogram by
+ * outcome), {@code mcp.tool.errors} (by exception type) and
+ * {@code mcp.tool.calls.in.flight}.
+ * </p>
+ *
+ * <p>
+ * Each tool has its own concurrency limit ({@code mcp.tools.*}), so a burst of
+ * slow, LLM-backed calls cannot hold every request thread while cheap lookups
+ * wait behind them. A call that gets no permit within the tool's queue timeout
+ * fails with {@link ToolBusyException}. Waiting and rejected calls are metered
+ * as {@code mcp.tool.calls.queued} and {@code mcp.tool.calls.rejected}.
+ * </p>
+ */
 @Component
 public class McpToolRegistry {
 
-	private final Map<String, McpTool> toolsByName;
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final Map<String, ToolMeters> metersByName = new ConcurrentHashMap<>();
+
+	private final MeterRegistry meterRegistry;
+
+	private final McpProperties.Tools limits;
+
+	private final List<Consumer<ToolsList>> changeListeners = new CopyOnWriteArrayList<>();
+
+	private volatile Map<String, RegisteredTool> toolsByName;
+
+	private volatile ToolsList toolsList;
 
 	public McpToolRegistry(Collection<McpTool> tools) {
-		this.toolsByName = tools.stream()
-				.collect(Collectors.toUnmodifiableMap(tool -> tool.definition().getName(), Function.identity()));
+		this(tools, Metrics.globalRegistry);
+	}
+
+	public McpToolRegistry(Collection<McpTool> tools, MeterRegistry meterRegistry) {
+		this(tools, meterRegistry, new McpProperties());
+	}
+
+	@Autowired
+	public McpToolRegistry(Collection<McpTool> tools, MeterRegistry meterRegistry, McpProperties properties) {
+		this.meterRegistry = meterRegistry;
+		this.limits = properties.getTools();
+		Map<String, RegisteredTool> registered = new LinkedHashMap<>();
+		for (McpTool tool : tools) {
+			ToolDefinition definition = tool.definition();
+			registered.put(definition.getName(), new RegisteredTool(tool, definition));
+		}
+		this.toolsByName = Map.copyOf(registered);
+		this.toolsList = buildToolsList(toolsByName, 1);
+		registered.keySet().forEach(name -> metersByName.computeIfAbsent(name, ToolMeters::new));
 	}
 
 	public Collection<McpTool> allTools() {
-		return toolsByName.values();
+		return toolsByName.values().stream().map(RegisteredTool::tool).toList();
 	}
 
 	public McpTool findTool(String name) {
-		return toolsByName.get(name);
+		RegisteredTool registered = toolsByName.get(name);
+		return registered != null ? registered.tool() : null;
+	}
+
+	/**
+	 * Returns the precomputed {@code tools/list} result for the current set of
+	 * tools.
+	 */
+	public ToolsList toolsList() {
+		return toolsList;
+	}
+
+	/**
+	 * Adds a tool, or replaces the registered tool with the same name.
+	 */
+	public synchronized void register(McpTool tool) {
+		ToolDefinition definition = tool.definition();
+		Map<String, RegisteredTool> updated = new LinkedHashMap<>(toolsByName);
+		updated.put(definition.getName(), new RegisteredTool(tool, definition));
+		update(updated);
+	}
+
+	/**
+	 * Removes the tool with the given name.
+	 * @return whether a tool was removed
+	 */
+	public synchronized boolean unregister(String name) {
+		if (!toolsByName.containsKey(name)) {
+			return false;
+		}
+		Map<String, RegisteredTool> updated = new LinkedHashMap<>(toolsByName);
+		updated.remove(name);
+		update(updated);
+		return true;
+	}
+
+	/**
+	 * Registers a listener called with the new {@code tools/list} result whenever
+	 * the registered tools change.
+	 */
+	public void addChangeListener(Consumer<ToolsList> listener) {
+		changeListeners.add(listener);
 	}
 
 	public ObjectNode call(String name, ObjectNode arguments) {
-		McpTool tool = toolsByName.get(name);
-		if (tool == null) {
+		return call(name, arguments, ToolProgress.NONE);
+	}
+
+	public ObjectNode call(String name, ObjectNode arguments, ToolProgress progress) {
+		RegisteredTool registered = toolsByName.get(name);
+		if (registered == null) {
 			throw new IllegalArgumentException("Unknown tool: " + name);
 		}
-		return tool.call(arguments);
+
+		ToolMeters meters = metersByName.computeIfAbsent(name, ToolMeters::new);
+		meters.acquire();
+		meters.inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			ObjectNode result = registered.tool().call(arguments, progress);
+			meters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return result;
+		}
+		catch (RuntimeException ex) {
+			callTimer(name, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			meterRegistry.counter("mcp.tool.errors", "tool", name, "error", ex.getClass().getSimpleName())
+					.increment();
+			throw ex;
+		}
+		finally {
+			meters.inFlight.decrementAndGet();
+			meters.release();
+		}
 	}
-}
 
+	private void update(Map<String, RegisteredTool> updated) {
+		ToolsList previous = toolsList;
+		ToolsList next = buildToolsList(updated, previous.version() + 1);
+		toolsByName = Map.copyOf(updated);
+		if (next.etag().equals(previous.etag())) {
+			// Same definitions (e.g. a tool replaced by an equivalent instance): keep the
+			// current version so clients are not told to refetch an identical list.
+			return;
+		}
+		toolsList = next;
+		for (Consumer<ToolsList> listener : changeListeners) {
+			listener.accept(next);
+		}
+	}
+
+	private static ToolsList buildToolsList(Map<String, RegisteredTool> tools, long version) {
+		ObjectNode result = OBJECT_MAPPER.createObjectNode();
+		ArrayNode toolsArray = result.putArray("tools");
+		// Sorted so the serialized list, and therefore its ETag, does not depend on bean
+		// registration order.
+		List<ToolDefinition> definitions = new ArrayList<>(tools.size());
+		tools.values().forEach(registered -> definitions.add(registered.definition()));
+		definitions.sort(Comparator.comparing(ToolDefinition::getName));
+		for (ToolDefinition definition : definitions) {
+			ObjectNode node = toolsArray.addObject();
+			node.put("name", definition.getName());
+			node.put("description", definition.getDescription());
+			node.set("inputSchema", definition.getInputSchema());
+		}
+		try {
+			byte[] json = OBJECT_MAPPER.writeValueAsBytes(result);
+			// Weak, so the container may still gzip the response.
+			return new ToolsList(version, "W/\"" + DigestUtils.md5DigestAsHex(json) + "\"", result, json);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException("Failed to serialize tools/list", ex);
+		}
+	}
+
+	private Timer callTimer(String name, String outcome) {
+		return Timer.builder("mcp.tool.calls")
+				.description("MCP tool call latency")
+				.tag("tool", name)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	private record RegisteredTool(McpTool tool, ToolDefinition definition) {
+	}
+
+	private final class ToolMeters {
+
+		private final String name;
+
+		private final Timer success;
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+
+		private final AtomicInteger queued = new AtomicInteger();
+
+		private final LongAdder rejected = new LongAdder();
+
+		// Null when the tool is not limited.
+		private final Semaphore permits;
+
+		private final int maxConcurrency;
+
+		private final long queueTimeoutNanos;
+
+		private ToolMeters(String name) {
+			this.name = name;
+			this.success = callTimer(name, "success");
+			McpProperties.Limit limit = limits.limitFor(name);
+			this.maxConcurrency = limit.getMaxConcurrency();
+			this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+			this.queueTimeoutNanos = Math.max(0, limit.getQueueTimeout().toNanos());
+			Gauge.builder("mcp.tool.calls.in.flight", inFlight, AtomicInteger::get)
+					.description("MCP tool calls currently in flight")
+					.tag("tool", name)
+					.register(meterRegistry);
+			Gauge.builder("mcp.tool.calls.queued", queued, AtomicInteger::get)
+					.description("MCP tool calls waiting for a concurrency permit")
+					.tag("tool", name)
+					.register(meterRegistry);
+			FunctionCounter.builder("mcp.tool.calls.rejected", rejected, LongAdder::sum)
+					.description("MCP tool calls rejected because the tool was at its concurrency limit")
+					.tag("tool", name)
+					.register(meterRegistry);
+		}
+
+		void acquire() {
+			if (permits == null || permits.tryAcquire()) {
+				return;
+			}
+			queued.incrementAndGet();
+			try {
+				if (permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+					return;
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				queued.decrementAndGet();
+			}
+			rejected.increment();
+			throw new ToolBusyException(name, "Server busy: " + name + " is at its limit of "
+					+ maxConcurrency + " concurrent calls, retry later");
+		}
+
+		void release() {
+			if (permits != null) {
+				permits.release();
+			}
+		}
+
+	}
+}
@@ -0,0 +1,21 @@
+package com.meritocra.corootmcp.mcp;
+
+/**
+ * Thrown when a tool call could not get one of the tool's concurrency permits
+ * within its queue timeout. Answered with a JSON-RPC "server busy" error;
+ * clients may retry later.
+ */
+public class ToolBusyException extends RuntimeException {
+
+	private final String tool;
+
+	public ToolBusyException(String tool, String message) {
+		super(message);
+		this.tool = tool;
+	}
+
+	public String getTool() {
+		return tool;
+	}
+
+}
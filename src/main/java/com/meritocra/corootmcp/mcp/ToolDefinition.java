@@ -2,7 +2,16 @@ package com.meritocra.corootmcp.mcp;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-public class ToolDefinition {
+/**
+ * Name, description and JSON input schema of an MCP tool.
+ *
+ * <p>
+ * Definitions are immutable: the schema is copied on construction and the copy
+ * is shared by every {@code tools/list} response, so it must not be modified
+ * through {@link #getInputSchema()}.
+ * </p>
+ */
+public final class ToolDefinition {
 
 	private final String name;
 
@@ -13,7 +22,7 @@ public class ToolDefinition {
 	public ToolDefinition(String name, String description, ObjectNode inputSchema) {
 		this.name = name;
 		this.description = description;
-		this.inputSchema = inputSchema;
+		this.inputSchema = inputSchema.deepCopy();
 	}
 
 	public String getName() {
@@ -0,0 +1,35 @@
+package com.meritocra.corootmcp.mcp;
+
+/**
+ * Receives progress of a running tool call. When the client asked for a
+ * streamed response with a progress token, each report is forwarded as an MCP
+ * {@code notifications/progress} message and partial text as a
+ * {@code notifications/message}.
+ */
+@FunctionalInterface
+public interface ToolProgress {
+
+	/**
+	 * Progress sink that discards every report.
+	 */
+	ToolProgress NONE = (progress, total, message) -> {
+	};
+
+	/**
+	 * Reports progress of the current call.
+	 * @param progress work completed so far; must increase with every report
+	 * @param total total amount of work, or {@code 0} when unknown
+	 * @param message human-readable description of the current step
+	 */
+	void report(int progress, int total, String message);
+
+	/**
+	 * Streams a chunk of text output, such as a summary the model is still
+	 * generating, ahead of the final result. Chunks are consecutive pieces of
+	 * the result text; sinks that cannot forward them ignore them.
+	 * @param text the next piece of text
+	 */
+	default void partial(String text) {
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.meritocra.corootmcp.mcp;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Precomputed {@code tools/list} result for one version of the tool registry.
+ *
+ * <p>
+ * Instances are shared between requests: neither {@link #result()} nor
+ * {@link #json()} may be modified.
+ * </p>
+ * @param version registry version, incremented on every change
+ * @param etag weak entity tag derived from the serialized result
+ * @param result the {@code tools/list} result object
+ * @param json {@code result} serialized as UTF-8 JSON
+ */
+public record ToolsList(long version, String etag, ObjectNode result, byte[] json) {
+}
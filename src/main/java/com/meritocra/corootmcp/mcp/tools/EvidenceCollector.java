@@ -0,0 +1,211 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.meritocra.corootmcp.coroot.StaleResponses;
+
+/**
+ * Runs independent evidence sources concurrently on virtual threads and waits
+ * for them under a per-source and an overall deadline.
+ *
+ * <p>
+ * The per-source deadline counts from when the sources are started. The
+ * overall deadline counts from the start of the investigation, which the
+ * caller passes in, so it also covers the work done before the fan-out.
+ * </p>
+ *
+ * <p>
+ * A source that fails or misses its deadline does not fail the collection; its
+ * outcome is reported as {@link Status#FAILED} or {@link Status#TIMEOUT} so the
+ * caller can record the gap. Sources still running when the deadline passes
+ * are cancelled. A source answered with a stale Coroot response
+ * ({@link StaleResponses}) keeps its value but is reported as
+ * {@link Status#STALE}.
+ * </p>
+ */
+final class EvidenceCollector {
+
+	private final Duration sourceTimeout;
+
+	private final Duration overallTimeout;
+
+	private final long startNanos;
+
+	private final Map<String, Callable<Fetched>> sources = new LinkedHashMap<>();
+
+	EvidenceCollector(Duration sourceTimeout, Duration overallTimeout) {
+		this(sourceTimeout, overallTimeout, System.nanoTime());
+	}
+
+	/**
+	 * @param startNanos {@link System#nanoTime()} when the investigation started;
+	 * the overall deadline counts from there
+	 */
+	EvidenceCollector(Duration sourceTimeout, Duration overallTimeout, long startNanos) {
+		this.sourceTimeout = sourceTimeout;
+		this.overallTimeout = overallTimeout;
+		this.startNanos = startNanos;
+	}
+
+	EvidenceCollector add(String name, Callable<JsonNode> source) {
+		sources.put(name, () -> new Fetched(source.call(), null));
+		return this;
+	}
+
+	/**
+	 * Adds a source that fetches a Coroot response and renders it as JSON.
+	 */
+	<R> EvidenceCollector add(String name, Callable<R> fetch, Function<? super R, JsonNode> render) {
+		sources.put(name, () -> {
+			R response = fetch.call();
+			return new Fetched(render.apply(response), StaleResponses.fetchedAt(response));
+		});
+		return this;
+	}
+
+	int size() {
+		return sources.size();
+	}
+
+	/**
+	 * Starts every registered source and waits for their outcomes.
+	 * @return outcomes keyed by source name, in registration order
+	 */
+	Map<String, Outcome> collect() {
+		return collect((name, outcome) -> {
+		});
+	}
+
+	/**
+	 * Starts every registered source and waits for their outcomes, notifying the
+	 * listener on the calling thread as each one completes or fails, in completion
+	 * order. Sources that miss their deadline are only reported in the returned
+	 * map, and the listener is never called once this method has returned.
+	 * @return outcomes keyed by source name, in registration order
+	 */
+	Map<String, Outcome> collect(BiConsumer<String, Outcome> listener) {
+		Map<String, Outcome> outcomes = new LinkedHashMap<>();
+		if (sources.isEmpty()) {
+			return outcomes;
+		}
+
+		long start = System.nanoTime();
+		long overallDeadline = startNanos + overallTimeout.toNanos();
+		long sourceDeadline = Math.min(start + sourceTimeout.toNanos(), overallDeadline);
+
+		ExecutorService executor = Executors.newThreadPerTaskExecutor(
+				Thread.ofVirtual().name("evidence-", 0).factory());
+		CompletionService<Outcome> completion = new ExecutorCompletionService<>(executor);
+		Map<Future<Outcome>, String> pending = new HashMap<>();
+		Map<String, Outcome> completed = new HashMap<>();
+		String interrupted = null;
+		try {
+			for (Map.Entry<String, Callable<Fetched>> source : sources.entrySet()) {
+				pending.put(completion.submit(() -> run(source.getValue())), source.getKey());
+			}
+
+			while (completed.size() < sources.size()) {
+				Future<Outcome> future = completion.poll(Math.max(0L, sourceDeadline - System.nanoTime()),
+						TimeUnit.NANOSECONDS);
+				if (future == null) {
+					break;
+				}
+				String name = pending.remove(future);
+				Outcome outcome = outcomeOf(future, start);
+				completed.put(name, outcome);
+				listener.accept(name, outcome);
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			interrupted = "interrupted";
+		}
+		finally {
+			for (Future<Outcome> future : pending.keySet()) {
+				future.cancel(true);
+			}
+			// Do not wait for cancelled sources: a slow Coroot call must not extend the
+			// investigation past its deadline.
+			executor.shutdownNow();
+		}
+
+		String error = interrupted != null ? interrupted : "deadline exceeded";
+		for (String name : sources.keySet()) {
+			Outcome outcome = completed.get(name);
+			outcomes.put(name, outcome != null ? outcome
+					: new Outcome(Status.TIMEOUT, null, elapsedMillis(start), error, null));
+		}
+		return outcomes;
+	}
+
+	private Outcome run(Callable<Fetched> source) {
+		long start = System.nanoTime();
+		try {
+			Fetched fetched = source.call();
+			Status status = fetched.fetchedAt() != null ? Status.STALE : Status.COMPLETE;
+			return new Outcome(status, fetched.value(), elapsedMillis(start), null, fetched.fetchedAt());
+		}
+		catch (Exception ex) {
+			return new Outcome(Status.FAILED, null, elapsedMillis(start), ex.getMessage(), null);
+		}
+	}
+
+	private Outcome outcomeOf(Future<Outcome> future, long start) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return new Outcome(Status.TIMEOUT, null, elapsedMillis(start), "interrupted", null);
+		}
+		catch (ExecutionException ex) {
+			return new Outcome(Status.FAILED, null, elapsedMillis(start), ex.getCause().getMessage(), null);
+		}
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	enum Status {
+
+		COMPLETE, STALE, TIMEOUT, FAILED
+
+	}
+
+	/**
+	 * @param fetchedAt when a {@link Status#STALE} value was fetched from Coroot
+	 */
+	record Outcome(Status status, JsonNode value, long durationMs, String error, Instant fetchedAt) {
+
+		boolean isComplete() {
+			return status == Status.COMPLETE;
+		}
+
+		/**
+		 * Whether the source produced a value, fresh or stale.
+		 */
+		boolean hasValue() {
+			return status == Status.COMPLETE || status == Status.STALE;
+		}
+	}
+
+	private record Fetched(JsonNode value, Instant fetchedAt) {
+	}
+
+}
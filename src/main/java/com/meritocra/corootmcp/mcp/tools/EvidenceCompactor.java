@@ -0,0 +1,283 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Shrinks an investigation evidence bundle until its estimated size fits a
+ * token budget.
+ *
+ * <p>
+ * Tokens are estimated as one per four characters of compact JSON, which is
+ * close enough for English text and JSON with GPT-style tokenizers. The
+ * applications and risks overviews are always ordered by relevance: entries of
+ * the incident's affected services first, then critical and warning ones. When
+ * the bundle is over budget, sections are pruned from the lowest signal up:
+ * unrelated healthy entries, then the costs, logs and traces overviews
+ * (summarized first, dropped if that is not enough), then entries outside the
+ * affected services and finally the SLO and service health sections are
+ * summarized. The incident itself is never pruned. Every step taken is recorded
+ * so the model and the caller can tell what was left out.
+ * </p>
+ */
+final class EvidenceCompactor {
+
+	static final int CHARS_PER_TOKEN = 4;
+
+	private static final List<String> RANKED_SECTIONS = List.of("applicationsOverview", "risksOverview");
+
+	// Lowest signal first.
+	private static final List<String> BULK_SECTIONS = List.of("costsOverview", "logsOverview", "tracesOverview");
+
+	private static final List<String> LAST_RESORT_SECTIONS = List.of("sloOverview", "serviceHealth");
+
+	private static final int FOCUS_SCORE = 4;
+
+	private static final int MAX_SUMMARY_TEXT = 200;
+
+	private final ObjectMapper objectMapper;
+
+	private final int tokenBudget;
+
+	EvidenceCompactor(ObjectMapper objectMapper, int tokenBudget) {
+		this.objectMapper = objectMapper;
+		this.tokenBudget = tokenBudget;
+	}
+
+	/**
+	 * Returns a compacted copy of {@code evidence}; the input is not modified.
+	 * @param focusServices services the incident affects, matched case-insensitively
+	 * against the {@code service} field of overview entries
+	 */
+	Result compact(ObjectNode evidence, Collection<String> focusServices) {
+		Set<String> focus = new HashSet<>();
+		for (String service : focusServices) {
+			if (service != null && !service.isBlank()) {
+				focus.add(service.toLowerCase(Locale.ROOT));
+			}
+		}
+
+		Sections sections = new Sections(evidence.deepCopy());
+		int originalTokens = sections.total();
+		List<Pruned> pruned = new ArrayList<>();
+
+		for (String section : RANKED_SECTIONS) {
+			rank(sections.evidence, section, focus);
+		}
+
+		if (tokenBudget > 0) {
+			for (String section : RANKED_SECTIONS) {
+				trim(sections, section, focus, 1, pruned);
+			}
+			for (String section : BULK_SECTIONS) {
+				summarize(sections, section, pruned);
+			}
+			for (String section : BULK_SECTIONS) {
+				drop(sections, section, pruned);
+			}
+			for (String section : RANKED_SECTIONS) {
+				trim(sections, section, focus, FOCUS_SCORE, pruned);
+			}
+			for (String section : LAST_RESORT_SECTIONS) {
+				summarize(sections, section, pruned);
+			}
+		}
+
+		return new Result(sections.evidence, originalTokens, sections.total(), tokenBudget, pruned);
+	}
+
+	static int estimateTokens(int chars) {
+		return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+	}
+
+	private void rank(ObjectNode evidence, String section, Set<String> focus) {
+		if (!(evidence.get(section) instanceof ArrayNode entries) || entries.size() < 2) {
+			return;
+		}
+		List<JsonNode> sorted = new ArrayList<>(entries.size());
+		entries.forEach(sorted::add);
+		sorted.sort(Comparator.comparingInt((JsonNode entry) -> score(entry, focus)).reversed());
+		entries.removeAll();
+		entries.addAll(sorted);
+	}
+
+	/**
+	 * Removes entries from the tail of a ranked section while over budget, keeping
+	 * every entry scoring at least {@code minScore}.
+	 */
+	private void trim(Sections sections, String section, Set<String> focus, int minScore, List<Pruned> pruned) {
+		if (sections.total() <= tokenBudget || !(sections.evidence.get(section) instanceof ArrayNode entries)) {
+			return;
+		}
+		int before = entries.size();
+		int others = sections.totalChars() - sections.chars(section);
+		int chars = sections.chars(section);
+		while (!entries.isEmpty() && estimateTokens(others + chars) > tokenBudget) {
+			JsonNode last = entries.get(entries.size() - 1);
+			if (score(last, focus) >= minScore) {
+				break;
+			}
+			entries.remove(entries.size() - 1);
+			chars -= length(last) + 1;
+		}
+		if (entries.size() < before) {
+			sections.update(section);
+			pruned.add(new Pruned(section, "truncated",
+					"kept " + entries.size() + " of " + before + " entries, most relevant first"));
+		}
+	}
+
+	private void summarize(Sections sections, String section, List<Pruned> pruned) {
+		JsonNode node = sections.evidence.get(section);
+		if (sections.total() <= tokenBudget || node == null || !node.isContainerNode()) {
+			return;
+		}
+		ObjectNode summary = objectMapper.createObjectNode();
+		if (node.isArray()) {
+			summary.put("entries", node.size());
+		}
+		else {
+			node.fields().forEachRemaining(field -> {
+				JsonNode value = field.getValue();
+				if (value.isArray()) {
+					summary.put(field.getKey(), value.size() + " entries");
+				}
+				else if (value.isObject()) {
+					summary.put(field.getKey(), value.size() + " fields");
+				}
+				else if (value.isTextual() && value.asText().length() > MAX_SUMMARY_TEXT) {
+					summary.put(field.getKey(), value.asText().substring(0, MAX_SUMMARY_TEXT) + "...");
+				}
+				else {
+					summary.set(field.getKey(), value);
+				}
+			});
+		}
+		if (length(summary) >= length(node)) {
+			return;
+		}
+		sections.evidence.set(section, summary);
+		sections.update(section);
+		pruned.add(new Pruned(section, "summarized", "nested values replaced by their sizes"));
+	}
+
+	private void drop(Sections sections, String section, List<Pruned> pruned) {
+		if (sections.total() <= tokenBudget || !sections.evidence.has(section)) {
+			return;
+		}
+		sections.evidence.remove(section);
+		sections.update(section);
+		pruned.add(new Pruned(section, "dropped", "removed to fit the token budget"));
+	}
+
+	private static int score(JsonNode entry, Set<String> focus) {
+		int score = 0;
+		String service = entry.path("service").asText("");
+		if (focus.contains(service.toLowerCase(Locale.ROOT))) {
+			score += FOCUS_SCORE;
+		}
+		String level = entry.hasNonNull("severity") ? entry.path("severity").asText() : entry.path("status").asText();
+		switch (level.toLowerCase(Locale.ROOT)) {
+			case "critical" -> score += 2;
+			case "warning" -> score += 1;
+			default -> {
+			}
+		}
+		return score;
+	}
+
+	private int length(JsonNode node) {
+		try {
+			return objectMapper.writeValueAsString(node).length();
+		}
+		catch (JsonProcessingException ex) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Serialized size of each top-level section, kept current as sections change
+	 * so the bundle is not re-serialized after every pruning step.
+	 */
+	private final class Sections {
+
+		private final ObjectNode evidence;
+
+		private final Map<String, Integer> chars = new LinkedHashMap<>();
+
+		Sections(ObjectNode evidence) {
+			this.evidence = evidence;
+			evidence.fieldNames().forEachRemaining(this::update);
+		}
+
+		void update(String section) {
+			JsonNode value = evidence.get(section);
+			if (value == null) {
+				chars.remove(section);
+			}
+			else {
+				// "name":value plus the separating comma
+				chars.put(section, section.length() + 4 + length(value));
+			}
+		}
+
+		int chars(String section) {
+			return chars.getOrDefault(section, 0);
+		}
+
+		int totalChars() {
+			return 2 + chars.values().stream().mapToInt(Integer::intValue).sum();
+		}
+
+		int total() {
+			return estimateTokens(totalChars());
+		}
+
+	}
+
+	record Pruned(String section, String action, String detail) {
+	}
+
+	/**
+	 * @param evidence compacted copy of the evidence
+	 * @param originalTokens estimated size before compaction
+	 * @param tokens estimated size after compaction
+	 * @param budgetTokens configured budget, {@code 0} when compaction is disabled
+	 * @param pruned steps taken, in order
+	 */
+	record Result(ObjectNode evidence, int originalTokens, int tokens, int budgetTokens, List<Pruned> pruned) {
+
+		boolean overBudget() {
+			return budgetTokens > 0 && tokens > budgetTokens;
+		}
+
+		ObjectNode toJson(ObjectMapper objectMapper) {
+			ObjectNode json = objectMapper.createObjectNode();
+			json.put("budgetTokens", budgetTokens);
+			json.put("originalTokens", originalTokens);
+			json.put("tokens", tokens);
+			json.put("overBudget", overBudget());
+			ArrayNode steps = json.putArray("pruned");
+			for (Pruned step : pruned) {
+				steps.addObject().put("section", step.section()).put("action", step.action())
+						.put("detail", step.detail());
+			}
+			return json;
+		}
+
+	}
+
+}
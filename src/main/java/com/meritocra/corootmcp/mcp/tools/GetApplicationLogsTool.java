@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
 import com.meritocra.corootmcp.coroot.CorootClient;
+import com.meritocra.corootmcp.coroot.LogPatternReducer;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
 
@@ -19,6 +20,14 @@ public class GetApplicationLogsTool implements McpTool {
 
 	private static final int MAX_ENTRIES_CAP = 100;
 
+	private static final int MAX_SCAN_CAP = 5000;
+
+	private static final int DEFAULT_SCAN = 1000;
+
+	private static final int MAX_PATTERNS_CAP = 100;
+
+	private static final int DEFAULT_PATTERNS = 20;
+
 	private final CorootClient corootClient;
 
 	private final CorootProperties properties;
@@ -55,12 +64,33 @@ public class GetApplicationLogsTool implements McpTool {
 		windowMinutes.put("description",
 				"Time window, in minutes, to retrieve log entries for. Defaults to 30 minutes.");
 
+		ObjectNode mode = propertiesNode.putObject("mode");
+		mode.put("type", "string");
+		mode.putArray("enum").add("patterns").add("entries");
+		mode.put("description",
+				"'patterns' (default) groups up to scanEntries messages into templates with numbers, ids and "
+						+ "addresses masked, ranked by severity and count. 'entries' returns raw entries.");
+
+		ObjectNode scanEntries = propertiesNode.putObject("scanEntries");
+		scanEntries.put("type", "integer");
+		scanEntries.put("minimum", 1);
+		scanEntries.put("maximum", MAX_SCAN_CAP);
+		scanEntries.put("description", "Number of recent log entries to group in 'patterns' mode. Defaults to "
+				+ DEFAULT_SCAN + ", capped at " + MAX_SCAN_CAP + ".");
+
+		ObjectNode maxPatterns = propertiesNode.putObject("maxPatterns");
+		maxPatterns.put("type", "integer");
+		maxPatterns.put("minimum", 1);
+		maxPatterns.put("maximum", MAX_PATTERNS_CAP);
+		maxPatterns.put("description", "Maximum number of templates to return in 'patterns' mode. Defaults to "
+				+ DEFAULT_PATTERNS + ".");
+
 		ObjectNode maxEntries = propertiesNode.putObject("maxEntries");
 		maxEntries.put("type", "integer");
 		maxEntries.put("minimum", 1);
 		maxEntries.put("maximum", MAX_ENTRIES_CAP);
 		maxEntries.put("description",
-				"Maximum number of log entries to return, capped at " + MAX_ENTRIES_CAP + ".");
+				"Maximum number of log entries to return in 'entries' mode, capped at " + MAX_ENTRIES_CAP + ".");
 
 		ArrayNode required = schema.putArray("required");
 		required.add("applicationId");
@@ -68,7 +98,8 @@ public class GetApplicationLogsTool implements McpTool {
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_application_logs",
-				"Returns recent log entries for a single Coroot application, summarised for AI-assisted analysis.",
+				"Returns recent log messages of a single Coroot application grouped into ranked templates, "
+						+ "or the raw entries, for AI-assisted analysis.",
 				schema);
 	}
 
@@ -96,6 +127,14 @@ public class GetApplicationLogsTool implements McpTool {
 			windowMinutes = 24 * 60;
 		}
 
+		String mode = arguments.path("mode").asText("patterns");
+		if ("patterns".equals(mode) || !StringUtils.hasText(mode)) {
+			return patterns(projectId, applicationId, windowMinutes, arguments);
+		}
+		if (!"entries".equals(mode)) {
+			throw new IllegalArgumentException("mode must be 'patterns' or 'entries'");
+		}
+
 		int maxEntries = arguments.path("maxEntries").asInt(100);
 		if (maxEntries <= 0) {
 			maxEntries = 100;
@@ -119,6 +158,7 @@ public class GetApplicationLogsTool implements McpTool {
 		payload.put("projectId", projectId);
 		payload.put("applicationId", applicationId);
 		payload.put("windowMinutes", windowMinutes);
+		payload.put("mode", "entries");
 
 		Object summary = view.get("summary");
 		if (summary instanceof Map<?, ?> summaryMap) {
@@ -153,6 +193,47 @@ public class GetApplicationLogsTool implements McpTool {
 		return result;
 	}
 
+	private ObjectNode patterns(String projectId, String applicationId, int windowMinutes, ObjectNode arguments) {
+		int scanEntries = ToolArguments.positiveInt(arguments, "scanEntries", DEFAULT_SCAN, MAX_SCAN_CAP);
+		int maxPatterns = ToolArguments.positiveInt(arguments, "maxPatterns", DEFAULT_PATTERNS, MAX_PATTERNS_CAP);
+
+		LogPatternReducer.Summary summary = corootClient.summarizeApplicationLogs(projectId, applicationId,
+				windowMinutes, scanEntries);
+
+		ObjectNode result = objectMapper.createObjectNode();
+		ObjectNode jsonItem = result.putArray("content").addObject();
+		jsonItem.put("type", "json");
+
+		ObjectNode payload = objectMapper.createObjectNode();
+		payload.put("projectId", projectId);
+		payload.put("applicationId", applicationId);
+		payload.put("windowMinutes", windowMinutes);
+		payload.put("mode", "patterns");
+		payload.put("entriesScanned", summary.entries());
+		payload.put("templates", summary.templates());
+		payload.put("unclusteredEntries", summary.unclustered());
+
+		ArrayNode patterns = payload.putArray("patterns");
+		for (LogPatternReducer.LogPattern pattern : summary.patterns()) {
+			if (patterns.size() >= maxPatterns) {
+				break;
+			}
+			ObjectNode p = patterns.addObject();
+			p.put("pattern", pattern.pattern());
+			p.put("severity", pattern.severity());
+			p.put("count", pattern.count());
+			p.put("firstTimestampMs", pattern.firstTimestampMs());
+			p.put("lastTimestampMs", pattern.lastTimestampMs());
+			p.put("example", pattern.example());
+			ArrayNode traceIds = p.putArray("exampleTraceIds");
+			pattern.exampleTraceIds().forEach(traceIds::add);
+		}
+		payload.put("patternsReturned", patterns.size());
+
+		jsonItem.set("json", payload);
+		return result;
+	}
+
 	private String stringOrEmpty(Object value) {
 		return value == null ? "" : value.toString();
 	}
@@ -19,6 +19,14 @@ public class GetApplicationTracesTool implements McpTool {
 
 	private static final int MAX_SPANS_CAP = 100;
 
+	private static final int MAX_TRACES_CAP = 20;
+
+	private static final int DEFAULT_TRACES = 5;
+
+	private static final int MAX_OPERATIONS_CAP = 50;
+
+	private static final int DEFAULT_OPERATIONS = 10;
+
 	private final CorootClient corootClient;
 
 	private final CorootProperties properties;
@@ -55,12 +63,34 @@ public class GetApplicationTracesTool implements McpTool {
 		windowMinutes.put("description",
 				"Time window, in minutes, to retrieve spans for. Defaults to 30 minutes.");
 
+		ObjectNode mode = propertiesNode.putObject("mode");
+		mode.put("type", "string");
+		mode.putArray("enum").add("analysis").add("spans");
+		mode.put("description",
+				"'analysis' (default) rebuilds trace trees from all spans and ranks the slowest traces with their "
+						+ "critical paths, plus latency and error hot spots per service and operation. "
+						+ "'spans' returns raw spans.");
+
+		ObjectNode maxTraces = propertiesNode.putObject("maxTraces");
+		maxTraces.put("type", "integer");
+		maxTraces.put("minimum", 1);
+		maxTraces.put("maximum", MAX_TRACES_CAP);
+		maxTraces.put("description", "Number of slowest traces to return in 'analysis' mode. Defaults to "
+				+ DEFAULT_TRACES + ".");
+
+		ObjectNode maxOperations = propertiesNode.putObject("maxOperations");
+		maxOperations.put("type", "integer");
+		maxOperations.put("minimum", 1);
+		maxOperations.put("maximum", MAX_OPERATIONS_CAP);
+		maxOperations.put("description", "Number of operations in each hot spot list in 'analysis' mode. Defaults to "
+				+ DEFAULT_OPERATIONS + ".");
+
 		ObjectNode maxSpans = propertiesNode.putObject("maxSpans");
 		maxSpans.put("type", "integer");
 		maxSpans.put("minimum", 1);
 		maxSpans.put("maximum", MAX_SPANS_CAP);
 		maxSpans.put("description",
-				"Maximum number of spans to return, capped at " + MAX_SPANS_CAP + ".");
+				"Maximum number of spans to return in 'spans' mode, capped at " + MAX_SPANS_CAP + ".");
 
 		ArrayNode required = schema.putArray("required");
 		required.add("applicationId");
@@ -68,7 +98,8 @@ public class GetApplicationTracesTool implements McpTool {
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_application_traces",
-				"Returns recent tracing spans for a single Coroot application, summarised for AI-assisted analysis.",
+				"Returns the slowest traces, critical paths and latency and error hot spots of a single Coroot "
+						+ "application, or its raw tracing spans, for AI-assisted analysis.",
 				schema);
 	}
 
@@ -96,6 +127,14 @@ public class GetApplicationTracesTool implements McpTool {
 			windowMinutes = 24 * 60;
 		}
 
+		String mode = arguments.path("mode").asText("analysis");
+		if ("analysis".equals(mode) || !StringUtils.hasText(mode)) {
+			return analysis(projectId, applicationId, windowMinutes, arguments);
+		}
+		if (!"spans".equals(mode)) {
+			throw new IllegalArgumentException("mode must be 'analysis' or 'spans'");
+		}
+
 		int maxSpans = arguments.path("maxSpans").asInt(50);
 		if (maxSpans <= 0) {
 			maxSpans = 50;
@@ -118,6 +157,7 @@ public class GetApplicationTracesTool implements McpTool {
 		payload.put("projectId", projectId);
 		payload.put("applicationId", applicationId);
 		payload.put("windowMinutes", windowMinutes);
+		payload.put("mode", "spans");
 
 		ArrayNode spansArray = payload.putArray("spans");
 		int count = 0;
@@ -146,6 +186,36 @@ public class GetApplicationTracesTool implements McpTool {
 		return result;
 	}
 
+	@SuppressWarnings("unchecked")
+	private ObjectNode analysis(String projectId, String applicationId, int windowMinutes, ObjectNode arguments) {
+		int maxTraces = ToolArguments.positiveInt(arguments, "maxTraces", DEFAULT_TRACES, MAX_TRACES_CAP);
+		int maxOperations = ToolArguments.positiveInt(arguments, "maxOperations", DEFAULT_OPERATIONS,
+				MAX_OPERATIONS_CAP);
+
+		Map<String, Object> view = corootClient.getApplicationTracing(projectId, applicationId, windowMinutes);
+
+		TraceAnalyzer analyzer = new TraceAnalyzer();
+		for (Object span : (List<Object>) view.getOrDefault("spans", List.of())) {
+			if (span instanceof Map<?, ?> spanMap) {
+				analyzer.add(spanMap);
+			}
+		}
+
+		ObjectNode result = objectMapper.createObjectNode();
+		ObjectNode jsonItem = result.putArray("content").addObject();
+		jsonItem.put("type", "json");
+
+		ObjectNode payload = objectMapper.createObjectNode();
+		payload.put("projectId", projectId);
+		payload.put("applicationId", applicationId);
+		payload.put("windowMinutes", windowMinutes);
+		payload.put("mode", "analysis");
+		payload.setAll(analyzer.analyze().toJson(objectMapper, maxTraces, maxOperations));
+
+		jsonItem.set("json", payload);
+		return result;
+	}
+
 	private String stringOrEmpty(Object value) {
 		return value == null ? "" : value.toString();
 	}
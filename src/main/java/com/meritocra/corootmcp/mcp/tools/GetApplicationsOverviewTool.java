@@ -1,6 +1,13 @@
 package com.meritocra.corootmcp.mcp.tools;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -17,17 +24,28 @@ import org.springframework.util.StringUtils;
 @Component
 public class GetApplicationsOverviewTool implements McpTool {
 
+	private static final List<String> INDICATORS = List.of("errors", "latency", "upstreams", "instances",
+			"restarts", "cpu", "memory", "disk_io_load", "disk_usage", "network", "dns", "logs");
+
+	// Leading number of an indicator value such as "2.3%", "250ms" or "1.2k", and its unit.
+	private static final Pattern INDICATOR_VALUE = Pattern.compile("(-?\\d+(?:\\.\\d+)?)\\s*([a-zA-Zµ]*)");
+
+	private static final OverviewQuery<ApplicationOverviewEntry> QUERY = query();
+
 	private final CorootClient corootClient;
 
 	private final CorootProperties properties;
 
 	private final ObjectMapper objectMapper;
 
-	public GetApplicationsOverviewTool(CorootClient corootClient, CorootProperties properties,
-			ObjectMapper objectMapper) {
+	private final OverviewSnapshots snapshots;
+
+	public GetApplicationsOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper,
+			OverviewSnapshots snapshots) {
 		this.corootClient = corootClient;
 		this.properties = properties;
 		this.objectMapper = objectMapper;
+		this.snapshots = snapshots;
 	}
 
 	@Override
@@ -42,24 +60,24 @@ public class GetApplicationsOverviewTool implements McpTool {
 		projectId.put("description",
 				"Coroot project identifier. Defaults to coroot.default-project-id when omitted.");
 
+		QUERY.describeArguments(propertiesNode);
+		snapshots.describeArguments(propertiesNode);
+
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_applications_overview",
-				"Returns an overview of application health for a Coroot project, aligned with the Application Health Summary view.",
+				"Returns an overview of application health for a Coroot project, aligned with the Application Health Summary view. "
+						+ "Filter by status, cluster, category or name, rank by an indicator with sortBy and limit, "
+						+ "and pick fields to keep the result small.",
 				schema);
 	}
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
-		String projectId = arguments.path("projectId").asText();
-		if (!StringUtils.hasText(projectId)) {
-			projectId = properties.getDefaultProjectId();
-		}
-		if (!StringUtils.hasText(projectId)) {
-			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
-		}
-
-		List<ApplicationOverviewEntry> entries = corootClient.listApplicationsOverview(projectId);
+		String projectId = projectId(arguments);
+		OverviewSnapshots.Page<ApplicationOverviewEntry> page = snapshots.page("get_applications_overview", projectId, arguments,
+				() -> QUERY.apply(corootClient.listApplicationsOverview(projectId), arguments));
+		Set<String> projection = QUERY.projection(arguments);
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -68,25 +86,89 @@ public class GetApplicationsOverviewTool implements McpTool {
 		jsonItem.put("type", "json");
 
 		ArrayNode appsArray = objectMapper.createArrayNode();
-		for (ApplicationOverviewEntry entry : entries) {
+		for (ApplicationOverviewEntry entry : page.entries()) {
 			ObjectNode node = objectMapper.createObjectNode();
 			node.put("projectId", entry.getProjectId());
 			node.put("service", entry.getService());
 			node.put("cluster", entry.getCluster());
 			node.put("category", entry.getCategory());
 			node.put("status", entry.getStatus());
-			if (entry.getIndicators() != null) {
-				node.set("indicators", objectMapper.valueToTree(entry.getIndicators()));
+			if (projection == null) {
+				putIndicators(node, entry);
 			}
 			else {
-				node.putObject("indicators");
+				if (projection.contains("indicators")) {
+					putIndicators(node, entry);
+				}
+				node.retain(projection);
 			}
 			appsArray.add(node);
 		}
 
 		jsonItem.set("json", appsArray);
+		page.writeTo(jsonItem);
 
 		return result;
 	}
 
+	private void putIndicators(ObjectNode node, ApplicationOverviewEntry entry) {
+		if (entry.getIndicators() != null) {
+			node.set("indicators", objectMapper.valueToTree(entry.getIndicators()));
+		}
+		else {
+			node.putObject("indicators");
+		}
+	}
+
+	private String projectId(ObjectNode arguments) {
+		String projectId = arguments.path("projectId").asText();
+		if (!StringUtils.hasText(projectId)) {
+			projectId = properties.getDefaultProjectId();
+		}
+		if (!StringUtils.hasText(projectId)) {
+			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
+		}
+		return projectId;
+	}
+
+	private static OverviewQuery<ApplicationOverviewEntry> query() {
+		Map<String, Function<ApplicationOverviewEntry, String>> filters = Map.of("status",
+				ApplicationOverviewEntry::getStatus, "cluster", ApplicationOverviewEntry::getCluster, "category",
+				ApplicationOverviewEntry::getCategory);
+		Map<String, ToDoubleFunction<ApplicationOverviewEntry>> sortKeys = new LinkedHashMap<>();
+		for (String indicator : INDICATORS) {
+			sortKeys.put(indicator, entry -> indicatorValue(entry, indicator));
+		}
+		return new OverviewQuery<>("service", ApplicationOverviewEntry::getService, filters, sortKeys,
+				List.of("projectId", "service", "cluster", "category", "status", "indicators"));
+	}
+
+	/**
+	 * Numeric value of an indicator, with durations in seconds and k/M/G
+	 * multipliers applied, or {@code NaN} when the entry has none.
+	 */
+	static double indicatorValue(ApplicationOverviewEntry entry, String indicator) {
+		if (entry.getIndicators() == null || !(entry.getIndicators().get(indicator) instanceof Map<?, ?> summary)
+				|| summary.get("value") == null) {
+			return Double.NaN;
+		}
+		Matcher matcher = INDICATOR_VALUE.matcher(summary.get("value").toString().trim());
+		if (!matcher.lookingAt()) {
+			return Double.NaN;
+		}
+		double value = Double.parseDouble(matcher.group(1));
+		return value * switch (matcher.group(2)) {
+			case "ns" -> 1e-9;
+			case "µs", "us" -> 1e-6;
+			case "ms" -> 1e-3;
+			case "m", "min" -> 60;
+			case "h" -> 3600;
+			case "d" -> 86400;
+			case "k", "K" -> 1e3;
+			case "M" -> 1e6;
+			case "G" -> 1e9;
+			default -> 1;
+		};
+	}
+
 }
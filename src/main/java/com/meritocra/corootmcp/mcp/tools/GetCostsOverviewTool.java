@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
 import com.meritocra.corootmcp.coroot.CorootClient;
+import com.meritocra.corootmcp.coroot.StaleResponses;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
 
@@ -65,6 +66,7 @@ public class GetCostsOverviewTool implements McpTool {
 		ObjectNode jsonItem = content.addObject();
 		jsonItem.put("type", "json");
 		jsonItem.set("json", objectMapper.valueToTree(overview));
+		ToolResults.markStale(jsonItem, StaleResponses.fetchedAt(overview));
 
 		return result;
 	}
@@ -1,7 +1,5 @@
 package com.meritocra.corootmcp.mcp.tools;
 
-import java.util.List;
-
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -23,11 +21,14 @@ public class GetDeploymentsOverviewTool implements McpTool {
 
 	private final ObjectMapper objectMapper;
 
-	public GetDeploymentsOverviewTool(CorootClient corootClient, CorootProperties properties,
-			ObjectMapper objectMapper) {
+	private final OverviewSnapshots snapshots;
+
+	public GetDeploymentsOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper,
+			OverviewSnapshots snapshots) {
 		this.corootClient = corootClient;
 		this.properties = properties;
 		this.objectMapper = objectMapper;
+		this.snapshots = snapshots;
 	}
 
 	@Override
@@ -42,6 +43,8 @@ public class GetDeploymentsOverviewTool implements McpTool {
 		projectId.put("description",
 				"Coroot project identifier. Defaults to coroot.default-project-id when omitted.");
 
+		snapshots.describeArguments(propertiesNode);
+
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_deployments_overview",
@@ -51,15 +54,9 @@ public class GetDeploymentsOverviewTool implements McpTool {
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
-		String projectId = arguments.path("projectId").asText();
-		if (!StringUtils.hasText(projectId)) {
-			projectId = properties.getDefaultProjectId();
-		}
-		if (!StringUtils.hasText(projectId)) {
-			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
-		}
-
-		List<DeploymentOverviewEntry> entries = corootClient.listDeploymentsOverview(projectId);
+		String projectId = projectId(arguments);
+		OverviewSnapshots.Page<DeploymentOverviewEntry> page = snapshots.page("get_deployments_overview", projectId, arguments,
+				() -> corootClient.listDeploymentsOverview(projectId));
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -68,7 +65,7 @@ public class GetDeploymentsOverviewTool implements McpTool {
 		jsonItem.put("type", "json");
 
 		ArrayNode deploymentsArray = objectMapper.createArrayNode();
-		for (DeploymentOverviewEntry entry : entries) {
+		for (DeploymentOverviewEntry entry : page.entries()) {
 			ObjectNode node = objectMapper.createObjectNode();
 			node.put("projectId", entry.getProjectId());
 			node.put("service", entry.getService());
@@ -81,9 +78,21 @@ public class GetDeploymentsOverviewTool implements McpTool {
 		}
 
 		jsonItem.set("json", deploymentsArray);
+		page.writeTo(jsonItem);
 
 		return result;
 	}
 
+	private String projectId(ObjectNode arguments) {
+		String projectId = arguments.path("projectId").asText();
+		if (!StringUtils.hasText(projectId)) {
+			projectId = properties.getDefaultProjectId();
+		}
+		if (!StringUtils.hasText(projectId)) {
+			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
+		}
+		return projectId;
+	}
+
 }
 
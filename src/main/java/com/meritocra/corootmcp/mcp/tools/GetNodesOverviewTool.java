@@ -1,6 +1,10 @@
 package com.meritocra.corootmcp.mcp.tools;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -17,16 +21,22 @@ import org.springframework.util.StringUtils;
 @Component
 public class GetNodesOverviewTool implements McpTool {
 
+	private static final OverviewQuery<NodeOverviewEntry> QUERY = query();
+
 	private final CorootClient corootClient;
 
 	private final CorootProperties properties;
 
 	private final ObjectMapper objectMapper;
 
-	public GetNodesOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper) {
+	private final OverviewSnapshots snapshots;
+
+	public GetNodesOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper,
+			OverviewSnapshots snapshots) {
 		this.corootClient = corootClient;
 		this.properties = properties;
 		this.objectMapper = objectMapper;
+		this.snapshots = snapshots;
 	}
 
 	@Override
@@ -41,24 +51,24 @@ public class GetNodesOverviewTool implements McpTool {
 		projectId.put("description",
 				"Coroot project identifier. Defaults to coroot.default-project-id when omitted.");
 
+		QUERY.describeArguments(propertiesNode);
+		snapshots.describeArguments(propertiesNode);
+
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_nodes_overview",
-				"Returns an overview of node health for a Coroot project, aligned with the Nodes overview in Coroot.",
+				"Returns an overview of node health for a Coroot project, aligned with the Nodes overview in Coroot. "
+						+ "Filter by status, cluster or name, rank by usage with sortBy and limit (for instance the top "
+						+ "10 nodes by cpuPercent), and pick fields to keep the result small.",
 				schema);
 	}
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
-		String projectId = arguments.path("projectId").asText();
-		if (!StringUtils.hasText(projectId)) {
-			projectId = properties.getDefaultProjectId();
-		}
-		if (!StringUtils.hasText(projectId)) {
-			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
-		}
-
-		List<NodeOverviewEntry> entries = corootClient.listNodesOverview(projectId);
+		String projectId = projectId(arguments);
+		OverviewSnapshots.Page<NodeOverviewEntry> page = snapshots.page("get_nodes_overview", projectId, arguments,
+				() -> QUERY.apply(corootClient.listNodesOverview(projectId), arguments));
+		Set<String> projection = QUERY.projection(arguments);
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -67,7 +77,7 @@ public class GetNodesOverviewTool implements McpTool {
 		jsonItem.put("type", "json");
 
 		ArrayNode nodesArray = objectMapper.createArrayNode();
-		for (NodeOverviewEntry entry : entries) {
+		for (NodeOverviewEntry entry : page.entries()) {
 			ObjectNode node = objectMapper.createObjectNode();
 			node.put("projectId", entry.getProjectId());
 			node.put("name", entry.getName());
@@ -90,13 +100,46 @@ public class GetNodesOverviewTool implements McpTool {
 			if (entry.getDiskPercent() != null) {
 				node.put("diskPercent", entry.getDiskPercent());
 			}
+			if (projection != null) {
+				node.retain(projection);
+			}
 			nodesArray.add(node);
 		}
 
 		jsonItem.set("json", nodesArray);
+		page.writeTo(jsonItem);
 
 		return result;
 	}
 
+	private String projectId(ObjectNode arguments) {
+		String projectId = arguments.path("projectId").asText();
+		if (!StringUtils.hasText(projectId)) {
+			projectId = properties.getDefaultProjectId();
+		}
+		if (!StringUtils.hasText(projectId)) {
+			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
+		}
+		return projectId;
+	}
+
+	private static OverviewQuery<NodeOverviewEntry> query() {
+		Map<String, ToDoubleFunction<NodeOverviewEntry>> sortKeys = new LinkedHashMap<>();
+		sortKeys.put("cpuPercent", entry -> valueOrNaN(entry.getCpuPercent()));
+		sortKeys.put("memoryPercent", entry -> valueOrNaN(entry.getMemoryPercent()));
+		sortKeys.put("networkPercent", entry -> valueOrNaN(entry.getNetworkPercent()));
+		sortKeys.put("diskPercent", entry -> valueOrNaN(entry.getDiskPercent()));
+		sortKeys.put("applications", NodeOverviewEntry::getApplications);
+		sortKeys.put("instances", NodeOverviewEntry::getInstances);
+		return new OverviewQuery<>("name", NodeOverviewEntry::getName,
+				Map.of("status", NodeOverviewEntry::getStatus, "cluster", NodeOverviewEntry::getCluster), sortKeys,
+				List.of("projectId", "name", "cluster", "status", "applications", "instances", "uptime", "privateIps",
+						"publicIps", "cpuPercent", "memoryPercent", "networkPercent", "diskPercent"));
+	}
+
+	private static double valueOrNaN(Double value) {
+		return value != null ? value : Double.NaN;
+	}
+
 }
 
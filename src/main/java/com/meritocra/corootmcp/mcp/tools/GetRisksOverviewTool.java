@@ -1,7 +1,5 @@
 package com.meritocra.corootmcp.mcp.tools;
 
-import java.util.List;
-
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -23,10 +21,14 @@ public class GetRisksOverviewTool implements McpTool {
 
 	private final ObjectMapper objectMapper;
 
-	public GetRisksOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper) {
+	private final OverviewSnapshots snapshots;
+
+	public GetRisksOverviewTool(CorootClient corootClient, CorootProperties properties, ObjectMapper objectMapper,
+			OverviewSnapshots snapshots) {
 		this.corootClient = corootClient;
 		this.properties = properties;
 		this.objectMapper = objectMapper;
+		this.snapshots = snapshots;
 	}
 
 	@Override
@@ -41,6 +43,8 @@ public class GetRisksOverviewTool implements McpTool {
 		projectId.put("description",
 				"Coroot project identifier. Defaults to coroot.default-project-id when omitted.");
 
+		snapshots.describeArguments(propertiesNode);
+
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("get_risks_overview",
@@ -50,15 +54,9 @@ public class GetRisksOverviewTool implements McpTool {
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
-		String projectId = arguments.path("projectId").asText();
-		if (!StringUtils.hasText(projectId)) {
-			projectId = properties.getDefaultProjectId();
-		}
-		if (!StringUtils.hasText(projectId)) {
-			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
-		}
-
-		List<RiskOverviewEntry> risks = corootClient.listRisksOverview(projectId);
+		String projectId = projectId(arguments);
+		OverviewSnapshots.Page<RiskOverviewEntry> page = snapshots.page("get_risks_overview", projectId, arguments,
+				() -> corootClient.listRisksOverview(projectId));
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -67,7 +65,7 @@ public class GetRisksOverviewTool implements McpTool {
 		jsonItem.put("type", "json");
 
 		ArrayNode risksArray = objectMapper.createArrayNode();
-		for (RiskOverviewEntry risk : risks) {
+		for (RiskOverviewEntry risk : page.entries()) {
 			ObjectNode node = objectMapper.createObjectNode();
 			node.put("projectId", risk.getProjectId());
 			node.put("service", risk.getService());
@@ -81,9 +79,21 @@ public class GetRisksOverviewTool implements McpTool {
 		}
 
 		jsonItem.set("json", risksArray);
+		page.writeTo(jsonItem);
 
 		return result;
 	}
 
+	private String projectId(ObjectNode arguments) {
+		String projectId = arguments.path("projectId").asText();
+		if (!StringUtils.hasText(projectId)) {
+			projectId = properties.getDefaultProjectId();
+		}
+		if (!StringUtils.hasText(projectId)) {
+			throw new IllegalArgumentException("projectId is required when coroot.default-project-id is not configured");
+		}
+		return projectId;
+	}
+
 }
 
@@ -1,6 +1,11 @@
 package com.meritocra.corootmcp.mcp.tools;
 
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -10,11 +15,13 @@ import com.meritocra.corootmcp.coroot.CorootClient;
 import com.meritocra.corootmcp.coroot.IncidentContext;
 import com.meritocra.corootmcp.coroot.IncidentSummary;
 import com.meritocra.corootmcp.coroot.ServiceHealthSnapshot;
+import com.meritocra.corootmcp.llm.LlmGateway;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
+import com.meritocra.corootmcp.mcp.ToolProgress;
 
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 @Component
@@ -28,15 +35,18 @@ public class InvestigateIncidentTool implements McpTool {
 
 	private final CorootProperties properties;
 
-	private final ChatClient chatClient;
+	private final LlmGateway llmGateway;
 
 	private final ObjectMapper objectMapper;
 
 	public InvestigateIncidentTool(CorootClient corootClient, CorootProperties properties,
-			ChatClient chatClient, ObjectMapper objectMapper) {
+			LlmGateway llmGateway, ObjectMapper objectMapper) {
+		CorootProperties.Investigation investigation = properties.getInvestigation();
+		Assert.isTrue(investigation.getSourceTimeout().compareTo(investigation.getTimeout()) <= 0,
+				"coroot.investigation.source-timeout must not exceed coroot.investigation.timeout");
 		this.corootClient = corootClient;
 		this.properties = properties;
-		this.chatClient = chatClient;
+		this.llmGateway = llmGateway;
 		this.objectMapper = objectMapper;
 	}
 
@@ -98,6 +108,12 @@ public class InvestigateIncidentTool implements McpTool {
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
+		return call(arguments, ToolProgress.NONE);
+	}
+
+	@Override
+	public ObjectNode call(ObjectNode arguments, ToolProgress progress) {
+		long start = System.nanoTime();
 		String projectId = arguments.path("projectId").asText();
 		if (!StringUtils.hasText(projectId)) {
 			projectId = properties.getDefaultProjectId();
@@ -119,7 +135,7 @@ public class InvestigateIncidentTool implements McpTool {
 			maxWords = MAX_WORDS;
 		}
 
-		String audience = arguments.path("audience").asText("sre").toLowerCase();
+		String audience = arguments.path("audience").asText("sre").toLowerCase(Locale.ROOT);
 		boolean includeTraces = arguments.path("includeTraces").asBoolean(true);
 		boolean includeLogs = arguments.path("includeLogs").asBoolean(true);
 		boolean includeCosts = arguments.path("includeCosts").asBoolean(true);
@@ -129,16 +145,46 @@ public class InvestigateIncidentTool implements McpTool {
 
 		// Build evidence bundle (compact JSON) to feed to the model and to expose to
 		// downstream tooling.
-		ObjectNode evidence = buildEvidence(projectId, context, includeTraces, includeLogs, includeCosts, includeRisks);
+		ObjectNode evidence = buildEvidence(projectId, context, includeTraces, includeLogs, includeCosts, includeRisks,
+				progress, start);
+
+		// Large projects produce far more evidence than fits a prompt, so rank it by
+		// relevance to the incident and prune low-signal sections to the token budget.
+		EvidenceCompactor.Result compaction = new EvidenceCompactor(objectMapper,
+				properties.getInvestigation().getEvidenceTokenBudget()).compact(evidence, focusServices(context));
+		ObjectNode promptEvidence = compaction.evidence();
+		if (!compaction.pruned().isEmpty()) {
+			promptEvidence.set("evidenceCompaction", compaction.toJson(objectMapper));
+		}
 
-		String prompt = InvestigateIncidentPrompts.buildRcaPrompt(objectMapper, context, evidence, maxWords, audience);
+		String prompt = InvestigateIncidentPrompts.buildRcaPrompt(objectMapper, context, promptEvidence, maxWords,
+				audience);
+
+		int steps = evidence.path("evidenceStatus").size() + 2;
+		progress.report(steps, steps, "Generating RCA summary");
+
+		// The key covers the prompt as rendered around the evidence, so changing the
+		// instructions invalidates cached summaries, and the evidence without its
+		// timing fields (source durations, when health was observed), which differ on
+		// every call.
+		ObjectNode cacheInputs = objectMapper.createObjectNode();
+		cacheInputs.put("prompt", InvestigateIncidentPrompts.buildRcaPrompt(objectMapper, context,
+				objectMapper.createObjectNode(), maxWords, audience));
+		ObjectNode fingerprintEvidence = cacheInputs.putObject("evidence");
+		promptEvidence.fields().forEachRemaining(field -> {
+			if (!"evidenceStatus".equals(field.getKey())) {
+				fingerprintEvidence.set(field.getKey(), field.getValue());
+			}
+		});
+		if (fingerprintEvidence.get("serviceHealth") instanceof ObjectNode serviceHealth) {
+			fingerprintEvidence.set("serviceHealth", serviceHealth.deepCopy().without("observedAt"));
+		}
 
-		String naturalLanguageSummary = chatClient.prompt()
-				.user(prompt)
-				.call()
-				.content();
+		// Only streamed calls with a progress token can forward the summary as it is generated.
+		String naturalLanguageSummary = llmGateway.complete("investigate_incident", prompt, cacheInputs,
+				progress == ToolProgress.NONE ? null : progress::partial);
 
-		ObjectNode structured = buildStructuredSummary(projectId, context, evidence);
+		ObjectNode structured = buildStructuredSummary(projectId, context, evidence, compaction);
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -155,44 +201,97 @@ public class InvestigateIncidentTool implements McpTool {
 	}
 
 	private ObjectNode buildEvidence(String projectId, IncidentContext context, boolean includeTraces,
-			boolean includeLogs, boolean includeCosts, boolean includeRisks) {
+			boolean includeLogs, boolean includeCosts, boolean includeRisks, ToolProgress progress, long start) {
 
 		ObjectNode evidence = objectMapper.createObjectNode();
 
 		// Incident details
 		evidence.set("incident", toIncidentJson(context));
 
-		// SLO overview at project level
-		evidence.set("sloOverview", objectMapper.valueToTree(corootClient.getSloOverview(projectId)));
-
 		IncidentSummary summary = context.getSummary();
 		String primaryService = summary != null ? summary.getService() : null;
 
+		// The remaining sources are independent Coroot calls, so fetch them concurrently
+		// and record any that fail or miss their deadline instead of failing the whole
+		// investigation. The overall deadline also covers loading the incident above.
+		EvidenceCollector collector = new EvidenceCollector(properties.getInvestigation().getSourceTimeout(),
+				properties.getInvestigation().getTimeout(), start);
+
+		// SLO overview at project level
+		collector.add("sloOverview", () -> corootClient.getSloOverview(projectId), objectMapper::valueToTree);
+
 		// Service health (if we know the primary service)
 		if (StringUtils.hasText(primaryService)) {
-			ServiceHealthSnapshot healthSnapshot = corootClient.getServiceHealth(projectId, primaryService);
-			evidence.set("serviceHealth", toServiceHealthJson(healthSnapshot));
+			collector.add("serviceHealth",
+					() -> toServiceHealthJson(corootClient.getServiceHealth(projectId, primaryService)));
 		}
 
 		if (includeCosts) {
-			evidence.set("costsOverview", objectMapper.valueToTree(corootClient.getCostsOverview(projectId)));
+			collector.add("costsOverview", () -> corootClient.getCostsOverview(projectId), objectMapper::valueToTree);
 		}
 		if (includeTraces) {
-			evidence.set("tracesOverview", objectMapper.valueToTree(corootClient.getTracesOverview(projectId, null)));
+			collector.add("tracesOverview",
+					() -> objectMapper.valueToTree(corootClient.getTracesOverview(projectId, null)));
 		}
 		if (includeLogs) {
-			evidence.set("logsOverview", objectMapper.valueToTree(corootClient.getLogsOverview(projectId, null)));
+			collector.add("logsOverview", () -> objectMapper.valueToTree(corootClient.getLogsOverview(projectId, null)));
 		}
 		if (includeRisks) {
-			evidence.set("risksOverview", objectMapper.valueToTree(corootClient.listRisksOverview(projectId)));
+			collector.add("risksOverview", () -> corootClient.listRisksOverview(projectId), objectMapper::valueToTree);
+		}
+
+		collector.add("applicationsOverview", () -> corootClient.listApplicationsOverview(projectId),
+				objectMapper::valueToTree);
+
+		// One step for the incident, one per source and a final one for the summary.
+		int steps = collector.size() + 2;
+		AtomicInteger completed = new AtomicInteger(1);
+		progress.report(1, steps, "Loaded incident context");
+
+		ObjectNode status = objectMapper.createObjectNode();
+		ArrayNode missing = objectMapper.createArrayNode();
+		ArrayNode stale = objectMapper.createArrayNode();
+		Map<String, EvidenceCollector.Outcome> outcomes = collector.collect((name, outcome) -> progress
+				.report(completed.incrementAndGet(), steps, "Collected " + name + " (" + statusOf(outcome) + ")"));
+		for (Map.Entry<String, EvidenceCollector.Outcome> entry : outcomes.entrySet()) {
+			EvidenceCollector.Outcome outcome = entry.getValue();
+			if (outcome.hasValue()) {
+				evidence.set(entry.getKey(), outcome.value());
+			}
+			else {
+				missing.add(entry.getKey());
+			}
+			if (outcome.fetchedAt() != null) {
+				stale.add(entry.getKey());
+			}
+
+			ObjectNode sourceStatus = status.putObject(entry.getKey());
+			sourceStatus.put("status", statusOf(outcome));
+			sourceStatus.put("durationMs", outcome.durationMs());
+			if (outcome.error() != null) {
+				sourceStatus.put("error", outcome.error());
+			}
+			if (outcome.fetchedAt() != null) {
+				sourceStatus.put("fetchedAt", outcome.fetchedAt().toString());
+			}
 		}
 
-		evidence.set("applicationsOverview", objectMapper.valueToTree(corootClient.listApplicationsOverview(projectId)));
+		// A stale source stands in for one Coroot could not answer, so it does not count
+		// as complete either.
+		evidence.put("evidenceCompleteness", missing.isEmpty() && stale.isEmpty() ? "complete" : "partial");
+		evidence.set("evidenceStatus", status);
+		evidence.set("missingEvidence", missing);
+		evidence.set("staleEvidence", stale);
 
 		return evidence;
 	}
 
-	private ObjectNode buildStructuredSummary(String projectId, IncidentContext context, ObjectNode evidence) {
+	private static String statusOf(EvidenceCollector.Outcome outcome) {
+		return outcome.status().name().toLowerCase(Locale.ROOT);
+	}
+
+	private ObjectNode buildStructuredSummary(String projectId, IncidentContext context, ObjectNode evidence,
+			EvidenceCompactor.Result compaction) {
 		ObjectNode root = objectMapper.createObjectNode();
 
 		IncidentSummary summary = context.getSummary();
@@ -220,9 +319,25 @@ public class InvestigateIncidentTool implements McpTool {
 		root.set("sloOverview", evidence.get("sloOverview"));
 		root.set("costsOverview", evidence.get("costsOverview"));
 
+		// Let consumers tell a quiet signal from one that could not be fetched in time.
+		root.set("evidenceCompleteness", evidence.get("evidenceCompleteness"));
+		root.set("evidenceStatus", evidence.get("evidenceStatus"));
+		root.set("missingEvidence", evidence.get("missingEvidence"));
+		root.set("staleEvidence", evidence.get("staleEvidence"));
+		root.set("evidenceCompaction", compaction.toJson(objectMapper));
+
 		return root;
 	}
 
+	private static List<String> focusServices(IncidentContext context) {
+		List<String> services = new ArrayList<>(context.getAffectedServices());
+		IncidentSummary summary = context.getSummary();
+		if (summary != null && StringUtils.hasText(summary.getService())) {
+			services.add(summary.getService());
+		}
+		return services;
+	}
+
 	private ObjectNode toIncidentJson(IncidentContext context) {
 		IncidentSummary summary = context.getSummary();
 
@@ -299,7 +414,11 @@ public class InvestigateIncidentTool implements McpTool {
 			prompt.append("Hard constraints:\n")
 					.append("- You MUST NOT invent metrics, timestamps, or services that are not present in the evidence JSON.\n")
 					.append("- Distinguish clearly between observed facts and hypotheses.\n")
-					.append("- If key evidence is missing, state that explicitly instead of guessing.\n")
+					.append("- If key evidence is missing, state that explicitly instead of guessing. ")
+					.append("Sources listed under missingEvidence could not be fetched in time; those under ")
+					.append("staleEvidence are an earlier answer served while Coroot was unavailable.\n")
+					.append("- Sections listed under evidenceCompaction.pruned were shortened or left out to fit ")
+					.append("the prompt; do not read their absence as a healthy signal.\n")
 					.append("- Keep the natural-language summary under ")
 					.append(maxWords)
 					.append(" words.\n\n");
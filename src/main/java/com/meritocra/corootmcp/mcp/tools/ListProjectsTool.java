@@ -7,6 +7,7 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.coroot.CorootClient;
 import com.meritocra.corootmcp.coroot.ProjectSummary;
+import com.meritocra.corootmcp.coroot.StaleResponses;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
 
@@ -55,6 +56,7 @@ public class ListProjectsTool implements McpTool {
 		}
 
 		jsonItem.set("json", projectsArray);
+		ToolResults.markStale(jsonItem, StaleResponses.fetchedAt(projects));
 
 		return result;
 	}
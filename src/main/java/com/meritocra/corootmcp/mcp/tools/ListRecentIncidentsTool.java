@@ -1,7 +1,9 @@
 package com.meritocra.corootmcp.mcp.tools;
 
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,8 +11,10 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
 import com.meritocra.corootmcp.coroot.CorootClient;
+import com.meritocra.corootmcp.coroot.IncidentQuery;
 import com.meritocra.corootmcp.coroot.IncidentSeverity;
 import com.meritocra.corootmcp.coroot.IncidentSummary;
+import com.meritocra.corootmcp.coroot.StaleResponses;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
 
@@ -61,6 +65,22 @@ public class ListRecentIncidentsTool implements McpTool {
 		limit.put("maximum", 50);
 		limit.put("description", "Maximum number of incidents to return. Defaults to 10.");
 
+		ObjectNode service = propertiesNode.putObject("service");
+		service.put("type", "string");
+		service.put("description", "Only return incidents of this service.");
+
+		ObjectNode since = propertiesNode.putObject("since");
+		since.put("type", "string");
+		since.put("format", "date-time");
+		since.put("description",
+				"Only return incidents that started at or after this ISO-8601 instant, for example "
+						+ "2025-01-01T00:00:00Z. Long ranges in busy projects may be incomplete.");
+
+		ObjectNode until = propertiesNode.putObject("until");
+		until.put("type", "string");
+		until.put("format", "date-time");
+		until.put("description", "Only return incidents that started before this ISO-8601 instant.");
+
 		schema.put("additionalProperties", false);
 
 		return new ToolDefinition("list_recent_incidents",
@@ -89,7 +109,11 @@ public class ListRecentIncidentsTool implements McpTool {
 			limit = 50;
 		}
 
-		List<IncidentSummary> incidents = corootClient.listRecentIncidents(projectId, minimumSeverity, limit);
+		String service = arguments.path("service").asText(null);
+		IncidentQuery query = new IncidentQuery(minimumSeverity, StringUtils.hasText(service) ? service : null,
+				instant(arguments, "since"), instant(arguments, "until"), limit);
+
+		List<IncidentSummary> incidents = corootClient.searchIncidents(projectId, query);
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -114,7 +138,21 @@ public class ListRecentIncidentsTool implements McpTool {
 		}
 
 		jsonItem.set("json", incidentsArray);
+		ToolResults.markStale(jsonItem, StaleResponses.fetchedAt(incidents));
 
 		return result;
 	}
+
+	private static Instant instant(ObjectNode arguments, String field) {
+		String value = arguments.path(field).asText(null);
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			return Instant.parse(value);
+		}
+		catch (DateTimeParseException ex) {
+			throw new IllegalArgumentException(field + " must be an ISO-8601 instant such as 2025-01-01T00:00:00Z");
+		}
+	}
 }
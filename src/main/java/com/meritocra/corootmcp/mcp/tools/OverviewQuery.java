@@ -0,0 +1,259 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.coroot.StaleResponses;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Filtering, top-K ranking and field projection shared by the overview tools,
+ * so assistants can ask for "critical apps in cluster X" or "top 10 nodes by
+ * CPU" without receiving every entry.
+ *
+ * <p>
+ * Text filters match case-insensitively against any of the given values, and
+ * {@code name} is a glob ({@code *} and {@code ?}). With {@code sortBy}, the
+ * best {@code limit} entries are kept in a bounded heap while the entries are
+ * scanned, so the full list is never sorted; entries without the sort value
+ * rank last. Ties keep Coroot's order. Projection runs when entries are
+ * rendered and always keeps the name field, so entries stay identifiable.
+ * </p>
+ *
+ * @param <T> overview entry type
+ */
+final class OverviewQuery<T> {
+
+	private final String nameField;
+
+	private final Function<T, String> name;
+
+	private final Map<String, Function<T, String>> filters;
+
+	private final Map<String, ToDoubleFunction<T>> sortKeys;
+
+	private final List<String> fields;
+
+	/**
+	 * @param nameField rendered field matched by the {@code name} glob
+	 * @param name reads that field from an entry
+	 * @param filters text fields that can be filtered on, by argument name
+	 * @param sortKeys numeric values entries can be ranked by; {@code NaN} when an
+	 * entry has none
+	 * @param fields rendered fields that can be projected
+	 */
+	OverviewQuery(String nameField, Function<T, String> name, Map<String, Function<T, String>> filters,
+			Map<String, ToDoubleFunction<T>> sortKeys, List<String> fields) {
+		this.nameField = nameField;
+		this.name = name;
+		this.filters = Map.copyOf(filters);
+		this.sortKeys = new LinkedHashMap<>(sortKeys);
+		this.fields = List.copyOf(fields);
+	}
+
+	/**
+	 * Adds the filter, sort and projection arguments to a tool's input schema.
+	 */
+	void describeArguments(ObjectNode propertiesNode) {
+		for (String filter : filters.keySet().stream().sorted().toList()) {
+			ObjectNode property = propertiesNode.putObject(filter);
+			property.put("type", "array");
+			property.putObject("items").put("type", "string");
+			property.put("description", "Only return entries whose " + filter + " is one of these values.");
+		}
+
+		ObjectNode namePattern = propertiesNode.putObject("name");
+		namePattern.put("type", "string");
+		namePattern.put("description",
+				"Only return entries whose " + nameField + " matches this glob, for instance '*checkout*'.");
+
+		ObjectNode sortBy = propertiesNode.putObject("sortBy");
+		sortBy.put("type", "string");
+		ArrayNode sortValues = sortBy.putArray("enum");
+		sortKeys.keySet().forEach(sortValues::add);
+		sortBy.put("description", "Rank entries by this value, highest first unless order is 'asc'.");
+
+		ObjectNode order = propertiesNode.putObject("order");
+		order.put("type", "string");
+		order.putArray("enum").add("desc").add("asc");
+
+		ObjectNode limit = propertiesNode.putObject("limit");
+		limit.put("type", "integer");
+		limit.put("minimum", 1);
+		limit.put("description", "Return only the first entries, the top ones when sortBy is set.");
+
+		ObjectNode fieldsNode = propertiesNode.putObject("fields");
+		fieldsNode.put("type", "array");
+		ArrayNode fieldValues = fieldsNode.putObject("items").put("type", "string").putArray("enum");
+		fields.forEach(fieldValues::add);
+		fieldsNode.put("description", "Only include these fields in each entry; " + nameField + " is always kept.");
+	}
+
+	/**
+	 * Filters the entries and, when asked to, keeps the top {@code limit} of them.
+	 * The result of a stale response stays marked as stale.
+	 */
+	List<T> apply(List<T> entries, JsonNode arguments) {
+		return StaleResponses.list(select(entries, arguments), StaleResponses.fetchedAt(entries));
+	}
+
+	private List<T> select(List<T> entries, JsonNode arguments) {
+		Predicate<T> predicate = predicate(arguments);
+		String sortBy = arguments.path("sortBy").asText(null);
+		int limit = arguments.path("limit").asInt(0);
+		if (!StringUtils.hasText(sortBy)) {
+			List<T> result = new ArrayList<>();
+			for (T entry : entries) {
+				if (limit > 0 && result.size() == limit) {
+					break;
+				}
+				if (predicate.test(entry)) {
+					result.add(entry);
+				}
+			}
+			return result;
+		}
+		ToDoubleFunction<T> sortKey = sortKeys.get(sortBy);
+		if (sortKey == null) {
+			throw new IllegalArgumentException("sortBy must be one of " + sortKeys.keySet());
+		}
+		String order = arguments.path("order").asText("desc");
+		if (!"desc".equals(order) && !"asc".equals(order)) {
+			throw new IllegalArgumentException("order must be 'desc' or 'asc'");
+		}
+		return top(entries, predicate, sortKey, "asc".equals(order), limit > 0 ? limit : entries.size());
+	}
+
+	/**
+	 * Fields to keep in each rendered entry, or {@code null} to keep all of them.
+	 */
+	Set<String> projection(JsonNode arguments) {
+		JsonNode requested = arguments.path("fields");
+		if (requested.isMissingNode() || requested.isNull()) {
+			return null;
+		}
+		Set<String> projection = new LinkedHashSet<>();
+		projection.add(nameField);
+		for (String field : values(requested)) {
+			if (!fields.contains(field)) {
+				throw new IllegalArgumentException("fields must be among " + fields);
+			}
+			projection.add(field);
+		}
+		return projection;
+	}
+
+	private Predicate<T> predicate(JsonNode arguments) {
+		Predicate<T> predicate = entry -> true;
+		for (Map.Entry<String, Function<T, String>> filter : filters.entrySet()) {
+			JsonNode argument = arguments.path(filter.getKey());
+			if (argument.isMissingNode() || argument.isNull()) {
+				continue;
+			}
+			Set<String> accepted = new LinkedHashSet<>();
+			values(argument).forEach(value -> accepted.add(value.toLowerCase(Locale.ROOT)));
+			Function<T, String> field = filter.getValue();
+			predicate = predicate.and(entry -> {
+				String value = field.apply(entry);
+				return value != null && accepted.contains(value.toLowerCase(Locale.ROOT));
+			});
+		}
+		String glob = arguments.path("name").asText(null);
+		if (StringUtils.hasText(glob)) {
+			Pattern pattern = glob(glob);
+			predicate = predicate.and(entry -> {
+				String value = name.apply(entry);
+				return value != null && pattern.matcher(value).matches();
+			});
+		}
+		return predicate;
+	}
+
+	private static <T> List<T> top(List<T> entries, Predicate<T> predicate, ToDoubleFunction<T> sortKey,
+			boolean ascending, int limit) {
+		// The heap's head is the weakest entry kept so far; entries missing the value
+		// score lowest, and among equal scores the later entry is weaker.
+		Comparator<Ranked<T>> strength = Comparator.<Ranked<T>>comparingDouble(Ranked::score)
+			.thenComparing(Comparator.comparingInt(Ranked<T>::index).reversed());
+		PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(limit, Math.max(1, entries.size())) + 1,
+				strength);
+		int index = 0;
+		for (T entry : entries) {
+			if (!predicate.test(entry)) {
+				index++;
+				continue;
+			}
+			double value = sortKey.applyAsDouble(entry);
+			double score = Double.isNaN(value) ? Double.NEGATIVE_INFINITY : (ascending ? -value : value);
+			Ranked<T> ranked = new Ranked<>(entry, score, index++);
+			if (heap.size() < limit) {
+				heap.add(ranked);
+			}
+			else if (strength.compare(ranked, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(ranked);
+			}
+		}
+		List<Ranked<T>> kept = new ArrayList<>(heap);
+		kept.sort(strength.reversed());
+		List<T> result = new ArrayList<>(kept.size());
+		kept.forEach(ranked -> result.add(ranked.entry()));
+		return result;
+	}
+
+	private static List<String> values(JsonNode argument) {
+		List<String> values = new ArrayList<>();
+		if (argument.isArray()) {
+			argument.forEach(value -> values.add(value.asText()));
+		}
+		else {
+			// Lenient with assistants that pass a single value or a comma-separated list.
+			for (String value : argument.asText().split(",")) {
+				if (StringUtils.hasText(value)) {
+					values.add(value.trim());
+				}
+			}
+		}
+		return values;
+	}
+
+	private static Pattern glob(String glob) {
+		StringBuilder regex = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		for (char c : glob.toCharArray()) {
+			if (c == '*' || c == '?') {
+				if (!literal.isEmpty()) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+				regex.append(c == '*' ? ".*" : ".");
+			}
+			else {
+				literal.append(c);
+			}
+		}
+		if (!literal.isEmpty()) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+		return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+	}
+
+	private record Ranked<T>(T entry, double score, int index) {
+	}
+
+}
@@ -0,0 +1,349 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.McpProperties;
+import com.meritocra.corootmcp.coroot.StaleResponses;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Pages the results of the overview tools behind opaque cursors.
+ *
+ * <p>
+ * A call without {@code cursor} fetches the entries from Coroot. If they fit in
+ * one page they are returned as they are; otherwise they are kept as a snapshot
+ * and the first page carries a cursor to the next. Calls with a cursor are
+ * served from the snapshot alone, so pages never re-fetch from Coroot and keep
+ * the order of the first call even if Coroot's answer changes in between.
+ * A cursor is bound to the tool, project and filter arguments of the call that
+ * issued it; later calls must repeat them.
+ * </p>
+ *
+ * <p>
+ * A result longer than {@code max-snapshot-entries} is cut to that many
+ * entries and every page of it is marked {@code truncated}, so narrower
+ * filters can be used to reach the rest. Every page of a result loaded from a
+ * stale Coroot response is marked {@code stale}.
+ * </p>
+ *
+ * <p>
+ * Snapshots expire {@code mcp.pagination.snapshot-ttl} after their last read.
+ * Expired snapshots are dropped on the next call, and the least recently read
+ * ones make room when {@code max-snapshots} or {@code max-snapshot-entries}
+ * would be exceeded, so abandoned listings cannot pile up. A cursor whose
+ * snapshot is gone is rejected and the listing has to be started over.
+ * </p>
+ */
+@Component
+public class OverviewSnapshots {
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	// Arguments that only shape a page, not which entries are listed.
+	private static final Set<String> PAGE_ARGUMENTS = Set.of("cursor", "pageSize", "fields");
+
+	private final McpProperties.Pagination properties;
+
+	private final Clock clock;
+
+	private final Object lock = new Object();
+
+	// Access-ordered so iteration starts at the least recently read snapshot; guarded by lock.
+	private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+	// Entries across all snapshots; guarded by lock.
+	private int heldEntries;
+
+	private final LongAdder expired = new LongAdder();
+
+	private final LongAdder evicted = new LongAdder();
+
+	@Autowired
+	public OverviewSnapshots(McpProperties properties, MeterRegistry meterRegistry) {
+		this(properties.getPagination(), Clock.systemUTC());
+		Gauge.builder("mcp.snapshots.active", this, OverviewSnapshots::size)
+				.description("Overview snapshots held for cursor pagination")
+				.register(meterRegistry);
+		Gauge.builder("mcp.snapshots.entries", this, OverviewSnapshots::heldEntries)
+				.description("Entries held across overview snapshots")
+				.register(meterRegistry);
+		FunctionCounter.builder("mcp.snapshots.dropped", expired, LongAdder::sum)
+				.description("Overview snapshots dropped before all their pages were read")
+				.tag("reason", "expired")
+				.register(meterRegistry);
+		FunctionCounter.builder("mcp.snapshots.dropped", evicted, LongAdder::sum)
+				.description("Overview snapshots dropped before all their pages were read")
+				.tag("reason", "capacity")
+				.register(meterRegistry);
+	}
+
+	OverviewSnapshots(McpProperties.Pagination properties, Clock clock) {
+		Assert.isTrue(properties.getDefaultPageSize() > 0, "default-page-size must be positive");
+		Assert.isTrue(properties.getMaxPageSize() >= properties.getDefaultPageSize(),
+				"max-page-size must not be below default-page-size");
+		this.properties = properties;
+		this.clock = clock;
+	}
+
+	/**
+	 * Adds the {@code pageSize} and {@code cursor} arguments to a tool's input
+	 * schema.
+	 */
+	void describeArguments(ObjectNode propertiesNode) {
+		ObjectNode pageSize = propertiesNode.putObject("pageSize");
+		pageSize.put("type", "integer");
+		pageSize.put("minimum", 1);
+		pageSize.put("maximum", properties.getMaxPageSize());
+		pageSize.put("description", "Entries per page. Defaults to " + properties.getDefaultPageSize() + ".");
+
+		ObjectNode cursor = propertiesNode.putObject("cursor");
+		cursor.put("type", "string");
+		cursor.put("description",
+				"page.nextCursor of a previous call, to read the next page of the same result. Pass the same "
+						+ "projectId and filters as that call. Which entries are listed, and in what order, was "
+						+ "settled by the call that returned the first page.");
+	}
+
+	/**
+	 * Returns the page requested by a tool call.
+	 * @param tool name of the calling tool; cursors only work with the tool that
+	 * issued them
+	 * @param projectId the project the entries are listed for
+	 * @param arguments the call's arguments, read for {@code pageSize} and
+	 * {@code cursor}; the others must not change between pages
+	 * @param loader fetches the entries for a call without cursor
+	 */
+	<T> Page<T> page(String tool, String projectId, JsonNode arguments, Supplier<List<T>> loader) {
+		ObjectNode listing = listing(projectId, arguments);
+		String cursor = arguments.path("cursor").asText(null);
+		if (StringUtils.hasText(cursor)) {
+			return next(tool, listing, Cursor.decode(cursor), arguments);
+		}
+		int pageSize = pageSize(arguments, properties.getDefaultPageSize());
+		List<T> loaded = loader.get();
+		Instant fetchedAt = StaleResponses.fetchedAt(loaded);
+		List<T> entries = List.copyOf(loaded);
+		if (entries.size() <= pageSize) {
+			return new Page<>(entries, 0, entries.size(), null, false, fetchedAt);
+		}
+		boolean truncated = entries.size() > properties.getMaxSnapshotEntries();
+		if (truncated) {
+			entries = List.copyOf(entries.subList(0, properties.getMaxSnapshotEntries()));
+			if (entries.size() <= pageSize) {
+				return new Page<>(entries, 0, entries.size(), null, true, fetchedAt);
+			}
+		}
+		String id = store(new Snapshot(tool, listing, entries, truncated, fetchedAt));
+		return new Page<>(entries.subList(0, pageSize), 0, entries.size(), new Cursor(id, pageSize, pageSize).encode(),
+				truncated, fetchedAt);
+	}
+
+	/**
+	 * The arguments that decide which entries are listed, with the project
+	 * resolved.
+	 */
+	private static ObjectNode listing(String projectId, JsonNode arguments) {
+		ObjectNode listing = arguments.isObject() ? ((ObjectNode) arguments).deepCopy()
+				: JsonNodeFactory.instance.objectNode();
+		listing.remove(PAGE_ARGUMENTS);
+		listing.put("projectId", projectId);
+		return listing;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Page<T> next(String tool, ObjectNode listing, Cursor cursor, JsonNode arguments) {
+		Instant now = clock.instant();
+		Snapshot snapshot;
+		synchronized (lock) {
+			removeExpired(now);
+			snapshot = snapshots.get(cursor.snapshotId());
+			if (snapshot != null) {
+				snapshot.expiresAt = now.plus(properties.getSnapshotTtl());
+			}
+		}
+		if (snapshot == null || !snapshot.tool.equals(tool)) {
+			throw new IllegalArgumentException(
+					"cursor has expired or belongs to another tool; call " + tool + " again without a cursor");
+		}
+		if (!snapshot.listing.equals(listing)) {
+			throw new IllegalArgumentException("cursor belongs to a call with another projectId or other filters; "
+					+ "repeat that call's arguments or call " + tool + " again without a cursor");
+		}
+		List<T> entries = (List<T>) snapshot.entries;
+		int pageSize = pageSize(arguments, cursor.pageSize());
+		int offset = Math.min(cursor.offset(), entries.size());
+		int end = Math.min(entries.size(), offset + pageSize);
+		String nextCursor = end < entries.size() ? new Cursor(cursor.snapshotId(), end, pageSize).encode() : null;
+		return new Page<>(entries.subList(offset, end), offset, entries.size(), nextCursor, snapshot.truncated,
+				snapshot.fetchedAt);
+	}
+
+	private int pageSize(JsonNode arguments, int defaultValue) {
+		int pageSize = arguments.path("pageSize").asInt(defaultValue);
+		if (pageSize <= 0) {
+			pageSize = defaultValue;
+		}
+		return Math.min(pageSize, properties.getMaxPageSize());
+	}
+
+	/**
+	 * Keeps a new snapshot, making room for it, and returns its id.
+	 */
+	private String store(Snapshot snapshot) {
+		String id = newId();
+		int size = snapshot.entries.size();
+		Instant now = clock.instant();
+		synchronized (lock) {
+			removeExpired(now);
+			Iterator<Snapshot> leastRecentlyRead = snapshots.values().iterator();
+			while (leastRecentlyRead.hasNext() && (snapshots.size() >= properties.getMaxSnapshots()
+					|| heldEntries + size > properties.getMaxSnapshotEntries())) {
+				heldEntries -= leastRecentlyRead.next().entries.size();
+				leastRecentlyRead.remove();
+				evicted.increment();
+			}
+			snapshot.expiresAt = now.plus(properties.getSnapshotTtl());
+			snapshots.put(id, snapshot);
+			heldEntries += size;
+		}
+		return id;
+	}
+
+	// Caller holds lock.
+	private void removeExpired(Instant now) {
+		Iterator<Snapshot> iterator = snapshots.values().iterator();
+		while (iterator.hasNext()) {
+			Snapshot snapshot = iterator.next();
+			if (!now.isBefore(snapshot.expiresAt)) {
+				heldEntries -= snapshot.entries.size();
+				iterator.remove();
+				expired.increment();
+			}
+		}
+	}
+
+	int size() {
+		synchronized (lock) {
+			return snapshots.size();
+		}
+	}
+
+	int heldEntries() {
+		synchronized (lock) {
+			return heldEntries;
+		}
+	}
+
+	private static String newId() {
+		byte[] bytes = new byte[12];
+		RANDOM.nextBytes(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	/**
+	 * One page of a result.
+	 * @param entries the entries of this page
+	 * @param offset position of the first entry in the whole result
+	 * @param total size of the whole result
+	 * @param nextCursor cursor of the next page, or {@code null} on the last one
+	 * @param truncated whether the result was cut to {@code max-snapshot-entries};
+	 * {@code total} then counts the entries kept
+	 * @param fetchedAt when the entries were fetched if they came from a stale
+	 * Coroot response, otherwise {@code null}
+	 */
+	record Page<T>(List<T> entries, int offset, int total, String nextCursor, boolean truncated, Instant fetchedAt) {
+
+		/**
+		 * Describes the page under {@code page} of a tool's JSON content item, and
+		 * flags the item if its entries are stale.
+		 */
+		void writeTo(ObjectNode jsonItem) {
+			ObjectNode page = jsonItem.putObject("page");
+			page.put("offset", offset);
+			page.put("size", entries.size());
+			page.put("total", total);
+			if (nextCursor != null) {
+				page.put("nextCursor", nextCursor);
+			}
+			if (truncated) {
+				page.put("truncated", true);
+			}
+			ToolResults.markStale(jsonItem, fetchedAt);
+		}
+
+	}
+
+	private record Cursor(String snapshotId, int offset, int pageSize) {
+
+		String encode() {
+			String raw = snapshotId + ':' + offset + ':' + pageSize;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+		}
+
+		static Cursor decode(String cursor) {
+			try {
+				String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+				String[] parts = raw.split(":");
+				if (parts.length == 3) {
+					int offset = Integer.parseInt(parts[1]);
+					int pageSize = Integer.parseInt(parts[2]);
+					if (offset >= 0 && pageSize > 0) {
+						return new Cursor(parts[0], offset, pageSize);
+					}
+				}
+			}
+			catch (IllegalArgumentException ex) {
+				// Falls through to the error below; NumberFormatException is one too.
+			}
+			throw new IllegalArgumentException("cursor is not valid");
+		}
+
+	}
+
+	private static final class Snapshot {
+
+		private final String tool;
+
+		private final ObjectNode listing;
+
+		private final List<?> entries;
+
+		private final boolean truncated;
+
+		private final Instant fetchedAt;
+
+		// Guarded by the owning OverviewSnapshots' lock.
+		private Instant expiresAt;
+
+		private Snapshot(String tool, ObjectNode listing, List<?> entries, boolean truncated, Instant fetchedAt) {
+			this.tool = tool;
+			this.listing = listing;
+			this.entries = entries;
+			this.truncated = truncated;
+			this.fetchedAt = fetchedAt;
+		}
+
+	}
+
+}
@@ -10,10 +10,11 @@ import com.meritocra.corootmcp.config.CorootProperties;
 import com.meritocra.corootmcp.coroot.CorootClient;
 import com.meritocra.corootmcp.coroot.IncidentContext;
 import com.meritocra.corootmcp.coroot.IncidentSummary;
+import com.meritocra.corootmcp.llm.LlmGateway;
 import com.meritocra.corootmcp.mcp.McpTool;
 import com.meritocra.corootmcp.mcp.ToolDefinition;
+import com.meritocra.corootmcp.mcp.ToolProgress;
 
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
@@ -55,15 +56,15 @@ public class SummarizeIncidentRootCauseTool implements McpTool {
 
 	private final CorootProperties properties;
 
-	private final ChatClient chatClient;
+	private final LlmGateway llmGateway;
 
 	private final ObjectMapper objectMapper;
 
 	public SummarizeIncidentRootCauseTool(CorootClient corootClient, CorootProperties properties,
-			ChatClient chatClient, ObjectMapper objectMapper) {
+			LlmGateway llmGateway, ObjectMapper objectMapper) {
 		this.corootClient = corootClient;
 		this.properties = properties;
-		this.chatClient = chatClient;
+		this.llmGateway = llmGateway;
 		this.objectMapper = objectMapper;
 	}
 
@@ -107,6 +108,11 @@ public class SummarizeIncidentRootCauseTool implements McpTool {
 
 	@Override
 	public ObjectNode call(ObjectNode arguments) {
+		return call(arguments, ToolProgress.NONE);
+	}
+
+	@Override
+	public ObjectNode call(ObjectNode arguments, ToolProgress progress) {
 		String projectId = arguments.path("projectId").asText();
 		if (!StringUtils.hasText(projectId)) {
 			projectId = properties.getDefaultProjectId();
@@ -124,14 +130,21 @@ public class SummarizeIncidentRootCauseTool implements McpTool {
 		boolean includeMetricsTable = arguments.path("includeMetricsTable").asBoolean(true);
 
 		IncidentContext context = corootClient.getIncidentContext(projectId, incidentId);
-		IncidentSummary summary = context.getSummary();
+
+		progress.report(1, 2, "Loaded incident context");
 
 		String prompt = buildPrompt(context, maxWords);
+		progress.report(2, 2, "Generating root cause summary");
+
+		ObjectNode incidentJson = toIncidentJson(context);
+		// The template is part of the key so that editing it invalidates cached summaries.
+		ObjectNode cacheInputs = objectMapper.createObjectNode();
+		cacheInputs.put("template", PROMPT_TEMPLATE);
+		cacheInputs.put("maxWords", maxWords);
+		cacheInputs.set("incident", incidentJson);
 
-		String naturalLanguageSummary = chatClient.prompt()
-				.user(prompt)
-				.call()
-				.content();
+		String naturalLanguageSummary = llmGateway.complete("summarize_incident_root_cause", prompt, cacheInputs,
+				progress == ToolProgress.NONE ? null : progress::partial);
 
 		ObjectNode result = objectMapper.createObjectNode();
 		ArrayNode content = result.putArray("content");
@@ -144,33 +157,39 @@ public class SummarizeIncidentRootCauseTool implements McpTool {
 			ObjectNode jsonItem = content.addObject();
 			jsonItem.put("type", "json");
 
-			ObjectNode incidentJson = objectMapper.createObjectNode();
-			incidentJson.put("incidentId", summary.getId());
-			incidentJson.put("title", summary.getTitle());
-			incidentJson.put("severity", summary.getSeverity().name());
-			incidentJson.put("service", summary.getService());
-			if (summary.getStartedAt() != null) {
-				incidentJson.put("startedAt", ISO_FORMATTER.format(summary.getStartedAt().atOffset(ZoneOffset.UTC)));
-			}
-			if (summary.getEndedAt() != null) {
-				incidentJson.put("endedAt", ISO_FORMATTER.format(summary.getEndedAt().atOffset(ZoneOffset.UTC)));
-			}
-			incidentJson.put("suspectedRootCause", context.getSuspectedRootCause());
-			incidentJson.set("affectedServices", objectMapper.valueToTree(context.getAffectedServices()));
-			incidentJson.set("metricsSnapshot", objectMapper.valueToTree(context.getMetricsSnapshot()));
-			incidentJson.set("timeline", objectMapper.valueToTree(context.getTimeline()));
-
-			if (context.getLastUpdatedAt() != null) {
-				incidentJson.put("lastUpdatedAt",
-						ISO_FORMATTER.format(context.getLastUpdatedAt().atOffset(ZoneOffset.UTC)));
-			}
-
 			jsonItem.set("json", incidentJson);
 		}
 
 		return result;
 	}
 
+	private ObjectNode toIncidentJson(IncidentContext context) {
+		IncidentSummary summary = context.getSummary();
+
+		ObjectNode incidentJson = objectMapper.createObjectNode();
+		incidentJson.put("incidentId", summary.getId());
+		incidentJson.put("title", summary.getTitle());
+		incidentJson.put("severity", summary.getSeverity().name());
+		incidentJson.put("service", summary.getService());
+		if (summary.getStartedAt() != null) {
+			incidentJson.put("startedAt", ISO_FORMATTER.format(summary.getStartedAt().atOffset(ZoneOffset.UTC)));
+		}
+		if (summary.getEndedAt() != null) {
+			incidentJson.put("endedAt", ISO_FORMATTER.format(summary.getEndedAt().atOffset(ZoneOffset.UTC)));
+		}
+		incidentJson.put("suspectedRootCause", context.getSuspectedRootCause());
+		incidentJson.set("affectedServices", objectMapper.valueToTree(context.getAffectedServices()));
+		incidentJson.set("metricsSnapshot", objectMapper.valueToTree(context.getMetricsSnapshot()));
+		incidentJson.set("timeline", objectMapper.valueToTree(context.getTimeline()));
+
+		if (context.getLastUpdatedAt() != null) {
+			incidentJson.put("lastUpdatedAt",
+					ISO_FORMATTER.format(context.getLastUpdatedAt().atOffset(ZoneOffset.UTC)));
+		}
+
+		return incidentJson;
+	}
+
 	private String buildPrompt(IncidentContext context, int maxWords) {
 		IncidentSummary summary = context.getSummary();
 		String affectedServices = context.getAffectedServices().stream()
@@ -0,0 +1,25 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Helpers for reading the arguments passed to the tools.
+ */
+final class ToolArguments {
+
+	private ToolArguments() {
+	}
+
+	/**
+	 * Reads a positive integer argument, falling back to {@code defaultValue}
+	 * when it is missing or not positive, and capping it at {@code max}.
+	 */
+	static int positiveInt(JsonNode arguments, String name, int defaultValue, int max) {
+		int value = arguments.path(name).asInt(defaultValue);
+		if (value <= 0) {
+			return defaultValue;
+		}
+		return Math.min(value, max);
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.coroot.StaleResponses;
+
+/**
+ * Helpers for the content items returned by the tools.
+ */
+final class ToolResults {
+
+	private ToolResults() {
+	}
+
+	/**
+	 * Flags a JSON content item built from a stale Coroot response with
+	 * {@code stale} and {@code fetchedAt}, so clients do not take it for live
+	 * data.
+	 * @param fetchedAt {@link StaleResponses#fetchedAt(Object)} of the response;
+	 * {@code null} leaves the item alone
+	 */
+	static void markStale(ObjectNode jsonItem, Instant fetchedAt) {
+		if (fetchedAt != null) {
+			jsonItem.put("stale", true);
+			jsonItem.put("fetchedAt", fetchedAt.toString());
+		}
+	}
+
+}
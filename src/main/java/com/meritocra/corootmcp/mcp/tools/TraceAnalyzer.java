@@ -0,0 +1,491 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Rebuilds trace trees from a flat list of spans and ranks where time and
+ * errors go.
+ *
+ * <p>
+ * Spans are stored column-wise in primitive arrays and looked up through an
+ * open-addressing {@code long -> int} table keyed on trace and span id, so
+ * thousands of spans cost a few arrays rather than a map per span. Hex ids are
+ * used as their numeric value; other ids are hashed. Children are kept as
+ * linked lists in two {@code int} arrays.
+ * </p>
+ *
+ * <p>
+ * For each trace the critical path is walked back from the end of every root:
+ * a span is on the path until the latest-ending child that finished before
+ * the current point, which is then followed recursively. Self time is a span's
+ * duration minus the union of its children's intervals. Both are summed per
+ * service and operation, which gives the latency hot spots; error hot spots
+ * are the operations with the most failed spans.
+ * </p>
+ */
+final class TraceAnalyzer {
+
+	// Guards against parent cycles in malformed traces.
+	private static final int MAX_DEPTH = 256;
+
+	private static final int MAX_PATH_STEPS = 10;
+
+	private int size;
+
+	private int[] traceOf = new int[64];
+
+	private long[] spanKeys = new long[64];
+
+	private long[] parentKeys = new long[64];
+
+	private double[] starts = new double[64];
+
+	private double[] durations = new double[64];
+
+	private int[] operations = new int[64];
+
+	private boolean[] errors = new boolean[64];
+
+	private final List<String> operationNames = new ArrayList<>();
+
+	private final List<String> operationServices = new ArrayList<>();
+
+	private final Map<String, Integer> operationIds = new HashMap<>();
+
+	private final LongIntIndex traceIndex = new LongIntIndex(16);
+
+	private final List<String> traceIds = new ArrayList<>();
+
+	/**
+	 * Adds one span of Coroot's tracing view, as decoded into a map. Both Coroot's
+	 * field names ({@code trace_id}, {@code id}, {@code parent_id},
+	 * {@code timestamp}, {@code duration}) and camel-cased ones are accepted.
+	 */
+	void add(Map<?, ?> span) {
+		String traceId = text(first(span, "trace_id", "traceId"));
+		String spanId = text(first(span, "id", "spanId"));
+		if (traceId.isEmpty() || spanId.isEmpty()) {
+			return;
+		}
+		String parentId = text(first(span, "parent_id", "parentSpanId"));
+		add(traceId, spanId, parentId, text(span.get("service")), text(span.get("name")),
+				number(first(span, "timestamp", "timestampMs")), number(first(span, "duration", "durationMs")),
+				isError(span.get("status")));
+	}
+
+	void add(String traceId, String spanId, String parentId, String service, String name, double startMs,
+			double durationMs, boolean error) {
+		if (size == spanKeys.length) {
+			grow();
+		}
+		long traceKey = key(traceId);
+		int trace = traceIndex.get(traceKey);
+		if (trace < 0) {
+			trace = traceIds.size();
+			traceIndex.put(traceKey, trace);
+			traceIds.add(traceId);
+		}
+		traceOf[size] = trace;
+		spanKeys[size] = key(spanId);
+		parentKeys[size] = parentId.isEmpty() ? 0 : key(parentId);
+		starts[size] = startMs;
+		durations[size] = Math.max(0, durationMs);
+		String operation = service + '\u0000' + name;
+		Integer id = operationIds.get(operation);
+		if (id == null) {
+			id = operationNames.size();
+			operationIds.put(operation, id);
+			operationNames.add(name);
+			operationServices.add(service);
+		}
+		operations[size] = id;
+		errors[size] = error;
+		size++;
+	}
+
+	Result analyze() {
+		LongIntIndex spanIndex = new LongIntIndex(size);
+		for (int i = 0; i < size; i++) {
+			spanIndex.put(mix(traceOf[i], spanKeys[i]), i);
+		}
+
+		int traceCount = traceIds.size();
+		int[] firstChild = new int[size];
+		int[] nextSibling = new int[size];
+		int[] firstRoot = new int[traceCount];
+		Arrays.fill(firstChild, -1);
+		Arrays.fill(nextSibling, -1);
+		Arrays.fill(firstRoot, -1);
+		int orphans = 0;
+		for (int i = 0; i < size; i++) {
+			int parent = parentKeys[i] == 0 ? -1 : spanIndex.get(mix(traceOf[i], parentKeys[i]));
+			if (parent < 0 || parent == i) {
+				if (parentKeys[i] != 0) {
+					orphans++;
+				}
+				// Roots are chained through nextSibling too; they have no parent list.
+				nextSibling[i] = firstRoot[traceOf[i]];
+				firstRoot[traceOf[i]] = i;
+				continue;
+			}
+			nextSibling[i] = firstChild[parent];
+			firstChild[parent] = i;
+		}
+
+		int operationCount = operationNames.size();
+		long[] opCount = new long[operationCount];
+		long[] opErrors = new long[operationCount];
+		double[] opTotal = new double[operationCount];
+		double[] opMax = new double[operationCount];
+		double[] opSelf = new double[operationCount];
+		double[] opCritical = new double[operationCount];
+		int[] traceSpans = new int[traceCount];
+		int[] traceErrors = new int[traceCount];
+		double[] traceStart = new double[traceCount];
+		double[] traceEnd = new double[traceCount];
+		Arrays.fill(traceStart, Double.MAX_VALUE);
+		Arrays.fill(traceEnd, -Double.MAX_VALUE);
+		int errorSpans = 0;
+		for (int i = 0; i < size; i++) {
+			int op = operations[i];
+			int trace = traceOf[i];
+			opCount[op]++;
+			opTotal[op] += durations[i];
+			opMax[op] = Math.max(opMax[op], durations[i]);
+			opSelf[op] += selfTime(i, firstChild, nextSibling);
+			traceSpans[trace]++;
+			traceStart[trace] = Math.min(traceStart[trace], starts[i]);
+			traceEnd[trace] = Math.max(traceEnd[trace], starts[i] + durations[i]);
+			if (errors[i]) {
+				opErrors[op]++;
+				traceErrors[trace]++;
+				errorSpans++;
+			}
+		}
+
+		List<Trace> traces = new ArrayList<>(traceCount);
+		double[] onPath = new double[operationCount];
+		for (int trace = 0; trace < traceCount; trace++) {
+			for (int r = firstRoot[trace]; r >= 0; r = nextSibling[r]) {
+				criticalPath(r, starts[r] + durations[r], firstChild, nextSibling, onPath, 0);
+			}
+			List<PathStep> path = new ArrayList<>();
+			for (int op = 0; op < operationCount; op++) {
+				if (onPath[op] > 0) {
+					path.add(new PathStep(operationServices.get(op), operationNames.get(op), onPath[op]));
+					opCritical[op] += onPath[op];
+					onPath[op] = 0;
+				}
+			}
+			path.sort(Comparator.comparingDouble(PathStep::ms).reversed());
+			traces.add(new Trace(traceIds.get(trace), traceSpans[trace], traceErrors[trace],
+					traceEnd[trace] - traceStart[trace], path.subList(0, Math.min(path.size(), MAX_PATH_STEPS))));
+		}
+		traces.sort(Comparator.comparingDouble(Trace::durationMs).reversed());
+
+		List<Operation> ops = new ArrayList<>(operationCount);
+		for (int op = 0; op < operationCount; op++) {
+			ops.add(new Operation(operationServices.get(op), operationNames.get(op), opCount[op], opErrors[op],
+					opTotal[op] / opCount[op], opMax[op], opSelf[op], opCritical[op]));
+		}
+
+		return new Result(size, traceCount, errorSpans, orphans, traces, ops);
+	}
+
+	/**
+	 * Adds the time span {@code i} spends on the critical path up to {@code end},
+	 * per operation, to {@code onPath}.
+	 */
+	private void criticalPath(int i, double end, int[] firstChild, int[] nextSibling, double[] onPath, int depth) {
+		double start = starts[i];
+		double cursor = Math.min(end, start + durations[i]);
+		if (depth < MAX_DEPTH && firstChild[i] >= 0) {
+			int[] children = children(i, firstChild, nextSibling);
+			Integer[] byEnd = new Integer[children.length];
+			for (int c = 0; c < children.length; c++) {
+				byEnd[c] = children[c];
+			}
+			Arrays.sort(byEnd, Comparator.comparingDouble((Integer child) -> starts[child] + durations[child])
+					.reversed());
+			for (int child : byEnd) {
+				if (cursor <= start) {
+					break;
+				}
+				double childStart = starts[child];
+				double childEnd = Math.min(childStart + durations[child], cursor);
+				if (childStart >= cursor) {
+					continue;
+				}
+				onPath[operations[i]] += cursor - childEnd;
+				criticalPath(child, childEnd, firstChild, nextSibling, onPath, depth + 1);
+				cursor = Math.max(childStart, start);
+			}
+		}
+		onPath[operations[i]] += Math.max(0, cursor - start);
+	}
+
+	private double selfTime(int i, int[] firstChild, int[] nextSibling) {
+		if (firstChild[i] < 0) {
+			return durations[i];
+		}
+		double start = starts[i];
+		double end = start + durations[i];
+		int[] children = children(i, firstChild, nextSibling);
+		double[][] intervals = new double[children.length][];
+		for (int c = 0; c < children.length; c++) {
+			int child = children[c];
+			intervals[c] = new double[] { Math.max(start, starts[child]),
+					Math.min(end, starts[child] + durations[child]) };
+		}
+		Arrays.sort(intervals, Comparator.comparingDouble(interval -> interval[0]));
+		double covered = 0;
+		double coveredUntil = start;
+		for (double[] interval : intervals) {
+			double from = Math.max(interval[0], coveredUntil);
+			if (interval[1] > from) {
+				covered += interval[1] - from;
+				coveredUntil = interval[1];
+			}
+		}
+		return Math.max(0, durations[i] - covered);
+	}
+
+	private static int[] children(int i, int[] firstChild, int[] nextSibling) {
+		int count = 0;
+		for (int child = firstChild[i]; child >= 0; child = nextSibling[child]) {
+			count++;
+		}
+		int[] children = new int[count];
+		int c = 0;
+		for (int child = firstChild[i]; child >= 0; child = nextSibling[child]) {
+			children[c++] = child;
+		}
+		return children;
+	}
+
+	private void grow() {
+		int capacity = spanKeys.length * 2;
+		traceOf = Arrays.copyOf(traceOf, capacity);
+		spanKeys = Arrays.copyOf(spanKeys, capacity);
+		parentKeys = Arrays.copyOf(parentKeys, capacity);
+		starts = Arrays.copyOf(starts, capacity);
+		durations = Arrays.copyOf(durations, capacity);
+		operations = Arrays.copyOf(operations, capacity);
+		errors = Arrays.copyOf(errors, capacity);
+	}
+
+	/**
+	 * Numeric key of an id: its value when it is at most 16 hex digits, the two
+	 * halves mixed when it is 32, otherwise a 64-bit FNV-1a hash. Never zero.
+	 */
+	static long key(String id) {
+		long key;
+		if (id.length() <= 16 && isHex(id)) {
+			key = Long.parseUnsignedLong(id, 16);
+		}
+		else if (id.length() == 32 && isHex(id)) {
+			key = mix(Long.parseUnsignedLong(id.substring(0, 16), 16), Long.parseUnsignedLong(id.substring(16), 16));
+		}
+		else {
+			key = 0xcbf29ce484222325L;
+			for (int i = 0; i < id.length(); i++) {
+				key ^= id.charAt(i);
+				key *= 0x100000001b3L;
+			}
+		}
+		return key != 0 ? key : 1;
+	}
+
+	private static long mix(long a, long b) {
+		long mixed = a * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(b, 31);
+		return mixed != 0 ? mixed : 1;
+	}
+
+	private static boolean isHex(String id) {
+		if (id.isEmpty()) {
+			return false;
+		}
+		for (int i = 0; i < id.length(); i++) {
+			if (Character.digit(id.charAt(i), 16) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isError(Object status) {
+		if (status instanceof Map<?, ?> map) {
+			return Boolean.TRUE.equals(map.get("error")) || "true".equals(String.valueOf(map.get("error")));
+		}
+		return status != null && status.toString().toUpperCase(Locale.ROOT).contains("ERROR");
+	}
+
+	private static Object first(Map<?, ?> span, String name, String alternative) {
+		Object value = span.get(name);
+		return value != null ? value : span.get(alternative);
+	}
+
+	private static String text(Object value) {
+		return value != null ? value.toString() : "";
+	}
+
+	private static double number(Object value) {
+		if (value instanceof Number number) {
+			return number.doubleValue();
+		}
+		try {
+			return value != null ? Double.parseDouble(value.toString()) : 0.0;
+		}
+		catch (NumberFormatException ex) {
+			return 0.0;
+		}
+	}
+
+	/**
+	 * Open-addressing {@code long -> int} table with linear probing, kept at most
+	 * half full; zero keys mark empty slots, so keys must be non-zero.
+	 */
+	private static final class LongIntIndex {
+
+		private long[] keys;
+
+		private int[] values;
+
+		private int mask;
+
+		private int size;
+
+		LongIntIndex(int expected) {
+			allocate(Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1);
+		}
+
+		void put(long key, int value) {
+			if ((size + 1) * 2 > keys.length) {
+				long[] oldKeys = keys;
+				int[] oldValues = values;
+				allocate(keys.length * 2);
+				for (int slot = 0; slot < oldKeys.length; slot++) {
+					if (oldKeys[slot] != 0) {
+						insert(oldKeys[slot], oldValues[slot]);
+					}
+				}
+			}
+			insert(key, value);
+		}
+
+		int get(long key) {
+			int slot = slot(key);
+			while (keys[slot] != 0) {
+				if (keys[slot] == key) {
+					return values[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		private void insert(long key, int value) {
+			int slot = slot(key);
+			while (keys[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == 0) {
+				size++;
+			}
+			keys[slot] = key;
+			values[slot] = value;
+		}
+
+		private void allocate(int capacity) {
+			keys = new long[capacity];
+			values = new int[capacity];
+			mask = capacity - 1;
+			size = 0;
+		}
+
+		private int slot(long key) {
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+
+	}
+
+	record PathStep(String service, String name, double ms) {
+	}
+
+	/**
+	 * @param durationMs from the earliest span start to the latest span end
+	 * @param criticalPath operations on the critical path, longest first
+	 */
+	record Trace(String traceId, int spans, int errors, double durationMs, List<PathStep> criticalPath) {
+	}
+
+	record Operation(String service, String name, long spans, long errors, double avgMs, double maxMs,
+			double selfMs, double criticalPathMs) {
+	}
+
+	record Result(int spans, int traces, int errorSpans, int orphanSpans, List<Trace> slowestTraces,
+			List<Operation> operations) {
+
+		/**
+		 * @param maxTraces slowest traces to include
+		 * @param maxOperations operations to include in each hot spot list
+		 */
+		ObjectNode toJson(ObjectMapper objectMapper, int maxTraces, int maxOperations) {
+			ObjectNode json = objectMapper.createObjectNode();
+			json.put("spans", spans);
+			json.put("traces", traces);
+			json.put("errorSpans", errorSpans);
+			json.put("orphanSpans", orphanSpans);
+
+			ArrayNode slowest = json.putArray("slowestTraces");
+			for (Trace trace : slowestTraces.subList(0, Math.min(maxTraces, slowestTraces.size()))) {
+				ObjectNode t = slowest.addObject();
+				t.put("traceId", trace.traceId());
+				t.put("durationMs", round(trace.durationMs()));
+				t.put("spans", trace.spans());
+				t.put("errors", trace.errors());
+				ArrayNode path = t.putArray("criticalPath");
+				for (PathStep step : trace.criticalPath()) {
+					path.addObject().put("service", step.service()).put("name", step.name())
+							.put("ms", round(step.ms()));
+				}
+			}
+
+			List<Operation> byCriticalPath = new ArrayList<>(operations);
+			byCriticalPath.sort(Comparator.comparingDouble(Operation::criticalPathMs)
+					.thenComparingDouble(Operation::selfMs).reversed());
+			ArrayNode latency = json.putArray("latencyHotSpots");
+			for (Operation op : byCriticalPath.subList(0, Math.min(maxOperations, byCriticalPath.size()))) {
+				latency.addObject().put("service", op.service()).put("name", op.name()).put("spans", op.spans())
+						.put("criticalPathMs", round(op.criticalPathMs())).put("selfMs", round(op.selfMs()))
+						.put("avgMs", round(op.avgMs())).put("maxMs", round(op.maxMs()));
+			}
+
+			ArrayNode errorsNode = json.putArray("errorHotSpots");
+			operations.stream().filter(op -> op.errors() > 0)
+					.sorted(Comparator.comparingLong(Operation::errors).reversed())
+					.limit(maxOperations)
+					.forEach(op -> errorsNode.addObject().put("service", op.service()).put("name", op.name())
+							.put("errors", op.errors()).put("spans", op.spans())
+							.put("errorRate", round((double) op.errors() / op.spans())));
+			return json;
+		}
+
+		private static double round(double value) {
+			return Math.round(value * 1000) / 1000.0;
+		}
+
+	}
+
+}
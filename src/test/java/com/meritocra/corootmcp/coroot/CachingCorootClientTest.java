@@ -0,0 +1,239 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import org.junit.jupiter.api.Test;
+
+class CachingCorootClientTest {
+
+	private final MutableClock clock = new MutableClock();
+
+	private final AtomicInteger applicationLoads = new AtomicInteger();
+
+	private final AtomicInteger costLoads = new AtomicInteger();
+
+	private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+	private final CorootProperties.ResponseCache properties = new CorootProperties.ResponseCache();
+
+	private volatile CountDownLatch applicationsGate;
+
+	private volatile RuntimeException costsFailure;
+
+	private final CorootClient delegate = new StubCorootClient() {
+
+		@Override
+		public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+			applicationLoads.incrementAndGet();
+			CountDownLatch gate = applicationsGate;
+			if (gate != null) {
+				try {
+					gate.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.listApplicationsOverview(projectId);
+		}
+
+		@Override
+		public Map<String, Object> getCostsOverview(String projectId) {
+			costLoads.incrementAndGet();
+			if (costsFailure != null) {
+				throw costsFailure;
+			}
+			return Map.of("projectId", projectId, "loads", costLoads.get());
+		}
+
+	};
+
+	private CachingCorootClient client() {
+		return new CachingCorootClient(delegate, properties, pendingRefreshes::add, clock);
+	}
+
+	@Test
+	void givenFreshEntry_whenCallingRepeatedly_thenLoadsOnce() {
+		// given
+		CachingCorootClient client = client();
+
+		// when
+		client.listApplicationsOverview("p1");
+		client.listApplicationsOverview("p1");
+		client.listApplicationsOverview("p1");
+
+		// then
+		assertThat(applicationLoads).hasValue(1);
+		assertThat(client.hitRatio("applications")).isCloseTo(2.0 / 3, offset(0.001));
+	}
+
+	@Test
+	void givenExpiredEntryWithinStaleWindow_whenCalling_thenServesStaleAndRefreshesInBackground() {
+		// given
+		properties.getTtl().put("costs", Duration.ofSeconds(30));
+		CachingCorootClient client = client();
+		client.getCostsOverview("p1");
+		clock.advance(Duration.ofSeconds(45));
+
+		// when
+		Map<String, Object> stale = client.getCostsOverview("p1");
+
+		// then
+		assertThat(stale).containsEntry("loads", 1);
+		assertThat(pendingRefreshes).hasSize(1);
+
+		pendingRefreshes.get(0).run();
+		assertThat(client.getCostsOverview("p1")).containsEntry("loads", 2);
+		assertThat(costLoads).hasValue(2);
+	}
+
+	@Test
+	void givenEntryPastStaleWindow_whenCalling_thenReloadsSynchronously() {
+		// given
+		CachingCorootClient client = client();
+		client.getCostsOverview("p1");
+		clock.advance(Duration.ofMinutes(10));
+
+		// when
+		Map<String, Object> reloaded = client.getCostsOverview("p1");
+
+		// then
+		assertThat(reloaded).containsEntry("loads", 2);
+		assertThat(pendingRefreshes).isEmpty();
+	}
+
+	@Test
+	void givenFailingLoad_whenCalling_thenErrorIsPropagatedAndNotCached() {
+		// given
+		CachingCorootClient client = client();
+		costsFailure = new IllegalStateException("coroot down");
+
+		// when / then
+		assertThatThrownBy(() -> client.getCostsOverview("p1")).isInstanceOf(IllegalStateException.class)
+				.hasMessage("coroot down");
+		costsFailure = null;
+		assertThat(client.getCostsOverview("p1")).containsEntry("loads", 2);
+	}
+
+	@Test
+	void givenConcurrentMisses_whenCalling_thenCoalescesIntoOneLoad() throws Exception {
+		// given
+		CachingCorootClient client = client();
+		applicationsGate = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			// when
+			List<Future<List<ApplicationOverviewEntry>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				futures.add(executor.submit(() -> client.listApplicationsOverview("p1")));
+			}
+			Thread.sleep(100);
+			applicationsGate.countDown();
+			for (Future<List<ApplicationOverviewEntry>> future : futures) {
+				assertThat(future.get(5, TimeUnit.SECONDS)).isNotEmpty();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		// then
+		assertThat(applicationLoads).hasValue(1);
+		assertThat(client.loads("applications")).isEqualTo(1);
+	}
+
+	@Test
+	void givenEntryLimit_whenCachingMoreProjects_thenEvictsLeastRecentlyUsed() {
+		// given
+		properties.setMaxEntries(2);
+		CachingCorootClient client = client();
+		client.getCostsOverview("p1");
+		client.getCostsOverview("p2");
+		client.getCostsOverview("p1");
+
+		// when
+		client.getCostsOverview("p3");
+		client.getCostsOverview("p1");
+		client.getCostsOverview("p2");
+
+		// then
+		assertThat(client.size()).isEqualTo(2);
+		assertThat(costLoads).hasValue(4);
+	}
+
+	@Test
+	void givenNestedMapResponses_whenCaching_thenRowLimitCountsNestedElements() {
+		// given
+		properties.setMaxRows(500);
+		List<Map<String, Object>> services = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			services.add(Map.of("name", "service-" + i, "cost", i));
+		}
+		CachingCorootClient client = new CachingCorootClient(new StubCorootClient() {
+
+			@Override
+			public Map<String, Object> getCostsOverview(String projectId) {
+				costLoads.incrementAndGet();
+				return Map.of("projectId", projectId, "services", services);
+			}
+
+		}, properties, pendingRefreshes::add, clock);
+
+		// when
+		client.getCostsOverview("p1");
+		long oneProject = client.rows();
+		client.getCostsOverview("p2");
+
+		// then
+		assertThat(oneProject).isEqualTo(2 + 100 + 200);
+		assertThat(client.size()).isEqualTo(1);
+		assertThat(client.rows()).isEqualTo(oneProject);
+		client.getCostsOverview("p1");
+		assertThat(costLoads).hasValue(3);
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.parse("2025-11-17T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+class CorootHttpTransportTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void givenRouteAtCapacity_whenAnotherRequestArrives_thenItIsRejectedUntilResponseIsClosed() throws Exception {
+		// given
+		CorootHttpTransport.RouteLimiter limiter = new CorootHttpTransport.RouteLimiter(1, 50, meterRegistry);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("https://coroot.example.com/api/user"));
+
+		ClientHttpResponse first = limiter.intercept(request, new byte[0],
+				(req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+
+		// when / then
+		assertThat(limiter.inFlight("https://coroot.example.com:443")).isEqualTo(1);
+		assertThatThrownBy(() -> limiter.intercept(request, new byte[0],
+				(req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK)))
+				.isInstanceOf(ResourceAccessException.class)
+				.hasMessageContaining("Timed out");
+		assertThat(meterRegistry.get("coroot.http.pool.rejections").counter().count()).isEqualTo(1.0);
+
+		first.close();
+		assertThat(limiter.inFlight("https://coroot.example.com:443")).isZero();
+	}
+
+	@Test
+	void givenFailingExecution_whenIntercepting_thenPermitIsReleased() {
+		// given
+		CorootHttpTransport.RouteLimiter limiter = new CorootHttpTransport.RouteLimiter(1, 50, meterRegistry);
+		MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET,
+				URI.create("http://coroot.local:8080/api/user"));
+
+		// when
+		assertThatThrownBy(() -> limiter.intercept(request, new byte[0], (req, body) -> {
+			throw new IOException("connection reset");
+		})).isInstanceOf(IOException.class);
+
+		// then
+		assertThat(limiter.inFlight("http://coroot.local:8080")).isZero();
+	}
+
+	@Test
+	void givenJdkTransport_whenCallingCoroot_thenRequestsSucceedAndPermitsAreReturned() throws Exception {
+		// given
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/user", exchange -> {
+			byte[] body = "{\"projects\":[{\"id\":\"p1\",\"name\":\"production\"}]}"
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		server.start();
+
+		CorootProperties properties = new CorootProperties();
+		properties.setApiUrl(URI.create("http://127.0.0.1:" + server.getAddress().getPort()));
+		properties.setApiKey("test-key");
+		properties.getHttp().setReadTimeout(Duration.ofSeconds(2));
+
+		try (HttpCorootClient client = new HttpCorootClient(properties, meterRegistry)) {
+			// when
+			List<ProjectSummary> projects = client.listProjects();
+
+			// then
+			assertThat(projects).extracting(ProjectSummary::getId).containsExactly("p1");
+			assertThat(meterRegistry.get("coroot.http.pool.in.flight").gauge().value()).isZero();
+		}
+		finally {
+			server.stop(0);
+		}
+	}
+
+}
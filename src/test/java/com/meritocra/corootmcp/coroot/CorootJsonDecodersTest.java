@@ -0,0 +1,208 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+class CorootJsonDecodersTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void givenApplicationsOverview_whenDecoding_thenKeepsOnlyKnownIndicators() throws IOException {
+		// given
+		String json = """
+				{"context":{"status":"ok"},"applications":[
+				  {"id":{"name":"checkout","ns":"shop"},"cluster":"prod","category":"application","status":"warning",
+				   "errors":{"status":"critical","value":"12%"},"latency":{"status":"ok","value":"120ms"},
+				   "unknown":{"nested":[1,2,3]}}
+				]}
+				""";
+
+		// when
+		List<ApplicationOverviewEntry> apps = decode(json, CorootJsonDecoders.applications("p1"), List.of());
+
+		// then
+		assertThat(apps).singleElement().satisfies(app -> {
+			assertThat(app.getProjectId()).isEqualTo("p1");
+			assertThat(app.getService()).isEqualTo("checkout");
+			assertThat(app.getCluster()).isEqualTo("prod");
+			assertThat(app.getStatus()).isEqualTo("warning");
+			assertThat(app.getIndicators()).containsOnlyKeys("errors", "latency");
+			assertThat(app.getIndicators().get("errors")).isEqualTo(Map.of("status", "critical", "value", "12%"));
+		});
+	}
+
+	@Test
+	void givenNodesWithMixedTypes_whenDecoding_thenCoercesNumbersAndIps() throws IOException {
+		// given
+		String json = """
+				{"nodes":[{"name":"node-1","cluster":"prod","status":"ok","applications":"7","instances":3,
+				  "uptime":"5d","private_ips":["10.0.0.1"],"cpu":42.5,"memory":"61.2","disk":null}]}
+				""";
+
+		// when
+		List<NodeOverviewEntry> nodes = decode(json, CorootJsonDecoders.nodes("p1"), List.of());
+
+		// then
+		assertThat(nodes).singleElement().satisfies(node -> {
+			assertThat(node.getName()).isEqualTo("node-1");
+			assertThat(node.getApplications()).isEqualTo(7);
+			assertThat(node.getInstances()).isEqualTo(3);
+			assertThat(node.getPrivateIps()).containsExactly("10.0.0.1");
+			assertThat(node.getPublicIps()).isEmpty();
+			assertThat(node.getCpuPercent()).isEqualTo(42.5);
+			assertThat(node.getMemoryPercent()).isEqualTo(61.2);
+			assertThat(node.getDiskPercent()).isNull();
+		});
+	}
+
+	@Test
+	void givenIncidentsWithUnknownSeverity_whenDecoding_thenDefaultsToInfo() throws IOException {
+		// given
+		String json = """
+				{"incidents":[
+				  {"id":"inc-1","title":"High latency","severity":"critical","service":"checkout",
+				   "startedAt":"2025-01-01T10:00:00Z"},
+				  {"id":"inc-2","title":"Noise","severity":"whatever","service":"cart"}
+				]}
+				""";
+
+		// when
+		List<IncidentSummary> incidents = decode(json, CorootJsonDecoders.incidents(), List.of());
+
+		// then
+		assertThat(incidents).extracting(IncidentSummary::getSeverity)
+			.containsExactly(IncidentSeverity.CRITICAL, IncidentSeverity.INFO);
+		assertThat(incidents.get(0).getStartedAt()).isNotNull();
+	}
+
+	@Test
+	void givenIncidentPage_whenDecodingWithQuery_thenKeepsOnlyMatchesAndCountsAll() throws IOException {
+		// given
+		String json = """
+				{"incidents":[
+				  {"id":"inc-3","severity":"warning","service":"cart","startedAt":"2025-01-03T10:00:00Z"},
+				  {"id":"inc-2","severity":"critical","service":"checkout","startedAt":"2025-01-02T10:00:00Z"},
+				  {"id":"inc-1","severity":"critical","service":"checkout","startedAt":"2024-12-31T10:00:00Z"}
+				]}
+				""";
+		IncidentQuery query = new IncidentQuery(IncidentSeverity.CRITICAL, null,
+				Instant.parse("2025-01-01T00:00:00Z"), null, 10);
+
+		// when
+		IncidentIterator.Page page = decode(json, CorootJsonDecoders.incidentPage(query), null);
+
+		// then
+		assertThat(page.matches()).extracting(IncidentSummary::getId).containsExactly("inc-2");
+		assertThat(page.size()).isEqualTo(3);
+		assertThat(page.firstId()).isEqualTo("inc-3");
+		assertThat(page.pastSince()).isTrue();
+	}
+
+	@Test
+	void givenLogsView_whenDecodingLogPatterns_thenReducesEntriesWhileParsing() throws IOException {
+		// given
+		String json = """
+				{"sources":["otel"],"entries":[
+				  {"timestamp":1700000000000,"severity":"Error","message":"Connection to 10.1.2.3 refused",
+				   "attributes":{"pod":"checkout-1"},"trace_id":"abc"},
+				  {"timestamp":1700000001000,"severity":"Error","message":"Connection to 10.1.2.4 refused"}
+				],"chart":{"series":[]}}
+				""";
+
+		// when
+		LogPatternReducer.Summary summary = decode(json,
+				CorootJsonDecoders.logPatterns(new LogPatternReducer(10)), null);
+
+		// then
+		assertThat(summary.entries()).isEqualTo(2);
+		assertThat(summary.patterns()).singleElement().satisfies(pattern -> {
+			assertThat(pattern.pattern()).isEqualTo("Connection to <ip> refused");
+			assertThat(pattern.severity()).isEqualTo("ERROR");
+			assertThat(pattern.count()).isEqualTo(2);
+			assertThat(pattern.lastTimestampMs()).isEqualTo(1700000001000L);
+			assertThat(pattern.exampleTraceIds()).containsExactly("abc");
+		});
+	}
+
+	@Test
+	void givenInspections_whenDecodingSloOverview_thenAssemblesAvailabilityAndLatency() throws IOException {
+		// given
+		String json = """
+				{"checks":[
+				  {"id":"SLOAvailability","global_threshold":99.9,"project_threshold":99.5,
+				   "project_details":"custom","application_overrides":[]},
+				  {"id":"SLOLatency","global_threshold":95,"project_threshold":null},
+				  {"id":"CPUNode","global_threshold":80}
+				]}
+				""";
+
+		// when
+		Map<String, Object> slo = decode(json, CorootJsonDecoders.sloOverview("p1"), Map.of());
+
+		// then
+		assertThat(slo).containsOnlyKeys("projectId", "availability", "latency");
+		assertThat(slo.get("availability")).isEqualTo(Map.of("globalObjectivePercent", 99.9,
+				"projectObjectivePercent", 99.5, "projectDetails", "custom"));
+		assertThat(slo.get("latency")).isEqualTo(Map.of("globalObjectivePercent", 95.0));
+	}
+
+	@Test
+	void givenEmptyBody_whenDecoding_thenReturnsEmptyValue() throws IOException {
+		// when
+		List<RiskOverviewEntry> risks = decode("", CorootJsonDecoders.risks("p1"), List.of());
+
+		// then
+		assertThat(risks).isEmpty();
+	}
+
+	@Test
+	void givenLargeApplicationsOverview_whenDecoding_thenDecodesEveryEntry() throws IOException {
+		// given
+		String json = applicationsFixture(2_000);
+
+		// when
+		List<ApplicationOverviewEntry> apps = decode(json, CorootJsonDecoders.applications("p1"), List.of());
+
+		// then
+		assertThat(apps).hasSize(2_000);
+		assertThat(apps.get(1_999)).satisfies(app -> {
+			assertThat(app.getService()).isEqualTo("app-1999");
+			assertThat(app.getCluster()).isEqualTo("prod");
+			assertThat(app.getIndicators()).containsOnlyKeys("errors", "latency", "cpu");
+		});
+	}
+
+	private static <T> T decode(String json, CorootJsonDecoders.Decoder<T> decoder, T emptyValue) throws IOException {
+		return CorootJsonDecoders.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), decoder,
+				emptyValue);
+	}
+
+	static String applicationsFixture(int count) {
+		StringBuilder json = new StringBuilder("{\"context\":{\"status\":\"ok\"},\"applications\":[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"id\":{\"name\":\"app-").append(i).append("\",\"ns\":\"default\",\"kind\":\"Deployment\"},")
+				.append("\"cluster\":\"prod\",\"category\":\"application\",\"status\":\"ok\",")
+				.append("\"errors\":{\"status\":\"ok\",\"value\":\"0.1%\"},")
+				.append("\"latency\":{\"status\":\"ok\",\"value\":\"12ms\"},")
+				.append("\"cpu\":{\"status\":\"warning\",\"value\":\"").append(i % 100).append("%\"},")
+				.append("\"chart\":{\"data\":[1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16],")
+				.append("\"labels\":[\"a\",\"b\",\"c\",\"d\",\"e\",\"f\",\"g\",\"h\"]}}");
+		}
+		return json.append("]}").toString();
+	}
+
+}
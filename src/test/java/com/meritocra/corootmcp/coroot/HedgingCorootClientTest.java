@@ -0,0 +1,125 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HedgingCorootClientTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private final CorootProperties.Hedging properties = new CorootProperties.Hedging();
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	private final CountDownLatch interrupted = new CountDownLatch(1);
+
+	private volatile int slowCall = -1;
+
+	private volatile Duration slowFor = Duration.ofSeconds(10);
+
+	private final CorootClient delegate = new StubCorootClient() {
+
+		@Override
+		public Map<String, Object> getApplicationTracing(String projectId, String applicationId, int windowMinutes) {
+			int call = calls.incrementAndGet();
+			if (call == slowCall) {
+				try {
+					Thread.sleep(slowFor.toMillis());
+				}
+				catch (InterruptedException ex) {
+					interrupted.countDown();
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException(ex);
+				}
+				return Map.of("call", call);
+			}
+			return Map.of("call", call);
+		}
+
+	};
+
+	private HedgingCorootClient client;
+
+	@BeforeEach
+	void setUp() {
+		properties.setMinSamples(3);
+		properties.setMinDelay(Duration.ofMillis(20));
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		client.close();
+	}
+
+	@Test
+	void givenSlowRequest_whenHedgingDelayPasses_thenDuplicateWinsAndSlowRequestIsCancelled() throws Exception {
+		// given
+		properties.setBudgetPercent(100);
+		client = new HedgingCorootClient(delegate, properties, registry);
+		for (int i = 0; i < 3; i++) {
+			client.getApplicationTracing("production", "checkout", 30);
+		}
+		assertThat(client.hedgeDelay("tracing")).isEqualTo(Duration.ofMillis(20));
+		slowCall = 4;
+
+		// when
+		Map<String, Object> tracing = client.getApplicationTracing("production", "checkout", 30);
+
+		// then
+		assertThat(tracing).containsEntry("call", 5);
+		assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(registry.get("coroot.hedging.requests").tag("endpoint", "tracing").functionCounter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("coroot.hedging.wins").tag("endpoint", "tracing").functionCounter().count())
+				.isEqualTo(1.0);
+		assertThat(registry.get("coroot.hedging.latency").tag("endpoint", "tracing").timer().count()).isEqualTo(4);
+	}
+
+	@Test
+	void givenNoBudget_whenRequestIsSlow_thenWaitsForItWithoutDuplicate() {
+		// given
+		properties.setBudgetPercent(0);
+		client = new HedgingCorootClient(delegate, properties, registry);
+		for (int i = 0; i < 3; i++) {
+			client.getApplicationTracing("production", "checkout", 30);
+		}
+		slowCall = 4;
+		slowFor = Duration.ofMillis(100);
+
+		// when
+		Map<String, Object> tracing = client.getApplicationTracing("production", "checkout", 30);
+
+		// then
+		assertThat(tracing).containsEntry("call", 4);
+		assertThat(calls).hasValue(4);
+		assertThat(registry.get("coroot.hedging.budget.exhausted").tag("endpoint", "tracing").functionCounter()
+				.count()).isEqualTo(1.0);
+	}
+
+	@Test
+	void givenEndpointNotHedged_whenCalling_thenGoesStraightToDelegate() {
+		// given
+		client = new HedgingCorootClient(delegate, properties, registry);
+
+		// when
+		Map<String, Object> slo = client.getSloOverview("production");
+
+		// then
+		assertThat(slo).isNotNull();
+		assertThat(client.hedgeDelay("slo")).isNull();
+	}
+
+}
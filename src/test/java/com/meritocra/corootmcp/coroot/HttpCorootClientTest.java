@@ -0,0 +1,226 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClientResponseException;
+
+class HttpCorootClientTest {
+
+	private final List<URI> requests = new CopyOnWriteArrayList<>();
+
+	private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private HttpServer server;
+
+	private HttpCorootClient client;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.add(exchange.getRequestURI());
+			acceptEncodings.add(String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+			if (exchange.getRequestURI().getPath().endsWith("/incidents")) {
+				respond(exchange, incidentsPage(exchange.getRequestURI()));
+				return;
+			}
+			if (exchange.getRequestURI().getPath().endsWith("/overview/costs")) {
+				exchange.sendResponseHeaders(500, -1);
+				exchange.close();
+				return;
+			}
+			if (exchange.getRequestURI().getPath().endsWith("/inspections")) {
+				respondGzipped(exchange, inspections());
+				return;
+			}
+			respond(exchange, "{\"entries\":[]}");
+		});
+		server.start();
+
+		CorootProperties properties = new CorootProperties();
+		properties.setApiUrl(URI.create("http://127.0.0.1:" + server.getAddress().getPort()));
+		properties.setApiKey("test-key");
+		client = new HttpCorootClient(properties, meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		client.close();
+		server.stop(0);
+	}
+
+	@Test
+	void givenApplicationLogsRequest_whenCalling_thenJsonQueryIsSentEncoded() {
+		// when
+		Map<String, Object> logs = client.getApplicationLogs("p1", "checkout", 15, 20);
+
+		// then
+		assertThat(logs).containsKey("entries");
+		URI request = requests.get(requests.size() - 1);
+		assertThat(request.getPath()).isEqualTo("/api/project/p1/app/checkout/logs");
+		assertThat(request.getQuery()).contains("query={\"limit\":20,\"view\":\"messages\"}");
+	}
+
+	@Test
+	void givenJsonLogsOverviewQuery_whenCalling_thenQueryIsNotTreatedAsUriTemplate() {
+		// when
+		client.getLogsOverview("p1", "{\"severity\":\"error\"}");
+
+		// then
+		URI request = requests.get(requests.size() - 1);
+		assertThat(request.getQuery()).isEqualTo("query={\"severity\":\"error\"}");
+	}
+
+	@Test
+	void givenCorootCalls_whenCompleted_thenRecordsMetricsPerPathTemplate() {
+		// when
+		client.getApplicationLogs("p1", "checkout", 15, 20);
+		assertThatThrownBy(() -> client.getCostsOverview("p1")).isInstanceOf(RestClientResponseException.class);
+
+		// then
+		String logsPath = "/api/project/{projectId}/app/{app}/logs";
+		assertThat(meterRegistry.get("coroot.api.requests").tags("path", logsPath, "outcome", "success").timer()
+				.count()).isEqualTo(1);
+		assertThat(meterRegistry.get("coroot.api.response.size").tag("path", logsPath).summary().totalAmount())
+				.isEqualTo(14.0);
+		assertThat(meterRegistry.get("coroot.api.errors")
+				.tags("path", "/api/project/{projectId}/overview/costs", "error", "http_500").counter().count())
+				.isEqualTo(1.0);
+		assertThat(meterRegistry.get("coroot.api.requests.in.flight").tag("path", logsPath).gauge().value()).isZero();
+	}
+
+	@Test
+	void givenGzipResponse_whenCalling_thenInflatesWhileDecodingAndRecordsWireSize() {
+		// when
+		Map<String, Object> slo = client.getSloOverview("p1");
+
+		// then
+		assertThat(slo).containsKey("availability");
+		assertThat(acceptEncodings).containsOnly("gzip");
+		String path = "/api/project/{projectId}/inspections";
+		double decoded = meterRegistry.get("coroot.api.response.size").tag("path", path).summary().totalAmount();
+		double wire = meterRegistry.get("coroot.api.response.wire.size").tag("path", path).summary().totalAmount();
+		assertThat(decoded).isEqualTo(inspections().length());
+		assertThat(wire).isPositive().isLessThan(decoded / 4);
+		assertThat(meterRegistry.get("coroot.api.response.decompression").tag("path", path).timer().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void givenSparseMatches_whenSearchingIncidents_thenPagesUntilLimitIsReached() {
+		// given
+		CorootProperties properties = new CorootProperties();
+		properties.setApiUrl(URI.create("http://127.0.0.1:" + server.getAddress().getPort()));
+		properties.setApiKey("test-key");
+		properties.getIncidents().setPageSize(10);
+		HttpCorootClient pagingClient = new HttpCorootClient(properties, meterRegistry);
+
+		// when
+		List<IncidentSummary> incidents;
+		try {
+			incidents = pagingClient.listRecentIncidents("p1", IncidentSeverity.CRITICAL, 3);
+		}
+		finally {
+			pagingClient.close();
+		}
+
+		// then
+		assertThat(incidents).extracting(IncidentSummary::getId).containsExactly("inc-0", "inc-5", "inc-10");
+		assertThat(requests).filteredOn(uri -> uri.getPath().endsWith("/incidents"))
+			.extracting(URI::getQuery)
+			.containsExactly("limit=10", "limit=10&offset=10");
+	}
+
+	@Test
+	void givenUnfilteredQuery_whenListingIncidents_thenFetchesOnePageOfLimit() {
+		// when
+		List<IncidentSummary> incidents = client.listRecentIncidents("p1", IncidentSeverity.INFO, 4);
+
+		// then
+		assertThat(incidents).hasSize(4);
+		assertThat(requests).filteredOn(uri -> uri.getPath().endsWith("/incidents"))
+			.extracting(URI::getQuery)
+			.containsExactly("limit=4");
+	}
+
+	/**
+	 * 25 incidents, newest first; every fifth one is critical.
+	 */
+	private static String incidentsPage(URI uri) {
+		Map<String, String> params = new HashMap<>();
+		for (String param : uri.getQuery().split("&")) {
+			String[] pair = param.split("=", 2);
+			params.put(pair[0], pair[1]);
+		}
+		int offset = Integer.parseInt(params.getOrDefault("offset", "0"));
+		int limit = Integer.parseInt(params.get("limit"));
+		StringBuilder json = new StringBuilder("{\"incidents\":[");
+		for (int i = offset; i < Math.min(offset + limit, 25); i++) {
+			if (i > offset) {
+				json.append(',');
+			}
+			json.append("{\"id\":\"inc-").append(i).append("\",\"severity\":\"")
+				.append(i % 5 == 0 ? "critical" : "info").append("\",\"service\":\"checkout\"}");
+		}
+		return json.append("]}").toString();
+	}
+
+	private static String inspections() {
+		StringBuilder json = new StringBuilder("{\"checks\":[");
+		for (int i = 0; i < 200; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"id\":\"SLOAvailability\",\"application\":\"checkout-").append(i)
+				.append("\",\"global_threshold\":99.9}");
+		}
+		return json.append("]}").toString();
+	}
+
+	private static void respondGzipped(HttpExchange exchange, String json) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+			gzip.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+		exchange.sendResponseHeaders(200, compressed.size());
+		try (OutputStream out = exchange.getResponseBody()) {
+			compressed.writeTo(out);
+		}
+	}
+
+	private static void respond(HttpExchange exchange, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+}
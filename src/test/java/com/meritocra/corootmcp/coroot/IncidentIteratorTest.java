@@ -0,0 +1,48 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class IncidentIteratorTest {
+
+	@Test
+	void givenBackendIgnoringOffset_whenTakingIncidents_thenStopsAfterRepeatedPage() {
+		// given
+		List<Integer> offsets = new ArrayList<>();
+		IncidentIterator iterator = new IncidentIterator((offset, limit) -> {
+			offsets.add(offset);
+			return new IncidentIterator.Page(List.of(incident("inc-1")), limit, "inc-1", false);
+		}, 10, 5);
+
+		// when
+		List<IncidentSummary> incidents = iterator.take(5);
+
+		// then
+		assertThat(incidents).extracting(IncidentSummary::getId).containsExactly("inc-1");
+		assertThat(offsets).containsExactly(0, 10);
+	}
+
+	@Test
+	void givenNoMatches_whenTakingIncidents_thenStopsAtPageBudget() {
+		// given
+		IncidentIterator iterator = new IncidentIterator(
+				(offset, limit) -> new IncidentIterator.Page(List.of(), limit, "inc-" + offset, false), 10, 3);
+
+		// when
+		List<IncidentSummary> incidents = iterator.take(5);
+
+		// then
+		assertThat(incidents).isEmpty();
+		assertThat(iterator.pagesFetched()).isEqualTo(3);
+		assertThat(iterator.scanned()).isEqualTo(30);
+	}
+
+	private static IncidentSummary incident(String id) {
+		return new IncidentSummary(id, id, IncidentSeverity.CRITICAL, "checkout", null, null);
+	}
+
+}
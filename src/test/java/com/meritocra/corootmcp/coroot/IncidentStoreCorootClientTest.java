@@ -0,0 +1,213 @@
+package com.meritocra.corootmcp.coroot;
+
+import static com.meritocra.corootmcp.coroot.IncidentStoreTest.context;
+import static com.meritocra.corootmcp.coroot.IncidentStoreTest.incident;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncidentStoreCorootClientTest {
+
+	private static final Clock CLOCK = Clock.fixed(IncidentStoreTest.NOW, ZoneOffset.UTC);
+
+	@TempDir
+	private Path directory;
+
+	private final List<IncidentSummary> remoteIncidents = new CopyOnWriteArrayList<>();
+
+	private final List<String> contextRequests = new CopyOnWriteArrayList<>();
+
+	private final AtomicInteger listRequests = new AtomicInteger();
+
+	private volatile RuntimeException listFailure;
+
+	private final CorootClient delegate = new StubCorootClient() {
+
+		@Override
+		public List<IncidentSummary> listRecentIncidents(String projectId, IncidentSeverity minimumSeverity,
+				int limit) {
+			listRequests.incrementAndGet();
+			if (listFailure != null) {
+				throw listFailure;
+			}
+			return List.copyOf(remoteIncidents);
+		}
+
+		@Override
+		public IncidentContext getIncidentContext(String projectId, String incidentId) {
+			contextRequests.add(incidentId);
+			return context(remoteIncidents.stream()
+					.filter(summary -> summary.getId().equals(incidentId))
+					.findFirst()
+					.orElseThrow());
+		}
+
+	};
+
+	private IncidentStore store;
+
+	private IncidentStoreCorootClient client;
+
+	@BeforeEach
+	void setUp() {
+		store = new IncidentStore(directory);
+		client = new IncidentStoreCorootClient(delegate, store, new CorootProperties.IncidentStore(), CLOCK);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		client.close();
+	}
+
+	@Test
+	void givenFirstQuery_whenListing_thenSyncsSummariesOnceAndServesLaterQueriesLocally() {
+		// given
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 1));
+		remoteIncidents.add(incident("inc-2", IncidentSeverity.INFO, "catalog", 2));
+
+		// when
+		List<IncidentSummary> first = client.listRecentIncidents("p1", IncidentSeverity.WARNING, 10);
+		List<IncidentSummary> second = client.searchIncidents("p1",
+				new IncidentQuery(IncidentSeverity.INFO, "catalog", null, null, 10));
+
+		// then
+		assertThat(first).extracting(IncidentSummary::getId).containsExactly("inc-1");
+		assertThat(second).extracting(IncidentSummary::getId).containsExactly("inc-2");
+		assertThat(listRequests).hasValue(1);
+		assertThat(contextRequests).isEmpty();
+	}
+
+	@Test
+	void givenSearchStartingBeforeOldestStoredIncident_whenSearching_thenQueriesCoroot() {
+		// given
+		client = client(2, 32);
+		remoteIncidents.add(incident("inc-2", IncidentSeverity.CRITICAL, "checkout", 1));
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.WARNING, "catalog", 6));
+		client.sync("p1");
+		remoteIncidents.add(incident("inc-0", IncidentSeverity.CRITICAL, "checkout", 48));
+
+		// when
+		List<IncidentSummary> recent = client.searchIncidents("p1",
+				new IncidentQuery(IncidentSeverity.INFO, null, IncidentStoreTest.NOW.minusSeconds(3 * 3600), null, 10));
+		List<IncidentSummary> older = client.searchIncidents("p1",
+				new IncidentQuery(IncidentSeverity.INFO, null, IncidentStoreTest.NOW.minusSeconds(72 * 3600), null, 10));
+
+		// then
+		assertThat(recent).extracting(IncidentSummary::getId).containsExactly("inc-2");
+		assertThat(older).extracting(IncidentSummary::getId).containsExactly("inc-2", "inc-1", "inc-0");
+		assertThat(listRequests).hasValue(2);
+	}
+
+	@Test
+	void givenPartialHistory_whenListingMoreThanIsStored_thenQueriesCorootUnlessTheStoreFillsTheLimit() {
+		// given
+		client = client(2, 32);
+		remoteIncidents.add(incident("inc-3", IncidentSeverity.CRITICAL, "checkout", 1));
+		remoteIncidents.add(incident("inc-2", IncidentSeverity.WARNING, "catalog", 2));
+		client.sync("p1");
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 72));
+
+		// when
+		List<IncidentSummary> newest = client.listRecentIncidents("p1", IncidentSeverity.INFO, 2);
+		List<IncidentSummary> critical = client.listRecentIncidents("p1", IncidentSeverity.CRITICAL, 10);
+
+		// then
+		assertThat(newest).extracting(IncidentSummary::getId).containsExactly("inc-3", "inc-2");
+		assertThat(critical).extracting(IncidentSummary::getId).containsExactly("inc-3", "inc-1");
+		assertThat(listRequests).hasValue(2);
+	}
+
+	@Test
+	void givenMaxProjectsReached_whenQueryingAnotherProject_thenQueriesCorootWithoutSyncingIt() {
+		// given
+		client = client(500, 1);
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 1));
+		client.listRecentIncidents("p1", IncidentSeverity.INFO, 10);
+
+		// when
+		client.listRecentIncidents("p2", IncidentSeverity.INFO, 10);
+		client.listRecentIncidents("p2", IncidentSeverity.INFO, 10);
+
+		// then
+		assertThat(listRequests).hasValue(3);
+		assertThat(store.contains("p1")).isTrue();
+		assertThat(store.contains("p2")).isFalse();
+	}
+
+	@Test
+	void givenSyncedProject_whenNewIncidentAppears_thenNextSyncFetchesOnlyItsDetails() {
+		// given
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 5));
+		client.sync("p1");
+		remoteIncidents.add(0, incident("inc-2", IncidentSeverity.WARNING, "catalog", 1));
+
+		// when
+		int written = client.sync("p1");
+
+		// then
+		assertThat(written).isEqualTo(1);
+		assertThat(contextRequests).containsExactly("inc-2");
+		assertThat(store.context("p1", "inc-2")).isNotNull();
+		assertThat(client.listRecentIncidents("p1", IncidentSeverity.INFO, 10)).extracting(IncidentSummary::getId)
+				.containsExactly("inc-2", "inc-1");
+	}
+
+	@Test
+	void givenFinishedIncident_whenReadingDetailsTwice_thenFetchesFromCorootOnce() {
+		// given
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 1));
+
+		// when
+		IncidentContext first = client.getIncidentContext("p1", "inc-1");
+		IncidentContext second = client.getIncidentContext("p1", "inc-1");
+
+		// then
+		assertThat(second.getSuspectedRootCause()).isEqualTo(first.getSuspectedRootCause());
+		assertThat(contextRequests).containsExactly("inc-1");
+	}
+
+	@Test
+	void givenCorootUnavailable_whenListing_thenFallsBackToStoredHistoryOrCoroot() {
+		// given
+		remoteIncidents.add(incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 1));
+		client.sync("p1");
+		IncidentStoreCorootClient restarted = new IncidentStoreCorootClient(delegate, store,
+				new CorootProperties.IncidentStore(), CLOCK);
+		listFailure = new IllegalStateException("coroot down");
+
+		// when
+		List<IncidentSummary> stored = restarted.listRecentIncidents("p1", IncidentSeverity.INFO, 10);
+		List<String> ids = new ArrayList<>();
+		try {
+			restarted.listRecentIncidents("p2", IncidentSeverity.INFO, 10);
+		}
+		catch (IllegalStateException ex) {
+			ids.add(ex.getMessage());
+		}
+
+		// then
+		assertThat(stored).extracting(IncidentSummary::getId).containsExactly("inc-1");
+		assertThat(ids).containsExactly("coroot down");
+	}
+
+	private IncidentStoreCorootClient client(int initialSyncLimit, int maxProjects) {
+		CorootProperties.IncidentStore properties = new CorootProperties.IncidentStore();
+		properties.setInitialSyncLimit(initialSyncLimit);
+		properties.setMaxProjects(maxProjects);
+		return new IncidentStoreCorootClient(delegate, store, properties, CLOCK);
+	}
+
+}
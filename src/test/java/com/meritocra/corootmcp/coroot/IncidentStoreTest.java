@@ -0,0 +1,129 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncidentStoreTest {
+
+	static final Instant NOW = Instant.parse("2025-11-17T10:00:00Z");
+
+	@TempDir
+	private Path directory;
+
+	@Test
+	void givenStoredIncidents_whenQuerying_thenReturnsMatchesNewestFirst() {
+		// given
+		try (IncidentStore store = new IncidentStore(directory)) {
+			store.put("p1", incident("inc-1", IncidentSeverity.WARNING, "checkout", 3), null);
+			store.put("p1", incident("inc-2", IncidentSeverity.CRITICAL, "catalog", 2), null);
+			store.put("p1", incident("inc-3", IncidentSeverity.CRITICAL, "checkout", 1), null);
+			store.put("p2", incident("inc-4", IncidentSeverity.CRITICAL, "checkout", 1), null);
+
+			// when
+			List<IncidentSummary> critical = store.query("p1", IncidentQuery.recent(IncidentSeverity.CRITICAL, 10));
+			List<IncidentSummary> checkout = store.query("p1",
+					new IncidentQuery(IncidentSeverity.INFO, "checkout", NOW.minusSeconds(3 * 3600 + 1), null, 10));
+
+			// then
+			assertThat(critical).extracting(IncidentSummary::getId).containsExactly("inc-3", "inc-2");
+			assertThat(checkout).extracting(IncidentSummary::getId).containsExactly("inc-3", "inc-1");
+			assertThat(store.watermark("p1")).isEqualTo(NOW.minusSeconds(3600 - 600));
+		}
+	}
+
+	@Test
+	void givenClosedStore_whenReopening_thenRebuildsIndexAndDetailsFromTheLog() {
+		// given
+		IncidentSummary summary = incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 1);
+		try (IncidentStore store = new IncidentStore(directory)) {
+			store.put("p1", summary, null);
+			store.put("p1", summary, context(summary));
+		}
+
+		// when
+		try (IncidentStore reopened = new IncidentStore(directory)) {
+			IncidentContext context = reopened.context("p1", "inc-1");
+
+			// then
+			assertThat(reopened.size()).isEqualTo(1);
+			assertThat(context.getSuspectedRootCause()).isEqualTo("Connection pool exhausted");
+			assertThat(context.getAffectedServices()).containsExactly("checkout", "postgres");
+			assertThat(context.getMetricsSnapshot()).containsEntry("p95_latency_ms", 1200);
+			assertThat(context.getLastUpdatedAt()).isEqualTo(NOW);
+			assertThat(context.getSummary().getStartedAt()).isEqualTo(summary.getStartedAt());
+		}
+	}
+
+	@Test
+	void givenTornRecordAtTheEnd_whenReopening_thenKeepsCompleteRecordsOnly() throws IOException {
+		// given
+		long validBytes;
+		try (IncidentStore store = new IncidentStore(directory)) {
+			store.put("p1", incident("inc-1", IncidentSeverity.CRITICAL, "checkout", 2), null);
+			validBytes = store.logBytes();
+			store.put("p1", incident("inc-2", IncidentSeverity.CRITICAL, "checkout", 1), null);
+		}
+		try (FileChannel channel = FileChannel.open(directory.resolve(IncidentStore.LOG_FILE),
+				StandardOpenOption.WRITE)) {
+			channel.truncate(validBytes + 20);
+		}
+
+		// when
+		try (IncidentStore reopened = new IncidentStore(directory)) {
+			// then
+			assertThat(reopened.size()).isEqualTo(1);
+			assertThat(reopened.logBytes()).isEqualTo(validBytes);
+			reopened.put("p1", incident("inc-3", IncidentSeverity.WARNING, "catalog", 1), null);
+		}
+		try (IncidentStore reopened = new IncidentStore(directory)) {
+			assertThat(reopened.size()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void givenSupersededAndExpiredRecords_whenCompacting_thenKeepsLatestRecordsWithinRetention() {
+		// given
+		try (IncidentStore store = new IncidentStore(directory)) {
+			IncidentSummary open = incident("inc-1", IncidentSeverity.WARNING, "checkout", 1);
+			for (int i = 0; i < 20; i++) {
+				store.put("p1", open, context(open));
+			}
+			store.put("p1", incident("old", IncidentSeverity.CRITICAL, "checkout", 24 * 200), null);
+			long before = store.logBytes();
+			Instant cutoff = NOW.minus(Duration.ofDays(180));
+			assertThat(store.needsCompaction(cutoff)).isTrue();
+
+			// when
+			store.compact(cutoff);
+
+			// then
+			assertThat(store.logBytes()).isLessThan(before / 10);
+			assertThat(store.query("p1", IncidentQuery.recent(IncidentSeverity.INFO, 10)))
+					.extracting(IncidentSummary::getId).containsExactly("inc-1");
+			assertThat(store.context("p1", "inc-1")).isNotNull();
+			assertThat(store.needsCompaction(cutoff)).isFalse();
+		}
+	}
+
+	static IncidentSummary incident(String id, IncidentSeverity severity, String service, int hoursAgo) {
+		Instant startedAt = NOW.minusSeconds(hoursAgo * 3600L);
+		return new IncidentSummary(id, "Incident " + id, severity, service, startedAt, startedAt.plusSeconds(600));
+	}
+
+	static IncidentContext context(IncidentSummary summary) {
+		return new IncidentContext(summary, "Connection pool exhausted", List.of("checkout", "postgres"),
+				Map.of("p95_latency_ms", 1200), List.of("Deployment of checkout 1.24.0"), NOW);
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class LogPatternReducerTest {
+
+	@Test
+	void givenVariableParts_whenMasking_thenReplacesThemWithPlaceholders() {
+		// when
+		String masked = LogPatternReducer.mask(
+				"request 3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b from 10.0.0.12:8080 took 12.5 ms, span deadbeef42");
+
+		// then
+		assertThat(masked).isEqualTo("request <uuid> from <ip> took <num> ms, span <hex>");
+	}
+
+	@Test
+	void givenSimilarMessages_whenReducing_thenGroupsAndRanksBySeverityThenCount() {
+		// given
+		LogPatternReducer reducer = new LogPatternReducer(10);
+		reducer.add(1_000, "info", "Processed order 1", "t-1");
+		reducer.add(2_000, "info", "Processed order 2", "t-2");
+		reducer.add(3_000, "info", "Processed order 3\n\tat stack frame", "t-3");
+		reducer.add(4_000, "info", "Processed order 4", "t-4");
+		reducer.add(1_500, "error", "Timeout after 3000 ms", "t-5");
+
+		// when
+		LogPatternReducer.Summary summary = reducer.summarize();
+
+		// then
+		assertThat(summary.entries()).isEqualTo(5);
+		assertThat(summary.patterns()).extracting(LogPatternReducer.LogPattern::pattern)
+				.containsExactly("Timeout after <num> ms", "Processed order <num>");
+		LogPatternReducer.LogPattern processed = summary.patterns().get(1);
+		assertThat(processed.count()).isEqualTo(4);
+		assertThat(processed.firstTimestampMs()).isEqualTo(1_000);
+		assertThat(processed.lastTimestampMs()).isEqualTo(4_000);
+		assertThat(processed.example()).isEqualTo("Processed order 1");
+		assertThat(processed.exampleTraceIds()).containsExactly("t-1", "t-2", "t-3");
+	}
+
+	@Test
+	void givenTemplateLimit_whenNewTemplatesArrive_thenCountsThemAsUnclustered() {
+		// given
+		LogPatternReducer reducer = new LogPatternReducer(2);
+
+		// when
+		reducer.add(0, "info", "alpha", null);
+		reducer.add(0, "info", "beta", null);
+		reducer.add(0, "info", "gamma", null);
+		reducer.add(0, "info", "alpha", null);
+
+		// then
+		LogPatternReducer.Summary summary = reducer.summarize();
+		assertThat(summary.templates()).isEqualTo(2);
+		assertThat(summary.unclustered()).isEqualTo(1);
+		assertThat(summary.patterns().get(0).pattern()).isEqualTo("alpha");
+	}
+
+}
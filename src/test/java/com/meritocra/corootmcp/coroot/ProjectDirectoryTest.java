@@ -0,0 +1,168 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class ProjectDirectoryTest {
+
+	private final MutableClock clock = new MutableClock();
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+	private ProjectDirectory directory(List<ProjectSummary> projects) {
+		return new ProjectDirectory(() -> {
+			loads.incrementAndGet();
+			return projects;
+		}, Duration.ofMinutes(5), Duration.ofMinutes(1), pendingRefreshes::add, clock);
+	}
+
+	@Test
+	void givenWarmDirectory_whenResolvingRepeatedly_thenLoadsOnlyOnce() {
+		// given
+		ProjectDirectory directory = directory(List.of(new ProjectSummary("p1", "production")));
+
+		// when
+		String byName = directory.findProjectId("production").orElseThrow();
+		String byId = directory.findProjectId("p1").orElseThrow();
+
+		// then
+		assertThat(byName).isEqualTo("p1");
+		assertThat(byId).isEqualTo("p1");
+		assertThat(loads).hasValue(1);
+		assertThat(directory.getHits()).isEqualTo(2);
+	}
+
+	@Test
+	void givenExpiredDirectory_whenResolving_thenServesStaleAndRefreshesInBackground() {
+		// given
+		ProjectDirectory directory = directory(List.of(new ProjectSummary("p1", "production")));
+		directory.findProjectId("production");
+		clock.advance(Duration.ofMinutes(6));
+
+		// when
+		String resolved = directory.findProjectId("production").orElseThrow();
+
+		// then
+		assertThat(resolved).isEqualTo("p1");
+		assertThat(loads).hasValue(1);
+		assertThat(pendingRefreshes).hasSize(1);
+
+		pendingRefreshes.get(0).run();
+		assertThat(loads).hasValue(2);
+		assertThat(directory.getRefreshes()).isEqualTo(2);
+	}
+
+	@Test
+	void givenUnknownId_whenResolvingTwice_thenSecondLookupIsNegativeHit() {
+		// given
+		ProjectDirectory directory = directory(List.of(new ProjectSummary("p1", "production")));
+
+		// when
+		boolean firstFound = directory.findProjectId("staging").isPresent();
+		boolean secondFound = directory.findProjectId("staging").isPresent();
+
+		// then
+		assertThat(firstFound).isFalse();
+		assertThat(secondFound).isFalse();
+		assertThat(directory.getMisses()).isEqualTo(1);
+		assertThat(directory.getNegativeHits()).isEqualTo(1);
+		assertThat(pendingRefreshes).isEmpty();
+	}
+
+	@Test
+	void givenFailingLoader_whenResolving_thenFallsBackToEmptyDirectoryAndBacksOff() {
+		// given
+		ProjectDirectory directory = new ProjectDirectory(() -> {
+			loads.incrementAndGet();
+			throw new IllegalStateException("401 Unauthorized");
+		}, Duration.ofMinutes(5), Duration.ofMinutes(1), pendingRefreshes::add, clock);
+
+		// when
+		boolean found = directory.findProjectId("production").isPresent();
+		directory.projects();
+
+		// then
+		assertThat(found).isFalse();
+		assertThat(loads).hasValue(1);
+		assertThat(directory.getRefreshFailures()).isEqualTo(1);
+		assertThat(pendingRefreshes).isEmpty();
+	}
+
+	@Test
+	void givenColdDirectory_whenResolvingConcurrently_thenLoadIsSingleFlight() throws Exception {
+		// given
+		CountDownLatch release = new CountDownLatch(1);
+		ProjectDirectory directory = new ProjectDirectory(() -> {
+			loads.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return List.of(new ProjectSummary("p1", "production"));
+		}, Duration.ofMinutes(5), Duration.ofMinutes(1), Runnable::run, clock);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			// when
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(() -> directory.findProjectId("production").orElseThrow()));
+			}
+			Thread.sleep(100);
+			release.countDown();
+
+			// then
+			for (Future<String> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("p1");
+			}
+			assertThat(loads).hasValue(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.parse("2025-11-17T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+}
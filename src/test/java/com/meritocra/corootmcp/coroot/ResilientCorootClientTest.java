@@ -0,0 +1,329 @@
+package com.meritocra.corootmcp.coroot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.meritocra.corootmcp.config.CorootProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+class ResilientCorootClientTest {
+
+	private final MutableClock clock = new MutableClock();
+
+	private final AtomicInteger applicationCalls = new AtomicInteger();
+
+	private final CorootProperties.Resilience properties = new CorootProperties.Resilience();
+
+	private volatile RuntimeException applicationsFailure;
+
+	private volatile Error applicationsError;
+
+	private volatile CountDownLatch costsGate;
+
+	private volatile RuntimeException tracesFailure;
+
+	private volatile RuntimeException logSummaryFailure;
+
+	private final CorootClient delegate = new StubCorootClient() {
+
+		@Override
+		public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+			applicationCalls.incrementAndGet();
+			RuntimeException failure = applicationsFailure;
+			if (failure != null) {
+				throw failure;
+			}
+			Error error = applicationsError;
+			if (error != null) {
+				throw error;
+			}
+			return super.listApplicationsOverview(projectId);
+		}
+
+		@Override
+		public Map<String, Object> getCostsOverview(String projectId) {
+			CountDownLatch gate = costsGate;
+			if (gate != null) {
+				try {
+					gate.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.getCostsOverview(projectId);
+		}
+
+		@Override
+		public Map<String, Object> getTracesOverview(String projectId, String query) {
+			RuntimeException failure = tracesFailure;
+			if (failure != null) {
+				throw failure;
+			}
+			return super.getTracesOverview(projectId, query);
+		}
+
+		@Override
+		public LogPatternReducer.Summary summarizeApplicationLogs(String projectId, String applicationId,
+				int windowMinutes, int scanLimit) {
+			RuntimeException failure = logSummaryFailure;
+			if (failure != null) {
+				throw failure;
+			}
+			return super.summarizeApplicationLogs(projectId, applicationId, windowMinutes, scanLimit);
+		}
+
+	};
+
+	@BeforeEach
+	void setUp() {
+		properties.setInitialBackoff(Duration.ofMillis(1));
+		properties.setMaxBackoff(Duration.ofMillis(2));
+		properties.setWindowSize(4);
+		properties.setMinimumCalls(4);
+	}
+
+	@Test
+	void givenTransientServerError_whenCalling_thenRetriesAndSucceeds() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(new StubCorootClient() {
+
+			private final AtomicInteger calls = new AtomicInteger();
+
+			@Override
+			public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+				if (calls.incrementAndGet() == 1) {
+					throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+				}
+				return super.listApplicationsOverview(projectId);
+			}
+
+		}, properties, clock);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		client.bindTo(registry);
+
+		// when
+		List<ApplicationOverviewEntry> applications = client.listApplicationsOverview("production");
+
+		// then
+		assertThat(applications).isNotEmpty();
+		assertThat(registry.get("coroot.resilience.retries").tag("endpoint", "applications").functionCounter()
+				.count()).isEqualTo(1.0);
+	}
+
+	@Test
+	void givenClientError_whenCalling_thenFailsWithoutRetryOrTrippingBreaker() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		applicationsFailure = new HttpClientErrorException(HttpStatus.NOT_FOUND);
+
+		// when
+		for (int i = 0; i < 5; i++) {
+			assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+					.isInstanceOf(HttpClientErrorException.class);
+		}
+
+		// then
+		assertThat(applicationCalls).hasValue(5);
+		assertThat(client.circuitState("applications")).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void givenFailingEndpoint_whenBreakerOpens_thenServesLastGoodResponseMarkedStaleWithoutCallingCoroot() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		List<ApplicationOverviewEntry> lastGood = client.listApplicationsOverview("production");
+		Instant fetchedAt = clock.instant();
+		applicationsFailure = new ResourceAccessException("connection refused");
+		clock.advance(Duration.ofMinutes(1));
+
+		// when
+		assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+				.isInstanceOf(ResourceAccessException.class);
+		int callsWhenOpened = applicationCalls.get();
+		List<ApplicationOverviewEntry> whileOpen = client.listApplicationsOverview("production");
+
+		// then
+		assertThat(client.circuitState("applications")).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(whileOpen).isEqualTo(lastGood);
+		assertThat(StaleResponses.fetchedAt(whileOpen)).isEqualTo(fetchedAt);
+		assertThat(StaleResponses.fetchedAt(lastGood)).isNull();
+		assertThat(applicationCalls).hasValue(callsWhenOpened);
+		assertThatThrownBy(() -> client.listApplicationsOverview("staging"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("circuit breaker");
+	}
+
+	@Test
+	void givenOpenBreakerOnTracesEndpoint_whenCalling_thenFailsFastWithoutStaleAnswer() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		client.getTracesOverview("production", null);
+		tracesFailure = new ResourceAccessException("connection refused");
+		assertThatThrownBy(() -> client.getTracesOverview("production", null))
+				.isInstanceOf(ResourceAccessException.class);
+
+		// when / then
+		assertThat(client.circuitState("traces")).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThatThrownBy(() -> client.getTracesOverview("production", null))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("no recent response");
+	}
+
+	@Test
+	void givenFailingLogSummaries_whenBreakerOpens_thenApplicationLogsStayAvailable() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		logSummaryFailure = new ResourceAccessException("connection refused");
+		for (int i = 0; i < 4 && client.circuitState("app-logs-summary") != CircuitBreaker.State.OPEN; i++) {
+			assertThatThrownBy(() -> client.summarizeApplicationLogs("production", "checkout", 30, 1000))
+					.isInstanceOf(ResourceAccessException.class);
+		}
+
+		// when
+		Map<String, Object> logs = client.getApplicationLogs("production", "checkout", 30, 50);
+
+		// then
+		assertThat(client.circuitState("app-logs-summary")).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(client.circuitState("app-logs")).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(logs).isNotEmpty();
+	}
+
+	@Test
+	void givenOpenBreaker_whenOpenDurationPassesAndProbeSucceeds_thenCloses() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		applicationsFailure = new ResourceAccessException("connection refused");
+		assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+				.isInstanceOf(ResourceAccessException.class);
+		assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+				.isInstanceOf(ResourceAccessException.class);
+		assertThat(client.circuitState("applications")).isEqualTo(CircuitBreaker.State.OPEN);
+
+		// when
+		applicationsFailure = null;
+		clock.advance(properties.getOpenDuration());
+		List<ApplicationOverviewEntry> applications = client.listApplicationsOverview("production");
+
+		// then
+		assertThat(applications).isNotEmpty();
+		assertThat(client.circuitState("applications")).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void givenReadTimeout_whenCalling_thenFailsWithoutRetrying() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		applicationsFailure = new ResourceAccessException("I/O error on GET request",
+				new SocketTimeoutException("Read timed out"));
+
+		// when / then
+		assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+				.isInstanceOf(ResourceAccessException.class);
+		assertThat(applicationCalls).hasValue(1);
+	}
+
+	@Test
+	void givenHalfOpenBreaker_whenProbeThrowsError_thenNextCallMayProbe() {
+		// given
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		applicationsFailure = new ResourceAccessException("connection refused");
+		for (int i = 0; i < 2; i++) {
+			assertThatThrownBy(() -> client.listApplicationsOverview("production"))
+					.isInstanceOf(ResourceAccessException.class);
+		}
+		applicationsFailure = null;
+		applicationsError = new AssertionError("probe blew up");
+		clock.advance(properties.getOpenDuration());
+		assertThatThrownBy(() -> client.listApplicationsOverview("production")).isInstanceOf(AssertionError.class);
+
+		// when
+		applicationsError = null;
+		List<ApplicationOverviewEntry> applications = client.listApplicationsOverview("production");
+
+		// then
+		assertThat(applications).isNotEmpty();
+		assertThat(client.circuitState("applications")).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void givenFullBulkhead_whenCalling_thenRejectsAfterMaxWait() throws Exception {
+		// given
+		properties.setMaxConcurrentCalls(1);
+		properties.setMaxWait(Duration.ofMillis(50));
+		ResilientCorootClient client = new ResilientCorootClient(delegate, properties, clock);
+		costsGate = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Map<String, Object>> blocked = executor.submit(() -> client.getCostsOverview("production"));
+			while (!delegateBusy(client)) {
+				Thread.onSpinWait();
+			}
+
+			// when / then
+			assertThatThrownBy(() -> client.getSloOverview("production"))
+					.isInstanceOf(IllegalStateException.class)
+					.hasMessageContaining("concurrent");
+			costsGate.countDown();
+			assertThat(blocked.get(5, TimeUnit.SECONDS)).isNotNull();
+		}
+		finally {
+			costsGate.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private static boolean delegateBusy(ResilientCorootClient client) {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		client.bindTo(registry);
+		return registry.get("coroot.resilience.bulkhead.in.flight").gauge().value() == 1.0;
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.parse("2025-11-17T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+}
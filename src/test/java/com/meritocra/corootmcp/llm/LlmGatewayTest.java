@@ -0,0 +1,139 @@
+package com.meritocra.corootmcp.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.support.FakeChatModel;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import reactor.core.publisher.Flux;
+
+class LlmGatewayTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void givenModelReportingUsage_whenCompleting_thenRecordsLatencySizesAndTokens() {
+		// given
+		ChatModel model = prompt -> new ChatResponse(List.of(new Generation(new AssistantMessage("root cause"))),
+				ChatResponseMetadata.builder().usage(new DefaultUsage(120, 30)).build());
+		LlmGateway gateway = new LlmGateway(ChatClient.builder(model).build(), meterRegistry);
+
+		// when
+		String content = gateway.complete("investigate_incident", "Explain the incident");
+
+		// then
+		assertThat(content).isEqualTo("root cause");
+		assertThat(meterRegistry.get("llm.calls").tags("tool", "investigate_incident", "outcome", "success")
+				.timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("llm.prompt.size").summary().totalAmount()).isEqualTo(20.0);
+		assertThat(meterRegistry.get("llm.response.size").summary().totalAmount()).isEqualTo(10.0);
+		assertThat(meterRegistry.get("llm.tokens").tag("type", "prompt").counter().count()).isEqualTo(120.0);
+		assertThat(meterRegistry.get("llm.tokens").tag("type", "completion").counter().count()).isEqualTo(30.0);
+	}
+
+	@Test
+	void givenFailingModel_whenCompleting_thenCountsErrorAndRethrows() {
+		// given
+		ChatModel model = prompt -> {
+			throw new IllegalStateException("rate limited");
+		};
+		LlmGateway gateway = new LlmGateway(ChatClient.builder(model).build(), meterRegistry);
+
+		// when / then
+		assertThatThrownBy(() -> gateway.complete("summarize_incident_root_cause", "prompt"))
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(meterRegistry.get("llm.errors").tag("tool", "summarize_incident_root_cause").counter().count())
+				.isEqualTo(1.0);
+		assertThat(meterRegistry.get("llm.calls.in.flight").gauge().value()).isZero();
+	}
+
+	@Test
+	void givenModelWithoutUsage_whenCompleting_thenReturnsContent() {
+		// given
+		LlmGateway gateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(), meterRegistry);
+
+		// when
+		String content = gateway.complete("investigate_incident", "prompt");
+
+		// then
+		assertThat(content).isEqualTo("FAKE_SUMMARY");
+	}
+
+	@Test
+	void givenCachedEvidence_whenCompletingAgain_thenSkipsModelAndCountsSavedTokens() {
+		// given
+		AtomicInteger calls = new AtomicInteger();
+		ChatModel model = prompt -> {
+			calls.incrementAndGet();
+			return new ChatResponse(List.of(new Generation(new AssistantMessage("root cause"))),
+					ChatResponseMetadata.builder().usage(new DefaultUsage(120, 30)).build());
+		};
+		LlmGateway gateway = new LlmGateway(ChatClient.builder(model).build(), meterRegistry, "gpt-4.1",
+				new LlmResponseCache(Duration.ofMinutes(30), 8, null));
+		ObjectNode inputs = new ObjectMapper().createObjectNode().put("maxWords", 300).put("incident", "i-1");
+
+		// when
+		gateway.complete("investigate_incident", "Explain the incident", inputs);
+		String cached = gateway.complete("investigate_incident", "Explain the incident", inputs.deepCopy());
+
+		// then
+		assertThat(cached).isEqualTo("root cause");
+		assertThat(calls).hasValue(1);
+		assertThat(meterRegistry.get("llm.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("llm.cache.saved.tokens").tag("type", "prompt").counter().count())
+				.isEqualTo(120.0);
+		assertThat(meterRegistry.get("llm.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+	}
+
+	@Test
+	void givenPartialSink_whenCompleting_thenStreamsChunksAndRecordsTimeToFirstToken() {
+		// given
+		ChatModel model = new ChatModel() {
+
+			@Override
+			public ChatResponse call(Prompt prompt) {
+				throw new AssertionError("streamed completions must not use call()");
+			}
+
+			@Override
+			public Flux<ChatResponse> stream(Prompt prompt) {
+				return Flux.just("The ", "checkout ", "pool\n", "was ", "exhausted.")
+						.map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+			}
+
+		};
+		LlmGateway gateway = new LlmGateway(ChatClient.builder(model).build(), meterRegistry);
+		List<String> partials = new ArrayList<>();
+
+		// when
+		String content = gateway.complete("investigate_incident", "Explain the incident", null, partials::add);
+
+		// then
+		assertThat(content).isEqualTo("The checkout pool\nwas exhausted.");
+		assertThat(partials).containsExactly("The checkout pool\n", "was exhausted.");
+		assertThat(meterRegistry.get("llm.time.to.first.token").tag("tool", "investigate_incident").timer().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("llm.tokens.per.second").tag("mode", "stream").summary().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("llm.response.size").summary().totalAmount()).isEqualTo(content.length());
+	}
+
+}
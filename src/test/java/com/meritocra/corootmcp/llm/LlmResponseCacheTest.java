@@ -0,0 +1,116 @@
+package com.meritocra.corootmcp.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LlmResponseCacheTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final MutableClock clock = new MutableClock();
+
+	@Test
+	void givenSameEvidenceInDifferentFieldOrder_whenFingerprinting_thenKeysMatch() throws Exception {
+		// given
+		JsonNode first = objectMapper.readTree("{\"maxWords\":300,\"evidence\":{\"a\":1,\"b\":[{\"x\":1,\"y\":2}]}}");
+		JsonNode second = objectMapper.readTree("{\"evidence\":{\"b\":[{\"y\":2,\"x\":1}],\"a\":1},\"maxWords\":300}");
+		JsonNode other = objectMapper.readTree("{\"maxWords\":200,\"evidence\":{\"a\":1,\"b\":[{\"x\":1,\"y\":2}]}}");
+
+		// when
+		String key = LlmResponseCache.fingerprint("investigate_incident", "gpt-4.1", first);
+
+		// then
+		assertThat(key).isEqualTo(LlmResponseCache.fingerprint("investigate_incident", "gpt-4.1", second));
+		assertThat(key).isNotEqualTo(LlmResponseCache.fingerprint("investigate_incident", "gpt-4.1", other));
+		assertThat(key).isNotEqualTo(LlmResponseCache.fingerprint("investigate_incident", "gpt-4o", first));
+		assertThat(key).isNotEqualTo(LlmResponseCache.fingerprint("summarize_incident_root_cause", "gpt-4.1", first));
+	}
+
+	@Test
+	void givenExpiredEntry_whenLookingUp_thenMisses() {
+		// given
+		LlmResponseCache cache = new LlmResponseCache(Duration.ofMinutes(30), 8, null, clock);
+		cache.put("fp", "root cause", 100, 20);
+		clock.advance(Duration.ofMinutes(29));
+		assertThat(cache.get("fp")).isNotNull();
+
+		// when
+		clock.advance(Duration.ofMinutes(2));
+
+		// then
+		assertThat(cache.get("fp")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	void givenEntryLimit_whenAddingMore_thenEvictsLeastRecentlyUsed() {
+		// given
+		LlmResponseCache cache = new LlmResponseCache(Duration.ofMinutes(30), 2, null, clock);
+		cache.put("a", "A", 0, 0);
+		cache.put("b", "B", 0, 0);
+		cache.get("a");
+
+		// when
+		cache.put("c", "C", 0, 0);
+
+		// then
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("a")).isNotNull();
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("c")).isNotNull();
+	}
+
+	@Test
+	void givenDiskTier_whenRestarting_thenServesPersistedEntry(@TempDir Path directory) {
+		// given
+		new LlmResponseCache(Duration.ofMinutes(30), 8, directory, clock).put("fp", "root cause", 100, 20);
+
+		// when
+		LlmResponseCache restarted = new LlmResponseCache(Duration.ofMinutes(30), 8, directory, clock);
+		LlmResponseCache.Hit hit = restarted.get("fp");
+
+		// then
+		assertThat(hit).isNotNull();
+		assertThat(hit.tier()).isEqualTo(LlmResponseCache.Tier.DISK);
+		assertThat(hit.entry().content()).isEqualTo("root cause");
+		assertThat(hit.entry().promptTokens()).isEqualTo(100);
+		assertThat(restarted.get("fp").tier()).isEqualTo(LlmResponseCache.Tier.MEMORY);
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.now();
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+}
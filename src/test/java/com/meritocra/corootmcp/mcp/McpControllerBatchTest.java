@@ -0,0 +1,174 @@
+package com.meritocra.corootmcp.mcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.McpProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class McpControllerBatchTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	private final McpTool slowTool = new McpTool() {
+
+		@Override
+		public ToolDefinition definition() {
+			return new ToolDefinition("slow", "Sleeps for a while", objectMapper.createObjectNode());
+		}
+
+		@Override
+		public ObjectNode call(ObjectNode arguments) {
+			int current = running.incrementAndGet();
+			maxRunning.accumulateAndGet(current, Math::max);
+			try {
+				Thread.sleep(200);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				running.decrementAndGet();
+			}
+			return objectMapper.createObjectNode().put("index", arguments.path("index").asInt());
+		}
+
+	};
+
+	private McpController controller(int maxConcurrency) {
+		McpProperties properties = new McpProperties();
+		properties.getBatch().setMaxConcurrency(maxConcurrency);
+		return new McpController(new McpToolRegistry(List.of(slowTool), meterRegistry), objectMapper, "",
+				meterRegistry, properties);
+	}
+
+	@Test
+	void givenBatchOfToolCalls_whenHandling_thenRunsThemConcurrentlyUpToTheCap() {
+		// given
+		ArrayNode batch = objectMapper.createArrayNode();
+		for (int i = 0; i < 4; i++) {
+			batch.add(toolCall(i));
+		}
+
+		// when
+		long start = System.nanoTime();
+		ResponseEntity<JsonNode> response = controller(2).handleBatch(batch, null);
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// then
+		JsonNode body = response.getBody();
+		assertThat(body.isArray()).isTrue();
+		assertThat(body).hasSize(4);
+		for (int i = 0; i < 4; i++) {
+			assertThat(body.get(i).path("id").asInt()).isEqualTo(i);
+			assertThat(body.get(i).path("result").path("index").asInt()).isEqualTo(i);
+		}
+		assertThat(maxRunning).hasValue(2);
+		assertThat(elapsedMs).isLessThan(750);
+		assertThat(meterRegistry.get("mcp.batch.fan.out").summary().totalAmount()).isEqualTo(4.0);
+	}
+
+	@Test
+	void givenToolAtItsConcurrencyLimit_whenQueueTimeoutPasses_thenAnswersServerBusy() {
+		// given
+		McpProperties properties = new McpProperties();
+		McpProperties.Limit limit = new McpProperties.Limit();
+		limit.setMaxConcurrency(1);
+		limit.setQueueTimeout(Duration.ofMillis(50));
+		properties.getTools().getLimits().put("slow", limit);
+		McpController controller = new McpController(
+				new McpToolRegistry(List.of(slowTool), meterRegistry, properties), objectMapper, "", meterRegistry,
+				properties);
+		ArrayNode batch = objectMapper.createArrayNode();
+		for (int i = 0; i < 3; i++) {
+			batch.add(toolCall(i));
+		}
+
+		// when
+		JsonNode body = controller.handleBatch(batch, null).getBody();
+
+		// then
+		assertThat(body).hasSize(3);
+		assertThat(body).filteredOn(response -> response.has("result")).hasSize(1);
+		assertThat(body).filteredOn(response -> response.path("error").path("code").asInt() == McpController.SERVER_BUSY)
+				.hasSize(2)
+				.allSatisfy(response -> assertThat(response.path("error").path("message").asText())
+						.startsWith("Server busy"));
+		assertThat(maxRunning).hasValue(1);
+		assertThat(meterRegistry.get("mcp.tool.calls.rejected").tag("tool", "slow").functionCounter().count())
+				.isEqualTo(2.0);
+	}
+
+	@Test
+	void givenMixedBatch_whenHandling_thenAnswersRequestsInOrderAndSkipsNotifications() {
+		// given
+		ArrayNode batch = objectMapper.createArrayNode();
+		batch.add(request(1, "initialize"));
+		batch.add(objectMapper.createObjectNode().put("jsonrpc", "2.0").put("method", "notifications/initialized"));
+		batch.add(42);
+		batch.add(request(2, "unknown/method"));
+
+		// when
+		ResponseEntity<JsonNode> response = controller(8).handleBatch(batch, null);
+
+		// then
+		JsonNode body = response.getBody();
+		assertThat(body).hasSize(3);
+		assertThat(body.get(0).path("result").path("protocolVersion").asText()).isNotBlank();
+		assertThat(body.get(1).path("id").isNull()).isTrue();
+		assertThat(body.get(1).path("error").path("code").asInt()).isEqualTo(-32600);
+		assertThat(body.get(2).path("error").path("code").asInt()).isEqualTo(-32601);
+		assertThat(meterRegistry.get("mcp.batch.size").summary().totalAmount()).isEqualTo(4.0);
+	}
+
+	@Test
+	void givenEmptyOrNotificationOnlyBatch_whenHandling_thenReturnsInvalidRequestOrAccepted() {
+		// given
+		ArrayNode notifications = objectMapper.createArrayNode();
+		notifications.add(objectMapper.createObjectNode().put("jsonrpc", "2.0").put("method", "notifications/initialized"));
+
+		// when
+		ResponseEntity<JsonNode> empty = controller(8).handleBatch(objectMapper.createArrayNode(), null);
+		ResponseEntity<JsonNode> accepted = controller(8).handleBatch(notifications, null);
+
+		// then
+		assertThat(empty.getBody().path("error").path("code").asInt()).isEqualTo(-32600);
+		assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+		assertThat(accepted.getBody()).isNull();
+	}
+
+	private ObjectNode toolCall(int id) {
+		ObjectNode request = request(id, "tools/call");
+		ObjectNode params = request.putObject("params");
+		params.put("name", "slow");
+		params.putObject("arguments").put("index", id);
+		return request;
+	}
+
+	private ObjectNode request(int id, String method) {
+		ObjectNode request = objectMapper.createObjectNode();
+		request.put("jsonrpc", "2.0");
+		request.put("id", id);
+		request.put("method", method);
+		return request;
+	}
+
+}
@@ -14,6 +14,7 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestTemplate;
@@ -55,6 +56,93 @@ class McpControllerIntegrationTest {
 		assertThat(response.path("error").path("code").asInt()).isEqualTo(-32602);
 	}
 
+	@Test
+	void givenEventStreamAccepted_whenCallingToolsCall_thenStreamsJsonRpcResponseAsSse() throws Exception {
+		// given
+		var params = objectMapper.createObjectNode();
+		params.put("name", "missing_tool");
+		params.set("arguments", objectMapper.createObjectNode());
+		params.putObject("_meta").put("progressToken", "p-1");
+
+		var request = objectMapper.createObjectNode();
+		request.put("jsonrpc", "2.0");
+		request.put("id", "stream");
+		request.put("method", "tools/call");
+		request.set("params", params);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.set(HttpHeaders.ACCEPT, "application/json, text/event-stream");
+		HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(request), headers);
+
+		// when
+		String url = "http://localhost:" + localServerPort + "/mcp";
+		ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+
+		// then
+		assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.TEXT_EVENT_STREAM)).isTrue();
+		String data = response.getBody().lines()
+				.filter(line -> line.startsWith("data:"))
+				.reduce((first, last) -> last)
+				.orElseThrow()
+				.substring("data:".length());
+		JsonNode message = objectMapper.readTree(data);
+		assertThat(message.path("id").asText()).isEqualTo("stream");
+		assertThat(message.path("error").path("code").asInt()).isEqualTo(-32602);
+	}
+
+	@Test
+	void givenBatchRequest_whenPosting_thenReturnsArrayOfResponses() throws Exception {
+		// given
+		var batch = objectMapper.createArrayNode();
+		batch.addObject().put("jsonrpc", "2.0").put("id", 1).put("method", "initialize");
+		batch.addObject().put("jsonrpc", "2.0").put("id", 2).put("method", "tools/list");
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(batch), headers);
+
+		// when
+		String url = "http://localhost:" + localServerPort + "/mcp";
+		ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+
+		// then
+		JsonNode body = objectMapper.readTree(response.getBody());
+		assertThat(body.isArray()).isTrue();
+		assertThat(body).hasSize(2);
+		assertThat(body.get(0).path("id").asInt()).isEqualTo(1);
+		assertThat(body.get(1).path("result").path("tools")).isNotEmpty();
+	}
+
+	@Test
+	void givenToolsListEtag_whenListingAgainWithIfNoneMatch_thenReturnsFullListWithSameEtag() throws Exception {
+		// given
+		var request = objectMapper.createObjectNode();
+		request.put("jsonrpc", "2.0");
+		request.put("id", "list");
+		request.put("method", "tools/list");
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		String url = "http://localhost:" + localServerPort + "/mcp";
+		String body = objectMapper.writeValueAsString(request);
+
+		ResponseEntity<String> first = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+		String etag = first.getHeaders().getETag();
+
+		// when
+		headers.setIfNoneMatch(etag);
+		ResponseEntity<String> second = restTemplate.postForEntity(url, new HttpEntity<>(body, headers), String.class);
+
+		// then
+		assertThat(etag).isNotBlank();
+		JsonNode firstBody = objectMapper.readTree(first.getBody());
+		assertThat(firstBody.path("id").asText()).isEqualTo("list");
+		assertThat(firstBody.path("result").path("tools")).isNotEmpty();
+		assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(second.getHeaders().getETag()).isEqualTo(etag);
+		assertThat(objectMapper.readTree(second.getBody()).path("result")).isEqualTo(firstBody.path("result"));
+	}
+
 	private JsonNode postRpc(String method, JsonNode params) throws Exception {
 		// given
 		HttpHeaders headers = new HttpHeaders();
@@ -0,0 +1,107 @@
+package com.meritocra.corootmcp.mcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meritocra.corootmcp.support.TestChatConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = { "server.compression.enabled=true", "server.compression.mime-types=application/json" })
+@Import(TestChatConfig.class)
+@AutoConfigureObservability
+class McpMetricsIntegrationTest {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@LocalServerPort
+	private int localServerPort;
+
+	private final RestTemplate restTemplate = new RestTemplate();
+
+	@Test
+	void givenToolCalls_whenScrapingPrometheus_thenExposesMethodToolAndPayloadMetrics() throws Exception {
+		// given
+		var params = objectMapper.createObjectNode();
+		params.put("name", "list_projects");
+		params.set("arguments", objectMapper.createObjectNode());
+		postRpc("tools/call", params);
+
+		// when
+		String url = "http://localhost:" + localServerPort + "/actuator/prometheus";
+		String scrape = restTemplate.getForObject(url, String.class);
+
+		// then
+		assertThat(scrape).contains("mcp_requests_seconds_bucket{method=\"tools/call\",outcome=\"success\"");
+		assertThat(scrape).contains("mcp_tool_calls_seconds_count{outcome=\"success\",tool=\"list_projects\"}");
+		assertThat(scrape).contains("mcp_request_size_bytes_count");
+		assertThat(scrape).contains("mcp_response_size_bytes_count");
+		assertThat(scrape).contains("mcp_requests_in_flight");
+	}
+
+	@Test
+	void givenClientAcceptingGzip_whenListingTools_thenResponseIsCompressedAndCounted() throws Exception {
+		// given
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + localServerPort + "/mcp"))
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+			.POST(HttpRequest.BodyPublishers.ofString("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\"}"))
+			.build();
+
+		// when
+		HttpResponse<byte[]> response = HttpClient.newHttpClient()
+			.send(request, HttpResponse.BodyHandlers.ofByteArray());
+		String scrape = restTemplate.getForObject("http://localhost:" + localServerPort + "/actuator/prometheus",
+				String.class);
+
+		// then
+		assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).contains("gzip");
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+			assertThat(objectMapper.readTree(gzip).path("result").path("tools").isArray()).isTrue();
+		}
+		assertThat(scrape).contains("mcp_response_wire_size_bytes_count{encoding=\"gzip\",method=\"tools/list\"}");
+		assertThat(scrape).contains("mcp_response_compression_seconds_count{method=\"tools/list\"}");
+	}
+
+	private JsonNode postRpc(String method, JsonNode params) throws Exception {
+		// given
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		var request = objectMapper.createObjectNode();
+		request.put("jsonrpc", "2.0");
+		request.put("id", "test");
+		request.put("method", method);
+		request.set("params", params);
+
+		HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(request), headers);
+
+		// when
+		String url = "http://localhost:" + localServerPort + "/mcp";
+		ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+
+		// then
+		return objectMapper.readTree(response.getBody());
+	}
+}
@@ -0,0 +1,120 @@
+package com.meritocra.corootmcp.mcp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class McpPayloadMetricsFilterTest {
+
+	private static final String LARGE_JSON = "{\"jsonrpc\":\"2.0\",\"result\":{\"entries\":["
+			+ "{\"app\":\"checkout\",\"status\":\"ok\"},".repeat(200) + "{}]}}";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final McpPayloadMetricsFilter filter = new McpPayloadMetricsFilter(meterRegistry, serverProperties());
+
+	@Test
+	void givenLargeResponseAndGzipAccepted_whenFiltering_thenCompressesItAndRecordsWireSizeAndDeflateTime()
+			throws Exception {
+		// given
+		MockHttpServletRequest request = request("gzip, deflate, br");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// when
+		filter.doFilter(request, response, chain(LARGE_JSON, "application/json"));
+
+		// then
+		assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+		assertThat(response.getHeader("Content-Length")).isNull();
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+			assertThat(new String(gzip.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LARGE_JSON);
+		}
+		assertThat(meterRegistry.get("mcp.response.size").summary().totalAmount()).isEqualTo(LARGE_JSON.length());
+		assertThat(meterRegistry.get("mcp.response.wire.size")
+			.tag("method", "tools/call")
+			.tag("encoding", "gzip")
+			.summary()
+			.totalAmount()).isEqualTo(response.getContentAsByteArray().length).isLessThan(LARGE_JSON.length() / 4.0);
+		assertThat(meterRegistry.get("mcp.response.compression").tag("method", "tools/call").timer().count())
+			.isEqualTo(1);
+	}
+
+	@Test
+	void givenSmallResponseOrGzipRefused_whenFiltering_thenSendsItAsIsWithItsLength() throws Exception {
+		// given
+		MockHttpServletResponse small = new MockHttpServletResponse();
+		MockHttpServletResponse refused = new MockHttpServletResponse();
+
+		// when
+		filter.doFilter(request("gzip"), small, chain("{\"result\":{}}", "application/json"));
+		filter.doFilter(request("gzip;q=0, identity"), refused, chain(LARGE_JSON, "application/json"));
+
+		// then
+		assertThat(small.getHeader("Content-Encoding")).isNull();
+		assertThat(small.getContentLength()).isEqualTo(13);
+		assertThat(small.getContentAsString()).isEqualTo("{\"result\":{}}");
+		assertThat(refused.getHeader("Content-Encoding")).isNull();
+		assertThat(refused.getContentAsString()).isEqualTo(LARGE_JSON);
+		assertThat(meterRegistry.get("mcp.response.wire.size").tag("encoding", "identity").summary().count())
+			.isEqualTo(2);
+		assertThat(meterRegistry.find("mcp.response.compression").timer()).isNull();
+	}
+
+	@Test
+	void givenEventStream_whenFiltering_thenPassesItThroughUncompressed() throws Exception {
+		// given
+		MockHttpServletRequest request = request("gzip");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String events = "data: " + LARGE_JSON + "\n\n";
+
+		// when
+		filter.doFilter(request, response, chain(events, "text/event-stream"));
+
+		// then
+		assertThat(response.getHeader("Content-Encoding")).isNull();
+		assertThat(response.getContentAsString()).isEqualTo(events);
+	}
+
+	private static ServerProperties serverProperties() {
+		ServerProperties properties = new ServerProperties();
+		properties.getCompression().setEnabled(true);
+		return properties;
+	}
+
+	private static MockHttpServletRequest request(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/mcp");
+		request.setServletPath("/mcp");
+		request.addHeader("Accept-Encoding", acceptEncoding);
+		return request;
+	}
+
+	private static MockFilterChain chain(String body, String contentType) {
+		return new MockFilterChain(new HttpServlet() {
+
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				request.setAttribute(McpPayloadMetricsFilter.METHOD_ATTRIBUTE, "tools/call");
+				response.setContentType(contentType);
+				response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+				response.flushBuffer();
+			}
+
+		});
+	}
+
+}
@@ -3,11 +3,15 @@ package com.meritocra.corootmcp.mcp;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.Test;
 
 class McpToolRegistryTest {
@@ -64,4 +68,67 @@ class McpToolRegistryTest {
 				.isInstanceOf(IllegalArgumentException.class)
 				.hasMessageContaining("Unknown tool");
 	}
+
+	@Test
+	void givenFailingTool_whenCallingRegistry_thenRecordsLatencyAndErrorPerTool() {
+		// given
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		McpTool failing = new EchoTool() {
+
+			@Override
+			public ObjectNode call(ObjectNode arguments) {
+				throw new IllegalStateException("boom");
+			}
+		};
+		McpToolRegistry registry = new McpToolRegistry(List.of(failing), meterRegistry);
+
+		// when
+		assertThatThrownBy(() -> registry.call("echo", objectMapper.createObjectNode()))
+				.isInstanceOf(IllegalStateException.class);
+
+		// then
+		assertThat(meterRegistry.get("mcp.tool.calls").tags("tool", "echo", "outcome", "error").timer().count())
+				.isEqualTo(1);
+		assertThat(meterRegistry.get("mcp.tool.errors").tags("tool", "echo", "error", "IllegalStateException")
+				.counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("mcp.tool.calls.in.flight").tags("tool", "echo").gauge().value()).isZero();
+	}
+
+	@Test
+	void givenRegistry_whenToolsChange_thenRebuildsToolsListAndNotifiesOnlyOnRealChanges() {
+		// given
+		McpToolRegistry registry = new McpToolRegistry(List.of(new EchoTool()));
+		ToolsList initial = registry.toolsList();
+		List<ToolsList> notifications = new ArrayList<>();
+		registry.addChangeListener(notifications::add);
+
+		// when
+		registry.register(new EchoTool());
+		registry.register(new McpTool() {
+
+			@Override
+			public ToolDefinition definition() {
+				return new ToolDefinition("ping", "Answers pong", objectMapper.createObjectNode());
+			}
+
+			@Override
+			public ObjectNode call(ObjectNode arguments) {
+				return objectMapper.createObjectNode().put("pong", true);
+			}
+		});
+
+		// then
+		assertThat(notifications).hasSize(1);
+		ToolsList updated = registry.toolsList();
+		assertThat(updated.version()).isEqualTo(initial.version() + 1);
+		assertThat(updated.etag()).isNotEqualTo(initial.etag());
+		assertThat(updated.result().path("tools")).extracting(tool -> tool.path("name").asText())
+				.containsExactly("echo", "ping");
+		assertThat(new String(updated.json(), StandardCharsets.UTF_8)).contains("\"name\":\"ping\"");
+		assertThat(registry.call("ping", objectMapper.createObjectNode()).path("pong").asBoolean()).isTrue();
+
+		assertThat(registry.unregister("ping")).isTrue();
+		assertThat(registry.toolsList().etag()).isEqualTo(initial.etag());
+		assertThat(notifications).hasSize(2);
+	}
 }
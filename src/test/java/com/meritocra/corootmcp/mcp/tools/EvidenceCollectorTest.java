@@ -0,0 +1,114 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import org.junit.jupiter.api.Test;
+
+class EvidenceCollectorTest {
+
+	@Test
+	void givenIndependentSources_whenCollecting_thenRunsThemConcurrently() {
+		// given
+		EvidenceCollector collector = new EvidenceCollector(Duration.ofSeconds(2), Duration.ofSeconds(5));
+		for (int i = 0; i < 5; i++) {
+			collector.add("source-" + i, () -> {
+				Thread.sleep(200);
+				return TextNode.valueOf("ok");
+			});
+		}
+
+		// when
+		long start = System.nanoTime();
+		Map<String, EvidenceCollector.Outcome> outcomes = collector.collect();
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// then
+		assertThat(outcomes).hasSize(5);
+		assertThat(outcomes.values()).allMatch(EvidenceCollector.Outcome::isComplete);
+		assertThat(elapsedMs).isLessThan(800);
+	}
+
+	@Test
+	void givenSlowAndFailingSources_whenCollecting_thenRecordsTimeoutAndFailureWithoutFailingOthers() {
+		// given
+		EvidenceCollector collector = new EvidenceCollector(Duration.ofMillis(200), Duration.ofSeconds(5))
+				.add("fast", () -> TextNode.valueOf("fast"))
+				.add("slow", () -> {
+					Thread.sleep(5_000);
+					return TextNode.valueOf("slow");
+				})
+				.add("broken", () -> {
+					throw new IllegalStateException("coroot unavailable");
+				});
+
+		// when
+		long start = System.nanoTime();
+		Map<String, EvidenceCollector.Outcome> outcomes = collector.collect();
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// then
+		assertThat(outcomes).containsOnlyKeys("fast", "slow", "broken");
+		assertThat(outcomes.get("fast").value().asText()).isEqualTo("fast");
+		assertThat(outcomes.get("slow").status()).isEqualTo(EvidenceCollector.Status.TIMEOUT);
+		assertThat(outcomes.get("broken").status()).isEqualTo(EvidenceCollector.Status.FAILED);
+		assertThat(outcomes.get("broken").error()).isEqualTo("coroot unavailable");
+		assertThat(elapsedMs).isLessThan(2_000);
+	}
+
+	@Test
+	void givenListener_whenCollecting_thenNotifiesOnTheCallingThreadOnlyForSourcesThatFinishInTime()
+			throws Exception {
+		// given
+		EvidenceCollector collector = new EvidenceCollector(Duration.ofMillis(300), Duration.ofSeconds(5));
+		for (int i = 0; i < 5; i++) {
+			collector.add("source-" + i, () -> TextNode.valueOf("ok"));
+		}
+		collector.add("slow", () -> {
+			Thread.sleep(600);
+			return TextNode.valueOf("slow");
+		});
+		List<String> notified = new CopyOnWriteArrayList<>();
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+
+		// when
+		Map<String, EvidenceCollector.Outcome> outcomes = collector.collect((name, outcome) -> {
+			notified.add(name);
+			threads.add(Thread.currentThread());
+		});
+		Thread.sleep(500);
+
+		// then
+		assertThat(outcomes.get("slow").status()).isEqualTo(EvidenceCollector.Status.TIMEOUT);
+		assertThat(notified).hasSize(5).doesNotContain("slow");
+		assertThat(threads).containsOnly(Thread.currentThread());
+	}
+
+	@Test
+	void givenInvestigationStartedEarlier_whenCollecting_thenOverallDeadlineCutsSourcesShort() {
+		// given
+		long investigationStart = System.nanoTime() - Duration.ofSeconds(5).minusMillis(150).toNanos();
+		EvidenceCollector collector = new EvidenceCollector(Duration.ofSeconds(2), Duration.ofSeconds(5),
+				investigationStart)
+				.add("slow", () -> {
+					Thread.sleep(5_000);
+					return TextNode.valueOf("slow");
+				});
+
+		// when
+		long start = System.nanoTime();
+		Map<String, EvidenceCollector.Outcome> outcomes = collector.collect();
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		// then
+		assertThat(outcomes.get("slow").status()).isEqualTo(EvidenceCollector.Status.TIMEOUT);
+		assertThat(elapsedMs).isLessThan(1_000);
+	}
+
+}
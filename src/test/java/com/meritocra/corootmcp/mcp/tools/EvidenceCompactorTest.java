@@ -0,0 +1,91 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.jupiter.api.Test;
+
+class EvidenceCompactorTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void givenEvidenceWithinBudget_whenCompacting_thenOnlyRanksByRelevance() {
+		// given
+		ObjectNode evidence = evidence(3);
+
+		// when
+		EvidenceCompactor.Result result = new EvidenceCompactor(objectMapper, 100_000).compact(evidence,
+				List.of("app-2"));
+
+		// then
+		assertThat(result.pruned()).isEmpty();
+		assertThat(result.overBudget()).isFalse();
+		assertThat(result.evidence().path("applicationsOverview")).extracting(node -> node.path("service").asText())
+				.containsExactly("app-2", "app-1", "app-0");
+		assertThat(evidence.path("applicationsOverview").get(0).path("service").asText()).isEqualTo("app-0");
+	}
+
+	@Test
+	void givenLargeEvidence_whenCompacting_thenPrunesLowSignalSectionsFirstAndReportsThem() {
+		// given
+		ObjectNode evidence = evidence(400);
+		int budget = 2_000;
+
+		// when
+		EvidenceCompactor.Result result = new EvidenceCompactor(objectMapper, budget).compact(evidence,
+				List.of("app-7"));
+
+		// then
+		assertThat(result.originalTokens()).isGreaterThan(budget);
+		assertThat(result.tokens()).isLessThanOrEqualTo(budget);
+		JsonNode compacted = result.evidence();
+		assertThat(compacted.path("incident")).isEqualTo(evidence.path("incident"));
+		assertThat(compacted.path("applicationsOverview").get(0).path("service").asText()).isEqualTo("app-7");
+		assertThat(compacted.path("applicationsOverview")).anyMatch(node -> "critical".equals(node.path("status").asText()));
+		assertThat(result.pruned()).extracting(EvidenceCompactor.Pruned::section)
+				.startsWith("applicationsOverview");
+		assertThat(result.toJson(objectMapper).path("pruned").get(0).path("action").asText()).isEqualTo("truncated");
+	}
+
+	@Test
+	void givenBulkSectionsOverBudget_whenCompacting_thenSummarizesThemBeforeTouchingRelevantEntries() {
+		// given
+		ObjectNode evidence = evidence(2);
+		ArrayNode traces = evidence.putObject("tracesOverview").putArray("spans");
+		for (int i = 0; i < 500; i++) {
+			traces.addObject().put("name", "GET /api/orders/" + i).put("durationMs", i);
+		}
+
+		// when
+		EvidenceCompactor.Result result = new EvidenceCompactor(objectMapper, 1_000).compact(evidence,
+				List.of("app-0"));
+
+		// then
+		assertThat(result.evidence().path("tracesOverview").path("spans").asText()).isEqualTo("500 entries");
+		assertThat(result.evidence().path("applicationsOverview")).hasSize(2);
+		assertThat(result.pruned()).extracting(EvidenceCompactor.Pruned::action).containsExactly("summarized");
+		assertThat(result.tokens()).isLessThanOrEqualTo(1_000);
+	}
+
+	private ObjectNode evidence(int applications) {
+		ObjectNode evidence = objectMapper.createObjectNode();
+		evidence.putObject("incident").put("incidentId", "incident-1").putArray("affectedServices").add("app-7");
+		ArrayNode apps = evidence.putArray("applicationsOverview");
+		for (int i = 0; i < applications; i++) {
+			ObjectNode app = apps.addObject();
+			app.put("service", "app-" + i);
+			app.put("status", i % 50 == 1 ? "critical" : "ok");
+			app.putObject("indicators").put("latencyP99Ms", 120 + i).put("errorRate", 0.01);
+		}
+		evidence.putArray("missingEvidence");
+		return evidence;
+	}
+
+}
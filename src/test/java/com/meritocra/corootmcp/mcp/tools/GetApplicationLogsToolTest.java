@@ -73,6 +73,7 @@ class GetApplicationLogsToolTest {
 		args.put("projectId", "production");
 		args.put("applicationId", "cluster:ns:Deployment:checkout-service");
 		args.put("windowMinutes", 30);
+		args.put("mode", "entries");
 		args.put("maxEntries", 50);
 
 		// when
@@ -92,5 +93,24 @@ class GetApplicationLogsToolTest {
 		assertThat(json.path("entries").isArray()).isTrue();
 	}
 
-}
+	@Test
+	void givenNoMode_whenCallingTool_thenReturnsRankedPatterns() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("applicationId", "cluster:ns:Deployment:checkout-service");
+
+		// when
+		ObjectNode result = tool.call(args);
+
+		// then
+		var json = result.path("content").get(0).path("json");
+		assertThat(json.path("mode").asText()).isEqualTo("patterns");
+		assertThat(json.path("entriesScanned").asLong()).isEqualTo(2);
+		assertThat(json.path("patterns")).hasSize(2);
+		var first = json.path("patterns").get(0);
+		assertThat(first.path("severity").asText()).isEqualTo("ERROR");
+		assertThat(first.path("pattern").asText()).isEqualTo("Database timeout while processing order <num>");
+		assertThat(first.path("exampleTraceIds").get(0).asText()).isEqualTo("trace-1");
+	}
 
+}
@@ -73,6 +73,7 @@ class GetApplicationTracesToolTest {
 		args.put("projectId", "production");
 		args.put("applicationId", "cluster:ns:Deployment:checkout-service");
 		args.put("windowMinutes", 30);
+		args.put("mode", "spans");
 		args.put("maxSpans", 10);
 
 		// when
@@ -92,5 +93,23 @@ class GetApplicationTracesToolTest {
 		assertThat(json.path("spans").isArray()).isTrue();
 	}
 
-}
+	@Test
+	void givenDefaultMode_whenCallingTool_thenReturnsTraceAnalysis() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("applicationId", "cluster:ns:Deployment:checkout-service");
+
+		// when
+		ObjectNode result = tool.call(args);
+
+		// then
+		var json = result.path("content").get(0).path("json");
+		assertThat(json.path("mode").asText()).isEqualTo("analysis");
+		assertThat(json.path("spans").asInt()).isPositive();
+		assertThat(json.path("slowestTraces").isArray()).isTrue();
+		assertThat(json.path("slowestTraces").get(0).path("criticalPath")).isNotEmpty();
+		assertThat(json.path("latencyHotSpots")).isNotEmpty();
+		assertThat(json.path("errorHotSpots")).isNotEmpty();
+	}
 
+}
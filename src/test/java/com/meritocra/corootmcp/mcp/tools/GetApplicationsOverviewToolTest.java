@@ -4,12 +4,22 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
+import com.meritocra.corootmcp.config.McpProperties;
+import com.meritocra.corootmcp.coroot.ApplicationOverviewEntry;
 import com.meritocra.corootmcp.coroot.StubCorootClient;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -17,15 +27,18 @@ class GetApplicationsOverviewToolTest {
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
+	private final OverviewSnapshots snapshots = new OverviewSnapshots(new McpProperties(), new SimpleMeterRegistry());
+
+	private final CorootProperties properties = new CorootProperties();
+
 	private GetApplicationsOverviewTool tool;
 
 	@BeforeEach
 	void setUp() {
-		CorootProperties properties = new CorootProperties();
 		properties.setApiUrl(URI.create("https://coroot.example.com"));
 		properties.setDefaultProjectId("production");
 
-		tool = new GetApplicationsOverviewTool(new StubCorootClient(), properties, objectMapper);
+		tool = new GetApplicationsOverviewTool(new StubCorootClient(), properties, objectMapper, snapshots);
 	}
 
 	@Test
@@ -43,7 +56,7 @@ class GetApplicationsOverviewToolTest {
 		// given
 		CorootProperties emptyProps = new CorootProperties();
 		GetApplicationsOverviewTool toolWithoutDefault = new GetApplicationsOverviewTool(
-				new StubCorootClient(), emptyProps, objectMapper);
+				new StubCorootClient(), emptyProps, objectMapper, snapshots);
 
 		ObjectNode args = objectMapper.createObjectNode();
 
@@ -79,5 +92,56 @@ class GetApplicationsOverviewToolTest {
 		assertThat(first.path("indicators").isObject()).isTrue();
 	}
 
-}
+	@Test
+	void givenMoreEntriesThanPageSize_whenFollowingCursors_thenPagesComeFromOneSnapshot() {
+		// given
+		AtomicInteger fetches = new AtomicInteger();
+		GetApplicationsOverviewTool pagedTool = new GetApplicationsOverviewTool(new StubCorootClient() {
+
+			@Override
+			public List<ApplicationOverviewEntry> listApplicationsOverview(String projectId) {
+				fetches.incrementAndGet();
+				return IntStream.range(0, 5)
+					.mapToObj(i -> new ApplicationOverviewEntry(projectId, "app-" + i, "cluster-1", "web", "OK",
+							Map.of()))
+					.toList();
+			}
+
+		}, properties, objectMapper, snapshots);
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("pageSize", 2);
 
+		// when
+		List<String> services = new ArrayList<>();
+		List<JsonNode> pages = new ArrayList<>();
+		ObjectNode next = args;
+		while (next != null) {
+			JsonNode jsonItem = pagedTool.call(next).path("content").get(0);
+			jsonItem.path("json").forEach(app -> services.add(app.path("service").asText()));
+			pages.add(jsonItem.path("page"));
+			String cursor = jsonItem.path("page").path("nextCursor").asText(null);
+			next = cursor != null ? objectMapper.createObjectNode().put("cursor", cursor) : null;
+		}
+
+		// then
+		assertThat(fetches).hasValue(1);
+		assertThat(services).containsExactly("app-0", "app-1", "app-2", "app-3", "app-4");
+		assertThat(pages).extracting(page -> page.path("offset").asInt()).containsExactly(0, 2, 4);
+		assertThat(pages).allSatisfy(page -> assertThat(page.path("total").asInt()).isEqualTo(5));
+	}
+
+	@Test
+	void givenIndicatorValuesWithUnits_whenReadingThem_thenDurationsAreComparableInSeconds() {
+		// given
+		ApplicationOverviewEntry slow = new ApplicationOverviewEntry("production", "checkout", "cluster-1", "web",
+				"CRITICAL", Map.of("latency", Map.of("status", "CRITICAL", "value", "1.2s")));
+		ApplicationOverviewEntry fast = new ApplicationOverviewEntry("production", "catalog", "cluster-1", "web", "OK",
+				Map.of("latency", Map.of("status", "OK", "value", "250ms")));
+
+		// when / then
+		assertThat(GetApplicationsOverviewTool.indicatorValue(slow, "latency")).isEqualTo(1.2);
+		assertThat(GetApplicationsOverviewTool.indicatorValue(fast, "latency")).isEqualTo(0.25);
+		assertThat(GetApplicationsOverviewTool.indicatorValue(fast, "errors")).isNaN();
+	}
+
+}
@@ -4,12 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
+import com.meritocra.corootmcp.config.McpProperties;
+import com.meritocra.corootmcp.coroot.NodeOverviewEntry;
 import com.meritocra.corootmcp.coroot.StubCorootClient;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -17,15 +23,18 @@ class GetNodesOverviewToolTest {
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
+	private final OverviewSnapshots snapshots = new OverviewSnapshots(new McpProperties(), new SimpleMeterRegistry());
+
+	private final CorootProperties properties = new CorootProperties();
+
 	private GetNodesOverviewTool tool;
 
 	@BeforeEach
 	void setUp() {
-		CorootProperties properties = new CorootProperties();
 		properties.setApiUrl(URI.create("https://coroot.example.com"));
 		properties.setDefaultProjectId("production");
 
-		tool = new GetNodesOverviewTool(new StubCorootClient(), properties, objectMapper);
+		tool = new GetNodesOverviewTool(new StubCorootClient(), properties, objectMapper, snapshots);
 	}
 
 	@Test
@@ -43,7 +52,7 @@ class GetNodesOverviewToolTest {
 		// given
 		CorootProperties emptyProps = new CorootProperties();
 		GetNodesOverviewTool toolWithoutDefault = new GetNodesOverviewTool(
-				new StubCorootClient(), emptyProps, objectMapper);
+				new StubCorootClient(), emptyProps, objectMapper, snapshots);
 
 		ObjectNode args = objectMapper.createObjectNode();
 
@@ -79,5 +88,40 @@ class GetNodesOverviewToolTest {
 		assertThat(first.path("privateIps").isArray()).isTrue();
 	}
 
-}
+	@Test
+	void givenSortByCpuWithLimitAndFields_whenCallingTool_thenReturnsTopNodesWithRequestedFieldsOnly() {
+		// given
+		GetNodesOverviewTool rankingTool = new GetNodesOverviewTool(new StubCorootClient() {
+
+			@Override
+			public List<NodeOverviewEntry> listNodesOverview(String projectId) {
+				return List.of(node(projectId, "node-1", "cluster-1", 35.0), node(projectId, "node-2", "cluster-2", 99.0),
+						node(projectId, "node-3", "cluster-1", 80.0), node(projectId, "node-4", "cluster-1", null),
+						node(projectId, "node-5", "cluster-1", 92.5));
+			}
+
+		}, properties, objectMapper, snapshots);
+		ObjectNode args = objectMapper.createObjectNode();
+		args.putArray("cluster").add("cluster-1");
+		args.put("sortBy", "cpuPercent");
+		args.put("limit", 2);
+		args.putArray("fields").add("cpuPercent");
 
+		// when
+		ObjectNode result = rankingTool.call(args);
+
+		// then
+		var nodes = result.path("content").get(0).path("json");
+		assertThat(nodes).hasSize(2);
+		assertThat(nodes.get(0).path("name").asText()).isEqualTo("node-5");
+		assertThat(nodes.get(1).path("name").asText()).isEqualTo("node-3");
+		assertThat(nodes.get(0).properties()).extracting(Map.Entry::getKey).containsExactly("name", "cpuPercent");
+		assertThat(result.path("content").get(0).path("page").path("total").asInt()).isEqualTo(2);
+	}
+
+	private static NodeOverviewEntry node(String projectId, String name, String cluster, Double cpuPercent) {
+		return new NodeOverviewEntry(projectId, name, cluster, "OK", 5, 10, "3d", List.of(), List.of(), cpuPercent,
+				50.0, 10.0, 20.0);
+	}
+
+}
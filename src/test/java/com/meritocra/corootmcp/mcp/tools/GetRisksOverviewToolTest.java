@@ -8,8 +8,11 @@ import java.net.URI;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
+import com.meritocra.corootmcp.config.McpProperties;
 import com.meritocra.corootmcp.coroot.StubCorootClient;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -17,6 +20,8 @@ class GetRisksOverviewToolTest {
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
+	private final OverviewSnapshots snapshots = new OverviewSnapshots(new McpProperties(), new SimpleMeterRegistry());
+
 	private GetRisksOverviewTool tool;
 
 	@BeforeEach
@@ -25,7 +30,7 @@ class GetRisksOverviewToolTest {
 		properties.setApiUrl(URI.create("https://coroot.example.com"));
 		properties.setDefaultProjectId("production");
 
-		tool = new GetRisksOverviewTool(new StubCorootClient(), properties, objectMapper);
+		tool = new GetRisksOverviewTool(new StubCorootClient(), properties, objectMapper, snapshots);
 	}
 
 	@Test
@@ -43,7 +48,7 @@ class GetRisksOverviewToolTest {
 		// given
 		CorootProperties emptyProps = new CorootProperties();
 		GetRisksOverviewTool toolWithoutDefault = new GetRisksOverviewTool(
-				new StubCorootClient(), emptyProps, objectMapper);
+				new StubCorootClient(), emptyProps, objectMapper, snapshots);
 
 		ObjectNode args = objectMapper.createObjectNode();
 
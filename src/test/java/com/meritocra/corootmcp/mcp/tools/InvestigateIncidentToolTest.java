@@ -4,13 +4,26 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
+import com.meritocra.corootmcp.config.LlmProperties;
+import com.meritocra.corootmcp.coroot.IncidentContext;
+import com.meritocra.corootmcp.coroot.StaleResponses;
 import com.meritocra.corootmcp.coroot.StubCorootClient;
+import com.meritocra.corootmcp.llm.LlmGateway;
+import com.meritocra.corootmcp.mcp.ToolProgress;
 import com.meritocra.corootmcp.support.FakeChatModel;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.chat.client.ChatClient;
@@ -27,9 +40,10 @@ class InvestigateIncidentToolTest {
 		properties.setApiUrl(URI.create("https://coroot.example.com"));
 		properties.setDefaultProjectId("production");
 
-		ChatClient chatClient = ChatClient.builder(new FakeChatModel()).build();
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
 
-		tool = new InvestigateIncidentTool(new StubCorootClient(), properties, chatClient, objectMapper);
+		tool = new InvestigateIncidentTool(new StubCorootClient(), properties, llmGateway, objectMapper);
 	}
 
 	@Test
@@ -46,10 +60,11 @@ class InvestigateIncidentToolTest {
 	void givenNoProjectIdAndNoDefault_whenCallingTool_thenFailsWithHelpfulError() {
 		// given
 		CorootProperties emptyProps = new CorootProperties();
-		ChatClient chatClient = ChatClient.builder(new FakeChatModel()).build();
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
 
 		InvestigateIncidentTool toolWithoutDefault = new InvestigateIncidentTool(
-				new StubCorootClient(), emptyProps, chatClient, objectMapper);
+				new StubCorootClient(), emptyProps, llmGateway, objectMapper);
 
 		ObjectNode args = objectMapper.createObjectNode();
 		args.put("incidentId", "incident-1");
@@ -98,6 +113,185 @@ class InvestigateIncidentToolTest {
 		var json = jsonItem.path("json");
 		assertThat(json.path("incidentId").asText()).isEqualTo("incident-1");
 		assertThat(json.path("projectId").asText()).isEqualTo("production");
+		assertThat(json.path("evidenceCompaction").path("budgetTokens").asInt()).isEqualTo(12_000);
+		assertThat(json.path("evidenceCompaction").path("pruned")).isEmpty();
+	}
+
+	@Test
+	void givenSlowEvidenceSource_whenCallingTool_thenReportsMissingEvidenceInsteadOfFailing() {
+		// given
+		CorootProperties properties = new CorootProperties();
+		properties.setDefaultProjectId("production");
+		properties.getInvestigation().setSourceTimeout(Duration.ofMillis(200));
+
+		StubCorootClient slowLogsClient = new StubCorootClient() {
+			@Override
+			public Map<String, Object> getLogsOverview(String projectId, String query) {
+				try {
+					Thread.sleep(5_000);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return super.getLogsOverview(projectId, query);
+			}
+		};
+
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
+		InvestigateIncidentTool slowTool = new InvestigateIncidentTool(slowLogsClient, properties, llmGateway,
+				objectMapper);
+
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("incidentId", "incident-1");
+
+		// when
+		ObjectNode result = slowTool.call(args);
+
+		// then
+		var json = result.path("content").get(1).path("json");
+		assertThat(json.path("evidenceCompleteness").asText()).isEqualTo("partial");
+		assertThat(json.path("missingEvidence")).extracting(node -> node.asText()).containsExactly("logsOverview");
+		assertThat(json.path("evidenceStatus").path("logsOverview").path("status").asText()).isEqualTo("timeout");
+		assertThat(json.path("evidenceStatus").path("sloOverview").path("status").asText()).isEqualTo("complete");
+		assertThat(json.path("sloOverview").isObject()).isTrue();
+	}
+
+	@Test
+	void givenStaleEvidenceSource_whenCallingTool_thenReportsItAsStaleAndPartial() {
+		// given
+		Instant fetchedAt = Instant.parse("2025-11-17T09:45:00Z");
+		StubCorootClient staleSloClient = new StubCorootClient() {
+			@Override
+			public Map<String, Object> getSloOverview(String projectId) {
+				return StaleResponses.map(super.getSloOverview(projectId), fetchedAt);
+			}
+		};
+		CorootProperties properties = new CorootProperties();
+		properties.setDefaultProjectId("production");
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
+		InvestigateIncidentTool staleTool = new InvestigateIncidentTool(staleSloClient, properties, llmGateway,
+				objectMapper);
+
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("incidentId", "incident-1");
+
+		// when
+		ObjectNode result = staleTool.call(args);
+
+		// then
+		var json = result.path("content").get(1).path("json");
+		assertThat(json.path("evidenceCompleteness").asText()).isEqualTo("partial");
+		assertThat(json.path("missingEvidence")).isEmpty();
+		assertThat(json.path("staleEvidence")).extracting(node -> node.asText()).containsExactly("sloOverview");
+		assertThat(json.path("evidenceStatus").path("sloOverview").path("status").asText()).isEqualTo("stale");
+		assertThat(json.path("evidenceStatus").path("sloOverview").path("fetchedAt").asText())
+				.isEqualTo("2025-11-17T09:45:00Z");
+		assertThat(json.path("sloOverview").isObject()).isTrue();
+	}
+
+	@Test
+	void givenCachingGateway_whenInvestigatingTwice_thenSecondSummaryIsServedFromCache() {
+		// given
+		CorootProperties properties = new CorootProperties();
+		properties.setDefaultProjectId("production");
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(), meterRegistry,
+				new LlmProperties(), "gpt-4.1");
+		// The stub dates its incidents from now; Coroot returns the same ones on every call.
+		StubCorootClient stableClient = new StubCorootClient() {
+
+			private IncidentContext context;
+
+			@Override
+			public synchronized IncidentContext getIncidentContext(String projectId, String incidentId) {
+				if (context == null) {
+					context = super.getIncidentContext(projectId, incidentId);
+				}
+				return context;
+			}
+
+		};
+		InvestigateIncidentTool cachingTool = new InvestigateIncidentTool(stableClient, properties, llmGateway,
+				objectMapper);
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("incidentId", "incident-1");
+		cachingTool.call(args);
+
+		// when
+		cachingTool.call(args);
+		cachingTool.call(args.put("audience", "executive"));
+
+		// then
+		assertThat(meterRegistry.get("llm.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("llm.cache.requests").tag("result", "miss").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void givenSourceTimeoutAboveOverallTimeout_whenCreatingTool_thenFails() {
+		// given
+		CorootProperties properties = new CorootProperties();
+		properties.getInvestigation().setSourceTimeout(Duration.ofSeconds(20));
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
+
+		// when / then
+		assertThatThrownBy(() -> new InvestigateIncidentTool(new StubCorootClient(), properties, llmGateway,
+				objectMapper))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("source-timeout must not exceed");
+	}
+
+	@Test
+	void givenProgressSink_whenCallingTool_thenReportsEachEvidenceSourceBeforeTheSummary() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("incidentId", "incident-1");
+		List<String> messages = new CopyOnWriteArrayList<>();
+		List<Integer> steps = new CopyOnWriteArrayList<>();
+		List<Integer> totals = new CopyOnWriteArrayList<>();
+
+		// when
+		tool.call(args, (progress, total, message) -> {
+			steps.add(progress);
+			totals.add(total);
+			messages.add(message);
+		});
+
+		// then
+		assertThat(messages.get(0)).isEqualTo("Loaded incident context");
+		assertThat(messages.get(messages.size() - 1)).isEqualTo("Generating RCA summary");
+		assertThat(messages).anyMatch(message -> message.startsWith("Collected sloOverview"));
+		assertThat(steps).containsExactlyElementsOf(IntStream.range(1, steps.size() + 1).boxed().toList());
+		assertThat(totals).containsOnly(steps.size());
+	}
+
+	@Test
+	void givenPartialContentSink_whenCallingTool_thenStreamsTheSummaryAsItIsGenerated() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("incidentId", "incident-1");
+		List<String> partials = new CopyOnWriteArrayList<>();
+		ToolProgress progress = new ToolProgress() {
+
+			@Override
+			public void report(int progress, int total, String message) {
+			}
+
+			@Override
+			public void partial(String text) {
+				partials.add(text);
+			}
+
+		};
+
+		// when
+		ObjectNode result = tool.call(args, progress);
+
+		// then
+		assertThat(String.join("", partials)).isEqualTo("FAKE_SUMMARY");
+		assertThat(result.path("content").get(0).path("text").asText()).isEqualTo("FAKE_SUMMARY");
 	}
 
 }
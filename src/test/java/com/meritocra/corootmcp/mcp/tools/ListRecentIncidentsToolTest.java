@@ -114,4 +114,33 @@ class ListRecentIncidentsToolTest {
 		// Stub client returns 2 incidents; clamping to 50 should still include both.
 		assertThat(content.get(0).path("json").size()).isEqualTo(2);
 	}
+
+	@Test
+	void givenServiceAndSinceFilters_whenCallingTool_thenReturnsOnlyMatchingIncidents() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("minimumSeverity", IncidentSeverity.INFO.name());
+		args.put("service", "catalog-service");
+		args.put("since", "2000-01-01T00:00:00Z");
+
+		// when
+		ObjectNode result = tool.call(args);
+
+		// then
+		var incidents = result.path("content").get(0).path("json");
+		assertThat(incidents).hasSize(1);
+		assertThat(incidents.get(0).path("id").asText()).isEqualTo("inc-2");
+	}
+
+	@Test
+	void givenMalformedSince_whenCallingTool_thenFailsWithHelpfulError() {
+		// given
+		ObjectNode args = objectMapper.createObjectNode();
+		args.put("since", "yesterday");
+
+		// when / then
+		assertThatThrownBy(() -> tool.call(args))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("ISO-8601");
+	}
 }
@@ -0,0 +1,65 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.jupiter.api.Test;
+
+class OverviewQueryTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final OverviewQuery<Host> query = new OverviewQuery<>("name", Host::name,
+			Map.of("cluster", Host::cluster), Map.of("cpu", Host::cpu), List.of("name", "cluster", "cpu"));
+
+	private final List<Host> hosts = List.of(new Host("db-1", "eu", 40), new Host("db-2", "us", 95),
+			new Host("web-1", "eu", Double.NaN), new Host("web-2", "eu", 70), new Host("web-3", "eu", 70),
+			new Host("db-3", "eu", 10));
+
+	@Test
+	void givenSortByAndLimit_whenApplying_thenKeepsTopEntriesAndInputOrderOnTies() {
+		// given
+		ObjectNode arguments = objectMapper.createObjectNode();
+		arguments.putArray("cluster").add("EU");
+		arguments.put("sortBy", "cpu");
+		arguments.put("limit", 3);
+
+		// when
+		List<Host> top = query.apply(hosts, arguments);
+		List<Host> bottom = query.apply(hosts, arguments.put("order", "asc").put("limit", 10));
+
+		// then
+		assertThat(top).extracting(Host::name).containsExactly("web-2", "web-3", "db-1");
+		assertThat(bottom).extracting(Host::name).containsExactly("db-3", "db-1", "web-2", "web-3", "web-1");
+	}
+
+	@Test
+	void givenNameGlobAndProjection_whenApplying_thenFiltersAndAlwaysKeepsName() {
+		// given
+		ObjectNode arguments = objectMapper.createObjectNode();
+		arguments.put("name", "DB-*");
+		arguments.put("cluster", "eu, us");
+		arguments.putArray("fields").add("cpu");
+
+		// when
+		List<Host> matching = query.apply(hosts, arguments);
+
+		// then
+		assertThat(matching).extracting(Host::name).containsExactly("db-1", "db-2", "db-3");
+		assertThat(query.projection(arguments)).containsExactly("name", "cpu");
+		assertThat(query.projection(objectMapper.createObjectNode())).isNull();
+		assertThatThrownBy(() -> query.apply(hosts, objectMapper.createObjectNode().put("sortBy", "memory")))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("sortBy must be one of");
+	}
+
+	private record Host(String name, String cluster, double cpu) {
+	}
+
+}
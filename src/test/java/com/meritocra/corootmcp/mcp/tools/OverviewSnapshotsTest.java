@@ -0,0 +1,178 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.meritocra.corootmcp.config.McpProperties;
+import com.meritocra.corootmcp.coroot.StaleResponses;
+
+import org.junit.jupiter.api.Test;
+
+class OverviewSnapshotsTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final McpProperties.Pagination properties = new McpProperties.Pagination();
+
+	private final MutableClock clock = new MutableClock();
+
+	@Test
+	void givenSnapshotIdleLongerThanTtl_whenReadingNextPage_thenCursorIsRejected() {
+		// given
+		OverviewSnapshots snapshots = new OverviewSnapshots(properties, clock);
+		OverviewSnapshots.Page<Integer> first = snapshots.page("tool", "production", arguments(10, null), () -> numbers(25));
+		clock.advance(properties.getSnapshotTtl().minusSeconds(1));
+		OverviewSnapshots.Page<Integer> second = snapshots.page("tool", "production", arguments(0, first.nextCursor()), List::of);
+
+		// when
+		clock.advance(properties.getSnapshotTtl());
+
+		// then
+		assertThat(second.entries()).containsExactlyElementsOf(numbers(25).subList(10, 20));
+		assertThatThrownBy(() -> snapshots.page("tool", "production", arguments(0, second.nextCursor()), List::of))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("cursor has expired");
+		assertThat(snapshots.size()).isZero();
+		assertThat(snapshots.heldEntries()).isZero();
+	}
+
+	@Test
+	void givenEntryBudgetReached_whenTakingAnotherSnapshot_thenLeastRecentlyReadIsDropped() {
+		// given
+		properties.setMaxSnapshotEntries(50);
+		OverviewSnapshots snapshots = new OverviewSnapshots(properties, clock);
+		String older = snapshots.page("tool", "production", arguments(10, null), () -> numbers(20)).nextCursor();
+		String recent = snapshots.page("tool", "production", arguments(10, null), () -> numbers(20)).nextCursor();
+		snapshots.page("tool", "production", arguments(0, older), List::of);
+
+		// when
+		snapshots.page("tool", "production", arguments(10, null), () -> numbers(20));
+
+		// then
+		assertThat(snapshots.size()).isEqualTo(2);
+		assertThat(snapshots.heldEntries()).isEqualTo(40);
+		assertThat(snapshots.page("tool", "production", arguments(0, older), List::of).entries())
+			.containsExactlyElementsOf(numbers(20).subList(10, 20));
+		assertThatThrownBy(() -> snapshots.page("tool", "production", arguments(0, recent), List::of))
+			.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> snapshots.page("other_tool", "production", arguments(0, older), List::of))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void givenCursorFromAnotherProjectOrFilter_whenReadingNextPage_thenCursorIsRejected() {
+		// given
+		OverviewSnapshots snapshots = new OverviewSnapshots(properties, clock);
+		ObjectNode first = arguments(10, null);
+		first.putArray("cluster").add("eu");
+		String cursor = snapshots.page("tool", "production", first, () -> numbers(20)).nextCursor();
+		ObjectNode next = arguments(10, cursor);
+		next.putArray("cluster").add("eu");
+		next.putArray("fields").add("name");
+
+		// when
+		OverviewSnapshots.Page<Integer> page = snapshots.page("tool", "production", next, List::of);
+
+		// then
+		assertThat(page.entries()).containsExactlyElementsOf(numbers(20).subList(10, 20));
+		assertThatThrownBy(() -> snapshots.page("tool", "staging", next, List::of))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("another projectId or other filters");
+		assertThatThrownBy(() -> snapshots.page("tool", "production", arguments(10, cursor), List::of))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("another projectId or other filters");
+	}
+
+	@Test
+	void givenResultAboveEntryBudget_whenPaging_thenKeepsBudgetAndFlagsTruncation() {
+		// given
+		properties.setMaxSnapshotEntries(1000);
+		OverviewSnapshots snapshots = new OverviewSnapshots(properties, clock);
+
+		// when
+		OverviewSnapshots.Page<Integer> first = snapshots.page("tool", "production", arguments(600, null),
+				() -> numbers(1500));
+		OverviewSnapshots.Page<Integer> last = snapshots.page("tool", "production", arguments(600, first.nextCursor()),
+				List::of);
+
+		// then
+		assertThat(first.total()).isEqualTo(1000);
+		assertThat(first.truncated()).isTrue();
+		assertThat(last.entries()).containsExactlyElementsOf(numbers(1000).subList(600, 1000));
+		assertThat(last.nextCursor()).isNull();
+		assertThat(last.truncated()).isTrue();
+		ObjectNode jsonItem = objectMapper.createObjectNode();
+		last.writeTo(jsonItem);
+		assertThat(jsonItem.path("page").path("truncated").asBoolean()).isTrue();
+	}
+
+	@Test
+	void givenStaleCorootResponse_whenPaging_thenEveryPageIsFlaggedStale() {
+		// given
+		OverviewSnapshots snapshots = new OverviewSnapshots(properties, clock);
+		Instant fetchedAt = clock.instant().minus(Duration.ofMinutes(5));
+
+		// when
+		OverviewSnapshots.Page<Integer> first = snapshots.page("tool", "production", arguments(10, null),
+				() -> StaleResponses.list(numbers(15), fetchedAt));
+		OverviewSnapshots.Page<Integer> last = snapshots.page("tool", "production", arguments(10, first.nextCursor()),
+				List::of);
+
+		// then
+		assertThat(first.fetchedAt()).isEqualTo(fetchedAt);
+		ObjectNode jsonItem = objectMapper.createObjectNode();
+		last.writeTo(jsonItem);
+		assertThat(jsonItem.path("stale").asBoolean()).isTrue();
+		assertThat(jsonItem.path("fetchedAt").asText()).isEqualTo(fetchedAt.toString());
+	}
+
+	private ObjectNode arguments(int pageSize, String cursor) {
+		ObjectNode arguments = objectMapper.createObjectNode();
+		if (pageSize > 0) {
+			arguments.put("pageSize", pageSize);
+		}
+		if (cursor != null) {
+			arguments.put("cursor", cursor);
+		}
+		return arguments;
+	}
+
+	private static List<Integer> numbers(int count) {
+		return IntStream.range(0, count).boxed().toList();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.now();
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+}
@@ -9,8 +9,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.meritocra.corootmcp.config.CorootProperties;
 import com.meritocra.corootmcp.coroot.StubCorootClient;
+import com.meritocra.corootmcp.llm.LlmGateway;
 import com.meritocra.corootmcp.support.FakeChatModel;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ai.chat.client.ChatClient;
@@ -27,8 +30,9 @@ class SummarizeIncidentRootCauseToolTest {
 		properties.setApiUrl(URI.create("https://coroot.example.com"));
 		properties.setDefaultProjectId("production");
 
-		ChatClient chatClient = ChatClient.builder(new FakeChatModel()).build();
-		tool = new SummarizeIncidentRootCauseTool(new StubCorootClient(), properties, chatClient, objectMapper);
+		LlmGateway llmGateway = new LlmGateway(ChatClient.builder(new FakeChatModel()).build(),
+				new SimpleMeterRegistry());
+		tool = new SummarizeIncidentRootCauseTool(new StubCorootClient(), properties, llmGateway, objectMapper);
 	}
 
 	@Test
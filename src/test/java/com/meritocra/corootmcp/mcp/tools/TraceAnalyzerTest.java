@@ -0,0 +1,72 @@
+package com.meritocra.corootmcp.mcp.tools;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.junit.jupiter.api.Test;
+
+class TraceAnalyzerTest {
+
+	@Test
+	void givenSpanTree_whenAnalyzing_thenFollowsCriticalPathAndComputesSelfTime() {
+		// given
+		// root 0..100 calls db 10..40 and, in parallel, cache 20..90 which calls auth 30..60
+		TraceAnalyzer analyzer = new TraceAnalyzer();
+		analyzer.add("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7", "", "frontend", "GET /checkout", 0, 100,
+				false);
+		analyzer.add("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b8", "00f067aa0ba902b7", "postgres", "SELECT",
+				10, 30, false);
+		analyzer.add("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b9", "00f067aa0ba902b7", "cart", "GET /cart",
+				20, 70, true);
+		analyzer.add("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902ba", "00f067aa0ba902b9", "auth", "verify", 30,
+				30, false);
+
+		// when
+		TraceAnalyzer.Result result = analyzer.analyze();
+
+		// then
+		assertThat(result.traces()).isEqualTo(1);
+		assertThat(result.errorSpans()).isEqualTo(1);
+		assertThat(result.orphanSpans()).isZero();
+		TraceAnalyzer.Trace trace = result.slowestTraces().get(0);
+		assertThat(trace.durationMs()).isEqualTo(100.0);
+		// frontend 0..10 and 90..100, postgres 10..20, cart 20..30 and 60..90, auth 30..60
+		assertThat(trace.criticalPath()).containsExactly(
+				new TraceAnalyzer.PathStep("cart", "GET /cart", 40.0),
+				new TraceAnalyzer.PathStep("auth", "verify", 30.0),
+				new TraceAnalyzer.PathStep("frontend", "GET /checkout", 20.0),
+				new TraceAnalyzer.PathStep("postgres", "SELECT", 10.0));
+		assertThat(result.operations()).filteredOn(op -> op.service().equals("frontend"))
+				.singleElement()
+				.satisfies(op -> assertThat(op.selfMs()).isEqualTo(20.0));
+	}
+
+	@Test
+	void givenSpansOfSeveralTraces_whenRenderingJson_thenRanksTracesAndHotSpots() {
+		// given
+		TraceAnalyzer analyzer = new TraceAnalyzer();
+		analyzer.add(Map.of("trace_id", "t1", "id", "a", "service", "api", "name", "GET", "timestamp", 0,
+				"duration", 50, "status", Map.of("error", true)));
+		analyzer.add(Map.of("trace_id", "t2", "id", "a", "service", "api", "name", "GET", "timestamp", 0,
+				"duration", 200, "status", "OK"));
+		analyzer.add(Map.of("trace_id", "t2", "id", "b", "parent_id", "missing", "service", "db", "name", "query",
+				"timestamp", 10, "duration", 20, "status", "STATUS_CODE_ERROR"));
+
+		// when
+		ObjectNode json = analyzer.analyze().toJson(new ObjectMapper(), 1, 10);
+
+		// then
+		assertThat(json.path("spans").asInt()).isEqualTo(3);
+		assertThat(json.path("traces").asInt()).isEqualTo(2);
+		assertThat(json.path("orphanSpans").asInt()).isEqualTo(1);
+		assertThat(json.path("slowestTraces")).hasSize(1);
+		assertThat(json.path("slowestTraces").get(0).path("traceId").asText()).isEqualTo("t2");
+		assertThat(json.path("latencyHotSpots").get(0).path("service").asText()).isEqualTo("api");
+		assertThat(json.path("errorHotSpots")).hasSize(2);
+	}
+
+}
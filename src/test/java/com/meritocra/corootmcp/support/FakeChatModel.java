@@ -8,6 +8,8 @@ import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 
+import reactor.core.publisher.Flux;
+
 public class FakeChatModel implements ChatModel {
 
 	@Override
@@ -15,4 +17,10 @@ public class FakeChatModel implements ChatModel {
 		Generation generation = new Generation(new AssistantMessage("FAKE_SUMMARY"));
 		return new ChatResponse(List.of(generation));
 	}
+
+	@Override
+	public Flux<ChatResponse> stream(Prompt prompt) {
+		return Flux.just("FAKE_", "SUMMARY")
+				.map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+	}
 }